@@ -0,0 +1,49 @@
+-- study_log 인덱스/BIGINT 변환 전후 비교용 스크립트 (개발 DB 전용)
+-- 1) 앱을 한 번 띄워 테이블을 만든 뒤 이 스크립트로 1천만 건을 채움
+-- 2) EXPLAIN ANALYZE 결과와 실행 시간을 기록
+-- 3) 앱을 다시 띄워 DataMigrationService가 변환/인덱스 생성을 끝낸 뒤 2)를 다시 실행
+--
+-- 가정: 길드 50개, 유저 20,000명, 최근 1년, 기록당 10분~3시간
+
+SET SESSION cte_max_recursion_depth = 10000000;
+
+INSERT INTO study_log (guild_id, guild_name, user_id, user_name, start_time, end_time, created_at)
+WITH RECURSIVE seq (n) AS (
+    SELECT 1
+    UNION ALL
+    SELECT n + 1 FROM seq WHERE n < 10000000
+)
+SELECT 1100000000000000000 + (n % 50),
+       CONCAT('guild-', n % 50),
+       1200000000000000000 + ((n * 7919) % 20000),
+       CONCAT('user-', (n * 7919) % 20000),
+       start_time,
+       start_time + INTERVAL (600 + (n * 31) % 10200) SECOND,
+       start_time
+FROM (SELECT n, NOW(6) - INTERVAL ((n * 104729) % 31536000) SECOND AS start_time FROM seq) t;
+
+ANALYZE TABLE study_log;
+
+-- 주간 랭킹 (길드 + 기간)
+EXPLAIN ANALYZE
+SELECT s.user_id, SUM(TIMESTAMPDIFF(SECOND, s.start_time, s.end_time))
+FROM study_log s
+WHERE s.guild_id = 1100000000000000007
+  AND s.start_time >= NOW() - INTERVAL 7 DAY AND s.end_time <= NOW() AND s.end_time IS NOT NULL
+GROUP BY s.user_id
+ORDER BY SUM(TIMESTAMPDIFF(SECOND, s.start_time, s.end_time)) DESC
+LIMIT 10;
+
+-- 개인 일별 공부 시간 (길드 + 유저 + 기간)
+EXPLAIN ANALYZE
+SELECT DATE(s.start_time), SUM(TIMESTAMPDIFF(SECOND, s.start_time, s.end_time))
+FROM study_log s
+WHERE s.guild_id = 1100000000000000007 AND s.user_id = 1200000000000000123
+  AND s.start_time >= NOW() - INTERVAL 1 YEAR AND s.end_time IS NOT NULL
+GROUP BY DATE(s.start_time);
+
+-- 최근 기록 조회 (유저 이름 조회용)
+EXPLAIN ANALYZE
+SELECT * FROM study_log s
+WHERE s.guild_id = 1100000000000000007 AND s.user_id = 1200000000000000123
+ORDER BY s.id DESC LIMIT 1;
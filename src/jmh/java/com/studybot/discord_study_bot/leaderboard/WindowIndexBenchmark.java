@@ -0,0 +1,109 @@
+package com.studybot.discord_study_bot.leaderboard;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 임의 기간 상위 10명: WindowIndex(사용자별 누적합 + 힙)와 GROUP BY 방식(기간 내 일별 행을 모두 합산) 비교
+ * 2년치 일별 집계에서 기간 길이를 1일 ~ 2년으로 바꿔 가며 측정
+ *
+ * 실행: ./gradlew jmh
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class WindowIndexBenchmark {
+
+    private static final int HISTORY_DAYS = 730;
+    private static final int LIMIT = 10;
+
+    @Param({"1", "7", "30", "90", "365", "730"})
+    private int windowDays;
+
+    @Param({"1000", "10000"})
+    private int users;
+
+    private WindowIndex index;
+    // study_daily_agg를 (day, user) 순서로 읽었을 때의 행 (day 범위로 자른 뒤 합산)
+    private int[] rowDays;
+    private long[] rowUsers;
+    private long[] rowSeconds;
+    private int[] dayOffsets;
+
+    private LocalDate from;
+    private LocalDate to;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        SplittableRandom random = new SplittableRandom(42);
+        LocalDate firstDay = LocalDate.now().minusDays(HISTORY_DAYS - 1);
+        index = new WindowIndex();
+
+        List<long[]> rows = new ArrayList<>();
+        dayOffsets = new int[HISTORY_DAYS + 1];
+        for (int d = 0; d < HISTORY_DAYS; d++) {
+            dayOffsets[d] = rows.size();
+            LocalDate day = firstDay.plusDays(d);
+            for (int u = 0; u < users; u++) {
+                // 하루에 사용자의 약 30%가 공부한다고 가정
+                if (random.nextInt(10) < 3) {
+                    long seconds = 600 + random.nextInt(6 * 3600);
+                    index.add(u, day, seconds);
+                    rows.add(new long[]{d, u, seconds});
+                }
+            }
+        }
+        dayOffsets[HISTORY_DAYS] = rows.size();
+
+        rowDays = new int[rows.size()];
+        rowUsers = new long[rows.size()];
+        rowSeconds = new long[rows.size()];
+        for (int i = 0; i < rows.size(); i++) {
+            rowDays[i] = (int) rows.get(i)[0];
+            rowUsers[i] = rows.get(i)[1];
+            rowSeconds[i] = rows.get(i)[2];
+        }
+
+        to = firstDay.plusDays(HISTORY_DAYS - 1);
+        from = to.minusDays(windowDays - 1);
+    }
+
+    @Benchmark
+    public List<Leaderboard.Entry> prefixSumTop() {
+        return index.top(from, to, LIMIT, -1L, Map.of());
+    }
+
+    @Benchmark
+    public List<Leaderboard.Entry> groupByTop() {
+        Map<Long, Long> totals = new HashMap<>();
+        for (int i = dayOffsets[HISTORY_DAYS - windowDays]; i < dayOffsets[HISTORY_DAYS]; i++) {
+            totals.merge(rowUsers[i], rowSeconds[i], Long::sum);
+        }
+        List<Leaderboard.Entry> entries = new ArrayList<>(totals.size());
+        totals.forEach((userId, seconds) -> entries.add(new Leaderboard.Entry(userId, seconds)));
+        entries.sort((a, b) -> a.seconds() != b.seconds()
+                ? Long.compare(b.seconds(), a.seconds()) : Long.compare(a.userId(), b.userId()));
+        return entries.subList(0, Math.min(LIMIT, entries.size()));
+    }
+}
@@ -0,0 +1,131 @@
+package com.studybot.discord_study_bot.session;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jol.info.GraphLayout;
+
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * SessionIndex와 기존 "guildId:userId" 문자열 키 ConcurrentHashMap 비교
+ * - 처리량: 음성 이벤트 한 번에 해당하는 조회/생성
+ * - 메모리: 세션 1개당 바이트 (JOL로 측정, TearDown에서 출력)
+ *
+ * 실행: ./gradlew jmh
+ * 할당량까지 보려면 build.gradle의 jmh 블록에 profilers = ['gc'] 추가
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@Threads(4)
+public class SessionIndexBenchmark {
+
+    // 실제 스노우플레이크 범위의 ID를 쓰기 위한 기준값
+    private static final long SNOWFLAKE_BASE = 1_100_000_000_000_000_000L;
+
+    @Param({"10000", "100000", "1000000"})
+    private int sessions;
+
+    private long[] guildIds;
+    private long[] userIds;
+    private String[] guildIdStrings;
+    private String[] userIdStrings;
+
+    private SessionIndex index;
+    private Map<String, StudySession> stringMap;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        SplittableRandom random = new SplittableRandom(42);
+        guildIds = new long[sessions];
+        userIds = new long[sessions];
+        guildIdStrings = new String[sessions];
+        userIdStrings = new String[sessions];
+        index = new SessionIndex();
+        stringMap = new ConcurrentHashMap<>();
+
+        for (int i = 0; i < sessions; i++) {
+            // 길드 수는 세션 수의 1/50 정도로 가정
+            guildIds[i] = SNOWFLAKE_BASE + random.nextInt(Math.max(1, sessions / 50));
+            userIds[i] = SNOWFLAKE_BASE + random.nextLong(1L << 40);
+            // 이벤트에서 받는 ID 문자열은 JDA가 이미 가지고 있으므로 미리 만들어 둠
+            guildIdStrings[i] = Long.toString(guildIds[i]);
+            userIdStrings[i] = Long.toString(userIds[i]);
+
+            StudySession session = new StudySession(guildIds[i], userIds[i]);
+            index.getOrCreate(guildIds[i], userIds[i]);
+            stringMap.put(guildIdStrings[i] + ":" + userIdStrings[i], session);
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void reportFootprint() {
+        // 세션 객체 자체는 양쪽 공통이므로 제외하고 인덱스 구조만 비교
+        long sessionBytes = GraphLayout.parseInstance((Object[]) collectSessions()).totalSize();
+        long indexBytes = GraphLayout.parseInstance(index).totalSize() - sessionBytes;
+        long mapBytes = GraphLayout.parseInstance(stringMap).totalSize() - sessionBytes;
+        System.out.printf("%n[footprint] sessions=%d SessionIndex=%.1f B/session, ConcurrentHashMap<String>=%.1f B/session%n",
+                sessions, (double) indexBytes / sessions, (double) mapBytes / sessions);
+    }
+
+    private StudySession[] collectSessions() {
+        StudySession[] all = new StudySession[sessions];
+        int[] i = {0};
+        index.forEach(session -> all[i[0]++] = session);
+        return all;
+    }
+
+    @State(Scope.Thread)
+    public static class Cursor {
+        private final SplittableRandom random = new SplittableRandom();
+
+        int next(int bound) {
+            return random.nextInt(bound);
+        }
+    }
+
+    @Benchmark
+    public StudySession sessionIndexLookup(Cursor cursor) {
+        int i = cursor.next(sessions);
+        return index.get(guildIds[i], userIds[i]);
+    }
+
+    @Benchmark
+    public StudySession stringMapLookup(Cursor cursor) {
+        int i = cursor.next(sessions);
+        return stringMap.get(guildIdStrings[i] + ":" + userIdStrings[i]);
+    }
+
+    @Benchmark
+    public StudySession sessionIndexGetOrCreate(Cursor cursor) {
+        int i = cursor.next(sessions);
+        return index.getOrCreate(guildIds[i], userIds[i]);
+    }
+
+    @Benchmark
+    public StudySession stringMapGetOrCreate(Cursor cursor) {
+        int i = cursor.next(sessions);
+        long guildId = guildIds[i];
+        long userId = userIds[i];
+        return stringMap.computeIfAbsent(guildIdStrings[i] + ":" + userIdStrings[i],
+                k -> new StudySession(guildId, userId));
+    }
+}
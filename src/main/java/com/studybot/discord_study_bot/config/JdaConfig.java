@@ -3,6 +3,8 @@ package com.studybot.discord_study_bot.config;
 import com.studybot.discord_study_bot.listener.PomodoroButtonListener;
 import com.studybot.discord_study_bot.listener.SlashCommandListener;
 import com.studybot.discord_study_bot.listener.VoiceChannelListener;
+import com.studybot.discord_study_bot.listener.VoiceEventDispatcher;
+import com.studybot.discord_study_bot.service.SessionRecoveryService;
 import lombok.RequiredArgsConstructor;
 import net.dv8tion.jda.api.JDA;
 import net.dv8tion.jda.api.JDABuilder;
@@ -12,6 +14,7 @@ import net.dv8tion.jda.api.utils.cache.CacheFlag;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.DependsOn;
 
 @Configuration // 설정을 담당하는 클래스라고 알려줌
 @RequiredArgsConstructor
@@ -24,8 +27,11 @@ public class JdaConfig {
     private final VoiceChannelListener voiceChannelListener;
     private final SlashCommandListener slashCommandListener;
     private final PomodoroButtonListener pomodoroButtonListener;
+    private final SessionRecoveryService sessionRecoveryService;
+    private final VoiceEventDispatcher voiceEventDispatcher;
 
     @Bean // JDA 객체를 spring이 관리하도록 함
+    @DependsOn("dataMigrationService") // study_log 스키마 변환이 끝난 뒤 세션 복구/이벤트 처리 시작
     public JDA jda() throws InterruptedException{
         JDA jda = JDABuilder.createDefault(token)
                 // 음성감지 권한, 메세지 권한
@@ -43,6 +49,14 @@ public class JdaConfig {
         // 봇 빌드 대기
         jda.awaitReady();
 
+        // 봇이 꺼져 있던 동안의 세션 정리 및 이미 화면공유 중인 사용자 세션 복원
+        // 그동안 받은 음성 이벤트는 레인에 쌓였다가 복구가 끝난 뒤 순서대로 처리됨
+        try {
+            sessionRecoveryService.reconcile(jda);
+        } finally {
+            voiceEventDispatcher.release();
+        }
+
         return jda;
     }
 }
@@ -3,7 +3,9 @@ package com.studybot.discord_study_bot.config;
 import jakarta.annotation.PostConstruct;
 import lombok.RequiredArgsConstructor;
 import net.dv8tion.jda.api.JDA;
+import net.dv8tion.jda.api.Permission;
 import net.dv8tion.jda.api.interactions.DiscordLocale;
+import net.dv8tion.jda.api.interactions.commands.DefaultMemberPermissions;
 import net.dv8tion.jda.api.interactions.commands.build.CommandData;
 import net.dv8tion.jda.api.interactions.commands.build.Commands;
 import org.slf4j.Logger;
@@ -124,6 +126,21 @@ public class SlashCommandRegistrar {
                         "autostart", "Auto start next phase (default: false)", false)
         );
 
+        // 8. /timezone - 서버 시간대 (서버 관리 권한이 있는 사용자만)
+        commands.add(Commands.slash("timezone", "Show or change this server's time zone for rankings")
+                .setNameLocalizations(Map.of(
+                        DiscordLocale.KOREAN, "시간대",
+                        DiscordLocale.JAPANESE, "タイムゾーン"
+                ))
+                .setDescriptionLocalizations(Map.of(
+                        DiscordLocale.KOREAN, "랭킹과 일별 기록의 기준이 되는 서버 시간대를 확인하거나 바꿉니다",
+                        DiscordLocale.JAPANESE, "ランキングと日別記録の基準となるサーバーのタイムゾーンを確認・変更します"
+                ))
+                .setDefaultPermissions(DefaultMemberPermissions.enabledFor(Permission.MANAGE_SERVER))
+                .addOption(net.dv8tion.jda.api.interactions.commands.OptionType.STRING,
+                        "zone", "IANA time zone (e.g. Asia/Seoul, Asia/Tokyo, Europe/Berlin)", false)
+        );
+
         // Discord API에 명령어 등록 (글로벌 명령어)
         jda.updateCommands().addCommands(commands).queue(
                 success -> logger.info("{} 개의 Slash Commands가 성공적으로 등록되었습니다.", commands.size()),
@@ -0,0 +1,147 @@
+package com.studybot.discord_study_bot.contribution;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+
+/**
+ * 한 사용자의 최근 1년 일별 공부 시간 (Contribution 히트맵)
+ * 날짜마다 객체를 만들지 않고 시작일 + 일별 초 배열 + 레벨 비트맵으로 보관한다.
+ *
+ * - seconds[i]: startDay + i일의 공부 시간 (초)
+ * - levels: 하루 4비트 (한 바이트에 이틀, 짝수 날이 하위 4비트). 레벨 0 ~ 4
+ *
+ * 한 번 만들면 바뀌지 않으므로 여러 요청이 함께 써도 됨
+ */
+public final class ContributionYear {
+
+    // 바이너리 형식 (모든 정수는 빅 엔디언)
+    // 'C' 'Y' 버전(1) 인코딩(0: 고정 4바이트, 1: 델타) 시작일(epoch day, 4바이트) 일수(2바이트)
+    // 이름 길이(2바이트) 이름(UTF-8) 레벨 비트맵((일수 + 1) / 2바이트) 일별 초
+    public static final byte FORMAT_VERSION = 1;
+    public static final byte ENCODING_FIXED = 0;
+    public static final byte ENCODING_DELTA = 1;
+
+    private final LocalDate startDay;
+    private final int[] seconds;
+    private final byte[] levels;
+
+    private ContributionYear(LocalDate startDay, int[] seconds) {
+        this.startDay = startDay;
+        this.seconds = seconds;
+        this.levels = new byte[(seconds.length + 1) / 2];
+        for (int i = 0; i < seconds.length; i++) {
+            levels[i >> 1] |= (byte) (level(seconds[i]) << ((i & 1) << 2));
+        }
+    }
+
+    /**
+     * [startDay, endDay] 기간의 일별 집계 행으로 생성
+     *
+     * @param rows [날짜, 공부시간(초)] 배열의 리스트 (기간 밖의 날짜는 무시)
+     */
+    public static ContributionYear of(LocalDate startDay, LocalDate endDay, Iterable<Object[]> rows) {
+        int length = (int) (endDay.toEpochDay() - startDay.toEpochDay()) + 1;
+        int[] seconds = new int[Math.max(0, length)];
+        for (Object[] row : rows) {
+            int index = (int) (LocalDate.parse(row[0].toString()).toEpochDay() - startDay.toEpochDay());
+            if (index >= 0 && index < seconds.length && row[1] != null) {
+                // 하루는 86400초를 넘지 않으므로 int로 충분
+                seconds[index] = (int) Math.min(Integer.MAX_VALUE, ((Number) row[1]).longValue());
+            }
+        }
+        return new ContributionYear(startDay, seconds);
+    }
+
+    /**
+     * 공부 시간(초)에 따라 레벨 계산 (GitHub 스타일)
+     *
+     * @return 0 (없음), 1 (1시간 미만), 2 (1~2시간), 3 (2~4시간), 4 (4시간 이상)
+     */
+    public static int level(long studyTimeInSeconds) {
+        if (studyTimeInSeconds <= 0) {
+            return 0;
+        } else if (studyTimeInSeconds < 3600) {
+            return 1;
+        } else if (studyTimeInSeconds < 2 * 3600) {
+            return 2;
+        } else if (studyTimeInSeconds < 4 * 3600) {
+            return 3;
+        }
+        return 4;
+    }
+
+    public LocalDate getStartDay() {
+        return startDay;
+    }
+
+    public LocalDate getEndDay() {
+        return startDay.plusDays(seconds.length - 1L);
+    }
+
+    public int days() {
+        return seconds.length;
+    }
+
+    public int secondsAt(int index) {
+        return seconds[index];
+    }
+
+    public int levelAt(int index) {
+        return (levels[index >> 1] >> ((index & 1) << 2)) & 0x0F;
+    }
+
+    /**
+     * 바이너리 형식으로 인코딩
+     * 델타 인코딩은 전날과의 차이를 zigzag varint로 저장 (공부하지 않은 날이 이어지면 하루 1바이트)
+     */
+    public byte[] encode(String userName, byte encoding) {
+        byte[] name = userName != null ? userName.getBytes(StandardCharsets.UTF_8) : new byte[0];
+        int nameLength = Math.min(name.length, 0xFFFF);
+        ByteArrayOutputStream out = new ByteArrayOutputStream(
+                16 + nameLength + levels.length + seconds.length * (encoding == ENCODING_DELTA ? 2 : 4));
+        out.write('C');
+        out.write('Y');
+        out.write(FORMAT_VERSION);
+        out.write(encoding);
+        writeInt(out, (int) startDay.toEpochDay());
+        writeShort(out, seconds.length);
+        writeShort(out, nameLength);
+        out.write(name, 0, nameLength);
+        out.write(levels, 0, levels.length);
+
+        if (encoding == ENCODING_DELTA) {
+            int previous = 0;
+            for (int value : seconds) {
+                int delta = value - previous;
+                writeVarint(out, (delta << 1) ^ (delta >> 31));
+                previous = value;
+            }
+        } else {
+            for (int value : seconds) {
+                writeInt(out, value);
+            }
+        }
+        return out.toByteArray();
+    }
+
+    private static void writeInt(ByteArrayOutputStream out, int value) {
+        out.write(value >>> 24);
+        out.write(value >>> 16);
+        out.write(value >>> 8);
+        out.write(value);
+    }
+
+    private static void writeShort(ByteArrayOutputStream out, int value) {
+        out.write(value >>> 8);
+        out.write(value);
+    }
+
+    private static void writeVarint(ByteArrayOutputStream out, int value) {
+        while ((value & ~0x7F) != 0) {
+            out.write((value & 0x7F) | 0x80);
+            value >>>= 7;
+        }
+        out.write(value);
+    }
+}
@@ -1,23 +1,51 @@
 package com.studybot.discord_study_bot.controller;
 
+import com.studybot.discord_study_bot.contribution.ContributionYear;
+import com.studybot.discord_study_bot.dto.BatchStatisticsRequest;
 import com.studybot.discord_study_bot.dto.ContributionHeatmapDto;
+import com.studybot.discord_study_bot.dto.GuildHeatmapDto;
 import com.studybot.discord_study_bot.dto.HeatmapDto;
 import com.studybot.discord_study_bot.dto.PersonalStatsDto;
 import com.studybot.discord_study_bot.dto.RankingDto;
+import com.studybot.discord_study_bot.dto.RankingHistoryDto;
 import com.studybot.discord_study_bot.dto.StreakDto;
+import com.studybot.discord_study_bot.leaderboard.LeaderboardPeriod;
+import com.studybot.discord_study_bot.live.LiveEventHub;
+import com.studybot.discord_study_bot.service.BatchStatisticsService;
+import com.studybot.discord_study_bot.service.GuildTimeZoneService;
 import com.studybot.discord_study_bot.service.RankingService;
+import com.studybot.discord_study_bot.service.RankingSnapshotService;
+import com.studybot.discord_study_bot.service.StatisticsQueryExecutor;
 import com.studybot.discord_study_bot.service.StatisticsService;
+import com.studybot.discord_study_bot.service.StatisticsVersionTracker;
 import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+import org.springframework.web.server.ResponseStatusException;
 
 import java.time.LocalDate;
 import java.time.LocalDateTime;
+import java.time.ZoneId;
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
 
 /**
  * 웹 통계를 위한 REST API 컨트롤러
  * 향후 웹 프론트엔드와 연동 시 사용
+ *
+ * 개인별 API(개인 통계, 히트맵, 연속 기록, Contribution)는 조건부 요청을 지원:
+ * 응답의 ETag를 If-None-Match로 보내면 그 사용자의 기록이 닫히기 전까지 304로 응답
+ *
+ * 모든 API는 CompletableFuture를 반환 (비동기 요청 처리):
+ * DB 조회는 StatisticsQueryExecutor에서 실행되고 Tomcat 스레드는 조회를 기다리지 않음.
+ * 304로 응답할 때는 null을 반환해 바로 끝냄
  */
 @RestController
 @RequestMapping("/api/statistics")
@@ -26,6 +54,19 @@ public class StatisticsController {
 
     private final RankingService rankingService;
     private final StatisticsService statisticsService;
+    private final RankingSnapshotService rankingSnapshotService;
+    private final StatisticsVersionTracker statisticsVersionTracker;
+    private final StatisticsQueryExecutor queryExecutor;
+    private final BatchStatisticsService batchStatisticsService;
+    private final LiveEventHub liveEventHub;
+    private final GuildTimeZoneService guildTimeZoneService;
+
+    @Value("${statistics-batch.max-users:2000}")
+    private int batchMaxUsers;
+
+    // Contribution 히트맵 바이너리 형식 (ContributionYear.encode 참고)
+    static final String CONTRIBUTION_BINARY_VALUE = "application/vnd.studybot.contribution+binary";
+    static final String CONTRIBUTION_DELTA_VALUE = "application/vnd.studybot.contribution+delta";
 
     /**
      * 개인 통계 조회
@@ -33,15 +74,22 @@ public class StatisticsController {
      * /api/statistics/personal/{guildId}/{userId}?start=2025-01-01&end=2025-12-31
      */
     @GetMapping("/personal/{guildId}/{userId}")
-    public PersonalStatsDto getPersonalStats(
+    public CompletableFuture<PersonalStatsDto> getPersonalStats(
             @PathVariable String guildId,
             @PathVariable String userId,
             @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate start,
-            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate end) {
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate end,
+            WebRequest request) {
 
-        // 기본값: 최근 30일
-        LocalDateTime startDateTime = (start != null) ? start.atStartOfDay() : LocalDateTime.now().minusDays(30);
-        LocalDateTime endDateTime = (end != null) ? end.atTime(23, 59, 59) : LocalDateTime.now();
+        // 기간을 생략하면 오늘 기준 최근 30일
+        if (notModified(request, guildId, userId, "personal", start == null || end == null)) {
+            return null;
+        }
+
+        // 기본값: 최근 30일 (서버 시간대 기준)
+        LocalDateTime now = guildTimeZoneService.now(Long.parseLong(guildId));
+        LocalDateTime startDateTime = (start != null) ? start.atStartOfDay() : now.minusDays(30);
+        LocalDateTime endDateTime = (end != null) ? end.atTime(23, 59, 59) : now;
 
         return statisticsService.getPersonalStats(guildId, userId, startDateTime, endDateTime);
     }
@@ -51,8 +99,63 @@ public class StatisticsController {
      * GET /api/statistics/ranking/{guildId}
      */
     @GetMapping("/ranking/{guildId}")
-    public List<RankingDto> getServerRanking(@PathVariable String guildId) {
-        return rankingService.getWeeklyRanking(guildId);
+    public CompletableFuture<List<RankingDto>> getServerRanking(@PathVariable String guildId) {
+        return queryExecutor.submit(() -> rankingService.getWeeklyRanking(guildId));
+    }
+
+    /**
+     * 임의 기간 랭킹 조회 (양 끝 포함)
+     * GET /api/statistics/ranking/{guildId}/window?from=2025-09-01&to=2025-09-14&limit=10
+     */
+    @GetMapping("/ranking/{guildId}/window")
+    public CompletableFuture<List<RankingDto>> getWindowRanking(
+            @PathVariable String guildId,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+            @RequestParam(defaultValue = "10") int limit) {
+
+        if (from.isAfter(to)) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "from은 to보다 늦을 수 없습니다.");
+        }
+        int top = Math.max(1, Math.min(limit, 100));
+        return queryExecutor.submit(() -> rankingService.getWindowRanking(guildId, from, to, top));
+    }
+
+    /**
+     * 서버의 실시간 이벤트 구독 (Server-Sent Events)
+     * GET /api/statistics/live/{guildId}
+     * - session: {"userId", "active", "at"} 공부 시작/종료
+     * - pomodoro: {"channelId", "state", "currentSet", "remainingSeconds"} 공유 뽀모도로 단계 변경
+     * - leaderboard: {"period", "full", "changed": [{"userId", "rank", "seconds"}], "removed": [userId]}
+     *   구독 직후 전체 상태(full), 이후에는 순위가 바뀐 사용자만
+     * 클라이언트가 느려 버퍼가 가득 차면 서버가 연결을 끊으므로 다시 연결해야 함
+     */
+    @GetMapping(value = "/live/{guildId}", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter subscribeLiveEvents(@PathVariable String guildId) {
+        SseEmitter emitter = liveEventHub.subscribe(Long.parseLong(guildId));
+        if (emitter == null) {
+            throw new ResponseStatusException(HttpStatus.SERVICE_UNAVAILABLE, "실시간 구독자가 너무 많습니다.");
+        }
+        return emitter;
+    }
+
+    /**
+     * 지난 기간의 확정 랭킹 기록 조회 (최신순)
+     * GET /api/statistics/ranking/{guildId}/history?period=weekly&count=4&limit=10
+     */
+    @GetMapping("/ranking/{guildId}/history")
+    public CompletableFuture<List<RankingHistoryDto>> getRankingHistory(
+            @PathVariable String guildId,
+            @RequestParam(defaultValue = "weekly") String period,
+            @RequestParam(defaultValue = "4") int count,
+            @RequestParam(defaultValue = "10") int limit) {
+
+        LeaderboardPeriod snapshotPeriod = "monthly".equalsIgnoreCase(period)
+                ? LeaderboardPeriod.MONTHLY : LeaderboardPeriod.WEEKLY;
+        long guild = Long.parseLong(guildId);
+        int periods = Math.max(1, Math.min(count, 52));
+        int top = Math.max(1, Math.min(limit, 100));
+        return queryExecutor.submit(() -> rankingSnapshotService.getHistory(guild, snapshotPeriod, periods, top));
     }
 
     /**
@@ -60,22 +163,42 @@ public class StatisticsController {
      * GET /api/statistics/heatmap/{guildId}/{userId}
      */
     @GetMapping("/heatmap/{guildId}/{userId}")
-    public HeatmapDto getHeatmap(
+    public CompletableFuture<HeatmapDto> getHeatmap(
             @PathVariable String guildId,
-            @PathVariable String userId) {
+            @PathVariable String userId,
+            WebRequest request) {
 
+        if (notModified(request, guildId, userId, "heatmap", false)) {
+            return null;
+        }
         return statisticsService.getHeatmap(guildId, userId);
     }
 
+    /**
+     * 서버 시간대 히트맵 조회 (채널을 지정하면 그 채널만)
+     * GET /api/statistics/heatmap/{guildId}?channelId=123456789
+     */
+    @GetMapping("/heatmap/{guildId}")
+    public CompletableFuture<GuildHeatmapDto> getGuildHeatmap(
+            @PathVariable String guildId,
+            @RequestParam(required = false) String channelId) {
+
+        return statisticsService.getGuildHeatmap(guildId, channelId);
+    }
+
     /**
      * 연속 기록(Streak) 조회
      * GET /api/statistics/streak/{guildId}/{userId}
      */
     @GetMapping("/streak/{guildId}/{userId}")
-    public StreakDto getStreak(
+    public CompletableFuture<StreakDto> getStreak(
             @PathVariable String guildId,
-            @PathVariable String userId) {
+            @PathVariable String userId,
+            WebRequest request) {
 
+        if (notModified(request, guildId, userId, "streak", true)) {
+            return null;
+        }
         return statisticsService.getStreak(guildId, userId);
     }
 
@@ -84,19 +207,118 @@ public class StatisticsController {
      * GET /api/statistics/event-ranking/{guildId}
      */
     @GetMapping("/event-ranking/{guildId}")
-    public List<RankingDto> getEventRanking(@PathVariable String guildId) {
-        return rankingService.getEventRanking(guildId);
+    public CompletableFuture<List<RankingDto>> getEventRanking(@PathVariable String guildId) {
+        return queryExecutor.submit(() -> rankingService.getEventRanking(guildId));
+    }
+
+    /**
+     * 여러 사용자의 개인 통계 합계, 연속 기록, Contribution을 한 번에 조회 (JSON 스트리밍)
+     * GET /api/statistics/batch/{guildId}?userIds=1,2,3 (userIds 생략 시 최근 1년 안에 공부한 사용자 전체)
+     * POST /api/statistics/batch/{guildId} {"userIds": ["1", "2", "3"]} (ID가 많아 URL이 길어질 때)
+     */
+    @GetMapping("/batch/{guildId}")
+    public ResponseEntity<StreamingResponseBody> getBatchStatistics(
+            @PathVariable String guildId,
+            @RequestParam(required = false) List<String> userIds) {
+
+        return streamBatch(guildId, userIds);
+    }
+
+    @PostMapping("/batch/{guildId}")
+    public ResponseEntity<StreamingResponseBody> postBatchStatistics(
+            @PathVariable String guildId,
+            @RequestBody BatchStatisticsRequest request) {
+
+        return streamBatch(guildId, request.getUserIds());
+    }
+
+    private ResponseEntity<StreamingResponseBody> streamBatch(String guildId, List<String> userIds) {
+        long guild = Long.parseLong(guildId);
+        List<Long> requested = null;
+        if (userIds != null && !userIds.isEmpty()) {
+            if (userIds.size() > batchMaxUsers) {
+                throw new ResponseStatusException(HttpStatus.BAD_REQUEST,
+                        "한 번에 조회할 수 있는 사용자는 " + batchMaxUsers + "명까지입니다.");
+            }
+            requested = userIds.stream().map(Long::parseLong).toList();
+        }
+
+        // 사용자 목록 조회와 통계 계산은 스트리밍 스레드에서 실행 (Tomcat 스레드는 바로 반환)
+        List<Long> fixed = requested;
+        StreamingResponseBody body = out -> {
+            List<Long> ids = fixed != null ? fixed : batchStatisticsService.findActiveUserIds(guild);
+            batchStatisticsService.write(guild, ids.size() > batchMaxUsers ? ids.subList(0, batchMaxUsers) : ids, out);
+        };
+        return ResponseEntity.ok().contentType(MediaType.APPLICATION_JSON).body(body);
     }
 
     /**
      * GitHub 스타일 Contribution 히트맵 조회
      * GET /api/statistics/contribution/{guildId}/{userId}
+     * Accept 헤더로 형식 선택 (없으면 JSON)
+     * - application/json: 날짜별 {date, studyTime, level} 배열
+     * - application/vnd.studybot.contribution+binary: 일별 초를 4바이트 정수로
+     * - application/vnd.studybot.contribution+delta: 일별 초를 전날과의 차이(zigzag varint)로
      */
-    @GetMapping("/contribution/{guildId}/{userId}")
-    public ContributionHeatmapDto getContributionHeatmap(
+    @GetMapping(value = "/contribution/{guildId}/{userId}", produces = MediaType.APPLICATION_JSON_VALUE)
+    public CompletableFuture<ContributionHeatmapDto> getContributionHeatmap(
             @PathVariable String guildId,
-            @PathVariable String userId) {
+            @PathVariable String userId,
+            WebRequest request) {
 
+        if (notModified(request, guildId, userId, "contribution", true)) {
+            return null;
+        }
         return statisticsService.getContributionHeatmap(guildId, userId);
     }
+
+    @GetMapping(value = "/contribution/{guildId}/{userId}", produces = CONTRIBUTION_BINARY_VALUE)
+    public CompletableFuture<ResponseEntity<byte[]>> getContributionHeatmapBinary(
+            @PathVariable String guildId,
+            @PathVariable String userId,
+            WebRequest request) {
+
+        if (notModified(request, guildId, userId, "contribution-binary", true)) {
+            return null;
+        }
+        return encodeContribution(guildId, userId, CONTRIBUTION_BINARY_VALUE, ContributionYear.ENCODING_FIXED);
+    }
+
+    @GetMapping(value = "/contribution/{guildId}/{userId}", produces = CONTRIBUTION_DELTA_VALUE)
+    public CompletableFuture<ResponseEntity<byte[]>> getContributionHeatmapDelta(
+            @PathVariable String guildId,
+            @PathVariable String userId,
+            WebRequest request) {
+
+        if (notModified(request, guildId, userId, "contribution-delta", true)) {
+            return null;
+        }
+        return encodeContribution(guildId, userId, CONTRIBUTION_DELTA_VALUE, ContributionYear.ENCODING_DELTA);
+    }
+
+    private CompletableFuture<ResponseEntity<byte[]>> encodeContribution(String guildId, String userId,
+                                                                         String contentType, byte encoding) {
+        return statisticsService.getContributionHeatmap(guildId, userId).thenApply(heatmap -> ResponseEntity.ok()
+                .contentType(MediaType.parseMediaType(contentType))
+                .body(heatmap.getYear().encode(heatmap.getUserName(), encoding)));
+    }
+
+    /**
+     * ETag / Last-Modified를 응답에 넣고, 요청의 If-None-Match(또는 If-Modified-Since)가 맞으면 304로 응답
+     * 버전은 메모리에서만 읽으므로 304일 때는 DB를 조회하지 않음
+     *
+     * @param dependsOnToday 오늘 날짜(서버 시간대 기준)에 따라 결과가 바뀌는 API (날짜가 바뀌면 ETag도 바뀜)
+     * @return 304로 응답했으면 true (핸들러는 null 반환)
+     */
+    private boolean notModified(WebRequest request, String guildId, String userId, String variant,
+                                boolean dependsOnToday) {
+        StatisticsVersionTracker.Stamp stamp = statisticsVersionTracker.current(
+                Long.parseLong(guildId), Long.parseLong(userId));
+        ZoneId zone = guildTimeZoneService.zoneOf(guildId);
+        String tag = dependsOnToday ? variant + "-" + LocalDate.now(zone).toEpochDay() : variant;
+        boolean notModified = request.checkNotModified(statisticsVersionTracker.etag(stamp, tag),
+                statisticsVersionTracker.lastModified(stamp, dependsOnToday, zone));
+        statisticsVersionTracker.record(notModified);
+        return notModified;
+    }
 }
@@ -0,0 +1,16 @@
+package com.studybot.discord_study_bot.dto;
+
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * 일괄 통계 요청 본문
+ * userIds를 비우면 서버에서 최근 1년 안에 공부한 사용자 전체
+ */
+@Data
+@NoArgsConstructor
+public class BatchStatisticsRequest {
+    private List<String> userIds; // 문자열 (JavaScript에서 Discord ID 정밀도가 깨지지 않도록)
+}
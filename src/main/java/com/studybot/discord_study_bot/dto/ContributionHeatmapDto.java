@@ -1,28 +1,91 @@
 package com.studybot.discord_study_bot.dto;
 
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.JsonSerializer;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import com.fasterxml.jackson.databind.annotation.JsonSerialize;
+import com.studybot.discord_study_bot.contribution.ContributionYear;
 import lombok.AllArgsConstructor;
-import lombok.Data;
-import lombok.NoArgsConstructor;
+import lombok.Getter;
 
-import java.util.List;
+import java.io.IOException;
+import java.time.Year;
 
 /**
  * GitHub 스타일 Contribution 히트맵용 DTO
+ *
+ * JSON 형식은 그대로 유지:
+ * {"userId", "userName", "contributions": [{"date": "yyyy-MM-dd", "studyTime": 초, "level": 0~4}, ...]}
+ * 날짜별 객체 없이 ContributionYear 배열에서 바로 써서 만든다.
  */
-@Data
-@NoArgsConstructor
+@Getter
 @AllArgsConstructor
+@JsonSerialize(using = ContributionHeatmapDto.JsonWriter.class)
 public class ContributionHeatmapDto {
     private String userId;
     private String userName;
-    private List<DailyContribution> contributions;
-
-    @Data
-    @NoArgsConstructor
-    @AllArgsConstructor
-    public static class DailyContribution {
-        private String date; // yyyy-MM-dd 형식
-        private Long studyTime; // 공부 시간 (초)
-        private int level; // 색상 레벨 (0: 없음, 1-4: 공부량에 따라)
+    private ContributionYear year;
+
+    public static class JsonWriter extends JsonSerializer<ContributionHeatmapDto> {
+
+        @Override
+        public void serialize(ContributionHeatmapDto dto, JsonGenerator gen, SerializerProvider serializers)
+                throws IOException {
+            ContributionYear year = dto.getYear();
+            gen.writeStartObject();
+            gen.writeStringField("userId", dto.getUserId());
+            gen.writeStringField("userName", dto.getUserName());
+            gen.writeArrayFieldStart("contributions");
+
+            // yyyy-MM-dd를 한 버퍼에서 하루씩 올려 가며 씀
+            char[] date = new char[10];
+            int y = year.getStartDay().getYear();
+            int m = year.getStartDay().getMonthValue();
+            int d = year.getStartDay().getDayOfMonth();
+            for (int i = 0; i < year.days(); i++) {
+                formatDate(date, y, m, d);
+                gen.writeStartObject();
+                gen.writeFieldName("date");
+                gen.writeString(date, 0, date.length);
+                gen.writeNumberField("studyTime", year.secondsAt(i));
+                gen.writeNumberField("level", year.levelAt(i));
+                gen.writeEndObject();
+
+                if (d < lengthOfMonth(y, m)) {
+                    d++;
+                } else if (m < 12) {
+                    m++;
+                    d = 1;
+                } else {
+                    y++;
+                    m = 1;
+                    d = 1;
+                }
+            }
+
+            gen.writeEndArray();
+            gen.writeEndObject();
+        }
+
+        private static int lengthOfMonth(int year, int month) {
+            return switch (month) {
+                case 2 -> Year.isLeap(year) ? 29 : 28;
+                case 4, 6, 9, 11 -> 30;
+                default -> 31;
+            };
+        }
+
+        private static void formatDate(char[] buffer, int year, int month, int day) {
+            buffer[0] = (char) ('0' + year / 1000 % 10);
+            buffer[1] = (char) ('0' + year / 100 % 10);
+            buffer[2] = (char) ('0' + year / 10 % 10);
+            buffer[3] = (char) ('0' + year % 10);
+            buffer[4] = '-';
+            buffer[5] = (char) ('0' + month / 10);
+            buffer[6] = (char) ('0' + month % 10);
+            buffer[7] = '-';
+            buffer[8] = (char) ('0' + day / 10);
+            buffer[9] = (char) ('0' + day % 10);
+        }
     }
 }
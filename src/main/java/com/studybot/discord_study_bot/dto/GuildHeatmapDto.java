@@ -0,0 +1,38 @@
+package com.studybot.discord_study_bot.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * 서버 전체 (또는 한 채널)의 요일/시간대별 공부 시간
+ * cells는 월요일 0시부터 일요일 23시까지 168칸 모두 포함 (공부 시간이 없으면 0)
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class GuildHeatmapDto {
+    private String guildId;
+    private String channelId; // null이면 모든 채널 합산, "0"은 채널을 모르는 기록
+    private List<HeatmapCell> cells;
+    private List<ChannelTotal> channels; // 채널별 합계 (많은 순, 서버 전체를 조회했을 때만)
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class HeatmapCell {
+        private int hour; // 0-23
+        private int dayOfWeek; // 1(월) - 7(일)
+        private long seconds; // 해당 시간대에 공부한 시간 합계 (초)
+    }
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class ChannelTotal {
+        private String channelId;
+        private long seconds;
+    }
+}
@@ -0,0 +1,19 @@
+package com.studybot.discord_study_bot.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.time.LocalDate;
+import java.util.List;
+
+/**
+ * 끝난 기간 하나의 확정 랭킹 (랭킹 기록 API용)
+ */
+@Getter
+@AllArgsConstructor
+public class RankingHistoryDto {
+    private String period;        // weekly / monthly
+    private LocalDate startDate;  // 기간 시작일
+    private LocalDate endDate;    // 기간 종료일
+    private List<RankingDto> ranking;
+}
@@ -0,0 +1,22 @@
+package com.studybot.discord_study_bot.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+/**
+ * 한 기간에서 사용자의 순위 (/myrank용)
+ */
+@Getter
+@AllArgsConstructor
+public class StandingDto {
+    private long totalDuration; // 기간 내 공부 시간(초)
+    private int rank;           // 1부터 시작, 기록이 없으면 0
+    private int participants;   // 기간 내 기록이 있는 사용자 수
+
+    /**
+     * 상위 몇 %인지 (1위/100명 = 1.0)
+     */
+    public double getTopPercent() {
+        return participants > 0 ? rank * 100.0 / participants : 0.0;
+    }
+}
@@ -0,0 +1,24 @@
+package com.studybot.discord_study_bot.entity;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+import lombok.Data;
+
+/**
+ * 서버(길드)별 설정 (서버당 한 행)
+ * 행이 없으면 기본값을 사용 (GuildTimeZoneService)
+ */
+@Entity
+@Table(name = "guild_settings")
+@Data
+public class GuildSettings {
+
+    @Id
+    @Column(name = "guild_id")
+    private long guildId; // Discord 서버(길드) ID
+
+    @Column(name = "time_zone", length = 64)
+    private String timeZone; // IANA 시간대 ID (예: Asia/Seoul). 주/월 경계와 일별·시간대별 집계의 날짜 기준
+}
@@ -0,0 +1,49 @@
+package com.studybot.discord_study_bot.entity;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.IdClass;
+import jakarta.persistence.Table;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.io.Serializable;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+/**
+ * 랭킹 자동 포스트를 보낸 기록 (서버, 종류, 그 주 월요일마다 한 행)
+ * RankingScheduler가 전송에 성공하면 저장하고, 놓친 실행이나 재시작 뒤에는 기록이 없는 서버에만 다시 보냄
+ */
+@Entity
+@Table(name = "ranking_post")
+@IdClass(RankingPost.Key.class)
+@Data
+public class RankingPost {
+
+    @Id
+    @Column(name = "guild_id")
+    private long guildId; // Discord 서버(길드) ID
+
+    @Id
+    @Column(name = "type", length = 16)
+    private String type; // weekly 또는 event
+
+    @Id
+    @Column(name = "week_start")
+    private LocalDate weekStart; // 포스트한 주의 월요일 (서버 시간대 기준)
+
+    @Column(name = "posted_at")
+    private LocalDateTime postedAt; // 전송 완료 시각
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Key implements Serializable {
+        private long guildId;
+        private String type;
+        private LocalDate weekStart;
+    }
+}
@@ -0,0 +1,66 @@
+package com.studybot.discord_study_bot.entity;
+
+import com.studybot.discord_study_bot.leaderboard.LeaderboardPeriod;
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.EnumType;
+import jakarta.persistence.Enumerated;
+import jakarta.persistence.Id;
+import jakarta.persistence.IdClass;
+import jakarta.persistence.Index;
+import jakarta.persistence.Table;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.io.Serializable;
+import java.time.LocalDate;
+
+/**
+ * 끝난 기간(주간/월간)의 확정 랭킹
+ * 기간이 바뀔 때 RankingScheduler가 한 번 저장하고 이후에는 바뀌지 않음.
+ * (늦게 닫힌 세션이 지난 기간 집계에 더해져도 이미 발표한 랭킹은 그대로 유지)
+ *
+ * 기본 키 (guild_id, period, period_start, rank_no) 범위 읽기로 상위 N명을 바로 조회
+ */
+@Entity
+@Table(name = "ranking_snapshot", indexes = {
+        // 기간이 이미 확정되었는지 확인
+        @Index(name = "idx_ranking_snapshot_period", columnList = "period, period_start")
+})
+@IdClass(RankingSnapshot.Key.class)
+@Data
+public class RankingSnapshot {
+
+    @Id
+    @Column(name = "guild_id")
+    private long guildId; // Discord 서버(길드) ID
+
+    @Id
+    @Enumerated(EnumType.STRING)
+    @Column(name = "period", length = 16)
+    private LeaderboardPeriod period; // WEEKLY 또는 MONTHLY
+
+    @Id
+    @Column(name = "period_start")
+    private LocalDate periodStart; // 기간 시작일 (월요일 또는 1일)
+
+    @Id
+    @Column(name = "rank_no")
+    private int rankNo; // 1부터 시작하는 순위
+
+    @Column(name = "user_id")
+    private long userId; // 디코 유저의 고유 ID
+
+    private long seconds; // 기간 내 공부 시간 (초)
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Key implements Serializable {
+        private long guildId;
+        private LeaderboardPeriod period;
+        private LocalDate periodStart;
+        private int rankNo;
+    }
+}
@@ -0,0 +1,56 @@
+package com.studybot.discord_study_bot.entity;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.IdClass;
+import jakarta.persistence.Index;
+import jakarta.persistence.Table;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.io.Serializable;
+import java.time.LocalDate;
+
+/**
+ * 일별 공부 시간 집계 (study_log 롤업)
+ * StudyLog가 닫힐 때 같은 트랜잭션에서 (서버, 유저, 날짜)별로 누적됨.
+ * 자정을 넘긴 기록은 날짜별로 나눠서 반영.
+ */
+@Entity
+@Table(name = "study_daily_agg", indexes = {
+        // 기간 랭킹: guild_id + day 범위로 읽고 user_id별 합산
+        @Index(name = "idx_daily_agg_guild_day", columnList = "guild_id, day, user_id, seconds"),
+        // 개인 통계: guild_id + user_id + day 범위
+        @Index(name = "idx_daily_agg_guild_user_day", columnList = "guild_id, user_id, day")
+})
+@IdClass(StudyDailyAgg.Key.class)
+@Data
+public class StudyDailyAgg {
+
+    @Id
+    @Column(name = "guild_id")
+    private long guildId; // Discord 서버(길드) ID
+
+    @Id
+    @Column(name = "user_id")
+    private long userId; // 디코 유저의 고유 ID
+
+    @Id
+    @Column(name = "day")
+    private LocalDate day; // 집계 날짜
+
+    private long seconds; // 그날 공부한 시간 (초)
+
+    private int sessions; // 그날 공부 시간이 있는 StudyLog 수
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Key implements Serializable {
+        private long guildId;
+        private long userId;
+        private LocalDate day;
+    }
+}
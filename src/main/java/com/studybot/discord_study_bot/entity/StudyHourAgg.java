@@ -0,0 +1,54 @@
+package com.studybot.discord_study_bot.entity;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.IdClass;
+import jakarta.persistence.Table;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.io.Serializable;
+
+/**
+ * 서버 시간대 히트맵 집계 (요일 x 시간, study_log 롤업)
+ * StudyLog가 닫힐 때 일별 집계와 같은 트랜잭션에서 (서버, 채널, 요일, 시간)별로 누적됨.
+ * 기록이 걸친 시간대마다 그 시간대에 공부한 만큼만 나눠서 더함 (시작 시간에 몰아서 더하지 않음).
+ *
+ * channel_id는 기록을 시작한 음성 채널. 채널을 기록하기 전의 데이터는 0
+ */
+@Entity
+@Table(name = "study_hour_agg")
+@IdClass(StudyHourAgg.Key.class)
+@Data
+public class StudyHourAgg {
+
+    @Id
+    @Column(name = "guild_id")
+    private long guildId; // Discord 서버(길드) ID
+
+    @Id
+    @Column(name = "channel_id")
+    private long channelId; // 음성 채널 ID (모르면 0)
+
+    @Id
+    @Column(name = "day_of_week")
+    private int dayOfWeek; // 1(월) - 7(일)
+
+    @Id
+    @Column(name = "hour")
+    private int hour; // 0-23
+
+    private long seconds; // 그 시간대에 공부한 시간 합계 (초)
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Key implements Serializable {
+        private long guildId;
+        private long channelId;
+        private int dayOfWeek;
+        private int hour;
+    }
+}
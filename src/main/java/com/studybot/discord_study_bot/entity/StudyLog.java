@@ -18,9 +18,13 @@ public class StudyLog {
     @GeneratedValue(strategy = GenerationType.IDENTITY)
     private long id;
 
-    private String guildId; // Discord 서버(길드) ID
+    // ID는 스노우플레이크 그대로 BIGINT로 저장 (기존 VARCHAR 컬럼은 DataMigrationService가 변환)
+    // 인덱스도 DataMigrationService가 컬럼 변환 후 생성: (guild_id, start_time, user_id, end_time), (guild_id, user_id, start_time),
+    // (end_time, start_time) (열린 기록 조회용)
+    private Long guildId; // Discord 서버(길드) ID
     private String guildName; // Discord 서버 이름
-    private String userId; // 디코 유저의 고유 ID
+    private Long channelId; // 기록을 시작한 음성 채널 ID (채널 기록 전의 데이터는 NULL)
+    private Long userId; // 디코 유저의 고유 ID
     private String userName; // 디코 유저의 이름
     private LocalDateTime startTime; // 공부 시작 시각
     private LocalDateTime endTime; // 공부 종료 시각
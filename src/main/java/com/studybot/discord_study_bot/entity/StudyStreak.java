@@ -0,0 +1,55 @@
+package com.studybot.discord_study_bot.entity;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.IdClass;
+import jakarta.persistence.Table;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.io.Serializable;
+import java.time.LocalDate;
+
+/**
+ * 사용자별 연속 공부 기록 (서버, 유저)당 한 행
+ * StudyLog가 닫힐 때 일별 집계와 같은 트랜잭션에서 날짜별로 갱신됨 (StudyStreakService)
+ *
+ * current_streak은 last_day로 끝나는 연속 일수. 조회 시 last_day가 오늘/어제가 아니면 0으로 보여줌.
+ * 지난 날짜가 늦게 더해져 순서대로 갱신할 수 없으면 needs_rebuild를 켜고 조회/검증 때 다시 계산.
+ */
+@Entity
+@Table(name = "study_streak")
+@IdClass(StudyStreak.Key.class)
+@Data
+public class StudyStreak {
+
+    @Id
+    @Column(name = "guild_id")
+    private long guildId; // Discord 서버(길드) ID
+
+    @Id
+    @Column(name = "user_id")
+    private long userId; // 디코 유저의 고유 ID
+
+    @Column(name = "last_day")
+    private LocalDate lastDay; // 마지막으로 공부한 날짜
+
+    @Column(name = "current_streak")
+    private int currentStreak; // last_day로 끝나는 연속 공부 일수
+
+    @Column(name = "longest_streak")
+    private int longestStreak; // 최장 연속 공부 일수
+
+    @Column(name = "needs_rebuild")
+    private boolean needsRebuild; // 일별 집계에서 다시 계산해야 하는지
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Key implements Serializable {
+        private long guildId;
+        private long userId;
+    }
+}
@@ -45,7 +45,8 @@ public class MessageProvider {
                     Map.entry("myrank.weekly_title", "📊 주간 공부시간"),
                     Map.entry("myrank.monthly_title", "📅 월간 공부시간"),
                     Map.entry("myrank.rank_suffix", "위"),
-                    Map.entry("myrank.outside_rank", "10위권 밖"),
+                    Map.entry("myrank.event_title", "🎉 이벤트 누계 공부시간"),
+                    Map.entry("myrank.top_percent", "상위 %.1f%%"),
                     Map.entry("myrank.no_study_weekly", "이번 주 공부 기록이 없어요"),
                     Map.entry("myrank.no_study_monthly", "이번 달 공부 기록이 없어요"),
                     Map.entry("myrank.first", "🎉 누구보다 열심히 공부하는 %s님! 1위를 유지하세요!! 🎉"),
@@ -99,7 +100,16 @@ public class MessageProvider {
                     Map.entry("shared.btn.leave", "나가기"),
                     Map.entry("shared.btn.stop", "중지"),
                     Map.entry("pomodoro.btn.pause", "일시정지"),
-                    Map.entry("pomodoro.btn.resume", "재개")),
+                    Map.entry("pomodoro.btn.resume", "재개"),
+
+                    // 시간대
+                    Map.entry("timezone.current", "이 서버의 시간대는 **%s** 예요. 주간/월간 랭킹과 일별 기록은 이 시간대의 날짜로 집계돼요."),
+                    Map.entry("timezone.invalid", "알 수 없는 시간대예요: %s (예: Asia/Seoul, Asia/Tokyo, Europe/Berlin)"),
+                    Map.entry("timezone.unchanged", "이미 **%s** 시간대를 사용하고 있어요."),
+                    Map.entry("timezone.changed", "시간대를 **%s**(으)로 바꿨어요. 지금까지의 기록도 새 시간대의 날짜로 다시 집계했어요."),
+                    Map.entry("timezone.failed", "시간대를 바꾸지 못했어요. 잠시 후 다시 시도해 주세요."),
+                    Map.entry("timezone.in_progress", "이 서버의 시간대를 이미 바꾸는 중이에요. 끝난 뒤에 다시 시도해 주세요."),
+                    Map.entry("timezone.busy", "지금은 시간대 변경 요청이 많아요. 잠시 후 다시 시도해 주세요.")),
 
             "ja", Map.ofEntries(
                     // ヘルプ
@@ -141,7 +151,8 @@ public class MessageProvider {
                     Map.entry("myrank.weekly_title", "📊 週間勉強時間"),
                     Map.entry("myrank.monthly_title", "📅 月間勉強時間"),
                     Map.entry("myrank.rank_suffix", "位"),
-                    Map.entry("myrank.outside_rank", "10位圏外"),
+                    Map.entry("myrank.event_title", "🎉 イベント累計勉強時間"),
+                    Map.entry("myrank.top_percent", "上位%.1f%%"),
                     Map.entry("myrank.no_study_weekly", "今週の勉強記録がありません"),
                     Map.entry("myrank.no_study_monthly", "今月の勉強記録がありません"),
                     Map.entry("myrank.first", "🎉 誰よりも頑張って勉強する%sさん！1位を維持してください！！🎉"),
@@ -195,7 +206,16 @@ public class MessageProvider {
                     Map.entry("shared.btn.leave", "退出"),
                     Map.entry("shared.btn.stop", "停止"),
                     Map.entry("pomodoro.btn.pause", "一時停止"),
-                    Map.entry("pomodoro.btn.resume", "再開")));
+                    Map.entry("pomodoro.btn.resume", "再開"),
+
+                    // タイムゾーン
+                    Map.entry("timezone.current", "このサーバーのタイムゾーンは **%s** です。週間・月間ランキングと日別記録はこのタイムゾーンの日付で集計されます。"),
+                    Map.entry("timezone.invalid", "不明なタイムゾーンです: %s （例: Asia/Tokyo, Asia/Seoul, Europe/Berlin）"),
+                    Map.entry("timezone.unchanged", "すでに **%s** タイムゾーンを使用しています。"),
+                    Map.entry("timezone.changed", "タイムゾーンを **%s** に変更しました。これまでの記録も新しいタイムゾーンの日付で再集計しました。"),
+                    Map.entry("timezone.failed", "タイムゾーンを変更できませんでした。しばらくしてからもう一度お試しください。"),
+                    Map.entry("timezone.in_progress", "このサーバーのタイムゾーンはすでに変更中です。完了してからもう一度お試しください。"),
+                    Map.entry("timezone.busy", "現在タイムゾーンの変更リクエストが混み合っています。しばらくしてからもう一度お試しください。")));
 
     /**
      * 언어 코드와 키로 메시지를 가져옴
@@ -0,0 +1,61 @@
+package com.studybot.discord_study_bot.leaderboard;
+
+import java.util.Arrays;
+
+/**
+ * 한 사용자의 일별 공부 시간 누적합 (공부한 날만 저장하는 희소 배열)
+ * days[i]까지의 합계를 cumulative[i]에 두어 임의 기간 [from, to]의 합을 두 번의 이진 탐색으로 구한다.
+ *
+ * 새 값은 대부분 오늘(배열 끝)에 더해지므로 O(1), 지난 날짜에 더할 때만 뒤쪽 누적합을 갱신.
+ * 스레드 안전하지 않음 (WindowIndex를 가진 쪽이 잠금을 잡고 사용)
+ */
+public class DailySeries {
+
+    private int[] days = new int[8];        // epoch day, 오름차순
+    private long[] cumulative = new long[8]; // days[0..i]의 공부 시간 합계 (초)
+    private int size;
+
+    /**
+     * day에 seconds를 더함
+     */
+    public void add(int day, long seconds) {
+        int index = Arrays.binarySearch(days, 0, size, day);
+        if (index < 0) {
+            index = -index - 1;
+            if (size == days.length) {
+                days = Arrays.copyOf(days, size * 2);
+                cumulative = Arrays.copyOf(cumulative, size * 2);
+            }
+            System.arraycopy(days, index, days, index + 1, size - index);
+            System.arraycopy(cumulative, index, cumulative, index + 1, size - index);
+            days[index] = day;
+            cumulative[index] = index > 0 ? cumulative[index - 1] : 0L;
+            size++;
+        }
+        for (int i = index; i < size; i++) {
+            cumulative[i] += seconds;
+        }
+    }
+
+    /**
+     * [from, to] 기간의 합계 (양 끝 포함, epoch day)
+     */
+    public long sum(int from, int to) {
+        return sumUpTo(to) - sumUpTo(from - 1);
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    /**
+     * day 이하 날짜의 합계
+     */
+    private long sumUpTo(int day) {
+        int index = Arrays.binarySearch(days, 0, size, day);
+        if (index < 0) {
+            index = -index - 2;
+        }
+        return index >= 0 ? cumulative[index] : 0L;
+    }
+}
@@ -0,0 +1,110 @@
+package com.studybot.discord_study_bot.leaderboard;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * 한 서버의 한 기간(주간/월간/이벤트) 리더보드
+ * 사용자별 누적 시간 + 순위 통계 트리. 모든 메서드는 이 객체를 잠그고 실행됨.
+ *
+ * 기간이 바뀌면 rollTo()로 비우고 새 기간으로 다시 누적 (DB에서 다시 읽지 않음)
+ */
+public class Leaderboard {
+
+    private final Map<Long, Long> totals = new HashMap<>();
+    private final RankTree tree = new RankTree();
+    private LocalDate startDay;
+    private LocalDate endDay;
+
+    public record Entry(long userId, long seconds) {
+    }
+
+    public Leaderboard(LocalDate startDay, LocalDate endDay) {
+        this.startDay = startDay;
+        this.endDay = endDay;
+    }
+
+    public synchronized LocalDate getStartDay() {
+        return startDay;
+    }
+
+    public synchronized LocalDate getEndDay() {
+        return endDay;
+    }
+
+    /**
+     * 현재 기간이 [startDay, endDay]가 아니면 비우고 새 기간으로 바꿈
+     *
+     * @return 기간이 바뀌었으면 true
+     */
+    public synchronized boolean rollTo(LocalDate startDay, LocalDate endDay) {
+        if (startDay.equals(this.startDay) && endDay.equals(this.endDay)) {
+            return false;
+        }
+        this.startDay = startDay;
+        this.endDay = endDay;
+        totals.clear();
+        tree.clear();
+        return true;
+    }
+
+    public synchronized boolean covers(LocalDate day) {
+        return !day.isBefore(startDay) && !day.isAfter(endDay);
+    }
+
+    /**
+     * 사용자 누적 시간에 seconds를 더함 (해당 날짜가 기간 밖이면 무시)
+     */
+    public synchronized void add(long userId, LocalDate day, long seconds) {
+        if (seconds == 0 || !covers(day)) {
+            return;
+        }
+        Long previous = totals.get(userId);
+        if (previous != null) {
+            tree.remove(userId, previous);
+        }
+        long total = (previous != null ? previous : 0L) + seconds;
+        totals.put(userId, total);
+        tree.insert(userId, total);
+    }
+
+    /**
+     * 상위 limit명 (excludeUserId와 skipUserIds는 건너뜀)
+     */
+    public synchronized List<Entry> top(int limit, long excludeUserId, Set<Long> skipUserIds) {
+        List<Entry> result = new ArrayList<>(Math.min(limit, totals.size()));
+        if (limit <= 0) {
+            return result;
+        }
+        tree.forEachInOrder((userId, seconds) -> {
+            if (userId != excludeUserId && !skipUserIds.contains(userId)) {
+                result.add(new Entry(userId, seconds));
+            }
+            return result.size() < limit;
+        });
+        return result;
+    }
+
+    /**
+     * (seconds, userId) 항목보다 앞에 있는 사용자 수
+     */
+    public synchronized int countAhead(long userId, long seconds) {
+        return tree.rankOf(userId, seconds);
+    }
+
+    public synchronized boolean contains(long userId) {
+        return totals.containsKey(userId);
+    }
+
+    public synchronized long totalOf(long userId) {
+        return totals.getOrDefault(userId, 0L);
+    }
+
+    public synchronized int size() {
+        return totals.size();
+    }
+}
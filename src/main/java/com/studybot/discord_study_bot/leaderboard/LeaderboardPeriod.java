@@ -0,0 +1,10 @@
+package com.studybot.discord_study_bot.leaderboard;
+
+/**
+ * 리더보드 집계 기간
+ */
+public enum LeaderboardPeriod {
+    WEEKLY,  // 이번 주 (월요일 ~ 일요일)
+    MONTHLY, // 이번 달
+    EVENT    // event.start-date ~ event.end-date
+}
@@ -0,0 +1,173 @@
+package com.studybot.discord_study_bot.leaderboard;
+
+import java.util.ArrayDeque;
+import java.util.SplittableRandom;
+
+/**
+ * 순위 통계 트리 (서브트리 크기를 가진 treap)
+ * (공부 시간 내림차순, userId 오름차순)으로 정렬해 상위 N명과 특정 사용자의 순위를 O(log n)에 구한다.
+ *
+ * 같은 사용자의 값을 바꿀 때는 remove(이전 값) 후 insert(새 값).
+ * 스레드 안전하지 않음 (Leaderboard가 잠금을 잡고 사용)
+ */
+public class RankTree {
+
+    private final SplittableRandom random = new SplittableRandom();
+    private Node root;
+
+    /**
+     * 순회 콜백 (박싱 없이 값을 넘김)
+     */
+    @FunctionalInterface
+    public interface Visitor {
+        /**
+         * @return false면 순회 중단
+         */
+        boolean visit(long userId, long seconds);
+    }
+
+    public int size() {
+        return size(root);
+    }
+
+    public void insert(long userId, long seconds) {
+        Node node = new Node(userId, seconds, random.nextInt());
+        Node[] parts = split(root, seconds, userId);
+        root = merge(merge(parts[0], node), parts[1]);
+    }
+
+    public void remove(long userId, long seconds) {
+        root = remove(root, userId, seconds);
+    }
+
+    public void clear() {
+        root = null;
+    }
+
+    /**
+     * 해당 항목보다 앞에 있는 항목 수 (0부터 시작하는 순위)
+     */
+    public int rankOf(long userId, long seconds) {
+        int rank = 0;
+        Node node = root;
+        while (node != null) {
+            if (compare(seconds, userId, node.seconds, node.userId) <= 0) {
+                node = node.left;
+            } else {
+                rank += size(node.left) + 1;
+                node = node.right;
+            }
+        }
+        return rank;
+    }
+
+    /**
+     * 순위 순서대로 방문 (visitor가 false를 반환하면 중단)
+     */
+    public void forEachInOrder(Visitor visitor) {
+        ArrayDeque<Node> stack = new ArrayDeque<>();
+        Node node = root;
+        while (node != null || !stack.isEmpty()) {
+            while (node != null) {
+                stack.push(node);
+                node = node.left;
+            }
+            node = stack.pop();
+            if (!visitor.visit(node.userId, node.seconds)) {
+                return;
+            }
+            node = node.right;
+        }
+    }
+
+    /**
+     * 공부 시간이 많을수록, 같으면 userId가 작을수록 앞
+     */
+    private static int compare(long aSeconds, long aUserId, long bSeconds, long bUserId) {
+        if (aSeconds != bSeconds) {
+            return aSeconds > bSeconds ? -1 : 1;
+        }
+        return Long.compare(aUserId, bUserId);
+    }
+
+    /**
+     * (기준보다 앞인 노드들, 나머지)로 나눔
+     */
+    private Node[] split(Node node, long seconds, long userId) {
+        if (node == null) {
+            return new Node[]{null, null};
+        }
+        if (compare(node.seconds, node.userId, seconds, userId) < 0) {
+            Node[] parts = split(node.right, seconds, userId);
+            node.right = parts[0];
+            update(node);
+            parts[0] = node;
+            return parts;
+        }
+        Node[] parts = split(node.left, seconds, userId);
+        node.left = parts[1];
+        update(node);
+        parts[1] = node;
+        return parts;
+    }
+
+    /**
+     * left의 모든 노드가 right보다 앞일 때 두 트리를 합침
+     */
+    private Node merge(Node left, Node right) {
+        if (left == null) {
+            return right;
+        }
+        if (right == null) {
+            return left;
+        }
+        if (left.priority > right.priority) {
+            left.right = merge(left.right, right);
+            update(left);
+            return left;
+        }
+        right.left = merge(left, right.left);
+        update(right);
+        return right;
+    }
+
+    private Node remove(Node node, long userId, long seconds) {
+        if (node == null) {
+            return null;
+        }
+        int c = compare(seconds, userId, node.seconds, node.userId);
+        if (c == 0) {
+            return merge(node.left, node.right);
+        }
+        if (c < 0) {
+            node.left = remove(node.left, userId, seconds);
+        } else {
+            node.right = remove(node.right, userId, seconds);
+        }
+        update(node);
+        return node;
+    }
+
+    private static int size(Node node) {
+        return node != null ? node.size : 0;
+    }
+
+    private static void update(Node node) {
+        node.size = 1 + size(node.left) + size(node.right);
+    }
+
+    private static final class Node {
+        private final long userId;
+        private final long seconds;
+        private final int priority;
+        private int size = 1;
+        private Node left;
+        private Node right;
+
+        private Node(long userId, long seconds, int priority) {
+            this.userId = userId;
+            this.seconds = seconds;
+            this.priority = priority;
+        }
+    }
+}
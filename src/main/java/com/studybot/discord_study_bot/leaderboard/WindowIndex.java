@@ -0,0 +1,94 @@
+package com.studybot.discord_study_bot.leaderboard;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+
+/**
+ * 한 서버의 사용자별 일별 누적합 (임의 기간 랭킹용)
+ * "최근 14일", "학기 시작부터" 같은 기간마다 GROUP BY를 새로 실행하지 않고,
+ * 사용자마다 누적합으로 기간 합계를 구한 뒤 크기 limit의 힙으로 상위 limit명만 고른다.
+ *
+ * 스레드 안전하지 않음 (LeaderboardService가 서버 잠금을 잡고 사용)
+ */
+public class WindowIndex {
+
+    // 순위 순서 (공부 시간 내림차순, userId 오름차순)
+    private static final Comparator<Leaderboard.Entry> RANK_ORDER =
+            Comparator.comparingLong(Leaderboard.Entry::seconds).reversed()
+                    .thenComparingLong(Leaderboard.Entry::userId);
+
+    private final Map<Long, DailySeries> series = new HashMap<>();
+
+    public void add(long userId, LocalDate day, long seconds) {
+        if (seconds == 0) {
+            return;
+        }
+        series.computeIfAbsent(userId, id -> new DailySeries()).add((int) day.toEpochDay(), seconds);
+    }
+
+    public long sum(long userId, LocalDate from, LocalDate to) {
+        DailySeries userSeries = series.get(userId);
+        return userSeries != null ? userSeries.sum((int) from.toEpochDay(), (int) to.toEpochDay()) : 0L;
+    }
+
+    /**
+     * [from, to] 기간의 상위 limit명
+     *
+     * @param extra 기간 합계에 더할 시간 (진행 중인 세션 등, userId → 초)
+     */
+    public List<Leaderboard.Entry> top(LocalDate from, LocalDate to, int limit, long excludeUserId,
+                                       Map<Long, Long> extra) {
+        if (limit <= 0) {
+            return new ArrayList<>();
+        }
+        int fromDay = (int) from.toEpochDay();
+        int toDay = (int) to.toEpochDay();
+
+        // 가장 낮은 순위가 맨 앞에 오는 힙 (더 높은 순위가 오면 맨 앞을 밀어냄)
+        PriorityQueue<Leaderboard.Entry> heap = new PriorityQueue<>(limit + 1, RANK_ORDER.reversed());
+        for (Map.Entry<Long, DailySeries> entry : series.entrySet()) {
+            long userId = entry.getKey();
+            if (userId != excludeUserId) {
+                offer(heap, limit, userId, entry.getValue().sum(fromDay, toDay) + extra.getOrDefault(userId, 0L));
+            }
+        }
+        extra.forEach((userId, seconds) -> {
+            if (userId != excludeUserId && !series.containsKey(userId)) {
+                offer(heap, limit, userId, seconds);
+            }
+        });
+
+        List<Leaderboard.Entry> result = new ArrayList<>(heap);
+        result.sort(RANK_ORDER);
+        return result;
+    }
+
+    public void clear() {
+        series.clear();
+    }
+
+    public int size() {
+        return series.size();
+    }
+
+    private static void offer(PriorityQueue<Leaderboard.Entry> heap, int limit, long userId, long seconds) {
+        if (seconds <= 0) {
+            return;
+        }
+        if (heap.size() < limit) {
+            heap.add(new Leaderboard.Entry(userId, seconds));
+            return;
+        }
+        // 힙이 찼으면 맨 앞(현재 limit위)보다 앞설 때만 객체를 만듦
+        Leaderboard.Entry last = heap.peek();
+        if (seconds > last.seconds() || (seconds == last.seconds() && userId < last.userId())) {
+            heap.poll();
+            heap.add(new Leaderboard.Entry(userId, seconds));
+        }
+    }
+}
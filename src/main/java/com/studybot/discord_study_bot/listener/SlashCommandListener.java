@@ -1,7 +1,12 @@
 package com.studybot.discord_study_bot.listener;
 
 import com.studybot.discord_study_bot.dto.RankingDto;
+import com.studybot.discord_study_bot.dto.StandingDto;
 import com.studybot.discord_study_bot.i18n.MessageProvider;
+import com.studybot.discord_study_bot.leaderboard.LeaderboardPeriod;
+import com.studybot.discord_study_bot.service.DailyRollupService;
+import com.studybot.discord_study_bot.service.GuildTimeZoneService;
+import com.studybot.discord_study_bot.service.MemberNameCache;
 import com.studybot.discord_study_bot.service.RankingService;
 import com.studybot.discord_study_bot.service.SharedPomodoroService;
 import lombok.RequiredArgsConstructor;
@@ -19,8 +24,12 @@ import org.slf4j.LoggerFactory;
 import org.springframework.stereotype.Component;
 
 import java.awt.*;
+import java.time.DateTimeException;
+import java.time.ZoneId;
 import java.util.List;
-import java.util.Optional;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.RejectedExecutionException;
 
 /**
  * Discord Slash Commands를 처리하는 리스너
@@ -32,6 +41,9 @@ public class SlashCommandListener extends ListenerAdapter {
     private static final Logger logger = LoggerFactory.getLogger(SlashCommandListener.class);
     private final RankingService rankingService;
     private final SharedPomodoroService sharedPomodoroService;
+    private final MemberNameCache memberNameCache;
+    private final GuildTimeZoneService guildTimeZoneService;
+    private final DailyRollupService dailyRollupService;
 
     @Override
     public void onSlashCommandInteraction(@NotNull SlashCommandInteractionEvent event) {
@@ -67,6 +79,7 @@ public class SlashCommandListener extends ListenerAdapter {
             case "myrank" -> handleMyRank(event, guildId, authorId, author, lang);
             case "monthly" -> handleMonthly(event, guildId, guild, lang);
             case "pomodoro-shared" -> handleSharedPomodoro(event, guildId, author, lang);
+            case "timezone" -> handleTimeZone(event, guild, lang);
             default -> event.reply("알 수 없는 명령어입니다.").setEphemeral(true).queue();
         }
     }
@@ -146,35 +159,15 @@ public class SlashCommandListener extends ListenerAdapter {
         StringBuilder description = new StringBuilder();
         description.append(MessageProvider.get(lang, "weekly.period"));
 
-        for (int i = 0; i < weeklyRanking.size(); i++) {
-            RankingDto ranker = weeklyRanking.get(i);
-            String userName;
-
-            try {
-                Member member = guild.retrieveMemberById(ranker.getUserId()).complete();
-                userName = member.getEffectiveName();
-            } catch (Exception e) {
-                userName = MessageProvider.get(lang, "weekly.user_not_found");
-                logger.warn("{} ID를 가진 유저가 서버에 없어서 이름을 찾을 수 없습니다.", ranker.getUserId());
-            }
-
-            description.append(String.format("%d. %s - %s\n",
-                    i + 1,
-                    userName,
-                    formatDuration(ranker.getTotalDuration(), lang)));
-        }
-
-        eb.setDescription(description.toString());
         eb.setFooter(MessageProvider.get(lang, "weekly.footer"));
-
-        event.getHook().sendMessageEmbeds(eb.build()).queue();
+        sendRankingEmbed(event, guild, weeklyRanking, eb, description, lang);
     }
 
     // 이벤트 랭킹 처리
     private void handleEventRanking(SlashCommandInteractionEvent event, String guildId, Guild guild, String lang) {
         logger.info("이벤트 랭킹 요청을 받았습니다.");
 
-        if (!rankingService.isEventPeriod()) {
+        if (!rankingService.isEventPeriod(guildId)) {
             event.reply(MessageProvider.get(lang, "event.not_period")).queue();
             return;
         }
@@ -196,28 +189,8 @@ public class SlashCommandListener extends ListenerAdapter {
         StringBuilder description = new StringBuilder();
         description.append(MessageProvider.get(lang, "event.period"));
 
-        for (int i = 0; i < eventRanking.size(); i++) {
-            RankingDto ranker = eventRanking.get(i);
-            String userName;
-
-            try {
-                Member member = guild.retrieveMemberById(ranker.getUserId()).complete();
-                userName = member.getEffectiveName();
-            } catch (Exception e) {
-                userName = MessageProvider.get(lang, "weekly.user_not_found");
-                logger.warn("{} ID를 가진 유저가 서버에 없어서 이름을 찾을 수 없습니다.", ranker.getUserId());
-            }
-
-            description.append(String.format("%d. %s - %s\n",
-                    i + 1,
-                    userName,
-                    formatDuration(ranker.getTotalDuration(), lang)));
-        }
-
-        eb.setDescription(description.toString());
         eb.setFooter(MessageProvider.get(lang, "event.footer"));
-
-        event.getHook().sendMessageEmbeds(eb.build()).queue();
+        sendRankingEmbed(event, guild, eventRanking, eb, description, lang);
     }
 
     // 내 랭킹 처리
@@ -227,22 +200,13 @@ public class SlashCommandListener extends ListenerAdapter {
         // 처리 시간이 3초 이상 걸릴 수 있으므로 deferReply 사용
         event.deferReply().setEphemeral(true).queue();
 
-        // 1. 주간 랭킹 조회
-        List<RankingDto> weeklyRanking = rankingService.getWeeklyRanking(guildId);
-        int myWeeklyRank = -1;
-
-        for (int i = 0; i < weeklyRanking.size(); i++) {
-            if (weeklyRanking.get(i).getUserId().equals(authorId)) {
-                myWeeklyRank = i + 1;
-                break;
-            }
-        }
-
-        // 2. 개인 주간/월간 공부시간 조회
-        Optional<Long> weeklyTime = rankingService.getWeeklyTotalStudyTimeForUser(guildId, authorId);
-        Optional<Long> monthlyTime = rankingService.getMonthlyTotalStudyTimeForUser(guildId, authorId);
+        // 1. 주간/월간/이벤트 순위와 공부시간을 한 번에 조회
+        Map<LeaderboardPeriod, StandingDto> standings = rankingService.getStandings(guildId, authorId);
+        StandingDto weekly = standings.get(LeaderboardPeriod.WEEKLY);
+        StandingDto monthly = standings.get(LeaderboardPeriod.MONTHLY);
+        StandingDto event = standings.get(LeaderboardPeriod.EVENT);
 
-        // 3. Embed 메시지 구성
+        // 2. Embed 메시지 구성
         EmbedBuilder eb = new EmbedBuilder();
         eb.setTitle(MessageProvider.format(lang, "myrank.title", author.getName()));
         eb.setColor(new Color(0xFEE75C)); // Discord Yellow
@@ -254,16 +218,11 @@ public class SlashCommandListener extends ListenerAdapter {
         }
 
         // 주간 공부시간
-        if (weeklyTime.isPresent() && weeklyTime.get() > 0) {
-            String weeklyDuration = formatDuration(weeklyTime.get(), lang);
-            String weeklyRankText = myWeeklyRank != -1 
-                ? String.format("%d/%d%s", myWeeklyRank, weeklyRanking.size(), 
-                    MessageProvider.get(lang, "myrank.rank_suffix"))
-                : MessageProvider.get(lang, "myrank.outside_rank");
-            
+        if (weekly.getTotalDuration() > 0) {
             eb.addField(
                 MessageProvider.get(lang, "myrank.weekly_title"),
-                String.format("⏱️ %s\n🏆 %s", weeklyDuration, weeklyRankText),
+                String.format("⏱️ %s\n🏆 %s", formatDuration(weekly.getTotalDuration(), lang),
+                    formatStanding(weekly, lang)),
                 false
             );
         } else {
@@ -275,11 +234,11 @@ public class SlashCommandListener extends ListenerAdapter {
         }
 
         // 월간 공부시간
-        if (monthlyTime.isPresent() && monthlyTime.get() > 0) {
-            String monthlyDuration = formatDuration(monthlyTime.get(), lang);
+        if (monthly.getTotalDuration() > 0) {
             eb.addField(
                 MessageProvider.get(lang, "myrank.monthly_title"),
-                String.format("⏱️ %s", monthlyDuration),
+                String.format("⏱️ %s\n🏆 %s", formatDuration(monthly.getTotalDuration(), lang),
+                    formatStanding(monthly, lang)),
                 false
             );
         } else {
@@ -290,17 +249,27 @@ public class SlashCommandListener extends ListenerAdapter {
             );
         }
 
+        // 이벤트 누계 (이벤트 기간에만)
+        if (rankingService.isEventPeriod(guildId) && event.getTotalDuration() > 0) {
+            eb.addField(
+                MessageProvider.get(lang, "myrank.event_title"),
+                String.format("⏱️ %s\n🏆 %s", formatDuration(event.getTotalDuration(), lang),
+                    formatStanding(event, lang)),
+                false
+            );
+        }
+
         // 격려 메시지
-        if (myWeeklyRank == 1) {
+        if (weekly.getRank() == 1) {
             eb.setDescription(MessageProvider.format(lang, "myrank.first", author.getName()));
-        } else if (weeklyTime.isPresent() && weeklyTime.get() > 0) {
+        } else if (weekly.getTotalDuration() > 0) {
             eb.setDescription(MessageProvider.get(lang, "myrank.encourage"));
         }
 
         eb.setFooter(MessageProvider.get(lang, "myrank.footer"));
         eb.setTimestamp(java.time.Instant.now());
 
-        // 4. DM으로 발송
+        // 3. DM으로 발송
         author.openPrivateChannel().queue(privateChannel -> {
             privateChannel.sendMessageEmbeds(eb.build()).queue(
                     success -> event.getHook().sendMessage(
@@ -339,28 +308,56 @@ public class SlashCommandListener extends ListenerAdapter {
         StringBuilder description = new StringBuilder();
         description.append(MessageProvider.get(lang, "monthly.period"));
 
-        for (int i = 0; i < monthlyRanking.size(); i++) {
-            RankingDto ranker = monthlyRanking.get(i);
-            String userName;
-
-            try {
-                Member member = guild.retrieveMemberById(ranker.getUserId()).complete();
-                userName = member.getEffectiveName();
-            } catch (Exception e) {
-                userName = MessageProvider.get(lang, "weekly.user_not_found");
-                logger.warn("{} ID를 가진 유저가 서버에 없어서 이름을 찾을 수 없습니다.", ranker.getUserId());
-            }
+        eb.setFooter(MessageProvider.get(lang, "monthly.footer"));
+        sendRankingEmbed(event, guild, monthlyRanking, eb, description, lang);
+    }
 
-            description.append(String.format("%d. %s - %s\n",
-                    i + 1,
-                    userName,
-                    formatDuration(ranker.getTotalDuration(), lang)));
+    // 서버 시간대 확인/변경 처리 (명령어 기본 권한: 서버 관리)
+    private void handleTimeZone(SlashCommandInteractionEvent event, Guild guild, String lang) {
+        long guildId = guild.getIdLong();
+        ZoneId current = guildTimeZoneService.zoneOf(guildId);
+        OptionMapping zoneOption = event.getOption("zone");
+        if (zoneOption == null) {
+            event.reply(MessageProvider.format(lang, "timezone.current", current.getId())).setEphemeral(true).queue();
+            return;
         }
 
-        eb.setDescription(description.toString());
-        eb.setFooter(MessageProvider.get(lang, "monthly.footer"));
+        ZoneId zone;
+        try {
+            zone = ZoneId.of(zoneOption.getAsString().trim());
+        } catch (DateTimeException e) {
+            event.reply(MessageProvider.format(lang, "timezone.invalid", zoneOption.getAsString()))
+                    .setEphemeral(true).queue();
+            return;
+        }
+        if (zone.equals(current)) {
+            event.reply(MessageProvider.format(lang, "timezone.unchanged", zone.getId())).setEphemeral(true).queue();
+            return;
+        }
 
-        event.getHook().sendMessageEmbeds(eb.build()).queue();
+        logger.info("[{}] 서버 시간대 변경 요청: {} → {}", guild.getName(), current, zone);
+        // 지금까지의 기록을 새 시간대로 다시 집계하므로 이벤트 스레드를 막지 않도록 전용 스레드에 맡김
+        CompletableFuture<Void> change;
+        try {
+            change = dailyRollupService.submitTimeZoneChange(guildId, zone);
+        } catch (RejectedExecutionException e) {
+            logger.warn("[{}] 서버 시간대 변경 대기열이 가득 차 거절: {}", guild.getName(), zone);
+            event.reply(MessageProvider.get(lang, "timezone.busy")).setEphemeral(true).queue();
+            return;
+        }
+        if (change == null) {
+            event.reply(MessageProvider.get(lang, "timezone.in_progress")).setEphemeral(true).queue();
+            return;
+        }
+        event.deferReply().queue();
+        change.whenComplete((ignored, error) -> {
+            if (error == null) {
+                event.getHook().sendMessage(MessageProvider.format(lang, "timezone.changed", zone.getId())).queue();
+                return;
+            }
+            logger.error("[{}] 서버 시간대 변경 실패: {}", guild.getName(), zone, error);
+            event.getHook().sendMessage(MessageProvider.get(lang, "timezone.failed")).queue();
+        });
     }
 
     // 공유 뽀모도로 처리
@@ -412,6 +409,42 @@ public class SlashCommandListener extends ListenerAdapter {
                 .queue();
     }
 
+    /**
+     * 랭킹 목록에 이름을 붙여 전송
+     * 이름은 캐시에서 한 번에 찾고, 없는 사용자만 모아 한 번 조회한 뒤 응답 (이벤트 스레드를 막지 않음)
+     */
+    private void sendRankingEmbed(SlashCommandInteractionEvent event, Guild guild, List<RankingDto> ranking,
+                                  EmbedBuilder eb, StringBuilder description, String lang) {
+        List<Long> userIds = ranking.stream().map(ranker -> Long.parseLong(ranker.getUserId())).toList();
+
+        memberNameCache.resolveNames(guild, userIds).thenAccept(names -> {
+            for (int i = 0; i < ranking.size(); i++) {
+                RankingDto ranker = ranking.get(i);
+                String userName = names.get(userIds.get(i));
+
+                if (userName == null) {
+                    userName = MessageProvider.get(lang, "weekly.user_not_found");
+                    logger.warn("{} ID를 가진 유저가 서버에 없어서 이름을 찾을 수 없습니다.", ranker.getUserId());
+                }
+
+                description.append(String.format("%d. %s - %s\n",
+                        i + 1,
+                        userName,
+                        formatDuration(ranker.getTotalDuration(), lang)));
+            }
+
+            eb.setDescription(description.toString());
+            event.getHook().sendMessageEmbeds(eb.build()).queue();
+        });
+    }
+
+    // 순위를 "3/120위 · 상위 2.5%" 형식으로 변환하는 메서드
+    private String formatStanding(StandingDto standing, String lang) {
+        return String.format("%d/%d%s · %s", standing.getRank(), standing.getParticipants(),
+                MessageProvider.get(lang, "myrank.rank_suffix"),
+                MessageProvider.format(lang, "myrank.top_percent", standing.getTopPercent()));
+    }
+
     // 초를 "O시간 O분 O초" 또는 "O時間O分O秒" 형식으로 변환하는 메서드
     private String formatDuration(long totalSeconds, String lang) {
         if (totalSeconds < 60) {
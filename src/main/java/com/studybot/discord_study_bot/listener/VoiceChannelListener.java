@@ -1,5 +1,6 @@
 package com.studybot.discord_study_bot.listener;
 
+import com.studybot.discord_study_bot.service.MemberNameCache;
 import com.studybot.discord_study_bot.service.SharedPomodoroService;
 import com.studybot.discord_study_bot.service.StudySessionManager;
 import lombok.RequiredArgsConstructor;
@@ -21,13 +22,15 @@ public class VoiceChannelListener extends ListenerAdapter {
     private static final Logger logger = LoggerFactory.getLogger(VoiceChannelListener.class);
     private final StudySessionManager sessionManager;
     private final SharedPomodoroService sharedPomodoroService;
+    private final VoiceEventDispatcher voiceEventDispatcher;
+    private final MemberNameCache memberNameCache;
 
     // Stream을 감시함
     @Override
     public void onGuildVoiceStream(@NotNull GuildVoiceStreamEvent event) {
-        String guildId = event.getGuild().getId();
+        long guildId = event.getGuild().getIdLong();
         String guildName = event.getGuild().getName();
-        String userId = event.getMember().getId();
+        long userId = event.getMember().getIdLong();
         String userName = event.getMember().getEffectiveName();
 
         // 봇인 경우는 무시함
@@ -35,40 +38,47 @@ public class VoiceChannelListener extends ListenerAdapter {
             return;
         }
 
+        // 랭킹 표시용 이름 캐시 갱신
+        memberNameCache.put(guildId, userId, userName);
+
         // 화면공유 상태 취득
         GuildVoiceState voiceState = event.getMember().getVoiceState();
         if (voiceState == null) {
             return;
         }
         boolean isStreaming = voiceState.isStream();
+        String channelId = voiceState.getChannel() != null ? voiceState.getChannel().getId() : null;
+        Long voiceChannelId = voiceState.getChannel() != null ? voiceState.getChannel().getIdLong() : null;
+        String memberId = event.getMember().getId();
 
-        // 화면 공유가 시작되면
-        if (isStreaming) {
-            logger.info("[{}] {}님이 화면 공유를 시작했습니다.", guildName, userName);
-            sessionManager.startScreenShare(guildId, guildName, userId, userName);
-            
-            // 공유 뽀모도로 참여 중이면 화면공유 상태 업데이트
-            if (voiceState.getChannel() != null) {
-                VoiceChannel voiceChannel = voiceState.getChannel().asVoiceChannel();
-                sharedPomodoroService.updateScreenShareStatus(voiceChannel.getId(), userId, true);
-            }
-        } else { // 화면 공유가 끝나면
-            logger.info("[{}] {}님이 화면 공유를 종료했습니다.", guildName, userName);
-            sessionManager.stopScreenShare(guildId, userId, userName);
-            
-            // 공유 뽀모도로 화면공유 상태 업데이트
-            if (voiceState.getChannel() != null) {
-                VoiceChannel voiceChannel = voiceState.getChannel().asVoiceChannel();
-                sharedPomodoroService.updateScreenShareStatus(voiceChannel.getId(), userId, false);
+        // 실제 처리는 사용자별 레인에서 순서대로 실행 (JDA 이벤트 스레드를 막지 않음)
+        voiceEventDispatcher.dispatch(guildId, userId, () -> {
+            // 화면 공유가 시작되면
+            if (isStreaming) {
+                logger.info("[{}] {}님이 화면 공유를 시작했습니다.", guildName, userName);
+                sessionManager.startScreenShare(guildId, guildName, voiceChannelId, userId, userName);
+
+                // 공유 뽀모도로 참여 중이면 화면공유 상태 업데이트
+                if (channelId != null) {
+                    sharedPomodoroService.updateScreenShareStatus(channelId, memberId, true);
+                }
+            } else { // 화면 공유가 끝나면
+                logger.info("[{}] {}님이 화면 공유를 종료했습니다.", guildName, userName);
+                sessionManager.stopScreenShare(guildId, userId, userName);
+
+                // 공유 뽀모도로 화면공유 상태 업데이트
+                if (channelId != null) {
+                    sharedPomodoroService.updateScreenShareStatus(channelId, memberId, false);
+                }
             }
-        }
+        });
     }
 
     @Override
     public void onGuildVoiceUpdate(@NotNull GuildVoiceUpdateEvent event) {
-        String guildId = event.getGuild().getId();
+        long guildId = event.getGuild().getIdLong();
         String guildName = event.getGuild().getName();
-        String userId = event.getMember().getId();
+        long userId = event.getMember().getIdLong();
         String userName = event.getMember().getEffectiveName();
         User user = event.getMember().getUser();
 
@@ -77,6 +87,8 @@ public class VoiceChannelListener extends ListenerAdapter {
             return;
         }
 
+        memberNameCache.put(guildId, userId, userName);
+
         // 채널에서 나갔을 경우
         VoiceChannel joinedChannel = null;
         VoiceChannel leftChannel = null;
@@ -99,7 +111,8 @@ public class VoiceChannelListener extends ListenerAdapter {
             logger.info("[{}] {}님이 음성 채널에서 나갔습니다.", guildName, userName);
             
             // 모든 세션 강제 종료 (화면공유 + 뽀모도로)
-            sessionManager.forceCloseSession(guildId, userId, userName);
+            voiceEventDispatcher.dispatch(guildId, userId,
+                    () -> sessionManager.forceCloseSession(guildId, userId, userName));
         }
     }
 
@@ -0,0 +1,192 @@
+package com.studybot.discord_study_bot.listener;
+
+import com.studybot.discord_study_bot.session.SessionIndex;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 음성 이벤트 분배기
+ * JDA 이벤트 스레드에서 받은 음성 이벤트를 (guildId, userId) 해시로 레인에 나눠 처리한다.
+ *
+ * - 같은 사용자의 이벤트는 항상 같은 레인에서 순서대로 실행 (화면공유 시작 → 종료 순서 보장)
+ * - 서로 다른 사용자의 이벤트는 다른 레인에서 동시에 실행되어, 한 길드의 느린 처리가 다른 길드를 막지 않음
+ * - 레인 큐가 가득 차면 JDA 스레드를 대기시켜 유입 속도를 늦춤 (순서를 깨는 우회 실행은 하지 않음)
+ * - 시작 시 세션 복구(SessionRecoveryService)가 끝나 release()가 호출될 때까지 레인은 이벤트를 쌓아 두기만 함
+ *   (복구가 음성 상태를 보고 여는 기록과 이벤트 처리가 겹쳐 같은 세션이 두 번 열리지 않도록)
+ */
+@Component
+public class VoiceEventDispatcher {
+
+    private static final Logger logger = LoggerFactory.getLogger(VoiceEventDispatcher.class);
+
+    private final Lane[] lanes;
+    private final Timer latencyTimer;
+    private final Timer waitTimer;
+    private volatile boolean running = true;
+    private final CountDownLatch released = new CountDownLatch(1);
+
+    public VoiceEventDispatcher(MeterRegistry meterRegistry,
+                                @Value("${voice-dispatcher.lanes:0}") int laneCount,
+                                @Value("${voice-dispatcher.lane-capacity:1000}") int laneCapacity) {
+        // 0이면 CPU 코어 수의 2배 (처리 대부분이 DB/저널 I/O 대기이므로 코어 수보다 많이 둠)
+        int count = laneCount > 0 ? laneCount : Runtime.getRuntime().availableProcessors() * 2;
+        this.lanes = new Lane[count];
+        for (int i = 0; i < count; i++) {
+            lanes[i] = new Lane(i, laneCapacity);
+        }
+
+        this.latencyTimer = Timer.builder("voice.dispatcher.event.latency")
+                .description("음성 이벤트 수신부터 처리 완료까지 걸린 시간")
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+        this.waitTimer = Timer.builder("voice.dispatcher.event.wait")
+                .description("음성 이벤트가 레인 큐에서 대기한 시간")
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+        Gauge.builder("voice.dispatcher.lanes", lanes, array -> array.length)
+                .description("음성 이벤트 레인 수")
+                .register(meterRegistry);
+        Gauge.builder("voice.dispatcher.queue.depth", this, VoiceEventDispatcher::queueDepth)
+                .description("모든 레인에서 처리 대기 중인 음성 이벤트 수")
+                .register(meterRegistry);
+        for (Lane lane : lanes) {
+            Gauge.builder("voice.dispatcher.lane.queue.depth", lane.queue, BlockingQueue::size)
+                    .description("레인별 처리 대기 중인 음성 이벤트 수")
+                    .tag("lane", String.valueOf(lane.index))
+                    .register(meterRegistry);
+        }
+
+        for (Lane lane : lanes) {
+            lane.thread.start();
+        }
+        logger.info("음성 이벤트 분배기 시작. 레인: {}개, 레인별 큐: {}건", count, laneCapacity);
+    }
+
+    /**
+     * 사용자 레인에 이벤트 처리를 넣음
+     * 이벤트 객체의 상태는 나중에 바뀔 수 있으므로 필요한 값은 호출 전에 꺼내 두어야 함
+     */
+    public void dispatch(long guildId, long userId, Runnable task) {
+        VoiceTask voiceTask = new VoiceTask(task, System.nanoTime());
+        if (!running) {
+            // 종료 이후 들어온 이벤트는 레인이 없으므로 직접 실행
+            execute(voiceTask);
+            return;
+        }
+
+        Lane lane = lanes[(int) Math.floorMod(SessionIndex.hash(guildId, userId), (long) lanes.length)];
+        if (lane.queue.offer(voiceTask)) {
+            return;
+        }
+        logger.warn("음성 이벤트 레인 {}의 큐가 가득 찼습니다. 자리가 날 때까지 대기합니다.", lane.index);
+        try {
+            lane.queue.put(voiceTask);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            logger.error("음성 이벤트 대기 중 인터럽트 발생. 직접 실행합니다.");
+            execute(voiceTask);
+        }
+    }
+
+    /**
+     * 세션 복구가 끝난 뒤 쌓인 이벤트부터 처리 시작
+     */
+    public void release() {
+        if (released.getCount() > 0) {
+            logger.info("음성 이벤트 처리 시작. 복구 중 쌓인 이벤트: {}건", (int) queueDepth());
+            released.countDown();
+        }
+    }
+
+    private void execute(VoiceTask voiceTask) {
+        try {
+            voiceTask.task().run();
+        } catch (Exception e) {
+            logger.error("음성 이벤트 처리 중 오류 발생", e);
+        } finally {
+            latencyTimer.record(System.nanoTime() - voiceTask.receivedNanos(), TimeUnit.NANOSECONDS);
+        }
+    }
+
+    private double queueDepth() {
+        int depth = 0;
+        for (Lane lane : lanes) {
+            depth += lane.queue.size();
+        }
+        return depth;
+    }
+
+    /**
+     * 종료 시 레인에 남은 이벤트를 모두 처리
+     */
+    @PreDestroy
+    public void shutdown() {
+        logger.info("음성 이벤트 분배기 종료 중... (대기: {}건)", (int) queueDepth());
+        running = false;
+        released.countDown();
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+        for (Lane lane : lanes) {
+            try {
+                lane.thread.join(Math.max(1, TimeUnit.NANOSECONDS.toMillis(deadline - System.nanoTime())));
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                break;
+            }
+            if (lane.thread.isAlive()) {
+                logger.error("음성 이벤트 레인 {}이 제시간에 종료되지 않았습니다. (대기: {}건)",
+                        lane.index, lane.queue.size());
+            }
+        }
+    }
+
+    /**
+     * 레인: 전용 스레드 하나가 자기 큐의 이벤트를 순서대로 실행
+     */
+    private final class Lane {
+        private final int index;
+        private final BlockingQueue<VoiceTask> queue;
+        private final Thread thread;
+
+        private Lane(int index, int capacity) {
+            this.index = index;
+            this.queue = new LinkedBlockingQueue<>(capacity);
+            this.thread = new Thread(this::run, "voice-lane-" + index);
+            this.thread.setDaemon(true);
+        }
+
+        private void run() {
+            try {
+                released.await();
+            } catch (InterruptedException e) {
+                running = false;
+            }
+            while (running || !queue.isEmpty()) {
+                try {
+                    VoiceTask voiceTask = queue.poll(200, TimeUnit.MILLISECONDS);
+                    if (voiceTask == null) {
+                        continue;
+                    }
+                    waitTimer.record(System.nanoTime() - voiceTask.receivedNanos(), TimeUnit.NANOSECONDS);
+                    execute(voiceTask);
+                } catch (InterruptedException e) {
+                    // 종료 신호: 루프 조건에서 남은 이벤트를 마저 처리
+                    running = false;
+                }
+            }
+        }
+    }
+
+    private record VoiceTask(Runnable task, long receivedNanos) {
+    }
+}
@@ -0,0 +1,451 @@
+package com.studybot.discord_study_bot.live;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.MediaType;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 서버별 실시간 이벤트(SSE) 구독 관리
+ * 세션 시작/종료, 공유 뽀모도로 단계 변경, 리더보드 순위 변화를 구독자에게 보낸다.
+ *
+ * - 연결마다 스레드를 두지 않음: SseEmitter(비동기 서블릿)로 연결을 유지하고,
+ *   보낼 이벤트가 있는 구독자만 소수의 전송 스레드(sender-threads)가 처리
+ * - 이벤트는 한 번만 JSON으로 만들어 모든 구독자가 같은 문자열을 사용
+ * - 구독자마다 버퍼(buffer-size)가 있고, 가득 차면(느린 클라이언트) 연결을 끊음.
+ *   클라이언트는 다시 연결하면 리더보드 전체 상태부터 다시 받음
+ * - 전송(서블릿 쓰기)은 블로킹이라 TCP를 읽지 않는 클라이언트는 전송 스레드를 붙잡고, 그 버퍼를 비우는 스레드도
+ *   그 하나뿐이라 버퍼 제한으로는 끊기지 않음. 감시 스레드가 send-timeout-ms보다 오래 걸리는 전송을 찾아
+ *   그 구독자를 빼고 전송 스레드를 깨우며, 쓰기가 풀릴 때까지(컨테이너 쓰기 제한 시간) 전송 스레드를 하나 더 둠.
+ *   따라서 멈춘 클라이언트가 있어도 다른 구독자에게 보내는 스레드 수는 줄지 않음
+ * - 발행은 큐에 넣기만 하므로 세션 잠금 안에서 호출해도 됨
+ */
+@Service
+public class LiveEventHub {
+
+    private static final Logger logger = LoggerFactory.getLogger(LiveEventHub.class);
+
+    private final ObjectMapper objectMapper;
+    private final int bufferSize;
+    private final int maxSubscribers;
+    private final long emitterTimeoutMs;
+    private final long sendTimeoutNanos;
+    private final ThreadPoolExecutor sender;
+    private final int senderThreads;
+    private int stalledSends; // 멈춘 전송에 붙잡힌 전송 스레드 수 (그만큼 스레드를 더 둠)
+    private final ScheduledExecutorService watchdog;
+
+    // Key: guildId, Value: 그 서버의 구독자
+    private final Map<Long, Set<Subscriber>> subscribers = new ConcurrentHashMap<>();
+    // 새 구독자에게 먼저 보낼 서버별 리더보드 전체 상태 (LiveLeaderboardPublisher가 갱신)
+    private final Map<Long, Event> snapshots = new ConcurrentHashMap<>();
+    private final AtomicInteger subscriberCount = new AtomicInteger();
+
+    // 메트릭
+    private final MeterRegistry meterRegistry;
+    private final Counter droppedCounter;
+    private final Counter stalledCounter;
+    private final Counter rejectedCounter;
+
+    public LiveEventHub(ObjectMapper objectMapper, MeterRegistry meterRegistry,
+                        @Value("${live-events.buffer-size:64}") int bufferSize,
+                        @Value("${live-events.max-subscribers:10000}") int maxSubscribers,
+                        @Value("${live-events.emitter-timeout-minutes:30}") long emitterTimeoutMinutes,
+                        @Value("${live-events.sender-threads:4}") int senderThreads,
+                        @Value("${live-events.send-timeout-ms:5000}") long sendTimeoutMs) {
+        this.objectMapper = objectMapper;
+        this.bufferSize = Math.max(1, bufferSize);
+        this.maxSubscribers = maxSubscribers;
+        this.emitterTimeoutMs = emitterTimeoutMinutes * 60_000L;
+        this.sendTimeoutNanos = TimeUnit.MILLISECONDS.toNanos(Math.max(1, sendTimeoutMs));
+        this.senderThreads = Math.max(1, senderThreads);
+        AtomicInteger index = new AtomicInteger();
+        this.sender = new ThreadPoolExecutor(this.senderThreads, this.senderThreads, 60, TimeUnit.SECONDS,
+                new LinkedBlockingQueue<>(), runnable -> {
+            Thread thread = new Thread(runnable, "live-event-sender-" + index.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.watchdog = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "live-event-watchdog");
+            thread.setDaemon(true);
+            return thread;
+        });
+        long checkIntervalMs = Math.max(100, sendTimeoutMs / 2);
+        watchdog.scheduleWithFixedDelay(this::dropStalledSends, checkIntervalMs, checkIntervalMs, TimeUnit.MILLISECONDS);
+
+        this.meterRegistry = meterRegistry;
+        this.droppedCounter = Counter.builder("live_events.subscribers.dropped")
+                .description("버퍼가 가득 차 연결을 끊은 느린 구독자 수")
+                .register(meterRegistry);
+        this.stalledCounter = Counter.builder("live_events.subscribers.stalled")
+                .description("전송이 send-timeout-ms 안에 끝나지 않아 연결을 끊은 구독자 수")
+                .register(meterRegistry);
+        Gauge.builder("live_events.sender.stalled", this, hub -> hub.stalledSenderCount())
+                .description("멈춘 전송에 붙잡혀 있는 전송 스레드 수")
+                .register(meterRegistry);
+        this.rejectedCounter = Counter.builder("live_events.subscribers.rejected")
+                .description("최대 구독자 수를 넘어 거절한 연결 수")
+                .register(meterRegistry);
+        Gauge.builder("live_events.subscribers", subscriberCount, AtomicInteger::get)
+                .description("현재 구독자 수")
+                .register(meterRegistry);
+    }
+
+    /**
+     * 보낼 이벤트 (data는 이미 만들어 둔 JSON, type이 null이면 연결 유지용 주석)
+     */
+    record Event(String type, String data) {
+    }
+
+    // ===== 이벤트 내용 =====
+
+    /**
+     * 세션 시작/종료
+     *
+     * @param at 시작 또는 종료 시각 (epoch seconds)
+     */
+    public record SessionChange(String userId, boolean active, long at) {
+    }
+
+    /**
+     * 공유 뽀모도로 상태 변경
+     *
+     * @param state STUDY / SHORT_BREAK / LONG_BREAK / PAUSED / STOPPED
+     */
+    public record PomodoroChange(String channelId, String state, int currentSet, long remainingSeconds) {
+    }
+
+    /**
+     * 리더보드 순위 (userId, 순위, 누적 초)
+     */
+    public record Position(String userId, int rank, long seconds) {
+    }
+
+    /**
+     * 리더보드 변화
+     *
+     * @param full    true면 전체 상태(구독 직후), false면 바뀐 순위만
+     * @param changed 새로 들어왔거나 순위가 바뀐 사용자
+     * @param removed 순위 밖으로 나간 사용자
+     */
+    public record LeaderboardDelta(String period, boolean full, List<Position> changed, List<String> removed) {
+    }
+
+    // ===== 구독 =====
+
+    /**
+     * 서버의 이벤트 구독 시작
+     *
+     * @return 구독자 수가 최대치면 null
+     */
+    public SseEmitter subscribe(long guildId) {
+        if (subscriberCount.incrementAndGet() > maxSubscribers) {
+            subscriberCount.decrementAndGet();
+            rejectedCounter.increment();
+            return null;
+        }
+        SseEmitter emitter = new SseEmitter(emitterTimeoutMs);
+        Subscriber subscriber = new Subscriber(guildId, emitter);
+        emitter.onCompletion(() -> remove(subscriber));
+        emitter.onTimeout(() -> remove(subscriber));
+        emitter.onError(e -> remove(subscriber));
+        subscribers.computeIfAbsent(guildId, id -> ConcurrentHashMap.newKeySet()).add(subscriber);
+
+        Event snapshot = snapshots.get(guildId);
+        if (snapshot != null) {
+            subscriber.offer(snapshot);
+        }
+        return emitter;
+    }
+
+    /**
+     * 구독자가 있는 서버 ID
+     */
+    public Set<Long> activeGuildIds() {
+        return subscribers.keySet();
+    }
+
+    public boolean hasSubscribers(long guildId) {
+        Set<Subscriber> set = subscribers.get(guildId);
+        return set != null && !set.isEmpty();
+    }
+
+    // ===== 발행 =====
+
+    public void publishSession(long guildId, long userId, boolean active, long at) {
+        publish(guildId, "session", new SessionChange(Long.toString(userId), active, at));
+    }
+
+    public void publishPomodoro(long guildId, String channelId, String state, int currentSet, long remainingSeconds) {
+        publish(guildId, "pomodoro", new PomodoroChange(channelId, state, currentSet, remainingSeconds));
+    }
+
+    /**
+     * 리더보드 변화를 보내고, 새 구독자용 전체 상태를 갱신
+     */
+    public void publishLeaderboard(long guildId, LeaderboardDelta delta, LeaderboardDelta full) {
+        Event snapshot = toEvent("leaderboard", full);
+        if (snapshot == null) {
+            return;
+        }
+        snapshots.put(guildId, snapshot);
+        if (delta != null) {
+            publish(guildId, "leaderboard", delta);
+        }
+    }
+
+    /**
+     * 구독자가 없어진 서버의 전체 상태 정리
+     */
+    public void clearSnapshot(long guildId) {
+        snapshots.remove(guildId);
+    }
+
+    private void publish(long guildId, String type, Object payload) {
+        Set<Subscriber> set = subscribers.get(guildId);
+        if (set == null || set.isEmpty()) {
+            return;
+        }
+        Event event = toEvent(type, payload);
+        if (event == null) {
+            return;
+        }
+        meterRegistry.counter("live_events.published", "type", type).increment();
+        for (Subscriber subscriber : set) {
+            subscriber.offer(event);
+        }
+    }
+
+    private Event toEvent(String type, Object payload) {
+        try {
+            return new Event(type, objectMapper.writeValueAsString(payload));
+        } catch (JsonProcessingException e) {
+            logger.error("실시간 이벤트 직렬화 실패. 종류: {}", type, e);
+            return null;
+        }
+    }
+
+    /**
+     * 연결 유지용 주석 전송 (프록시가 유휴 연결을 끊지 않도록, 끊긴 연결 정리)
+     */
+    @Scheduled(fixedDelayString = "${live-events.heartbeat-ms:30000}")
+    public void heartbeat() {
+        Event ping = new Event(null, null);
+        for (Set<Subscriber> set : subscribers.values()) {
+            for (Subscriber subscriber : set) {
+                subscriber.offer(ping);
+            }
+        }
+    }
+
+    /**
+     * 전송이 send-timeout-ms보다 오래 걸리는 구독자를 빼고, 붙잡힌 전송 스레드 대신 스레드를 하나 더 둠
+     */
+    private void dropStalledSends() {
+        long now = System.nanoTime();
+        for (Set<Subscriber> set : subscribers.values()) {
+            for (Subscriber subscriber : set) {
+                if (subscriber.abortIfStalled(now)) {
+                    stalledCounter.increment();
+                    logger.warn("실시간 이벤트 전송이 {}ms 안에 끝나지 않아 연결을 끊었습니다. 길드: {}",
+                            TimeUnit.NANOSECONDS.toMillis(sendTimeoutNanos), subscriber.guildId);
+                }
+            }
+        }
+    }
+
+    /**
+     * 멈춘 전송 수만큼 전송 스레드 수를 늘리거나 줄임 (늘릴 때는 최대치부터, 줄일 때는 기본 수부터 바꿔야 함)
+     */
+    private synchronized void adjustStalledSenders(int delta) {
+        stalledSends += delta;
+        int size = senderThreads + stalledSends;
+        if (delta > 0) {
+            sender.setMaximumPoolSize(size);
+            sender.setCorePoolSize(size);
+        } else {
+            sender.setCorePoolSize(size);
+            sender.setMaximumPoolSize(size);
+        }
+    }
+
+    private synchronized int stalledSenderCount() {
+        return stalledSends;
+    }
+
+    private void remove(Subscriber subscriber) {
+        if (!subscriber.closed.compareAndSet(false, true)) {
+            return;
+        }
+        subscriberCount.decrementAndGet();
+        subscribers.computeIfPresent(subscriber.guildId, (id, set) -> {
+            set.remove(subscriber);
+            return set.isEmpty() ? null : set;
+        });
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        watchdog.shutdownNow();
+        sender.shutdownNow();
+        for (Set<Subscriber> set : subscribers.values()) {
+            for (Subscriber subscriber : set) {
+                subscriber.emitter.complete();
+            }
+        }
+    }
+
+    /**
+     * 구독자 하나 (제한된 버퍼 + 한 번에 한 스레드만 전송)
+     */
+    private final class Subscriber {
+        private final long guildId;
+        private final SseEmitter emitter;
+        private final ArrayBlockingQueue<Event> buffer = new ArrayBlockingQueue<>(bufferSize);
+        private final AtomicBoolean draining = new AtomicBoolean();
+        private final AtomicBoolean closed = new AtomicBoolean();
+        // 진행 중인 전송 (sendingThread가 null이면 전송 중 아님)
+        private Thread sendingThread;
+        private long sendStartedNanos;
+        private boolean stalled;
+
+        private Subscriber(long guildId, SseEmitter emitter) {
+            this.guildId = guildId;
+            this.emitter = emitter;
+        }
+
+        private void offer(Event event) {
+            if (closed.get()) {
+                return;
+            }
+            if (!buffer.offer(event)) {
+                // 느린 구독자: 버퍼를 비울 때까지 기다리지 않고 연결을 끊음
+                droppedCounter.increment();
+                remove(this);
+                completeUnlessSending(null);
+                return;
+            }
+            if (draining.compareAndSet(false, true)) {
+                sender.execute(this::drain);
+            }
+        }
+
+        private void drain() {
+            while (true) {
+                Event event;
+                while ((event = buffer.poll()) != null) {
+                    if (closed.get()) {
+                        buffer.clear();
+                        break;
+                    }
+                    beginSend();
+                    Exception error = null;
+                    try {
+                        if (event.type() == null) {
+                            emitter.send(SseEmitter.event().comment("ping"));
+                        } else {
+                            emitter.send(SseEmitter.event().name(event.type())
+                                    .data(event.data(), MediaType.APPLICATION_JSON));
+                        }
+                    } catch (IOException | IllegalStateException e) {
+                        // 클라이언트가 연결을 끊음
+                        error = e;
+                    }
+                    boolean stalled = endSend();
+                    if (error != null || stalled) {
+                        remove(this);
+                        emitter.completeWithError(error != null ? error
+                                : new TimeoutException("실시간 이벤트 전송 시간 초과"));
+                        buffer.clear();
+                        break;
+                    }
+                    if (closed.get()) {
+                        // 전송 중 다른 스레드가 끊은 구독자 (전송 중에는 emitter를 닫지 않고 여기서 닫음)
+                        emitter.complete();
+                        buffer.clear();
+                        break;
+                    }
+                }
+                draining.set(false);
+                // 전송 중 들어온 이벤트가 남아 있으면 다시 맡음
+                if (buffer.isEmpty() || !draining.compareAndSet(false, true)) {
+                    return;
+                }
+            }
+        }
+
+        private synchronized void beginSend() {
+            sendingThread = Thread.currentThread();
+            sendStartedNanos = System.nanoTime();
+        }
+
+        /**
+         * @return 감시 스레드가 멈춘 전송으로 처리했는지
+         */
+        private synchronized boolean endSend() {
+            sendingThread = null;
+            // 감시 스레드가 깨운 인터럽트가 다음 구독자의 전송에 남지 않도록 지움
+            Thread.interrupted();
+            if (!stalled) {
+                return false;
+            }
+            adjustStalledSenders(-1);
+            return true;
+        }
+
+        /**
+         * 전송 중이 아니면 바로 emitter를 닫음
+         * 전송 중이면 emitter 잠금이 풀리지 않을 수 있으므로 전송이 끝난 뒤 전송 스레드가 닫음
+         */
+        private synchronized void completeUnlessSending(Exception error) {
+            if (sendingThread != null) {
+                return;
+            }
+            if (error != null) {
+                emitter.completeWithError(error);
+            } else {
+                emitter.complete();
+            }
+        }
+
+        /**
+         * 전송이 제한 시간을 넘겼으면 구독자를 빼고 전송 스레드를 깨움
+         * emitter는 쓰기와 같은 잠금을 쓰므로 여기서 닫지 않고, 쓰기가 풀리면 전송 스레드가 닫음
+         */
+        private synchronized boolean abortIfStalled(long now) {
+            if (sendingThread == null || stalled || now - sendStartedNanos < sendTimeoutNanos) {
+                return false;
+            }
+            stalled = true;
+            remove(this);
+            adjustStalledSenders(1);
+            sendingThread.interrupt();
+            return true;
+        }
+    }
+}
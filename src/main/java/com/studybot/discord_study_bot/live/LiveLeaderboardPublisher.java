@@ -0,0 +1,98 @@
+package com.studybot.discord_study_bot.live;
+
+import com.studybot.discord_study_bot.leaderboard.Leaderboard;
+import com.studybot.discord_study_bot.leaderboard.LeaderboardPeriod;
+import com.studybot.discord_study_bot.service.LeaderboardService;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * 구독자가 있는 서버의 주간 상위 10명을 주기적으로 계산해 순위 변화만 보냄
+ * 메모리 리더보드에서만 읽으므로 DB를 조회하지 않음 (로딩 전이면 건너뜀)
+ *
+ * 진행 중인 세션의 누적 시간은 계속 늘어나므로 순위가 그대로면 보내지 않음.
+ * (클라이언트는 session 이벤트로 진행 중인 사용자를 알고 시간을 직접 늘려 표시)
+ */
+@Component
+public class LiveLeaderboardPublisher {
+
+    private static final int LIMIT = 10;
+
+    private final LeaderboardService leaderboardService;
+    private final LiveEventHub liveEventHub;
+    private final long excludeUserId;
+
+    // Key: guildId, Value: 마지막으로 보낸 순위 (userId → [순위, 누적 초])
+    private final Map<Long, Map<Long, long[]>> lastSent = new HashMap<>();
+
+    public LiveLeaderboardPublisher(LeaderboardService leaderboardService, LiveEventHub liveEventHub,
+                                    @Value("${discord.exclude-user-id:0}") long excludeUserId) {
+        this.leaderboardService = leaderboardService;
+        this.liveEventHub = liveEventHub;
+        this.excludeUserId = excludeUserId;
+    }
+
+    @Scheduled(fixedDelayString = "${live-events.leaderboard-interval-ms:5000}")
+    public void publish() {
+        if (!leaderboardService.isLoaded()) {
+            return;
+        }
+        Set<Long> guildIds = liveEventHub.activeGuildIds();
+        // 구독자가 모두 나간 서버는 정리
+        lastSent.keySet().removeIf(guildId -> {
+            if (!guildIds.contains(guildId)) {
+                liveEventHub.clearSnapshot(guildId);
+                return true;
+            }
+            return false;
+        });
+
+        for (Long guildId : guildIds) {
+            List<Leaderboard.Entry> top = leaderboardService.top(guildId, LeaderboardPeriod.WEEKLY, LIMIT, excludeUserId);
+            Map<Long, long[]> previous = lastSent.get(guildId);
+            Map<Long, long[]> current = new HashMap<>();
+            List<LiveEventHub.Position> all = new ArrayList<>(top.size());
+            List<LiveEventHub.Position> changed = new ArrayList<>();
+
+            for (int i = 0; i < top.size(); i++) {
+                Leaderboard.Entry entry = top.get(i);
+                int rank = i + 1;
+                LiveEventHub.Position position = new LiveEventHub.Position(
+                        Long.toString(entry.userId()), rank, entry.seconds());
+                all.add(position);
+                current.put(entry.userId(), new long[]{rank, entry.seconds()});
+
+                long[] before = previous != null ? previous.get(entry.userId()) : null;
+                if (before == null || before[0] != rank) {
+                    changed.add(position);
+                }
+            }
+
+            List<String> removed = new ArrayList<>();
+            if (previous != null) {
+                previous.keySet().forEach(userId -> {
+                    if (!current.containsKey(userId)) {
+                        removed.add(Long.toString(userId));
+                    }
+                });
+            }
+
+            LiveEventHub.LeaderboardDelta full = new LiveEventHub.LeaderboardDelta(
+                    LeaderboardPeriod.WEEKLY.name(), true, all, List.of());
+            // 처음 계산한 서버는 이미 연결된 구독자에게도 전체 상태를 보냄
+            LiveEventHub.LeaderboardDelta delta = previous == null ? full
+                    : !changed.isEmpty() || !removed.isEmpty()
+                    ? new LiveEventHub.LeaderboardDelta(LeaderboardPeriod.WEEKLY.name(), false, changed, removed)
+                    : null;
+            liveEventHub.publishLeaderboard(guildId, delta, full);
+            lastSent.put(guildId, current);
+        }
+    }
+}
@@ -0,0 +1,12 @@
+package com.studybot.discord_study_bot.repository;
+
+import com.studybot.discord_study_bot.entity.GuildSettings;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+/**
+ * 서버별 설정(guild_settings) 조회
+ */
+@Repository
+public interface GuildSettingsRepository extends JpaRepository<GuildSettings, Long> {
+}
@@ -0,0 +1,70 @@
+package com.studybot.discord_study_bot.repository;
+
+import com.studybot.discord_study_bot.entity.RankingSnapshot;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDate;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * 확정 랭킹(ranking_snapshot) 조회
+ * 모두 기본 키 (guild_id, period, period_start, rank_no) 앞부분으로 읽음
+ */
+@Repository
+public interface RankingSnapshotRepository extends JpaRepository<RankingSnapshot, RankingSnapshot.Key> {
+
+        /**
+         * 한 기간의 상위 limit명
+         *
+         * @return [user_id, 공부 시간(초)] 배열의 리스트 (순위 순)
+         */
+        @Query(value = "SELECT s.user_id, s.seconds FROM ranking_snapshot s " +
+                        "WHERE s.guild_id = :guildId AND s.period = :period AND s.period_start = :periodStart " +
+                        "AND s.rank_no <= :limit " +
+                        "ORDER BY s.rank_no", nativeQuery = true)
+        List<Object[]> findTop(@Param("guildId") long guildId,
+                        @Param("period") String period,
+                        @Param("periodStart") LocalDate periodStart,
+                        @Param("limit") int limit);
+
+        /**
+         * 여러 서버의 한 기간 상위 limit명 (랭킹 자동 포스트용)
+         *
+         * @return [guild_id, user_id, 공부 시간(초)] 배열의 리스트 (서버별 순위 순)
+         */
+        @Query(value = "SELECT s.guild_id, s.user_id, s.seconds FROM ranking_snapshot s " +
+                        "WHERE s.guild_id IN (:guildIds) AND s.period = :period AND s.period_start = :periodStart " +
+                        "AND s.rank_no <= :limit " +
+                        "ORDER BY s.guild_id, s.rank_no", nativeQuery = true)
+        List<Object[]> findTopForGuilds(@Param("guildIds") Collection<Long> guildIds,
+                        @Param("period") String period,
+                        @Param("periodStart") LocalDate periodStart,
+                        @Param("limit") int limit);
+
+        /**
+         * 한 서버의 최근 확정 기간 시작일 (최신순)
+         *
+         * @return 기간 시작일 리스트 (드라이버에 따라 Date 또는 LocalDate)
+         */
+        @Query(value = "SELECT DISTINCT s.period_start FROM ranking_snapshot s " +
+                        "WHERE s.guild_id = :guildId AND s.period = :period " +
+                        "ORDER BY s.period_start DESC " +
+                        "LIMIT :count", nativeQuery = true)
+        List<Object> findRecentPeriodStarts(@Param("guildId") long guildId,
+                        @Param("period") String period,
+                        @Param("count") int count);
+
+        /**
+         * 해당 기간이 이미 확정된 서버 (서버마다 시간대가 달라 기간이 끝나는 시각이 다름)
+         *
+         * @return guild_id 리스트
+         */
+        @Query(value = "SELECT DISTINCT s.guild_id FROM ranking_snapshot s " +
+                        "WHERE s.period = :period AND s.period_start = :periodStart", nativeQuery = true)
+        List<Number> findFrozenGuildIds(@Param("period") String period,
+                        @Param("periodStart") LocalDate periodStart);
+}
@@ -0,0 +1,187 @@
+package com.studybot.discord_study_bot.repository;
+
+import com.studybot.discord_study_bot.entity.StudyDailyAgg;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDate;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * 일별 집계 테이블(study_daily_agg) 조회
+ * study_log 원본 대신 (서버, 유저, 날짜)당 한 행만 읽으므로 기간 랭킹이 유저 수 x 일 수 만큼만 스캔됨
+ */
+@Repository
+public interface StudyDailyAggRepository extends JpaRepository<StudyDailyAgg, StudyDailyAgg.Key> {
+
+        /**
+         * 특정 서버의 기간 내 사용자의 공부 시간 합계를 계산하여 랭킹을 반환.
+         *
+         * @param guildId       서버의 Discord Guild ID
+         * @param startDay      시작일 (포함)
+         * @param endDay        종료일 (포함)
+         * @param excludeUserId 제외할 userID
+         * @return [user_id, 공부 시간(초)의 합계] 배열의 리스트
+         */
+        @Query(value = "SELECT a.user_id, SUM(a.seconds) " +
+                        "FROM study_daily_agg a " +
+                        "WHERE a.guild_id = :guildId AND a.day BETWEEN :startDay AND :endDay " +
+                        "AND a.user_id != :excludeUserId " +
+                        "GROUP BY a.user_id " +
+                        "ORDER BY SUM(a.seconds) DESC " +
+                        "LIMIT 10", nativeQuery = true)
+        List<Object[]> findRankingsByPeriodAndGuild(@Param("guildId") long guildId,
+                        @Param("startDay") LocalDate startDay,
+                        @Param("endDay") LocalDate endDay,
+                        @Param("excludeUserId") long excludeUserId);
+
+        /**
+         * 특정 서버의 임의 기간 랭킹 (상위 limit명, 메모리 리더보드 로딩 전에만 사용)
+         *
+         * @return [user_id, 공부 시간(초)의 합계] 배열의 리스트
+         */
+        @Query(value = "SELECT a.user_id, SUM(a.seconds) " +
+                        "FROM study_daily_agg a " +
+                        "WHERE a.guild_id = :guildId AND a.day BETWEEN :startDay AND :endDay " +
+                        "AND a.user_id != :excludeUserId " +
+                        "GROUP BY a.user_id " +
+                        "HAVING SUM(a.seconds) > 0 " +
+                        "ORDER BY SUM(a.seconds) DESC, a.user_id " +
+                        "LIMIT :limit", nativeQuery = true)
+        List<Object[]> findRankingsByWindow(@Param("guildId") long guildId,
+                        @Param("startDay") LocalDate startDay,
+                        @Param("endDay") LocalDate endDay,
+                        @Param("excludeUserId") long excludeUserId,
+                        @Param("limit") int limit);
+
+        /**
+         * 여러 서버의 기간 랭킹(서버별 상위 10명)을 한 번에 조회 (랭킹 자동 포스트용)
+         *
+         * @param guildIds      서버의 Discord Guild ID 목록
+         * @param startDay      시작일 (포함)
+         * @param endDay        종료일 (포함)
+         * @param excludeUserId 제외할 userID
+         * @return [guild_id, user_id, 공부 시간(초)의 합계] 배열의 리스트 (서버별 순위 순)
+         */
+        @Query(value = "SELECT r.guild_id, r.user_id, r.total FROM (" +
+                        "SELECT a.guild_id, a.user_id, SUM(a.seconds) AS total, " +
+                        "ROW_NUMBER() OVER (PARTITION BY a.guild_id ORDER BY SUM(a.seconds) DESC, a.user_id) AS rnk " +
+                        "FROM study_daily_agg a " +
+                        "WHERE a.guild_id IN (:guildIds) AND a.day BETWEEN :startDay AND :endDay " +
+                        "AND a.user_id != :excludeUserId " +
+                        "GROUP BY a.guild_id, a.user_id) r " +
+                        "WHERE r.rnk <= 10 " +
+                        "ORDER BY r.guild_id, r.rnk", nativeQuery = true)
+        List<Object[]> findRankingsByPeriodForGuilds(@Param("guildIds") Collection<Long> guildIds,
+                        @Param("startDay") LocalDate startDay,
+                        @Param("endDay") LocalDate endDay,
+                        @Param("excludeUserId") long excludeUserId);
+
+        /**
+         * 특정 서버의 기간 내 개인 공부 시간 합계
+         *
+         * @param guildId  서버의 Discord Guild ID
+         * @param userId   유저 고유 ID
+         * @param startDay 시작일 (포함)
+         * @param endDay   종료일 (포함)
+         */
+        @Query(value = "SELECT SUM(a.seconds) " +
+                        "FROM study_daily_agg a " +
+                        "WHERE a.guild_id = :guildId AND a.user_id = :userId " +
+                        "AND a.day BETWEEN :startDay AND :endDay", nativeQuery = true)
+        Optional<Long> findTotalDurationByUserIdPeriodAndGuild(@Param("guildId") long guildId,
+                        @Param("userId") long userId,
+                        @Param("startDay") LocalDate startDay,
+                        @Param("endDay") LocalDate endDay);
+
+        /**
+         * 일별 공부 시간 조회 (히트맵/개인 통계용)
+         *
+         * @param guildId  서버의 Discord Guild ID
+         * @param userId   유저 고유 ID
+         * @param startDay 시작일 (포함)
+         * @param endDay   종료일 (포함)
+         * @return [날짜, 공부시간(초)] 배열의 리스트
+         */
+        @Query(value = "SELECT a.day, a.seconds " +
+                        "FROM study_daily_agg a " +
+                        "WHERE a.guild_id = :guildId AND a.user_id = :userId " +
+                        "AND a.day BETWEEN :startDay AND :endDay " +
+                        "ORDER BY a.day", nativeQuery = true)
+        List<Object[]> findDailyStudyTime(@Param("guildId") long guildId,
+                        @Param("userId") long userId,
+                        @Param("startDay") LocalDate startDay,
+                        @Param("endDay") LocalDate endDay);
+
+        /**
+         * 여러 사용자의 일별 공부 시간 (일괄 통계용)
+         *
+         * @param guildId  서버의 Discord Guild ID
+         * @param userIds  유저 ID 리스트
+         * @param startDay 시작일 (포함)
+         * @param endDay   종료일 (포함)
+         * @return [날짜, 공부시간(초), user_id] 배열의 리스트 (사용자별, 날짜순)
+         */
+        @Query(value = "SELECT a.day, a.seconds, a.user_id " +
+                        "FROM study_daily_agg a " +
+                        "WHERE a.guild_id = :guildId AND a.user_id IN (:userIds) " +
+                        "AND a.day BETWEEN :startDay AND :endDay " +
+                        "ORDER BY a.user_id, a.day", nativeQuery = true)
+        List<Object[]> findDailyStudyTimeForUsers(@Param("guildId") long guildId,
+                        @Param("userIds") Collection<Long> userIds,
+                        @Param("startDay") LocalDate startDay,
+                        @Param("endDay") LocalDate endDay);
+
+        /**
+         * 기간 안에 공부한 사용자 ID (일괄 통계의 "서버 전체" 요청용)
+         *
+         * @return user_id 리스트 (오름차순)
+         */
+        @Query(value = "SELECT DISTINCT a.user_id " +
+                        "FROM study_daily_agg a " +
+                        "WHERE a.guild_id = :guildId AND a.day BETWEEN :startDay AND :endDay " +
+                        "ORDER BY a.user_id", nativeQuery = true)
+        List<Long> findActiveUserIds(@Param("guildId") long guildId,
+                        @Param("startDay") LocalDate startDay,
+                        @Param("endDay") LocalDate endDay);
+
+        /**
+         * 공부한 날짜 목록 (연속 기록 표시용)
+         *
+         * @return 공부 시간이 있는 날짜 리스트 (오래된 순, 드라이버에 따라 Date 또는 LocalDate)
+         */
+        @Query(value = "SELECT a.day " +
+                        "FROM study_daily_agg a " +
+                        "WHERE a.guild_id = :guildId AND a.user_id = :userId " +
+                        "AND a.day BETWEEN :startDay AND :endDay AND a.seconds > 0 " +
+                        "ORDER BY a.day", nativeQuery = true)
+        List<Object> findStudyDays(@Param("guildId") long guildId,
+                        @Param("userId") long userId,
+                        @Param("startDay") LocalDate startDay,
+                        @Param("endDay") LocalDate endDay);
+
+        /**
+         * 기간 내 한 사용자의 공부 시간, 순위, 참여자 수 (메모리 리더보드 로딩 전 /myrank용)
+         * 리더보드와 같은 순서(시간 내림차순, user_id 오름차순)로 순위를 매김
+         *
+         * @return [공부 시간(초), 순위, 참여자 수] (기록이 없으면 빈 리스트)
+         */
+        @Query(value = "SELECT r.total, r.rnk, r.cnt FROM (" +
+                        "SELECT a.user_id, SUM(a.seconds) AS total, " +
+                        "ROW_NUMBER() OVER (ORDER BY SUM(a.seconds) DESC, a.user_id) AS rnk, " +
+                        "COUNT(*) OVER () AS cnt " +
+                        "FROM study_daily_agg a " +
+                        "WHERE a.guild_id = :guildId AND a.day BETWEEN :startDay AND :endDay " +
+                        "AND a.user_id != :excludeUserId " +
+                        "GROUP BY a.user_id HAVING SUM(a.seconds) > 0) r " +
+                        "WHERE r.user_id = :userId", nativeQuery = true)
+        List<Object[]> findUserStanding(@Param("guildId") long guildId,
+                        @Param("userId") long userId,
+                        @Param("startDay") LocalDate startDay,
+                        @Param("endDay") LocalDate endDay,
+                        @Param("excludeUserId") long excludeUserId);
+}
@@ -0,0 +1,51 @@
+package com.studybot.discord_study_bot.repository;
+
+import com.studybot.discord_study_bot.entity.StudyHourAgg;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+/**
+ * 서버 시간대 히트맵 집계(study_hour_agg) 조회
+ * 기본 키 (guild_id, channel_id, day_of_week, hour) 범위만 읽으므로 서버당 채널 수 x 168행 이하
+ */
+@Repository
+public interface StudyHourAggRepository extends JpaRepository<StudyHourAgg, StudyHourAgg.Key> {
+
+        /**
+         * 서버 전체의 요일/시간대별 공부 시간 (모든 채널 합산)
+         *
+         * @return [요일(1=월), 시간(0-23), 공부 시간(초)] 배열의 리스트
+         */
+        @Query(value = "SELECT a.day_of_week, a.hour, SUM(a.seconds) " +
+                        "FROM study_hour_agg a " +
+                        "WHERE a.guild_id = :guildId " +
+                        "GROUP BY a.day_of_week, a.hour", nativeQuery = true)
+        List<Object[]> findGuildHeatmap(@Param("guildId") long guildId);
+
+        /**
+         * 한 채널의 요일/시간대별 공부 시간
+         *
+         * @param channelId 음성 채널 ID (0이면 채널을 모르는 기록)
+         * @return [요일(1=월), 시간(0-23), 공부 시간(초)] 배열의 리스트
+         */
+        @Query(value = "SELECT a.day_of_week, a.hour, a.seconds " +
+                        "FROM study_hour_agg a " +
+                        "WHERE a.guild_id = :guildId AND a.channel_id = :channelId", nativeQuery = true)
+        List<Object[]> findChannelHeatmap(@Param("guildId") long guildId, @Param("channelId") long channelId);
+
+        /**
+         * 서버의 채널별 공부 시간 합계 (많은 순)
+         *
+         * @return [channel_id, 공부 시간(초)의 합계] 배열의 리스트
+         */
+        @Query(value = "SELECT a.channel_id, SUM(a.seconds) " +
+                        "FROM study_hour_agg a " +
+                        "WHERE a.guild_id = :guildId " +
+                        "GROUP BY a.channel_id " +
+                        "ORDER BY SUM(a.seconds) DESC", nativeQuery = true)
+        List<Object[]> findChannelTotals(@Param("guildId") long guildId);
+}
@@ -0,0 +1,20 @@
+package com.studybot.discord_study_bot.repository;
+
+import com.studybot.discord_study_bot.entity.StudyStreak;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * 연속 공부 기록(study_streak) 조회
+ */
+@Repository
+public interface StudyStreakRepository extends JpaRepository<StudyStreak, StudyStreak.Key> {
+
+    /**
+     * 한 서버의 여러 사용자의 연속 기록 (일괄 통계용)
+     */
+    List<StudyStreak> findByGuildIdAndUserIdIn(long guildId, Collection<Long> userIds);
+}
@@ -1,162 +1,541 @@
 package com.studybot.discord_study_bot.scheduler;
 
 import com.studybot.discord_study_bot.dto.RankingDto;
+import com.studybot.discord_study_bot.leaderboard.LeaderboardPeriod;
+import com.studybot.discord_study_bot.service.GuildTimeZoneService;
+import com.studybot.discord_study_bot.service.MemberNameCache;
 import com.studybot.discord_study_bot.service.RankingService;
+import com.studybot.discord_study_bot.service.RankingSnapshotService;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
 import net.dv8tion.jda.api.EmbedBuilder;
 import net.dv8tion.jda.api.JDA;
 import net.dv8tion.jda.api.entities.Guild;
-import net.dv8tion.jda.api.entities.Member;
 import net.dv8tion.jda.api.entities.channel.concrete.TextChannel;
+import net.dv8tion.jda.api.utils.messages.MessageCreateData;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Lazy;
+import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Component;
 
 import java.awt.*;
+import java.sql.Date;
+import java.sql.Timestamp;
+import java.time.DayOfWeek;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.time.ZoneId;
+import java.time.ZonedDateTime;
+import java.time.temporal.TemporalAdjusters;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
 import java.util.List;
-
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+
+/**
+ * 랭킹 자동 포스트 스케줄러
+ *
+ * - 서버마다 시간대(GuildTimeZoneService)가 다르므로 5분마다 실행하고, 그 서버 시간대로 시각이 된 서버만 처리
+ *   (월요일 10시에 주간 랭킹, 10시 30분에 이벤트 랭킹. 30분/45분 단위 시간대도 그 시각에 실행)
+ * - 보낸 포스트는 (서버, 종류, 그 주 월요일)로 ranking_post에 기록. 실행을 놓쳤거나 늦었거나 재시작했으면
+ *   그날(월요일) 안에 기록이 없는 서버에만 이어서 보냄
+ * - 기간이 바뀌면(월요일, 매월 1일) 매시 5분에 끝난 기간의 랭킹을 스냅샷으로 확정 (놓쳤으면 다음 시간에 다시 시도)
+ * - 대상 서버의 랭킹을 한 번의 쿼리로 조회 (지난주 랭킹은 포스트 10분 전에 스냅샷에서 미리 읽음)
+ * - 서버별 이름 조회/Embed 작성은 동시에 진행 (이름 조회는 기다리지 않는 비동기 요청)
+ * - 전송은 동시에 보내는 요청 수를 제한해서 보냄
+ *   채널별 rate limit 버킷과 429 재시도는 JDA 요청 큐가 처리하고,
+ *   여기서는 전역 제한(초당 50회)에 걸리지 않도록 한 번에 max-in-flight개까지만 보냄
+ * - 전체 소요 시간(ranking_post.fanout)과 서버별 소요 시간(ranking_post.guild.latency)을 기록
+ */
 @Component
 public class RankingScheduler {
 
     private static final Logger logger = LoggerFactory.getLogger(RankingScheduler.class);
+    // 포스트 작업 실행 간격 (cron과 맞춤). 미리 계산은 서버 시간대로 목표 시각부터 이 간격 안에 든 실행에서 한 번만 처리
+    static final Duration TICK = Duration.ofMinutes(5);
+    private static final String POSTED_SQL =
+            "SELECT guild_id FROM ranking_post WHERE type = ? AND week_start = ? AND guild_id IN (%s)";
+    private static final String MARK_POSTED_SQL =
+            "INSERT IGNORE INTO ranking_post (guild_id, type, week_start, posted_at) VALUES (?, ?, ?, ?)";
+    private static final LocalTime PRECOMPUTE_AT = LocalTime.of(9, 50);
+    private static final LocalTime WEEKLY_AT = LocalTime.of(10, 0);
+    private static final LocalTime EVENT_AT = LocalTime.of(10, 30);
     private final JDA jda;
     private final RankingService rankingService;
+    private final MemberNameCache memberNameCache;
+    private final RankingSnapshotService rankingSnapshotService;
+    private final GuildTimeZoneService guildTimeZoneService;
+    private final MeterRegistry meterRegistry;
+    private final JdbcTemplate jdbcTemplate;
+    private final Semaphore inFlight;
     private final String TARGET_CHANNEL_NAME = "주간-랭킹";
 
-    public RankingScheduler(@Lazy JDA jda, RankingService rankingService) {
+    // 미리 계산한 지난주 랭킹 (Key: guildId, 그 서버 시간대로 계산한 날짜에만 사용)
+    private final Map<String, PrecomputedRanking> precomputedWeekly = new ConcurrentHashMap<>();
+    // 포스트를 보낸 마지막 주 (Key: 종류 → guildId). 월요일 내내 5분마다 DB를 다시 확인하지 않도록
+    private final Map<String, Map<Long, LocalDate>> postedWeeks = new ConcurrentHashMap<>();
+
+    public RankingScheduler(@Lazy JDA jda, RankingService rankingService, MemberNameCache memberNameCache,
+                            RankingSnapshotService rankingSnapshotService, GuildTimeZoneService guildTimeZoneService,
+                            MeterRegistry meterRegistry, JdbcTemplate jdbcTemplate,
+                            @Value("${ranking-post.max-in-flight:5}") int maxInFlight) {
         this.jda = jda;
         this.rankingService = rankingService;
+        this.memberNameCache = memberNameCache;
+        this.rankingSnapshotService = rankingSnapshotService;
+        this.guildTimeZoneService = guildTimeZoneService;
+        this.meterRegistry = meterRegistry;
+        this.jdbcTemplate = jdbcTemplate;
+        this.inFlight = new Semaphore(Math.max(1, maxInFlight));
+    }
+
+    private record PrecomputedRanking(LocalDate computedOn, List<RankingDto> ranking) {
+    }
+
+    /**
+     * 서버 하나에 보낼 메시지 (null 메시지는 보내지 않음)
+     */
+    private record Post(TextChannel channel, MessageCreateData message, long startedAt) {
+    }
+
+    /**
+     * 사용 중인 시간대마다 방금 끝난 주/월의 랭킹을 스냅샷으로 저장 (매시 5분)
+     * 봇이 꺼져 있었거나 집계 backfill 중이었으면 다음 시간에 다시 시도
+     * (모든 시간대에서 끝나 저장된 기간은 메모리 확인으로 건너뜀)
+     */
+    @Scheduled(cron = "0 5 * * * *")
+    public void freezeEndedRankings() {
+        freeze(LeaderboardPeriod.WEEKLY);
+        freeze(LeaderboardPeriod.MONTHLY);
+    }
+
+    /**
+     * 각 시간대에서 어제가 속한 기간(방금 끝난 기간)의 랭킹을 스냅샷으로 저장
+     * 그 기간이 끝난 서버만 저장되고, 아직 끝나지 않은 시간대의 서버는 그 시간대에서 끝난 뒤에 저장됨
+     */
+    private void freeze(LeaderboardPeriod period) {
+        Set<LocalDate> lastDays = new TreeSet<>();
+        for (ZoneId zone : guildTimeZoneService.zonesInUse()) {
+            LocalDate today = LocalDate.now(zone);
+            lastDays.add(period == LeaderboardPeriod.WEEKLY
+                    ? today.with(TemporalAdjusters.previous(DayOfWeek.SUNDAY))
+                    : today.withDayOfMonth(1).minusDays(1));
+        }
+        for (LocalDate lastDay : lastDays) {
+            try {
+                rankingSnapshotService.freeze(period, lastDay);
+            } catch (Exception e) {
+                logger.error("{} 랭킹 스냅샷 저장 실패: {}", period, lastDay, e);
+            }
+        }
+    }
+
+    // 5분마다: 서버 시간대로 월요일 오전 9시 50분인 서버의 지난주 랭킹을 미리 계산
+    @Scheduled(cron = "0 */5 * * * *")
+    public void precomputeWeeklyRanking() {
+        List<TextChannel> channels = channelsDueAt(PRECOMPUTE_AT);
+        if (channels.isEmpty()) {
+            return;
+        }
+        try {
+            Map<String, List<RankingDto>> rankings = rankingService.getPreviousWeeklyRankings(guildIds(channels));
+            rankings.forEach((guildId, ranking) -> precomputedWeekly.put(guildId,
+                    new PrecomputedRanking(guildTimeZoneService.today(guildId), ranking)));
+            logger.info("지난주 랭킹 미리 계산 완료: {}개 서버", rankings.size());
+        } catch (Exception e) {
+            logger.error("지난주 랭킹 미리 계산 실패 (포스트할 때 다시 조회)", e);
+        }
     }
 
-    // 매주 월요일 오전 10시 (한국기준)에 실행
-    @Scheduled(cron = "0 0 10 * * MON", zone = "Asia/Tokyo")
+    // 5분마다: 서버 시간대로 월요일 오전 10시가 지났고 이번 주 포스트를 아직 보내지 않은 서버에 주간 랭킹 포스트
+    @Scheduled(cron = "0 */5 * * * *")
     public void postWeeklyRanking() {
-        logger.info("주간 랭킹 자동 포스트 작업 시작");
+        long started = System.nanoTime();
 
-        // "주간-랭킹" 채널 찾기 (모든 서버에서)
-        List<TextChannel> channels = jda.getTextChannelsByName(TARGET_CHANNEL_NAME, true);
+        // "주간-랭킹" 채널 찾기 (지금 포스트할 서버에서)
+        Map<Long, LocalDate> weeks = new HashMap<>();
+        List<TextChannel> channels = channelsToPost("weekly", WEEKLY_AT, weeks);
         if (channels.isEmpty()) {
-            logger.warn("'{}' 채널을 찾을 수 없어 랭킹을 포스트할 수 없습니다.", TARGET_CHANNEL_NAME);
             return;
         }
+        logger.info("주간 랭킹 자동 포스트 작업 시작: {}개 채널", channels.size());
+
+        // 대상 서버의 지난주 랭킹 (미리 계산한 값 + 그 뒤에 생긴 채널의 서버만 다시 조회)
+        Map<String, List<RankingDto>> rankings = new HashMap<>();
+        Set<String> guildIds = guildIds(channels);
+        for (String guildId : guildIds) {
+            PrecomputedRanking precomputed = precomputedWeekly.remove(guildId);
+            if (precomputed != null && precomputed.computedOn().equals(guildTimeZoneService.today(guildId))) {
+                rankings.put(guildId, precomputed.ranking());
+            }
+        }
+        guildIds.removeAll(rankings.keySet());
+        if (!guildIds.isEmpty()) {
+            rankings.putAll(rankingService.getPreviousWeeklyRankings(guildIds));
+        }
 
         // 각 서버별로 랭킹 포스트
-        for (TextChannel channel : channels) {
-            Guild guild = channel.getGuild();
-            String guildId = guild.getId();
+        dispatch("weekly", channels, weeks, channel -> renderWeekly(channel,
+                rankings.getOrDefault(channel.getGuild().getId(), List.of())), started);
+    }
+
+    // 5분마다: 서버 시간대로 월요일 오전 10시 30분이 지났고 이번 주 포스트를 아직 보내지 않은 서버에 이벤트 랭킹 포스트
+    @Scheduled(cron = "0 */5 * * * *")
+    public void postEventRanking() {
+        long started = System.nanoTime();
+
+        // "주간-랭킹" 채널 찾기 (지금 포스트할 서버 중 그 서버 시간대로 이벤트 기간인 서버만)
+        Map<Long, LocalDate> weeks = new HashMap<>();
+        List<TextChannel> channels = channelsToPost("event", EVENT_AT, weeks);
+        channels.removeIf(channel -> !rankingService.isEventPeriod(channel.getGuild().getId()));
+        if (channels.isEmpty()) {
+            return;
+        }
+        logger.info("이벤트 랭킹 자동 포스트 작업 시작: {}개 채널", channels.size());
 
-            logger.info("[{}] 서버의 지난주 랭킹 데이터 조회 중...", guild.getName());
+        // 모든 서버의 이벤트 기간 누계 랭킹을 한 번에 가져옴
+        Map<String, List<RankingDto>> rankings = rankingService.getEventRankings(guildIds(channels));
 
-            // 해당 서버의 지난주 랭킹 데이터 가져옴
-            List<RankingDto> previousWeeklyRanking = rankingService.getPreviousWeeklyRanking(guildId);
+        // 각 서버별로 이벤트 랭킹 포스트
+        dispatch("event", channels, weeks, channel -> renderEvent(channel,
+                rankings.getOrDefault(channel.getGuild().getId(), List.of())), started);
+    }
 
-            if (previousWeeklyRanking.isEmpty()) {
-                logger.info("[{}] 서버의 지난주 공부 기록이 없습니다", guild.getName());
-                channel.sendMessage("지난주 공부 기록이 없어요. 이번 주는 함께 달려봐요! 🔥").queue();
-                continue;
-            }
+    /**
+     * 지난주 랭킹 메시지 작성 (이름 조회가 끝나면 완료)
+     */
+    private CompletableFuture<Post> renderWeekly(TextChannel channel, List<RankingDto> previousWeeklyRanking) {
+        long startedAt = System.nanoTime();
+        Guild guild = channel.getGuild();
+
+        if (previousWeeklyRanking.isEmpty()) {
+            logger.info("[{}] 서버의 지난주 공부 기록이 없습니다", guild.getName());
+            return CompletableFuture.completedFuture(new Post(channel,
+                    MessageCreateData.fromContent("지난주 공부 기록이 없어요. 이번 주는 함께 달려봐요! 🔥"), startedAt));
+        }
 
+        // 이름은 캐시에서 한 번에 찾음 (없는 사용자만 모아 한 번 조회, 다른 서버와 동시에 진행)
+        return memberNameCache.resolveNames(guild, userIds(previousWeeklyRanking)).thenApply(names -> {
             // 랭킹 메시지 만들기 (Embed 버전)
             EmbedBuilder eb = new EmbedBuilder();
             eb.setTitle("🏆 지난주 공부 시간 랭킹 🏆");
             eb.setColor(new Color(0xF9E076)); // 황금색!
 
             StringBuilder description = new StringBuilder();
-
-            for (int i = 0; i < previousWeeklyRanking.size(); i++) {
-                RankingDto ranker = previousWeeklyRanking.get(i);
-                String userName;
-
-                try {
-                    Member member = guild.retrieveMemberById(ranker.getUserId()).complete();
-                    userName = member.getEffectiveName();
-                } catch (Exception e) {
-                    userName = "(서버에 없는 사용자)";
-                    logger.warn("[{}] {} ID를 가진 유저가 서버에 없어서 이름을 찾을 수 없습니다.",
-                            guild.getName(), ranker.getUserId());
-                }
-
-                description.append(String.format("%d. %s - %s\n",
-                        i + 1,
-                        userName,
-                        formatDuration(ranker.getTotalDuration())));
-            }
+            appendRanking(description, guild, previousWeeklyRanking, names);
 
             eb.setDescription(description.toString());
             eb.setFooter("이번 주도 함께 달려봐요! 🔥");
+            return new Post(channel, MessageCreateData.fromEmbeds(eb.build()), startedAt);
+        });
+    }
+
+    /**
+     * 이벤트 랭킹 메시지 작성 (기록이 없으면 보내지 않음)
+     */
+    private CompletableFuture<Post> renderEvent(TextChannel channel, List<RankingDto> eventRanking) {
+        long startedAt = System.nanoTime();
+        Guild guild = channel.getGuild();
 
-            channel.sendMessageEmbeds(eb.build()).queue();
-            logger.info("[{}] 서버의 {} 채널에 랭킹을 포스트했습니다.", guild.getName(), channel.getName());
+        if (eventRanking.isEmpty()) {
+            logger.info("[{}] 서버의 이벤트 기간 공부 기록이 없습니다", guild.getName());
+            return CompletableFuture.completedFuture(new Post(channel, null, startedAt));
         }
+
+        return memberNameCache.resolveNames(guild, userIds(eventRanking)).thenApply(names -> {
+            // 랭킹 메시지 만들기 (Embed 버전)
+            EmbedBuilder eb = new EmbedBuilder();
+            eb.setTitle("🎉 이벤트 누계 공부 시간 랭킹 🎉");
+            eb.setColor(new Color(0xFF6B6B)); // 빨간색!
+
+            StringBuilder description = new StringBuilder();
+            description.append("이벤트 기간: 2025년 10월 1일 ~ 12월 31일\n\n");
+            appendRanking(description, guild, eventRanking, names);
+
+            eb.setDescription(description.toString());
+            eb.setFooter("이벤트 상품을 향해 달려봐요! 🍗🏃‍♂️💨");
+            return new Post(channel, MessageCreateData.fromEmbeds(eb.build()), startedAt);
+        });
     }
 
-    // 매주 월요일 오전 10시 30분 (한국기준)에 실행 - 이벤트 랭킹
-    @Scheduled(cron = "0 30 10 * * MON", zone = "Asia/Tokyo")
-    public void postEventRanking() {
-        logger.info("이벤트 랭킹 자동 포스트 작업 시작");
+    private void appendRanking(StringBuilder description, Guild guild, List<RankingDto> ranking,
+                               Map<Long, String> names) {
+        for (int i = 0; i < ranking.size(); i++) {
+            RankingDto ranker = ranking.get(i);
+            String userName = names.get(Long.parseLong(ranker.getUserId()));
 
-        // 이벤트 기간 체크
-        if (!rankingService.isEventPeriod()) {
-            logger.info("이벤트 기간이 아니므로 이벤트 랭킹을 포스트하지 않습니다.");
-            return;
-        }
+            if (userName == null) {
+                userName = "(서버에 없는 사용자)";
+                logger.warn("[{}] {} ID를 가진 유저가 서버에 없어서 이름을 찾을 수 없습니다.",
+                        guild.getName(), ranker.getUserId());
+            }
 
-        // "주간-랭킹" 채널 찾기 (모든 서버에서)
-        List<TextChannel> channels = jda.getTextChannelsByName(TARGET_CHANNEL_NAME, true);
-        if (channels.isEmpty()) {
-            logger.warn("'{}' 채널을 찾을 수 없어 이벤트 랭킹을 포스트할 수 없습니다.", TARGET_CHANNEL_NAME);
-            return;
+            description.append(String.format("%d. %s - %s\n",
+                    i + 1,
+                    userName,
+                    formatDuration(ranker.getTotalDuration())));
         }
+    }
 
-        // 각 서버별로 이벤트 랭킹 포스트
+    /**
+     * 모든 채널의 메시지를 동시에 작성하고, 동시 전송 수를 제한해서 보냄
+     * 스케줄러 스레드는 모든 전송이 끝날 때까지 기다린 뒤, 보냈거나 보낼 내용이 없던 서버를 포스트 기록에 남김
+     * (실패한 서버는 기록하지 않고 다음 실행에서 다시 보냄)
+     */
+    private void dispatch(String type, List<TextChannel> channels, Map<Long, LocalDate> weeks,
+                          Function<TextChannel, CompletableFuture<Post>> renderer, long started) {
+        Timer guildTimer = Timer.builder("ranking_post.guild.latency")
+                .description("서버 하나의 랭킹 작성부터 전송 완료까지 걸린 시간")
+                .tag("type", type)
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+        Counter failureCounter = Counter.builder("ranking_post.failures")
+                .description("랭킹 포스트 실패 수")
+                .tag("type", type)
+                .register(meterRegistry);
+
+        // 모든 서버의 메시지 작성을 먼저 시작 (이름 조회가 동시에 진행됨)
+        List<CompletableFuture<Post>> rendering = new ArrayList<>(channels.size());
         for (TextChannel channel : channels) {
-            Guild guild = channel.getGuild();
-            String guildId = guild.getId();
+            try {
+                rendering.add(renderer.apply(channel));
+            } catch (Exception e) {
+                rendering.add(CompletableFuture.failedFuture(e));
+            }
+        }
 
-            logger.info("[{}] 서버의 이벤트 랭킹 데이터 조회 중...", guild.getName());
+        List<CompletableFuture<Boolean>> sending = new ArrayList<>(channels.size());
+        List<Long> sent = Collections.synchronizedList(new ArrayList<>(channels.size()));
+        for (int i = 0; i < rendering.size(); i++) {
+            TextChannel channel = channels.get(i);
+            Post post;
+            try {
+                post = rendering.get(i).join();
+            } catch (Exception e) {
+                failureCounter.increment();
+                logger.error("[{}] 서버의 랭킹 메시지 작성 실패", channel.getGuild().getName(), e);
+                continue;
+            }
+            if (post.message() == null) {
+                sent.add(channel.getGuild().getIdLong());
+                continue;
+            }
+            CompletableFuture<Boolean> sendingPost = send(post, guildTimer, failureCounter);
+            sending.add(sendingPost.thenApply(ok -> {
+                if (ok) {
+                    sent.add(channel.getGuild().getIdLong());
+                }
+                return ok;
+            }));
+        }
+        CompletableFuture.allOf(sending.toArray(new CompletableFuture<?>[0])).join();
+        markPosted(type, sent, weeks);
+
+        long elapsed = System.nanoTime() - started;
+        Timer.builder("ranking_post.fanout")
+                .description("랭킹 자동 포스트 전체 소요 시간")
+                .tag("type", type)
+                .register(meterRegistry)
+                .record(elapsed, TimeUnit.NANOSECONDS);
+        logger.info("랭킹 자동 포스트 완료 ({}): {}개 채널, {}ms", type, sending.size(),
+                TimeUnit.NANOSECONDS.toMillis(elapsed));
+    }
 
-            // 해당 서버의 이벤트 기간 누계 랭킹 데이터 가져옴
-            List<RankingDto> eventRanking = rankingService.getEventRanking(guildId);
+    /**
+     * 자리가 날 때까지 기다렸다가 전송 (응답이 오면 자리를 반납)
+     */
+    private CompletableFuture<Boolean> send(Post post, Timer guildTimer, Counter failureCounter) {
+        TextChannel channel = post.channel();
+        CompletableFuture<Boolean> done = new CompletableFuture<>();
+        inFlight.acquireUninterruptibly();
+        try {
+            channel.sendMessage(post.message()).queue(message -> {
+                inFlight.release();
+                guildTimer.record(System.nanoTime() - post.startedAt(), TimeUnit.NANOSECONDS);
+                logger.info("[{}] 서버의 {} 채널에 랭킹을 포스트했습니다.", channel.getGuild().getName(), channel.getName());
+                done.complete(true);
+            }, error -> {
+                inFlight.release();
+                failureCounter.increment();
+                logger.error("[{}] 서버의 {} 채널에 랭킹 포스트 실패", channel.getGuild().getName(), channel.getName(), error);
+                done.complete(false);
+            });
+        } catch (Exception e) {
+            // 권한 부족 등 요청 전에 실패한 경우
+            inFlight.release();
+            failureCounter.increment();
+            logger.error("[{}] 서버의 {} 채널에 랭킹 포스트 실패", channel.getGuild().getName(), channel.getName(), e);
+            done.complete(false);
+        }
+        return done;
+    }
 
-            if (eventRanking.isEmpty()) {
-                logger.info("[{}] 서버의 이벤트 기간 공부 기록이 없습니다", guild.getName());
-                continue;
+    /**
+     * 보냈거나 보낼 내용이 없던 서버를 포스트 기록에 남김
+     * 기록에 실패하면 다음 실행에서 다시 보낼 수 있음 (빠뜨리는 것보다 한 번 더 보내는 쪽을 택함)
+     */
+    private void markPosted(String type, List<Long> guildIds, Map<Long, LocalDate> weeks) {
+        if (guildIds.isEmpty()) {
+            return;
+        }
+        Timestamp postedAt = Timestamp.valueOf(LocalDateTime.now());
+        List<Object[]> args = new ArrayList<>(guildIds.size());
+        for (long guildId : new LinkedHashSet<>(guildIds)) {
+            args.add(new Object[]{guildId, type, Date.valueOf(weeks.get(guildId)), postedAt});
+        }
+        try {
+            jdbcTemplate.batchUpdate(MARK_POSTED_SQL, args);
+            Map<Long, LocalDate> posted = postedWeeks.computeIfAbsent(type, key -> new ConcurrentHashMap<>());
+            for (long guildId : guildIds) {
+                posted.put(guildId, weeks.get(guildId));
             }
+        } catch (Exception e) {
+            logger.error("랭킹 포스트 기록 저장 실패 ({}): {}개 서버", type, args.size(), e);
+        }
+    }
 
-            // 랭킹 메시지 만들기 (Embed 버전)
-            EmbedBuilder eb = new EmbedBuilder();
-            eb.setTitle("🎉 이벤트 누계 공부 시간 랭킹 🎉");
-            eb.setColor(new Color(0xFF6B6B)); // 빨간색!
+    /**
+     * 서버 시간대로 월요일 target 시각이 지났고 이번 주 포스트 기록이 없는 서버의 "주간-랭킹" 채널
+     * 기록은 메모리에서 먼저 확인하고 없는 서버만 DB에서 읽음.
+     * DB를 읽지 못하면 중복 전송을 피하려고 이번 실행은 건너뜀 (다음 실행에서 다시 확인)
+     *
+     * @param weeks 고른 서버마다 포스트할 주의 월요일을 채움 (포스트 기록용)
+     */
+    private List<TextChannel> channelsToPost(String type, LocalTime target, Map<Long, LocalDate> weeks) {
+        Instant now = Instant.now();
+        Map<ZoneId, LocalDate> dueZones = new HashMap<>();
+        for (ZoneId zone : guildTimeZoneService.zonesInUse()) {
+            ZonedDateTime localNow = now.atZone(zone);
+            if (isDueOrOverdue(localNow, target)) {
+                dueZones.put(zone, localNow.toLocalDate());
+            }
+        }
+        List<TextChannel> due = channelsIn(dueZones.keySet());
+        if (due.isEmpty()) {
+            return due;
+        }
 
-            StringBuilder description = new StringBuilder();
-            description.append("이벤트 기간: 2025년 10월 1일 ~ 12월 31일\n\n");
+        Map<Long, LocalDate> posted = postedWeeks.getOrDefault(type, Map.of());
+        Map<LocalDate, Set<Long>> unknown = new HashMap<>();
+        due.removeIf(channel -> {
+            long guildId = channel.getGuild().getIdLong();
+            LocalDate week = dueZones.get(guildTimeZoneService.zoneOf(guildId));
+            if (week == null || week.equals(posted.get(guildId))) {
+                return true;
+            }
+            weeks.put(guildId, week);
+            unknown.computeIfAbsent(week, key -> new HashSet<>()).add(guildId);
+            return false;
+        });
+        if (due.isEmpty()) {
+            return due;
+        }
 
-            for (int i = 0; i < eventRanking.size(); i++) {
-                RankingDto ranker = eventRanking.get(i);
-                String userName;
-
-                try {
-                    Member member = guild.retrieveMemberById(ranker.getUserId()).complete();
-                    userName = member.getEffectiveName();
-                } catch (Exception e) {
-                    userName = "(서버에 없는 사용자)";
-                    logger.warn("[{}] {} ID를 가진 유저가 서버에 없어서 이름을 찾을 수 없습니다.",
-                            guild.getName(), ranker.getUserId());
-                }
+        Set<Long> recorded = new HashSet<>();
+        try {
+            unknown.forEach((week, guildIds) -> recorded.addAll(findPosted(type, week, guildIds)));
+        } catch (Exception e) {
+            logger.error("랭킹 포스트 기록 조회 실패 ({}). 다음 실행에서 다시 확인합니다.", type, e);
+            return new ArrayList<>();
+        }
+        if (!recorded.isEmpty()) {
+            Map<Long, LocalDate> cache = postedWeeks.computeIfAbsent(type, key -> new ConcurrentHashMap<>());
+            for (long guildId : recorded) {
+                cache.put(guildId, weeks.get(guildId));
+            }
+            due.removeIf(channel -> recorded.contains(channel.getGuild().getIdLong()));
+        }
+        return due;
+    }
+
+    private Set<Long> findPosted(String type, LocalDate week, Set<Long> guildIds) {
+        List<Object> args = new ArrayList<>(guildIds.size() + 2);
+        args.add(type);
+        args.add(Date.valueOf(week));
+        args.addAll(guildIds);
+        String placeholders = String.join(", ", Collections.nCopies(guildIds.size(), "?"));
+        return new HashSet<>(jdbcTemplate.queryForList(String.format(POSTED_SQL, placeholders), Long.class,
+                args.toArray()));
+    }
 
-                description.append(String.format("%d. %s - %s\n",
-                        i + 1,
-                        userName,
-                        formatDuration(ranker.getTotalDuration())));
+    /**
+     * 서버 시간대로 지금이 월요일 target 시각(부터 TICK 안)인 서버의 "주간-랭킹" 채널
+     * 시간대마다 한 번만 확인하고, 해당하는 시간대가 없으면 채널을 찾지 않음
+     */
+    private List<TextChannel> channelsDueAt(LocalTime target) {
+        Instant now = Instant.now();
+        Set<ZoneId> dueZones = new HashSet<>();
+        for (ZoneId zone : guildTimeZoneService.zonesInUse()) {
+            if (isDue(now.atZone(zone), target)) {
+                dueZones.add(zone);
             }
+        }
+        return channelsIn(dueZones);
+    }
 
-            eb.setDescription(description.toString());
-            eb.setFooter("이벤트 상품을 향해 달려봐요! 🍗🏃‍♂️💨");
+    /**
+     * 서버 시간대가 dueZones 중 하나인 서버의 "주간-랭킹" 채널
+     */
+    private List<TextChannel> channelsIn(Set<ZoneId> dueZones) {
+        List<TextChannel> due = new ArrayList<>();
+        if (dueZones.isEmpty()) {
+            return due;
+        }
+        for (TextChannel channel : jda.getTextChannelsByName(TARGET_CHANNEL_NAME, true)) {
+            if (dueZones.contains(guildTimeZoneService.zoneOf(channel.getGuild().getIdLong()))) {
+                due.add(channel);
+            }
+        }
+        return due;
+    }
 
-            channel.sendMessageEmbeds(eb.build()).queue();
-            logger.info("[{}] 서버의 {} 채널에 이벤트 랭킹을 포스트했습니다.", guild.getName(), channel.getName());
+    /**
+     * 그 시간대의 현지 시각이 월요일 [target, target + TICK) 안인지
+     * (시만 비교하면 30분 단위 시간대에서는 :30 실행이 현지 정각이 되어 어긋남)
+     */
+    static boolean isDue(ZonedDateTime localNow, LocalTime target) {
+        if (localNow.getDayOfWeek() != DayOfWeek.MONDAY) {
+            return false;
         }
+        LocalTime time = localNow.toLocalTime();
+        return !time.isBefore(target) && time.isBefore(target.plus(TICK));
+    }
+
+    /**
+     * 그 시간대의 현지 시각이 월요일 target 시각 이후인지 (포스트 시각이 됐거나 지났는지)
+     * 이미 보냈는지는 포스트 기록으로 따로 확인
+     */
+    static boolean isDueOrOverdue(ZonedDateTime localNow, LocalTime target) {
+        return localNow.getDayOfWeek() == DayOfWeek.MONDAY && !localNow.toLocalTime().isBefore(target);
+    }
+
+    private Set<String> guildIds(List<TextChannel> channels) {
+        Set<String> guildIds = new LinkedHashSet<>();
+        for (TextChannel channel : channels) {
+            guildIds.add(channel.getGuild().getId());
+        }
+        return guildIds;
+    }
+
+    private List<Long> userIds(List<RankingDto> ranking) {
+        return ranking.stream().map(ranker -> Long.parseLong(ranker.getUserId())).toList();
     }
 
     // 시간 포맷을 위한 헬퍼 메서드
@@ -0,0 +1,230 @@
+package com.studybot.discord_study_bot.scheduler;
+
+import com.studybot.discord_study_bot.service.DailyRollupService;
+import com.studybot.discord_study_bot.service.StudySessionManager;
+import com.studybot.discord_study_bot.session.StudySession;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import net.dv8tion.jda.api.JDA;
+import net.dv8tion.jda.api.entities.Guild;
+import net.dv8tion.jda.api.entities.GuildVoiceState;
+import net.dv8tion.jda.api.entities.Member;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 고아 세션 정리 스케줄러
+ * 게이트웨이 끊김이나 멤버 캐시 누락으로 종료 이벤트를 놓친 세션이 계속 열려 있는 것을 막는다.
+ *
+ * - 한 번에 세션 인덱스의 세그먼트 몇 개만 훑음 (전체를 한 번에 잠그지 않음)
+ * - JDA 음성 상태 캐시와 비교해 음성 채널에 없거나 화면공유가 꺼진 세션을 종료
+ * - 최대 세션 길이를 넘은 세션은 시작 + 최대 길이 시각으로 종료
+ * - 인덱스를 한 바퀴 다 돌 때마다 메모리에 없는 DB의 오래된 열린 기록도 한 번의 배치 UPDATE로 종료
+ *   (idx_study_log_end_start 인덱스로 열린 기록만 읽음, 세션 인덱스에 있는 사용자의 기록은 세션 쪽에서 닫으므로 건너뜀)
+ *
+ * 종료 기록은 write-behind 큐로 들어가 다음 flush에서 한 번의 배치 UPDATE로 반영됨
+ */
+@Component
+public class SessionReaperScheduler {
+
+    private static final Logger logger = LoggerFactory.getLogger(SessionReaperScheduler.class);
+
+    private static final String FIND_STALE_SQL =
+            "SELECT id, guild_id, channel_id, user_id, start_time FROM study_log WHERE end_time IS NULL AND start_time < ?";
+
+    private static final String CLOSE_BY_ID_SQL =
+            "UPDATE study_log SET end_time = ? WHERE id = ? AND end_time IS NULL";
+
+    private final JDA jda;
+    private final StudySessionManager sessionManager;
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final DailyRollupService dailyRollupService;
+    private final int segmentsPerSweep;
+    private final Duration maxSessionLength;
+    private int cursor;
+
+    // 메트릭
+    private final Timer sweepTimer;
+    private final Counter orphanCounter;
+    private final Counter maxLengthCounter;
+    private final Counter staleRowCounter;
+
+    public SessionReaperScheduler(@Lazy JDA jda, StudySessionManager sessionManager, JdbcTemplate jdbcTemplate,
+                                  TransactionTemplate transactionTemplate, DailyRollupService dailyRollupService,
+                                  MeterRegistry meterRegistry,
+                                  @Value("${session-reaper.segments-per-sweep:2}") int segmentsPerSweep,
+                                  @Value("${session-reaper.max-session-hours:12}") long maxSessionHours) {
+        this.jda = jda;
+        this.sessionManager = sessionManager;
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = transactionTemplate;
+        this.dailyRollupService = dailyRollupService;
+        this.segmentsPerSweep = Math.max(1, segmentsPerSweep);
+        this.maxSessionLength = Duration.ofHours(maxSessionHours);
+
+        this.sweepTimer = Timer.builder("session.reaper.sweep")
+                .description("세션 정리 1회(세그먼트 일부) 소요 시간")
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+        this.orphanCounter = Counter.builder("session.reaper.reaped")
+                .description("정리된 세션 수")
+                .tag("reason", "orphan")
+                .register(meterRegistry);
+        this.maxLengthCounter = Counter.builder("session.reaper.reaped")
+                .description("정리된 세션 수")
+                .tag("reason", "max_length")
+                .register(meterRegistry);
+        this.staleRowCounter = Counter.builder("session.reaper.reaped")
+                .description("정리된 세션 수")
+                .tag("reason", "stale_row")
+                .register(meterRegistry);
+    }
+
+    @Scheduled(fixedDelayString = "${session-reaper.interval-ms:15000}",
+            initialDelayString = "${session-reaper.interval-ms:15000}")
+    public void sweep() {
+        long started = System.nanoTime();
+        LocalDateTime now = LocalDateTime.now().truncatedTo(ChronoUnit.SECONDS);
+        int segmentCount = sessionManager.getSegmentCount();
+        int scanned = 0;
+        int orphans = 0;
+        int capped = 0;
+
+        for (int i = 0; i < segmentsPerSweep; i++) {
+            for (StudySession session : sessionManager.snapshotSegment(cursor)) {
+                scanned++;
+                // 종료 유예 중인 세션은 타이머 휠이 처리
+                if (session.isClosePending()) {
+                    continue;
+                }
+                LocalDateTime startTime = session.getStartTime();
+                if (startTime == null && !session.isActive()) {
+                    // 기록도 활동도 없는 빈 세션은 조용히 제거
+                    sessionManager.reapSession(session, null, now);
+                } else if (startTime != null && startTime.plus(maxSessionLength).isBefore(now)) {
+                    if (sessionManager.reapSession(session, startTime, startTime.plus(maxSessionLength))) {
+                        capped++;
+                        logger.warn("최대 세션 길이({}시간)를 넘어 세션을 종료했습니다. 길드: {}, 유저: {}, 시작: {}",
+                                maxSessionLength.toHours(), session.getGuildId(), session.getUserId(), startTime);
+                    }
+                } else if (isOrphan(session)) {
+                    if (sessionManager.reapSession(session, startTime, now)) {
+                        orphans++;
+                        logger.info("음성 상태와 맞지 않는 세션을 종료했습니다. 길드: {}, 유저: {}, 시작: {}",
+                                session.getGuildId(), session.getUserId(), startTime);
+                    }
+                }
+            }
+            cursor = (cursor + 1) % segmentCount;
+
+            // 인덱스를 한 바퀴 돌았으면 DB에만 남은 오래된 열린 기록도 정리
+            if (cursor == 0) {
+                closeStaleRows(now);
+            }
+        }
+
+        orphanCounter.increment(orphans);
+        maxLengthCounter.increment(capped);
+        long elapsed = System.nanoTime() - started;
+        sweepTimer.record(elapsed, TimeUnit.NANOSECONDS);
+        if (orphans > 0 || capped > 0) {
+            logger.info("세션 정리 완료. 확인: {}개, 고아 세션: {}개, 최대 길이 초과: {}개 ({}ms)",
+                    scanned, orphans, capped, elapsed / 1_000_000);
+        }
+    }
+
+    /**
+     * JDA 음성 상태 캐시 기준으로 이미 끝난 세션인지 확인
+     * - 봇이 길드에서 나갔거나, 사용자가 음성 채널에 없으면 고아
+     * - 화면공유로만 유지되는 세션인데 실제로는 화면공유가 꺼져 있으면 고아
+     */
+    private boolean isOrphan(StudySession session) {
+        Guild guild = jda.getGuildById(session.getGuildId());
+        if (guild == null) {
+            return true;
+        }
+        // MemberCachePolicy.VOICE: 음성 채널에 있는 멤버만 캐시되므로 없으면 음성 채널을 떠난 것
+        Member member = guild.getMemberById(session.getUserId());
+        if (member == null) {
+            return true;
+        }
+        GuildVoiceState voiceState = member.getVoiceState();
+        if (voiceState == null || !voiceState.inAudioChannel()) {
+            return true;
+        }
+        return session.isScreenSharing() && !session.isPomodoroActive() && !voiceState.isStream();
+    }
+
+    /**
+     * 최대 세션 길이보다 오래 열려 있는 DB 기록을 시작 + 최대 길이 시각으로 일괄 종료
+     * 세션 인덱스에 아직 세션이 있는 사용자의 기록은 건너뜀. 살아 있는 세션이면 위의 최대 길이 검사가,
+     * 종료 유예 중이면 타이머 휠이 실제 종료 시각으로 닫음 (여기서 먼저 닫으면 그 종료 기록이 맞는 행을 못 찾음)
+     * 실제로 닫힌 기록만 같은 트랜잭션에서 일별 집계에 반영
+     */
+    private void closeStaleRows(LocalDateTime now) {
+        try {
+            List<Object[]> closes = new ArrayList<>();
+            List<DailyRollupService.ClosedLog> closedLogs = new ArrayList<>();
+            List<StaleRow> rows = jdbcTemplate.query(FIND_STALE_SQL, (rs, rowNum) -> new StaleRow(
+                    rs.getLong("id"),
+                    rs.getObject("guild_id", Long.class),
+                    rs.getLong("user_id"),
+                    rs.getObject("channel_id", Long.class),
+                    rs.getTimestamp("start_time").toLocalDateTime()), Timestamp.valueOf(now.minus(maxSessionLength)));
+            for (StaleRow row : rows) {
+                if (row.guildId() != null && sessionManager.getSession(row.guildId(), row.userId()) != null) {
+                    continue;
+                }
+                LocalDateTime endTime = row.startTime().plus(maxSessionLength);
+                closes.add(new Object[]{Timestamp.valueOf(endTime), row.id()});
+                // guild_id가 없는 레거시 기록은 닫기만 하고 집계에서 제외
+                closedLogs.add(row.guildId() == null ? null
+                        : new DailyRollupService.ClosedLog(row.guildId(), row.userId(), row.startTime(), endTime,
+                        row.channelId()));
+            }
+            if (closes.isEmpty()) {
+                return;
+            }
+
+            Integer closed = transactionTemplate.execute(status -> {
+                int[] updated = jdbcTemplate.batchUpdate(CLOSE_BY_ID_SQL, closes);
+                List<DailyRollupService.ClosedLog> rollup = new ArrayList<>();
+                for (int i = 0; i < updated.length; i++) {
+                    if (updated[i] != 0 && closedLogs.get(i) != null) {
+                        rollup.add(closedLogs.get(i));
+                    }
+                }
+                dailyRollupService.addClosedLogs(rollup);
+                return rollup.size();
+            });
+            if (closed != null && closed > 0) {
+                staleRowCounter.increment(closed);
+                logger.warn("최대 세션 길이를 넘은 열린 StudyLog {}개를 종료했습니다.", closed);
+            }
+        } catch (Exception e) {
+            logger.error("오래된 StudyLog 정리 중 오류 발생", e);
+        }
+    }
+
+    /**
+     * DB에 열려 있는 오래된 StudyLog 한 행 (guild_id는 레거시 기록이면 null)
+     */
+    private record StaleRow(long id, Long guildId, long userId, Long channelId, LocalDateTime startTime) {
+    }
+}
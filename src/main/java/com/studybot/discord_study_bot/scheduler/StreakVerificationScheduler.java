@@ -0,0 +1,78 @@
+package com.studybot.discord_study_bot.scheduler;
+
+import com.studybot.discord_study_bot.service.StatisticsVersionTracker;
+import com.studybot.discord_study_bot.service.StudyStreakService;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 연속 기록 검증 스케줄러
+ * 매일 새벽 study_log 원본에서 연속 기록을 다시 계산해 study_streak과 비교하고, 다른 행은 고친다.
+ * 불일치 수는 study_streak.verify.mismatches로 기록 (0이 아니면 증분 갱신 경로를 확인할 것)
+ */
+@Component
+public class StreakVerificationScheduler {
+
+    private static final Logger logger = LoggerFactory.getLogger(StreakVerificationScheduler.class);
+
+    private final StudyStreakService studyStreakService;
+    private final JdbcTemplate jdbcTemplate;
+    private final StatisticsVersionTracker statisticsVersionTracker;
+
+    // 메트릭
+    private final Timer verifyTimer;
+    private final Counter mismatchCounter;
+
+    public StreakVerificationScheduler(StudyStreakService studyStreakService, JdbcTemplate jdbcTemplate,
+                                       StatisticsVersionTracker statisticsVersionTracker,
+                                       MeterRegistry meterRegistry) {
+        this.studyStreakService = studyStreakService;
+        this.jdbcTemplate = jdbcTemplate;
+        this.statisticsVersionTracker = statisticsVersionTracker;
+
+        this.verifyTimer = Timer.builder("study_streak.verify")
+                .description("연속 기록 전체 검증 소요 시간")
+                .register(meterRegistry);
+        this.mismatchCounter = Counter.builder("study_streak.verify.mismatches")
+                .description("원본 기록과 다른 연속 기록 수")
+                .register(meterRegistry);
+    }
+
+    // 매일 오전 4시 30분 (한국기준)에 실행
+    @Scheduled(cron = "0 30 4 * * *", zone = "Asia/Tokyo")
+    public void verify() {
+        long started = System.nanoTime();
+        List<Long> guildIds = jdbcTemplate.queryForList(
+                "SELECT DISTINCT guild_id FROM study_log WHERE guild_id IS NOT NULL", Long.class);
+        int mismatches = 0;
+        for (Long guildId : guildIds) {
+            try {
+                mismatches += studyStreakService.verifyGuild(guildId);
+            } catch (Exception e) {
+                logger.error("연속 기록 검증 실패. 길드: {}", guildId, e);
+            }
+        }
+        mismatchCounter.increment(mismatches);
+        long elapsed = System.nanoTime() - started;
+        verifyTimer.record(elapsed, TimeUnit.NANOSECONDS);
+
+        if (mismatches > 0) {
+            // 고친 연속 기록이 조건부 요청(304)에 가려지지 않도록
+            statisticsVersionTracker.advanceAll();
+            logger.warn("연속 기록 검증 완료: 서버 {}개, 불일치 {}건 (수정함, {}ms)", guildIds.size(), mismatches,
+                    TimeUnit.NANOSECONDS.toMillis(elapsed));
+        } else {
+            logger.info("연속 기록 검증 완료: 서버 {}개, 불일치 없음 ({}ms)", guildIds.size(),
+                    TimeUnit.NANOSECONDS.toMillis(elapsed));
+        }
+    }
+}
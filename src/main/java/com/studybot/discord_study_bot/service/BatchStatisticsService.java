@@ -0,0 +1,207 @@
+package com.studybot.discord_study_bot.service;
+
+import com.fasterxml.jackson.core.JsonEncoding;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.studybot.discord_study_bot.contribution.ContributionYear;
+import com.studybot.discord_study_bot.entity.StudyStreak;
+import com.studybot.discord_study_bot.repository.StudyDailyAggRepository;
+import com.studybot.discord_study_bot.repository.StudyLogRepository;
+import com.studybot.discord_study_bot.repository.StudyStreakRepository;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.time.LocalDate;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 여러 사용자의 통계를 한 번에 계산해 JSON으로 스트리밍 (대시보드 멤버 목록용)
+ *
+ * 사용자를 chunk-size명씩 나눠 chunk마다 통계 종류별로 한 번씩만 조회한다.
+ * - 일별 집계 최근 1년 (개인 통계 합계와 Contribution을 함께 계산)
+ * - 연속 기록
+ * - 마지막으로 기록된 이름
+ * chunk의 결과를 쓴 뒤 다음 chunk를 조회하므로 사용자 수와 관계없이 메모리는 chunk 크기만큼만 사용하고,
+ * 느린 클라이언트에 쓰는 동안 DB 커넥션을 잡고 있지 않음.
+ *
+ * 응답 형식:
+ * {"guildId", "startDate", "endDate", "users": [{"userId", "userName", "totalStudyTime",
+ *   "currentStreak", "longestStreak", "contribution": {"seconds": [...], "levels": [...]}}, ...]}
+ * - totalStudyTime: 최근 30일 합계 (개인 통계 기본 기간과 같음)
+ * - contribution: startDate부터 endDate까지 날짜별 값
+ */
+@Service
+public class BatchStatisticsService {
+
+    // 개인 통계 기본 기간 (StatisticsController와 같음)
+    private static final int PERSONAL_DAYS = 30;
+
+    private final StudyDailyAggRepository studyDailyAggRepository;
+    private final StudyLogRepository studyLogRepository;
+    private final StudyStreakRepository studyStreakRepository;
+    private final StudyStreakService studyStreakService;
+    private final StatisticsQueryExecutor queryExecutor;
+    private final GuildTimeZoneService guildTimeZoneService;
+    private final ObjectMapper objectMapper;
+    private final int chunkSize;
+
+    // 메트릭
+    private final DistributionSummary usersSummary;
+    private final Timer chunkTimer;
+
+    public BatchStatisticsService(StudyDailyAggRepository studyDailyAggRepository,
+                                  StudyLogRepository studyLogRepository,
+                                  StudyStreakRepository studyStreakRepository,
+                                  StudyStreakService studyStreakService,
+                                  StatisticsQueryExecutor queryExecutor,
+                                  GuildTimeZoneService guildTimeZoneService,
+                                  ObjectMapper objectMapper,
+                                  MeterRegistry meterRegistry,
+                                  @Value("${statistics-batch.chunk-size:200}") int chunkSize) {
+        this.studyDailyAggRepository = studyDailyAggRepository;
+        this.studyLogRepository = studyLogRepository;
+        this.studyStreakRepository = studyStreakRepository;
+        this.studyStreakService = studyStreakService;
+        this.queryExecutor = queryExecutor;
+        this.guildTimeZoneService = guildTimeZoneService;
+        this.objectMapper = objectMapper;
+        this.chunkSize = Math.max(1, chunkSize);
+
+        this.usersSummary = DistributionSummary.builder("statistics_batch.users")
+                .description("일괄 통계 요청 한 번에 포함된 사용자 수")
+                .register(meterRegistry);
+        this.chunkTimer = Timer.builder("statistics_batch.chunk.latency")
+                .description("일괄 통계 chunk 하나를 조회한 시간")
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+    }
+
+    /**
+     * 최근 1년 안에 공부한 사용자 ID (오름차순)
+     */
+    public List<Long> findActiveUserIds(long guildId) {
+        LocalDate today = guildTimeZoneService.today(guildId);
+        return queryExecutor.callWithPermit(() ->
+                studyDailyAggRepository.findActiveUserIds(guildId, today.minusYears(1), today));
+    }
+
+    /**
+     * userIds의 통계를 out에 JSON으로 씀 (요청한 순서대로, 기록이 없는 사용자는 0)
+     */
+    public void write(long guildId, List<Long> userIds, OutputStream out) throws IOException {
+        usersSummary.record(userIds.size());
+        LocalDate today = guildTimeZoneService.today(guildId);
+        LocalDate startDay = today.minusYears(1);
+
+        try (JsonGenerator gen = objectMapper.getFactory().createGenerator(out, JsonEncoding.UTF8)) {
+            gen.writeStartObject();
+            gen.writeStringField("guildId", Long.toString(guildId));
+            gen.writeStringField("startDate", startDay.toString());
+            gen.writeStringField("endDate", today.toString());
+            gen.writeArrayFieldStart("users");
+
+            for (int from = 0; from < userIds.size(); from += chunkSize) {
+                List<Long> chunk = userIds.subList(from, Math.min(from + chunkSize, userIds.size()));
+                long started = System.nanoTime();
+                Chunk data = queryExecutor.callWithPermit(() -> load(guildId, chunk, startDay, today));
+                chunkTimer.record(System.nanoTime() - started, TimeUnit.NANOSECONDS);
+
+                for (Long userId : chunk) {
+                    writeUser(gen, userId, data, startDay, today);
+                }
+                // chunk마다 내보내 클라이언트가 바로 그릴 수 있게 함
+                gen.flush();
+            }
+
+            gen.writeEndArray();
+            gen.writeEndObject();
+        }
+    }
+
+    /**
+     * chunk의 통계를 종류별로 한 번씩 조회
+     */
+    private Chunk load(long guildId, List<Long> userIds, LocalDate startDay, LocalDate today) {
+        List<Object[]> daily = studyDailyAggRepository.findDailyStudyTimeForUsers(guildId, userIds, startDay, today);
+
+        Map<Long, StudyStreak> streaks = new HashMap<>();
+        for (StudyStreak streak : studyStreakRepository.findByGuildIdAndUserIdIn(guildId, userIds)) {
+            if (streak.isNeedsRebuild()) {
+                // 드물게 순서가 어긋난 사용자만 따로 다시 계산
+                studyStreakService.find(guildId, streak.getUserId())
+                        .ifPresent(rebuilt -> streaks.put(rebuilt.getUserId(), rebuilt));
+            } else {
+                streaks.put(streak.getUserId(), streak);
+            }
+        }
+
+        Map<Long, String> names = new HashMap<>();
+        for (Object[] row : studyLogRepository.findLatestUserNames(guildId, userIds)) {
+            names.put(((Number) row[0]).longValue(), (String) row[1]);
+        }
+
+        // 사용자별 행 범위 (일별 집계는 user_id, day 순)
+        Map<Long, int[]> ranges = new HashMap<>();
+        int begin = 0;
+        for (int i = 1; i <= daily.size(); i++) {
+            if (i == daily.size() || !daily.get(i)[2].equals(daily.get(begin)[2])) {
+                ranges.put(((Number) daily.get(begin)[2]).longValue(), new int[]{begin, i});
+                begin = i;
+            }
+        }
+        return new Chunk(daily, ranges, streaks, names);
+    }
+
+    private void writeUser(JsonGenerator gen, long userId, Chunk data, LocalDate startDay, LocalDate today)
+            throws IOException {
+        int[] range = data.ranges().get(userId);
+        ContributionYear year = ContributionYear.of(startDay, today,
+                range != null ? data.daily().subList(range[0], range[1]) : List.of());
+
+        long totalStudyTime = 0L;
+        for (int i = Math.max(0, year.days() - PERSONAL_DAYS - 1); i < year.days(); i++) {
+            totalStudyTime += year.secondsAt(i);
+        }
+        StudyStreak streak = data.streaks().get(userId);
+
+        gen.writeStartObject();
+        gen.writeStringField("userId", Long.toString(userId));
+        gen.writeStringField("userName", data.names().get(userId));
+        gen.writeNumberField("totalStudyTime", totalStudyTime);
+        gen.writeNumberField("currentStreak", streak != null ? StudyStreakService.currentStreak(streak, today) : 0);
+        gen.writeNumberField("longestStreak", streak != null ? streak.getLongestStreak() : 0);
+
+        gen.writeObjectFieldStart("contribution");
+        gen.writeArrayFieldStart("seconds");
+        for (int i = 0; i < year.days(); i++) {
+            gen.writeNumber(year.secondsAt(i));
+        }
+        gen.writeEndArray();
+        gen.writeArrayFieldStart("levels");
+        for (int i = 0; i < year.days(); i++) {
+            gen.writeNumber(year.levelAt(i));
+        }
+        gen.writeEndArray();
+        gen.writeEndObject();
+
+        gen.writeEndObject();
+    }
+
+    /**
+     * chunk 하나의 조회 결과
+     *
+     * @param daily  [날짜, 공부시간(초), user_id] (사용자별, 날짜순)
+     * @param ranges user_id → daily에서의 [시작, 끝) 범위
+     */
+    private record Chunk(List<Object[]> daily, Map<Long, int[]> ranges, Map<Long, StudyStreak> streaks,
+                         Map<Long, String> names) {
+    }
+}
@@ -0,0 +1,151 @@
+package com.studybot.discord_study_bot.service;
+
+import com.studybot.discord_study_bot.contribution.ContributionYear;
+import com.studybot.discord_study_bot.entity.StudyDailyAgg;
+import com.studybot.discord_study_bot.repository.StudyDailyAggRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.LocalDate;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Contribution 히트맵 캐시 ((서버, 유저) → 최근 1년 ContributionYear)
+ * 사용자 한 명당 약 1.6KB (일별 초 배열 + 레벨 비트맵)
+ *
+ * - 그 사용자의 기록이 닫혀 커밋되면 무효화 (invalidateAfterCommit)
+ * - 날짜가 바뀌면 기간이 한 칸 밀리므로 다시 계산
+ * - max-size를 넘으면 가장 오래 안 쓴 항목부터 제거
+ */
+@Service
+public class ContributionCache {
+
+    private final StudyDailyAggRepository studyDailyAggRepository;
+    private final GuildTimeZoneService guildTimeZoneService;
+    private final int maxSize;
+
+    // 접근 순서 LinkedHashMap (가장 오래 안 쓴 항목부터 제거)
+    private final LinkedHashMap<Key, ContributionYear> entries;
+    // 무효화할 때마다 증가 (계산하는 동안 무효화되었으면 이전 값을 저장하지 않도록)
+    private long generation;
+
+    // 메트릭
+    private final Counter hitCounter;
+    private final Counter missCounter;
+    private final Counter invalidationCounter;
+
+    public ContributionCache(StudyDailyAggRepository studyDailyAggRepository,
+                             GuildTimeZoneService guildTimeZoneService, MeterRegistry meterRegistry,
+                             @Value("${contribution-cache.max-size:10000}") int maxSize) {
+        this.studyDailyAggRepository = studyDailyAggRepository;
+        this.guildTimeZoneService = guildTimeZoneService;
+        this.maxSize = Math.max(1, maxSize);
+        this.entries = new LinkedHashMap<>(256, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Key, ContributionYear> eldest) {
+                return size() > ContributionCache.this.maxSize;
+            }
+        };
+
+        this.hitCounter = requestCounter(meterRegistry, "hit");
+        this.missCounter = requestCounter(meterRegistry, "miss");
+        this.invalidationCounter = Counter.builder("contribution_cache.invalidations")
+                .description("기록이 닫혀 무효화된 히트맵 수")
+                .register(meterRegistry);
+        Gauge.builder("contribution_cache.size", this, ContributionCache::size)
+                .description("캐시된 히트맵 수")
+                .register(meterRegistry);
+    }
+
+    private static Counter requestCounter(MeterRegistry meterRegistry, String result) {
+        return Counter.builder("contribution_cache.requests")
+                .description("히트맵 조회 요청 수")
+                .tag("result", result)
+                .register(meterRegistry);
+    }
+
+    /**
+     * 오늘(서버 시간대 기준)까지 최근 1년의 히트맵 (없거나 기간이 지났으면 일별 집계에서 계산)
+     * 같은 사용자를 동시에 처음 요청하면 둘 다 계산할 수 있지만 결과는 같음
+     * 계산하는 동안 다른 기록이 커밋되었으면 결과를 반환만 하고 캐시하지 않음
+     */
+    public ContributionYear get(long guildId, long userId) {
+        Key key = new Key(guildId, userId);
+        LocalDate today = guildTimeZoneService.today(guildId);
+        long loadedAt;
+        synchronized (entries) {
+            ContributionYear cached = entries.get(key);
+            if (cached != null && cached.getEndDay().equals(today)) {
+                hitCounter.increment();
+                return cached;
+            }
+            loadedAt = generation;
+        }
+
+        missCounter.increment();
+        LocalDate startDay = today.minusYears(1);
+        ContributionYear year = ContributionYear.of(startDay, today,
+                studyDailyAggRepository.findDailyStudyTime(guildId, userId, startDay, today));
+        synchronized (entries) {
+            if (generation == loadedAt) {
+                entries.put(key, year);
+            }
+        }
+        return year;
+    }
+
+    /**
+     * 닫힌 기록의 (서버, 유저) 히트맵을 무효화
+     * 트랜잭션 안이면 커밋된 뒤에 무효화 (커밋 전에 다시 계산해서 이전 값이 캐시되지 않도록)
+     */
+    void invalidateAfterCommit(Set<StudyDailyAgg.Key> keys) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            invalidate(keys);
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                invalidate(keys);
+            }
+        });
+    }
+
+    /**
+     * 모든 히트맵 무효화 (집계 테이블을 통째로 다시 만든 뒤 등)
+     */
+    public void invalidateAll() {
+        synchronized (entries) {
+            invalidationCounter.increment(entries.size());
+            entries.clear();
+            generation++;
+        }
+    }
+
+    public int size() {
+        synchronized (entries) {
+            return entries.size();
+        }
+    }
+
+    private void invalidate(Set<StudyDailyAgg.Key> keys) {
+        synchronized (entries) {
+            generation++;
+            for (StudyDailyAgg.Key agg : keys) {
+                if (entries.remove(new Key(agg.getGuildId(), agg.getUserId())) != null) {
+                    invalidationCounter.increment();
+                }
+            }
+        }
+    }
+
+    private record Key(long guildId, long userId) {
+    }
+}
@@ -0,0 +1,405 @@
+package com.studybot.discord_study_bot.service;
+
+import com.studybot.discord_study_bot.entity.StudyDailyAgg;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Date;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 일별 집계 테이블(study_daily_agg) 관리
+ *
+ * - StudyLog가 닫힐 때 그 기록을 쓰는 트랜잭션 안에서 addClosedLogs()로 누적
+ *   (write-behind flush, 시작 시 복구, 오래된 기록 정리)
+ * - 자정을 넘긴 기록은 날짜별로 나눠서 반영
+ * - 시작 시 집계 테이블이 비어 있으면 study_log 전체를 한 번 읽어 다시 집계 (backfill)
+ * - 누적한 값은 커밋 후 메모리 리더보드에도 반영, backfill이 끝나면 리더보드 로딩
+ * - 커밋 후 그 서버/날짜가 포함된 랭킹 캐시와 그 사용자의 Contribution 히트맵 캐시를 무효화하고
+ *   통계 API 버전(ETag)을 올림
+ * - 같은 트랜잭션에서 연속 기록(study_streak)과 서버 시간대 히트맵(study_hour_agg)도 갱신,
+ *   backfill 후에는 연속 기록을 전체 다시 계산 (히트맵 backfill은 GuildHeatmapService가 따로 판단)
+ * - 날짜는 길드 시간대(GuildTimeZoneService)의 자정으로 나눔. 기록 시각은 봇 서버 시간대로 저장되어 있으므로
+ *   절대 시각으로 바꿔서 자르고, 길이도 절대 시각으로 계산 (서머타임 전환일도 실제 공부한 시간만큼)
+ * - 길드 시간대를 바꾸면 changeTimeZone()이 그 서버의 일별 집계/히트맵/연속 기록을 새 시간대로 다시 나눔
+ *   (기록은 잠그지 않고 나눠 읽고, 마지막 짧은 트랜잭션에서만 닫기를 막음)
+ */
+@Service
+public class DailyRollupService {
+
+    private static final Logger logger = LoggerFactory.getLogger(DailyRollupService.class);
+
+    static final String UPSERT_SQL =
+            "INSERT INTO study_daily_agg (guild_id, user_id, day, seconds, sessions) VALUES (?, ?, ?, ?, ?) " +
+            "ON DUPLICATE KEY UPDATE seconds = seconds + VALUES(seconds), sessions = sessions + VALUES(sessions)";
+
+    // backfill: 닫힌 기록 전체를 기본 키 순서로 한 번만 읽음 (잠그지 않음, 스트리밍)
+    private static final String BACKFILL_SELECT_SQL =
+            "SELECT guild_id, user_id, start_time, end_time FROM study_log WHERE end_time IS NOT NULL ORDER BY id";
+
+    // backfill 결과를 한 번에 쓰는 행 수
+    private static final int BACKFILL_WRITE_CHUNK = 5000;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final LeaderboardService leaderboardService;
+    private final RankingCache rankingCache;
+    private final ContributionCache contributionCache;
+    private final StatisticsVersionTracker statisticsVersionTracker;
+    private final StudyStreakService studyStreakService;
+    private final GuildHeatmapService guildHeatmapService;
+    private final GuildTimeZoneService guildTimeZoneService;
+    // 닫기 트랜잭션(읽기)과 backfill/시간대 변경의 집계 덮어쓰기(쓰기)가 겹치지 않게 함
+    private final StudyLogCloseLock closeLock;
+    private final TransactionTemplate backfillTransaction;
+    private final String backfillMode;
+
+    // backfill이 읽는 스냅샷 이후에 커밋된 닫기 (backfill 중에만 null이 아님)
+    private volatile List<ClosedLog> closedDuringBackfill;
+
+    // 시간대 변경은 어차피 하나씩 실행되므로 스레드 하나 + 제한된 대기열
+    private final ThreadPoolExecutor timeZoneChangeExecutor;
+    // 변경이 대기 중이거나 실행 중인 서버 (같은 서버의 요청은 겹치지 않게 거절)
+    private final Set<Long> pendingTimeZoneChanges = ConcurrentHashMap.newKeySet();
+
+    public DailyRollupService(JdbcTemplate jdbcTemplate, TransactionTemplate transactionTemplate,
+                              LeaderboardService leaderboardService, RankingCache rankingCache,
+                              ContributionCache contributionCache, StatisticsVersionTracker statisticsVersionTracker,
+                              StudyStreakService studyStreakService, GuildHeatmapService guildHeatmapService,
+                              GuildTimeZoneService guildTimeZoneService, StudyLogCloseLock closeLock,
+                              @Value("${study-daily-agg.backfill:auto}") String backfillMode,
+                              @Value("${guild-time-zone.max-pending-changes:8}") int maxPendingTimeZoneChanges) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = transactionTemplate;
+        this.leaderboardService = leaderboardService;
+        this.rankingCache = rankingCache;
+        this.contributionCache = contributionCache;
+        this.statisticsVersionTracker = statisticsVersionTracker;
+        this.studyStreakService = studyStreakService;
+        this.guildHeatmapService = guildHeatmapService;
+        this.guildTimeZoneService = guildTimeZoneService;
+        this.closeLock = closeLock;
+        this.backfillMode = backfillMode;
+        // backfill은 한 스냅샷에서 읽으므로 REPEATABLE READ로 고정
+        this.backfillTransaction = new TransactionTemplate(transactionTemplate.getTransactionManager());
+        this.backfillTransaction.setIsolationLevel(TransactionDefinition.ISOLATION_REPEATABLE_READ);
+        this.timeZoneChangeExecutor = new ThreadPoolExecutor(1, 1, 60, TimeUnit.SECONDS,
+                new ArrayBlockingQueue<>(Math.max(1, maxPendingTimeZoneChanges)), runnable -> {
+            Thread thread = new Thread(runnable, "time-zone-change");
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.timeZoneChangeExecutor.allowCoreThreadTimeOut(true);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        timeZoneChangeExecutor.shutdownNow();
+    }
+
+    /**
+     * 닫힌 StudyLog 기록 (시각은 study_log와 같은 봇 서버 시간대)
+     *
+     * @param channelId 기록을 시작한 음성 채널 ID (모르면 null, 시간대 히트맵 집계용)
+     */
+    public record ClosedLog(long guildId, long userId, LocalDateTime startTime, LocalDateTime endTime,
+                            Long channelId) {
+    }
+
+    /**
+     * 닫힌 기록을 일별 집계에 누적
+     * 호출한 쪽의 트랜잭션 안에서 실행되어야 study_log 변경과 함께 커밋/롤백됨
+     */
+    public void addClosedLogs(List<ClosedLog> logs) {
+        if (logs.isEmpty()) {
+            return;
+        }
+        // 날짜를 나누기 전에 잡아야 시간대 변경과 겹쳐도 바뀐 시간대로 나눔 (변경은 이 잠금 안에서 커밋되고 반영됨)
+        closeLock.holdForClose(() -> collectForBackfill(logs));
+        Map<StudyDailyAgg.Key, long[]> totals = new HashMap<>();
+        for (ClosedLog log : logs) {
+            splitByDay(log.guildId(), log.userId(), guildTimeZoneService.toInstant(log.startTime()),
+                    guildTimeZoneService.toInstant(log.endTime()), guildTimeZoneService.zoneOf(log.guildId()), totals);
+        }
+
+        if (totals.isEmpty()) {
+            return;
+        }
+
+        // 집계를 쓰기 전에 등록해야 리더보드 로딩과 겹치지 않음
+        leaderboardService.applyAfterCommit(logs, totals);
+        // 리더보드에 반영된 뒤(등록 순서대로 실행) 그 서버/날짜가 포함된 랭킹 캐시 무효화
+        rankingCache.invalidateAfterCommit(totals.keySet());
+        contributionCache.invalidateAfterCommit(totals.keySet());
+        // 캐시가 비워진 뒤에 올려야 새 ETag로 이전 값이 나가지 않음
+        statisticsVersionTracker.advanceAfterCommit(totals.keySet());
+
+        List<Object[]> args = new ArrayList<>(totals.size());
+        totals.forEach((key, total) -> args.add(new Object[]{
+                key.getGuildId(), key.getUserId(), Date.valueOf(key.getDay()), total[0], total[1]}));
+        jdbcTemplate.batchUpdate(UPSERT_SQL, args);
+
+        // 같은 트랜잭션에서 연속 기록과 시간대 히트맵도 갱신
+        studyStreakService.addDays(totals);
+        guildHeatmapService.addClosedLogs(logs);
+    }
+
+    private void collectForBackfill(List<ClosedLog> logs) {
+        List<ClosedLog> collected = closedDuringBackfill;
+        if (collected != null) {
+            synchronized (collected) {
+                collected.addAll(logs);
+            }
+        }
+    }
+
+    /**
+     * 기록을 zone의 날짜 경계(자정)에서 잘라 (서버, 유저, 날짜)별 [초, 기록 수]에 더함
+     */
+    static void splitByDay(long guildId, long userId, Instant start, Instant end, ZoneId zone,
+                           Map<StudyDailyAgg.Key, long[]> totals) {
+        Instant cursor = start;
+        while (cursor.isBefore(end)) {
+            LocalDate day = LocalDate.ofInstant(cursor, zone);
+            Instant nextMidnight = day.plusDays(1).atStartOfDay(zone).toInstant();
+            Instant pieceEnd = nextMidnight.isBefore(end) ? nextMidnight : end;
+
+            long[] total = totals.computeIfAbsent(new StudyDailyAgg.Key(guildId, userId, day), k -> new long[2]);
+            total[0] += Duration.between(cursor, pieceEnd).getSeconds();
+            total[1]++;
+            cursor = pieceEnd;
+        }
+    }
+
+    /**
+     * 시작 시 backfill 실행 여부 결정
+     * auto: 집계 테이블이 비어 있을 때만, always: 매번 다시 집계, never: 하지 않음
+     * backfill은 한 트랜잭션이라 중간에 끊기면 이전 집계가 그대로 남음 (always로 다시 실행하면 됨)
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void backfillOnStartup() {
+        if ("never".equalsIgnoreCase(backfillMode)) {
+            leaderboardService.load();
+            studyStreakService.rebuildIfEmpty();
+            return;
+        }
+        try {
+            if ("auto".equalsIgnoreCase(backfillMode)) {
+                Integer existing = jdbcTemplate.queryForObject(
+                        "SELECT COUNT(*) FROM (SELECT 1 FROM study_daily_agg LIMIT 1) t", Integer.class);
+                if (existing != null && existing > 0) {
+                    logger.info("일별 집계 테이블에 데이터가 있어 backfill을 건너뜁니다.");
+                    leaderboardService.load();
+                    studyStreakService.rebuildIfEmpty();
+                    return;
+                }
+            }
+        } catch (Exception e) {
+            logger.error("일별 집계 테이블 확인 중 오류 발생", e);
+            return;
+        }
+
+        // 리더보드는 집계가 모두 채워진 뒤에 로딩 (그 전까지 랭킹은 DB에서 조회)
+        Thread worker = new Thread(() -> {
+            backfill();
+            leaderboardService.load();
+            rankingCache.invalidateAll();
+            contributionCache.invalidateAll();
+            studyStreakService.rebuildAll();
+            statisticsVersionTracker.advanceAll();
+        }, "daily-rollup-backfill");
+        worker.setDaemon(true);
+        worker.start();
+    }
+
+    /**
+     * study_log 전체를 다시 집계
+     * 한 트랜잭션(REPEATABLE READ)에서 닫힌 기록을 기본 키 순서로 한 번만 읽고(잠그지 않음),
+     * 메모리에서 서버 시간대의 날짜별로 나눈 뒤 집계 테이블을 지우고 새로 씀.
+     *
+     * 닫기는 모두 addClosedLogs()를 거치므로 닫기 잠금으로 겹치는 기록을 맞춤
+     * - 스냅샷은 진행 중인 닫기 트랜잭션이 없을 때 시작하고, 그 뒤에 커밋된 닫기는 따로 모아 둠
+     *   (스냅샷에 없으므로 읽은 기록과 겹치지 않음)
+     * - 집계를 지우고 쓰는 동안에는 새 닫기가 잠금에서 기다리다 커밋 후 더해짐
+     * - 지우기 전에 모아 둔 닫기는 그 집계가 함께 지워지므로 다시 더함
+     */
+    public synchronized void backfill() {
+        long started = System.nanoTime();
+        logger.info("일별 집계 backfill 시작");
+        long[] counts = new long[2]; // [읽은 기록 수, 쓴 집계 행 수]
+        try {
+            backfillTransaction.executeWithoutResult(status -> {
+                TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                    @Override
+                    public void afterCompletion(int completion) {
+                        closedDuringBackfill = null;
+                    }
+                });
+
+                closeLock.runExclusive(() -> {
+                    // 첫 일관 읽기에서 스냅샷이 정해짐
+                    jdbcTemplate.queryForObject("SELECT COUNT(*) FROM (SELECT 1 FROM study_log LIMIT 1) t",
+                            Integer.class);
+                    closedDuringBackfill = new ArrayList<>();
+                });
+
+                Map<StudyDailyAgg.Key, long[]> totals = new HashMap<>();
+                jdbcTemplate.query(con -> {
+                    PreparedStatement statement = con.prepareStatement(BACKFILL_SELECT_SQL,
+                            ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+                    // MySQL 드라이버가 결과를 한 번에 메모리에 올리지 않고 한 행씩 읽음
+                    statement.setFetchSize(Integer.MIN_VALUE);
+                    return statement;
+                }, rs -> {
+                    long guildId = rs.getLong(1);
+                    // guild_id가 없는 레거시 기록은 DataMigrationService가 채우기 전까지 제외
+                    if (rs.wasNull()) {
+                        return;
+                    }
+                    splitByDay(guildId, rs.getLong(2), guildTimeZoneService.toInstant(rs.getTimestamp(3).toLocalDateTime()),
+                            guildTimeZoneService.toInstant(rs.getTimestamp(4).toLocalDateTime()),
+                            guildTimeZoneService.zoneOf(guildId), totals);
+                    counts[0]++;
+                });
+
+                // 커밋(afterCompletion)까지 잡고 있음
+                closeLock.holdForRewrite();
+                List<ClosedLog> closedDuring = closedDuringBackfill;
+                closedDuringBackfill = null;
+                for (ClosedLog log : closedDuring) {
+                    splitByDay(log.guildId(), log.userId(), guildTimeZoneService.toInstant(log.startTime()),
+                            guildTimeZoneService.toInstant(log.endTime()), guildTimeZoneService.zoneOf(log.guildId()),
+                            totals);
+                }
+
+                jdbcTemplate.update("DELETE FROM study_daily_agg");
+                upsertInChunks(totals);
+                counts[1] = totals.size();
+                if (!closedDuring.isEmpty()) {
+                    logger.info("backfill 도중 닫힌 기록 {}개를 함께 반영했습니다.", closedDuring.size());
+                }
+            });
+        } catch (Exception e) {
+            logger.error("일별 집계 backfill 실패", e);
+            return;
+        }
+        logger.info("일별 집계 backfill 완료: 기록 {}개, 집계 {}행 ({}ms)", counts[0], counts[1],
+                (System.nanoTime() - started) / 1_000_000);
+    }
+
+    /**
+     * 서버 시간대 변경을 전용 스레드에 맡김 (다시 집계하는 동안 호출한 스레드를 막지 않음)
+     *
+     * @return 변경이 끝나면 완료되는 future. 같은 서버의 변경이 이미 대기/실행 중이면 null
+     * @throws RejectedExecutionException 대기 중인 변경이 너무 많을 때
+     */
+    public CompletableFuture<Void> submitTimeZoneChange(long guildId, ZoneId zone) {
+        if (!pendingTimeZoneChanges.add(guildId)) {
+            return null;
+        }
+        try {
+            return CompletableFuture.runAsync(() -> {
+                try {
+                    changeTimeZone(guildId, zone);
+                } finally {
+                    pendingTimeZoneChanges.remove(guildId);
+                }
+            }, timeZoneChangeExecutor);
+        } catch (RejectedExecutionException e) {
+            pendingTimeZoneChanges.remove(guildId);
+            throw e;
+        }
+    }
+
+    /**
+     * 서버 시간대를 바꾸고 그 서버의 기존 기록을 새 시간대의 날짜/시간대로 다시 나눔
+     * 1. 트랜잭션 밖에서 그 서버의 기록을 잠그지 않고 나눠 읽어 새 시간대로 일별 집계/히트맵을 계산 (GuildLogScan)
+     * 2. 짧은 트랜잭션에서 닫기를 막고(StudyLogCloseLock) 그 사이 닫히거나 추가된 기록만 더한 뒤,
+     *    일별 집계/시간대 히트맵/연속 기록을 지우고 새로 씀. 새 시간대는 커밋 후 이 잠금 안에서 반영되므로
+     *    기다리던 닫기는 새 시간대로 나뉘어 더해짐
+     * backfill과는 동시에 실행하지 않음.
+     * 커밋 후 그 서버의 리더보드만 다시 로딩하고 캐시를 비움 (현재 기간 자체가 바뀔 수 있으므로)
+     */
+    public synchronized void changeTimeZone(long guildId, ZoneId zone) {
+        long started = System.nanoTime();
+        Map<StudyDailyAgg.Key, long[]> totals = new HashMap<>();
+        GuildHeatmapService.Rebuild heatmap = guildHeatmapService.newRebuild(guildId, zone);
+        GuildLogScan.ClosedLogHandler rebucket = (userId, channelId, startTime, endTime) -> {
+            splitByDay(guildId, userId, guildTimeZoneService.toInstant(startTime),
+                    guildTimeZoneService.toInstant(endTime), zone, totals);
+            heatmap.add(channelId, startTime, endTime);
+        };
+        GuildLogScan scan = new GuildLogScan(jdbcTemplate, guildId);
+        scan.scan(rebucket);
+        heatmap.compute();
+        long scanned = System.nanoTime();
+
+        transactionTemplate.executeWithoutResult(status -> {
+            // 커밋(afterCompletion)까지 잡고 있음. 이후 읽기는 모두 잠그지 않는 읽기
+            closeLock.holdForRewrite();
+            scan.reconcile(rebucket);
+            heatmap.compute();
+
+            jdbcTemplate.update("DELETE FROM study_daily_agg WHERE guild_id = ?", guildId);
+            upsertInChunks(totals);
+            guildHeatmapService.write(heatmap);
+            studyStreakService.replaceGuild(guildId);
+            // 메모리 값은 커밋된 뒤에 바뀜 (롤백되면 그대로)
+            guildTimeZoneService.setZone(guildId, zone);
+        });
+
+        leaderboardService.loadGuild(guildId);
+        rankingCache.invalidateAll();
+        contributionCache.invalidateAll();
+        statisticsVersionTracker.advanceAll();
+        logger.info("서버 시간대 변경 완료. 길드: {}, 시간대: {}, 기록 {}개 (읽기 {}ms, 마무리 {}ms)", guildId, zone,
+                scan.closedCount(), (scanned - started) / 1_000_000, (System.nanoTime() - scanned) / 1_000_000);
+    }
+
+    /**
+     * 일별 집계 값을 BACKFILL_WRITE_CHUNK 행씩 나눠 씀
+     */
+    private void upsertInChunks(Map<StudyDailyAgg.Key, long[]> totals) {
+        List<Object[]> args = new ArrayList<>(Math.min(totals.size(), BACKFILL_WRITE_CHUNK));
+        for (Map.Entry<StudyDailyAgg.Key, long[]> entry : totals.entrySet()) {
+            StudyDailyAgg.Key key = entry.getKey();
+            args.add(new Object[]{key.getGuildId(), key.getUserId(), Date.valueOf(key.getDay()),
+                    entry.getValue()[0], entry.getValue()[1]});
+            if (args.size() == BACKFILL_WRITE_CHUNK) {
+                jdbcTemplate.batchUpdate(UPSERT_SQL, args);
+                args.clear();
+            }
+        }
+        if (!args.isEmpty()) {
+            jdbcTemplate.batchUpdate(UPSERT_SQL, args);
+        }
+    }
+}
@@ -5,9 +5,13 @@ import lombok.RequiredArgsConstructor;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.ConnectionCallback;
 import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.stereotype.Service;
 
+import java.sql.Statement;
+import java.util.List;
+
 @Service
 @RequiredArgsConstructor
 public class DataMigrationService {
@@ -15,14 +19,42 @@ public class DataMigrationService {
     private static final Logger logger = LoggerFactory.getLogger(DataMigrationService.class);
     private final JdbcTemplate jdbcTemplate;
 
+    // study_log 조회용 인덱스 (이름, 컬럼)
+    private static final List<String[]> STUDY_LOG_INDEXES = List.of(
+            // 기간 랭킹/통계: guild_id + start_time 범위, user_id/end_time까지 인덱스에서 바로 읽음
+            new String[]{"idx_study_log_guild_start", "guild_id, start_time, user_id, end_time"},
+            // 개인 기록 조회: guild_id + user_id + start_time 범위
+            new String[]{"idx_study_log_guild_user_start", "guild_id, user_id, start_time"},
+            // 열린 기록 조회 (시작 시 복구, 세션 정리): end_time IS NULL + start_time 범위
+            new String[]{"idx_study_log_end_start", "end_time, start_time"}
+    );
+
     @Value("${migration.legacy-guild-id:}")
     private String legacyGuildId;
 
     @Value("${migration.legacy-guild-name:}")
     private String legacyGuildName;
 
+    @Value("${migration.id-column-chunk-size:10000}")
+    private int chunkSize;
+
+    @Value("${migration.chunk-pause-ms:50}")
+    private long chunkPauseMs;
+
+    @Value("${migration.drop-legacy-id-columns:true}")
+    private boolean dropLegacyIdColumns;
+
     @PostConstruct
     public void migrateExistingData() {
+        fillLegacyGuildId();
+        migrateIdColumnsToBigint();
+        ensureStudyLogIndexes();
+    }
+
+    /**
+     * guild_id가 없는 기존 기록에 legacy guild 정보를 채움
+     */
+    private void fillLegacyGuildId() {
         // legacy guild ID가 설정되어 있지 않으면 마이그레이션 스킵
         if (legacyGuildId == null || legacyGuildId.isEmpty()) {
             logger.info("Legacy guild ID가 설정되지 않아 데이터 마이그레이션을 스킵합니다.");
@@ -41,7 +73,7 @@ public class DataMigrationService {
                 // NULL인 레코드 업데이트
                 int updated = jdbcTemplate.update(
                         "UPDATE study_log SET guild_id = ?, guild_name = ? WHERE guild_id IS NULL",
-                        legacyGuildId,
+                        Long.parseLong(legacyGuildId),
                         legacyGuildName);
 
                 logger.info("데이터 마이그레이션 완료: {}개의 레코드가 업데이트되었습니다.", updated);
@@ -52,4 +84,159 @@ public class DataMigrationService {
             logger.error("데이터 마이그레이션 중 오류 발생", e);
         }
     }
+
+    /**
+     * study_log.guild_id / user_id를 VARCHAR에서 BIGINT로 변환 (온라인)
+     * blue/green 전환 중 이전 인스턴스가 계속 쓰고 있어도 테이블을 길게 잠그지 않도록 진행.
+     *
+     * 1. BIGINT 그림자 컬럼(guild_id_new, user_id_new) 추가 (INSTANT)
+     * 2. id 범위로 나눠 조금씩 복사 (청크마다 짧은 자동 커밋 UPDATE)
+     * 3. 복사 중 새로 들어온 행을 따라잡기
+     * 4. 짧은 LOCK TABLES 안에서 마지막 행을 복사하고 컬럼 이름을 맞바꿈 (메타데이터만 변경)
+     * 5. 이전 VARCHAR 컬럼 삭제 (INPLACE, LOCK=NONE)
+     *
+     * 중간에 끊겨도 다시 시작하면 그림자 컬럼부터 이어서 진행됨 (복사는 멱등)
+     */
+    private void migrateIdColumnsToBigint() {
+        try {
+            String guildIdType = columnType("guild_id");
+            if (guildIdType == null) {
+                return;
+            }
+            if ("bigint".equalsIgnoreCase(guildIdType) && "bigint".equalsIgnoreCase(columnType("user_id"))) {
+                dropLegacyIdColumns();
+                return;
+            }
+
+            long started = System.nanoTime();
+            logger.info("study_log ID 컬럼 BIGINT 변환을 시작합니다.");
+
+            // 1. 그림자 컬럼
+            if (columnType("guild_id_new") == null) {
+                jdbcTemplate.execute("ALTER TABLE study_log " +
+                        "ADD COLUMN guild_id_new BIGINT NULL, ADD COLUMN user_id_new BIGINT NULL, ALGORITHM=INSTANT");
+            }
+
+            // 2. 청크 복사
+            long lastId = 0;
+            long maxId = maxStudyLogId();
+            lastId = copyIdChunks(lastId, maxId);
+
+            // 3. 복사하는 동안 추가된 행 따라잡기 (남은 행이 한 청크보다 적어질 때까지)
+            while (true) {
+                maxId = maxStudyLogId();
+                if (maxId - lastId < chunkSize) {
+                    break;
+                }
+                lastId = copyIdChunks(lastId, maxId);
+            }
+
+            // 4. 마지막 행 복사 + 컬럼 교체 (잠금은 이 구간에서만)
+            long finalFrom = lastId;
+            jdbcTemplate.execute((ConnectionCallback<Void>) connection -> {
+                try (Statement statement = connection.createStatement()) {
+                    statement.execute("LOCK TABLES study_log WRITE");
+                    try {
+                        statement.executeUpdate("UPDATE study_log SET " +
+                                "guild_id_new = CAST(guild_id AS SIGNED), user_id_new = CAST(user_id AS SIGNED) " +
+                                "WHERE id > " + finalFrom);
+                        // RENAME COLUMN은 메타데이터만 바꾸므로 행 수와 관계없이 바로 끝남
+                        statement.execute("ALTER TABLE study_log " +
+                                "RENAME COLUMN guild_id TO guild_id_old, RENAME COLUMN guild_id_new TO guild_id, " +
+                                "RENAME COLUMN user_id TO user_id_old, RENAME COLUMN user_id_new TO user_id");
+                    } finally {
+                        statement.execute("UNLOCK TABLES");
+                    }
+                }
+                return null;
+            });
+
+            logger.info("study_log ID 컬럼 BIGINT 변환 완료 ({}ms)", (System.nanoTime() - started) / 1_000_000);
+
+            // 5. 이전 컬럼 정리
+            dropLegacyIdColumns();
+        } catch (Exception e) {
+            logger.error("study_log ID 컬럼 변환 중 오류 발생. 다음 시작 시 이어서 진행합니다.", e);
+        }
+    }
+
+    /**
+     * (from, to] 범위를 chunkSize씩 나눠 그림자 컬럼에 복사
+     *
+     * @return 마지막으로 복사한 id
+     */
+    private long copyIdChunks(long from, long to) {
+        long copied = 0;
+        for (long start = from; start < to; start += chunkSize) {
+            long end = Math.min(start + chunkSize, to);
+            copied += jdbcTemplate.update("UPDATE study_log SET " +
+                    "guild_id_new = CAST(guild_id AS SIGNED), user_id_new = CAST(user_id AS SIGNED) " +
+                    "WHERE id > ? AND id <= ?", start, end);
+
+            // 다른 쓰기 작업과 복제 지연을 위해 청크 사이에 잠깐 쉼
+            if (chunkPauseMs > 0) {
+                try {
+                    Thread.sleep(chunkPauseMs);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new IllegalStateException("ID 컬럼 변환 중 인터럽트 발생", e);
+                }
+            }
+        }
+        logger.info("study_log ID 복사 진행: id {} ~ {} ({}개)", from, to, copied);
+        return Math.max(from, to);
+    }
+
+    /**
+     * 변환 후 남은 VARCHAR 컬럼 삭제 (테이블을 잠그지 않는 INPLACE 재구성)
+     */
+    private void dropLegacyIdColumns() {
+        if (!dropLegacyIdColumns || columnType("guild_id_old") == null) {
+            return;
+        }
+        long started = System.nanoTime();
+        jdbcTemplate.execute("ALTER TABLE study_log DROP COLUMN guild_id_old, DROP COLUMN user_id_old, " +
+                "ALGORITHM=INPLACE, LOCK=NONE");
+        logger.info("study_log 이전 ID 컬럼 삭제 완료 ({}ms)", (System.nanoTime() - started) / 1_000_000);
+    }
+
+    /**
+     * 조회용 복합 인덱스 생성 (없을 때만, 온라인)
+     * ID 컬럼 변환이 끝난 뒤에만 만들어 VARCHAR 컬럼에 인덱스를 만들었다 버리는 일이 없도록 함
+     */
+    private void ensureStudyLogIndexes() {
+        try {
+            if (!"bigint".equalsIgnoreCase(columnType("guild_id"))) {
+                return;
+            }
+            for (String[] index : STUDY_LOG_INDEXES) {
+                Integer exists = jdbcTemplate.queryForObject(
+                        "SELECT COUNT(*) FROM information_schema.STATISTICS " +
+                        "WHERE TABLE_SCHEMA = DATABASE() AND TABLE_NAME = 'study_log' AND INDEX_NAME = ?",
+                        Integer.class, index[0]);
+                if (exists != null && exists > 0) {
+                    continue;
+                }
+                long started = System.nanoTime();
+                jdbcTemplate.execute("CREATE INDEX " + index[0] + " ON study_log (" + index[1] + ") " +
+                        "ALGORITHM=INPLACE LOCK=NONE");
+                logger.info("study_log 인덱스 생성 완료: {} ({}ms)", index[0], (System.nanoTime() - started) / 1_000_000);
+            }
+        } catch (Exception e) {
+            logger.error("study_log 인덱스 생성 중 오류 발생", e);
+        }
+    }
+
+    private String columnType(String column) {
+        List<String> types = jdbcTemplate.queryForList(
+                "SELECT DATA_TYPE FROM information_schema.COLUMNS " +
+                "WHERE TABLE_SCHEMA = DATABASE() AND TABLE_NAME = 'study_log' AND COLUMN_NAME = ?",
+                String.class, column);
+        return types.isEmpty() ? null : types.get(0);
+    }
+
+    private long maxStudyLogId() {
+        Long maxId = jdbcTemplate.queryForObject("SELECT MAX(id) FROM study_log", Long.class);
+        return maxId != null ? maxId : 0L;
+    }
 }
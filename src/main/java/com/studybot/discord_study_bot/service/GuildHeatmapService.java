@@ -0,0 +1,398 @@
+package com.studybot.discord_study_bot.service;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.zone.ZoneOffsetTransition;
+import java.time.zone.ZoneRules;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinWorkerThread;
+import java.util.concurrent.RecursiveTask;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 서버 시간대 히트맵 집계(study_hour_agg) 관리
+ *
+ * - StudyLog가 닫힐 때 DailyRollupService가 같은 트랜잭션에서 addClosedLogs()로 누적
+ * - 기록은 길드 시간대(GuildTimeZoneService)의 시간 경계(정각)에서 잘라 걸친 시간대마다 그 시간대에 공부한 초만큼 더함
+ * - 채널은 기록을 시작한 음성 채널 (채널을 기록하기 전의 데이터는 0)
+ * - 시작 시 집계 테이블이 비어 있으면 study_log 전체를 서버별로 다시 집계 (backfill)
+ *
+ * backfill은 서버마다
+ * 1. 트랜잭션 밖에서 그 서버의 기록을 잠그지 않고 나눠 읽음 (GuildLogScan)
+ * 2. 전용 fork/join 풀에서 시간대별로 합침 (트랜잭션/행 잠금 없이)
+ * 3. 짧은 트랜잭션에서 닫기를 막고(StudyLogCloseLock) 그 사이 닫히거나 추가된 기록만 더한 뒤 그 서버의 집계를 덮어씀.
+ *    이 트랜잭션이 끝난 뒤 닫히는 기록은 addClosedLogs()로 더해지므로 중복/누락이 없음
+ * 길드 시간대를 바꿀 때는 DailyRollupService.changeTimeZone()이 Rebuild로 같은 풀에서 다시 집계
+ */
+@Service
+public class GuildHeatmapService {
+
+    private static final Logger logger = LoggerFactory.getLogger(GuildHeatmapService.class);
+
+    // 요일(7) x 시간(24), 칸 번호는 (요일 - 1) * 24 + 시간 (요일은 1(월) - 7(일))
+    static final int CELLS = 7 * 24;
+    private static final long HOUR_SECONDS = 3600L;
+    private static final long WEEK_SECONDS = CELLS * HOUR_SECONDS;
+    // 1970-01-01은 목요일이므로 epoch 기준 시간 번호에 월요일 0시부터의 시간 수를 더함
+    private static final int EPOCH_HOUR_OFFSET = 3 * 24;
+
+    static final String UPSERT_SQL =
+            "INSERT INTO study_hour_agg (guild_id, channel_id, day_of_week, hour, seconds) VALUES (?, ?, ?, ?, ?) " +
+            "ON DUPLICATE KEY UPDATE seconds = seconds + VALUES(seconds)";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final GuildTimeZoneService guildTimeZoneService;
+    private final StudyLogCloseLock closeLock;
+    private final String backfillMode;
+    private final int parallelism;
+    private final int splitThreshold;
+    // backfill과 시간대 변경이 함께 쓰는 전용 풀 (공용 풀을 다른 작업과 나눠 쓰지 않음, 쉬면 스레드가 정리됨)
+    private final ForkJoinPool pool;
+
+    // 메트릭
+    private final Timer backfillTimer;
+
+    public GuildHeatmapService(JdbcTemplate jdbcTemplate, TransactionTemplate transactionTemplate,
+                               GuildTimeZoneService guildTimeZoneService, StudyLogCloseLock closeLock,
+                               MeterRegistry meterRegistry,
+                               @Value("${study-hour-agg.backfill:auto}") String backfillMode,
+                               @Value("${study-hour-agg.backfill-parallelism:0}") int parallelism,
+                               @Value("${study-hour-agg.backfill-split-threshold:50000}") int splitThreshold) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = transactionTemplate;
+        this.guildTimeZoneService = guildTimeZoneService;
+        this.closeLock = closeLock;
+        this.backfillMode = backfillMode;
+        this.parallelism = parallelism > 0 ? parallelism : Runtime.getRuntime().availableProcessors();
+        this.splitThreshold = Math.max(1, splitThreshold);
+        this.pool = new ForkJoinPool(this.parallelism, forkJoinPool -> {
+            ForkJoinWorkerThread thread = ForkJoinPool.defaultForkJoinWorkerThreadFactory.newThread(forkJoinPool);
+            thread.setName("hour-agg-" + thread.getPoolIndex());
+            return thread;
+        }, null, false);
+
+        this.backfillTimer = Timer.builder("study_hour_agg.backfill.guild")
+                .description("서버 하나의 시간대 히트맵을 다시 집계한 시간")
+                .register(meterRegistry);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        pool.shutdownNow();
+    }
+
+    /**
+     * 닫힌 기록을 시간대 히트맵에 누적
+     * 호출한 쪽의 트랜잭션 안에서 실행되어야 study_log 변경과 함께 커밋/롤백됨
+     */
+    void addClosedLogs(List<DailyRollupService.ClosedLog> logs) {
+        Map<Target, long[]> cellsByTarget = new HashMap<>();
+        for (DailyRollupService.ClosedLog log : logs) {
+            long channelId = log.channelId() != null ? log.channelId() : 0L;
+            long[] cells = cellsByTarget.computeIfAbsent(new Target(log.guildId(), channelId),
+                    target -> new long[CELLS]);
+            splitByHour(guildTimeZoneService.toInstant(log.startTime()), guildTimeZoneService.toInstant(log.endTime()),
+                    guildTimeZoneService.zoneOf(log.guildId()), cells);
+        }
+
+        List<Object[]> args = new ArrayList<>();
+        cellsByTarget.forEach((target, cells) -> addArgs(target.guildId(), target.channelId(), cells, args));
+        if (!args.isEmpty()) {
+            jdbcTemplate.batchUpdate(UPSERT_SQL, args);
+        }
+    }
+
+    /**
+     * 기록을 zone의 시간 경계(정각)에서 잘라 요일/시간 칸에 초 단위로 더함
+     */
+    static void splitByHour(Instant start, Instant end, ZoneId zone, long[] cells) {
+        addSpan(start.getEpochSecond(), end.getEpochSecond(), zone.getRules(), cells);
+    }
+
+    /**
+     * 절대 시각 [from, to) (epoch 초)를 rules의 벽시계 시각으로 바꿔 칸에 더함
+     * 오프셋이 바뀌는 시각(서머타임 전환)에서 나눠, 나눈 구간마다 오프셋을 더한 뒤 addLocalSpan()으로 계산
+     */
+    private static void addSpan(long from, long to, ZoneRules rules, long[] cells) {
+        if (rules.isFixedOffset()) {
+            int offset = rules.getOffset(Instant.EPOCH).getTotalSeconds();
+            addLocalSpan(from + offset, to + offset, cells);
+            return;
+        }
+        long cursor = from;
+        while (cursor < to) {
+            Instant at = Instant.ofEpochSecond(cursor);
+            int offset = rules.getOffset(at).getTotalSeconds();
+            ZoneOffsetTransition next = rules.nextTransition(at);
+            long pieceEnd = next != null ? Math.min(next.toEpochSecond(), to) : to;
+            addLocalSpan(cursor + offset, pieceEnd + offset, cells);
+            cursor = pieceEnd;
+        }
+    }
+
+    /**
+     * [from, to) 구간을 칸에 더함
+     * 시각은 벽시계 시각을 UTC처럼 센 초 (요일/시간 계산이 나눗셈으로 끝나도록)
+     */
+    private static void addLocalSpan(long from, long to, long[] cells) {
+        if (to <= from) {
+            return;
+        }
+        // 일주일 이상인 기록은 모든 칸에 한 시간씩 먼저 더함 (레거시 데이터)
+        long weeks = (to - from) / WEEK_SECONDS;
+        if (weeks > 0) {
+            for (int i = 0; i < CELLS; i++) {
+                cells[i] += weeks * HOUR_SECONDS;
+            }
+            from += weeks * WEEK_SECONDS;
+        }
+        long cursor = from;
+        while (cursor < to) {
+            long hour = Math.floorDiv(cursor, HOUR_SECONDS);
+            long pieceEnd = Math.min((hour + 1) * HOUR_SECONDS, to);
+            cells[(int) Math.floorMod(hour + EPOCH_HOUR_OFFSET, (long) CELLS)] += pieceEnd - cursor;
+            cursor = pieceEnd;
+        }
+    }
+
+    private static void addArgs(long guildId, long channelId, long[] cells, List<Object[]> args) {
+        for (int i = 0; i < CELLS; i++) {
+            if (cells[i] > 0) {
+                args.add(new Object[]{guildId, channelId, i / 24 + 1, i % 24, cells[i]});
+            }
+        }
+    }
+
+    /**
+     * 시작 시 backfill 실행 여부 결정
+     * auto: 집계 테이블이 비어 있을 때만, always: 매번 다시 집계, never: 하지 않음
+     * backfill은 서버마다 덮어쓰므로 중간에 끊겼으면 always로 다시 실행하면 됨
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void backfillOnStartup() {
+        if ("never".equalsIgnoreCase(backfillMode)) {
+            return;
+        }
+        try {
+            if ("auto".equalsIgnoreCase(backfillMode)) {
+                Integer existing = jdbcTemplate.queryForObject(
+                        "SELECT COUNT(*) FROM (SELECT 1 FROM study_hour_agg LIMIT 1) t", Integer.class);
+                if (existing != null && existing > 0) {
+                    logger.info("시간대 히트맵 집계 테이블에 데이터가 있어 backfill을 건너뜁니다.");
+                    return;
+                }
+            }
+        } catch (Exception e) {
+            logger.error("시간대 히트맵 집계 테이블 확인 중 오류 발생", e);
+            return;
+        }
+
+        Thread worker = new Thread(this::backfill, "hour-agg-backfill");
+        worker.setDaemon(true);
+        worker.start();
+    }
+
+    /**
+     * study_log 전체를 서버별로 다시 집계
+     */
+    public void backfill() {
+        long started = System.nanoTime();
+        List<Long> guildIds;
+        try {
+            guildIds = jdbcTemplate.queryForList(
+                    "SELECT DISTINCT guild_id FROM study_log WHERE guild_id IS NOT NULL", Long.class);
+        } catch (Exception e) {
+            logger.error("시간대 히트맵 backfill 준비 중 오류 발생", e);
+            return;
+        }
+
+        logger.info("시간대 히트맵 backfill 시작: 서버 {}개 (병렬도 {})", guildIds.size(), parallelism);
+        long logs = 0;
+        for (Long guildId : guildIds) {
+            long guildStarted = System.nanoTime();
+            try {
+                logs += backfillGuild(guildId);
+            } catch (Exception e) {
+                logger.error("시간대 히트맵 backfill 실패. 길드: {}", guildId, e);
+            }
+            backfillTimer.record(System.nanoTime() - guildStarted, TimeUnit.NANOSECONDS);
+        }
+        logger.info("시간대 히트맵 backfill 완료: 서버 {}개, 기록 {}개 ({}ms)", guildIds.size(), logs,
+                (System.nanoTime() - started) / 1_000_000);
+    }
+
+    /**
+     * 한 서버의 히트맵을 그 서버의 지금 시간대로 다시 집계
+     * 마무리 트랜잭션에서 보니 그 사이 시간대가 바뀌었으면 건너뜀 (시간대 변경이 이미 새 시간대로 다시 씀)
+     *
+     * @return 집계한 기록 수
+     */
+    private int backfillGuild(long guildId) {
+        ZoneId zone = guildTimeZoneService.zoneOf(guildId);
+        Rebuild rebuild = newRebuild(guildId, zone);
+        GuildLogScan scan = new GuildLogScan(jdbcTemplate, guildId);
+        scan.scan((userId, channelId, startTime, endTime) -> rebuild.add(channelId, startTime, endTime));
+        rebuild.compute();
+
+        transactionTemplate.executeWithoutResult(status -> {
+            // 시간대 변경은 이 잠금 안에서 커밋되고 반영되므로, 잡은 뒤에 본 시간대가 최종 값
+            closeLock.holdForRewrite();
+            if (!guildTimeZoneService.zoneOf(guildId).equals(zone)) {
+                logger.info("backfill 중 시간대가 바뀌어 건너뜁니다. 길드: {}", guildId);
+                return;
+            }
+            scan.reconcile((userId, channelId, startTime, endTime) -> rebuild.add(channelId, startTime, endTime));
+            rebuild.compute();
+            write(rebuild);
+        });
+        return scan.closedCount();
+    }
+
+    /**
+     * 한 서버의 히트맵을 zone 기준으로 다시 집계할 작업 생성 (길드 시간대 변경용)
+     */
+    Rebuild newRebuild(long guildId, ZoneId zone) {
+        return new Rebuild(guildId, zone.getRules());
+    }
+
+    /**
+     * 다시 집계한 값으로 그 서버의 집계를 덮어씀
+     * 호출한 쪽의 트랜잭션 안에서 실행되어야 함
+     */
+    void write(Rebuild rebuild) {
+        jdbcTemplate.update("DELETE FROM study_hour_agg WHERE guild_id = ?", rebuild.guildId);
+        List<Object[]> args = new ArrayList<>();
+        rebuild.cellsByChannel.forEach((channelId, cells) -> addArgs(rebuild.guildId, channelId, cells, args));
+        if (!args.isEmpty()) {
+            jdbcTemplate.batchUpdate(UPSERT_SQL, args);
+        }
+    }
+
+    /**
+     * 한 서버의 히트맵 다시 집계
+     * 읽은 기록을 모아 두었다가 compute()에서 전용 fork/join 풀로 나눠 계산함.
+     * add()와 compute()를 번갈아 불러도 되며, compute()는 그 사이 추가된 기록만 계산해 합침
+     */
+    final class Rebuild {
+        private final long guildId;
+        private final ZoneRules rules;
+        private final Spans spans = new Spans();
+        private final Map<Long, long[]> cellsByChannel = new HashMap<>();
+        private int computed;
+
+        private Rebuild(long guildId, ZoneRules rules) {
+            this.guildId = guildId;
+            this.rules = rules;
+        }
+
+        /**
+         * 닫힌 기록 추가 (시각은 봇 서버 시간대, channel_id가 NULL이면 0)
+         */
+        void add(Long channelId, LocalDateTime startTime, LocalDateTime endTime) {
+            spans.add(channelId != null ? channelId : 0L, guildTimeZoneService.toInstant(startTime).getEpochSecond(),
+                    guildTimeZoneService.toInstant(endTime).getEpochSecond());
+        }
+
+        void compute() {
+            if (computed == spans.size) {
+                return;
+            }
+            merge(cellsByChannel, pool.invoke(new SplitTask(spans, computed, spans.size, rules, splitThreshold)));
+            computed = spans.size;
+        }
+    }
+
+    private static Map<Long, long[]> merge(Map<Long, long[]> into, Map<Long, long[]> from) {
+        from.forEach((channelId, cells) -> into.merge(channelId, cells, (a, b) -> {
+            for (int i = 0; i < CELLS; i++) {
+                a[i] += b[i];
+            }
+            return a;
+        }));
+        return into;
+    }
+
+    /**
+     * 집계 대상 (서버, 채널)
+     */
+    private record Target(long guildId, long channelId) {
+    }
+
+    /**
+     * 한 서버의 기록을 열 단위 배열로 보관 (기록당 24바이트, 시각은 epoch 초)
+     */
+    private static final class Spans {
+        private long[] channelIds = new long[1024];
+        private long[] starts = new long[1024];
+        private long[] ends = new long[1024];
+        private int size;
+
+        private void add(long channelId, long start, long end) {
+            if (size == starts.length) {
+                int capacity = size * 2;
+                channelIds = Arrays.copyOf(channelIds, capacity);
+                starts = Arrays.copyOf(starts, capacity);
+                ends = Arrays.copyOf(ends, capacity);
+            }
+            channelIds[size] = channelId;
+            starts[size] = start;
+            ends[size] = end;
+            size++;
+        }
+    }
+
+    /**
+     * 기록 범위 [from, to)를 반씩 나눠 채널별 칸 배열로 집계
+     */
+    private static final class SplitTask extends RecursiveTask<Map<Long, long[]>> {
+        private final Spans spans;
+        private final int from;
+        private final int to;
+        private final ZoneRules rules;
+        private final int threshold;
+
+        private SplitTask(Spans spans, int from, int to, ZoneRules rules, int threshold) {
+            this.spans = spans;
+            this.from = from;
+            this.to = to;
+            this.rules = rules;
+            this.threshold = threshold;
+        }
+
+        @Override
+        protected Map<Long, long[]> compute() {
+            if (to - from <= threshold) {
+                Map<Long, long[]> cellsByChannel = new HashMap<>();
+                for (int i = from; i < to; i++) {
+                    long[] cells = cellsByChannel.computeIfAbsent(spans.channelIds[i], id -> new long[CELLS]);
+                    addSpan(spans.starts[i], spans.ends[i], rules, cells);
+                }
+                return cellsByChannel;
+            }
+            int mid = (from + to) >>> 1;
+            SplitTask left = new SplitTask(spans, from, mid, rules, threshold);
+            left.fork();
+            Map<Long, long[]> merged = new SplitTask(spans, mid, to, rules, threshold).compute();
+            return merge(merged, left.join());
+        }
+    }
+}
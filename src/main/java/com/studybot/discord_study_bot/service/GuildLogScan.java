@@ -0,0 +1,120 @@
+package com.studybot.discord_study_bot.service;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * 한 서버의 study_log를 잠그지 않고 나눠 읽음 (길드 시간대 변경, 시간대 히트맵 backfill에서 다시 집계할 때 사용)
+ *
+ * - 시작 시각 구간마다 짧은 자동 커밋 SELECT (idx_study_log_guild_start). 공유 잠금이 없으므로 write-behind flush를 막지 않음
+ * - 읽기 전에 MAX(id)를 high-water mark로 잡고 그보다 큰 기록은 건너뜀.
+ *   시작 시 복구(JDA 준비 중)가 끝난 뒤에는 write-behind 스레드 하나만 기록을 넣으므로,
+ *   high-water mark 이하의 기록은 모두 이미 커밋되어 있어 빠지지 않음
+ * - 닫힌 기록은 더 바뀌지 않으므로 한 번 읽으면 끝. 읽을 때 열려 있던 기록의 id만 남겨 두고,
+ *   마무리(reconcile)에서 그 기록과 high-water mark 이후의 기록만 다시 읽음
+ */
+final class GuildLogScan {
+
+    /**
+     * 닫힌 기록 한 행 (시각은 study_log와 같은 봇 서버 시간대, channel_id가 없으면 null)
+     */
+    @FunctionalInterface
+    interface ClosedLogHandler {
+        void accept(long userId, Long channelId, LocalDateTime startTime, LocalDateTime endTime);
+    }
+
+    // 한 번에 읽는 시작 시각 구간
+    private static final Duration WINDOW = Duration.ofDays(14);
+    // reconcile에서 IN 목록 하나에 넣는 id 수
+    private static final int IDS_PER_QUERY = 1000;
+
+    private static final String COLUMNS = "SELECT id, user_id, channel_id, start_time, end_time FROM study_log ";
+    private static final String WINDOW_SQL = COLUMNS + "WHERE guild_id = ? AND start_time >= ? AND start_time < ?";
+    private static final String TAIL_SQL = COLUMNS + "WHERE id > ? AND guild_id = ?";
+    private static final String BY_IDS_SQL = COLUMNS + "WHERE id IN (%s)";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final long guildId;
+    private final List<Long> openIds = new ArrayList<>();
+    private long highWaterMark;
+    private int closedCount;
+
+    GuildLogScan(JdbcTemplate jdbcTemplate, long guildId) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.guildId = guildId;
+    }
+
+    /**
+     * high-water mark 이하의 기록을 시작 시각 구간별로 읽어 닫힌 기록만 넘김
+     * 트랜잭션 밖에서 호출해야 구간마다 새로 커밋된 값을 보고 스냅샷을 오래 붙잡지 않음
+     */
+    void scan(ClosedLogHandler handler) {
+        Long maxId = jdbcTemplate.queryForObject("SELECT MAX(id) FROM study_log", Long.class);
+        highWaterMark = maxId != null ? maxId : 0L;
+
+        LocalDateTime[] range = new LocalDateTime[2];
+        jdbcTemplate.query("SELECT MIN(start_time), MAX(start_time) FROM study_log WHERE guild_id = ?", rs -> {
+            if (rs.getTimestamp(1) != null) {
+                range[0] = rs.getTimestamp(1).toLocalDateTime();
+                range[1] = rs.getTimestamp(2).toLocalDateTime();
+            }
+        }, guildId);
+        if (range[0] == null) {
+            return;
+        }
+
+        RowCallbackHandler rows = rs -> {
+            long id = rs.getLong(1);
+            if (id > highWaterMark) {
+                return;
+            }
+            Timestamp endTime = rs.getTimestamp(5);
+            if (endTime == null) {
+                openIds.add(id);
+                return;
+            }
+            handler.accept(rs.getLong(2), rs.getObject(3, Long.class), rs.getTimestamp(4).toLocalDateTime(),
+                    endTime.toLocalDateTime());
+            closedCount++;
+        };
+        for (LocalDateTime from = range[0]; !from.isAfter(range[1]); from = from.plus(WINDOW)) {
+            jdbcTemplate.query(WINDOW_SQL, rows, guildId, Timestamp.valueOf(from), Timestamp.valueOf(from.plus(WINDOW)));
+        }
+    }
+
+    /**
+     * scan 이후에 닫히거나 추가된 기록(읽을 때 열려 있던 기록, high-water mark 이후의 기록) 중 닫힌 것만 넘김
+     * 호출한 쪽이 그동안 닫기가 커밋되지 않도록 막고 있어야 함 (StudyLogCloseLock.holdForRewrite)
+     */
+    void reconcile(ClosedLogHandler handler) {
+        RowCallbackHandler closedOnly = rs -> {
+            Timestamp endTime = rs.getTimestamp(5);
+            if (endTime == null) {
+                return;
+            }
+            handler.accept(rs.getLong(2), rs.getObject(3, Long.class), rs.getTimestamp(4).toLocalDateTime(),
+                    endTime.toLocalDateTime());
+            closedCount++;
+        };
+        jdbcTemplate.query(TAIL_SQL, closedOnly, highWaterMark, guildId);
+        for (int from = 0; from < openIds.size(); from += IDS_PER_QUERY) {
+            List<Long> ids = openIds.subList(from, Math.min(from + IDS_PER_QUERY, openIds.size()));
+            String placeholders = String.join(", ", Collections.nCopies(ids.size(), "?"));
+            jdbcTemplate.query(String.format(BY_IDS_SQL, placeholders), closedOnly, ids.toArray());
+        }
+    }
+
+    /**
+     * 지금까지 넘긴 닫힌 기록 수
+     */
+    int closedCount() {
+        return closedCount;
+    }
+}
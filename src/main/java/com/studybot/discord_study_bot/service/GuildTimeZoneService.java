@@ -0,0 +1,145 @@
+package com.studybot.discord_study_bot.service;
+
+import com.studybot.discord_study_bot.entity.GuildSettings;
+import com.studybot.discord_study_bot.repository.GuildSettingsRepository;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.DateTimeException;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 서버(길드)별 시간대
+ *
+ * study_log의 시간은 봇이 실행 중인 서버(JVM)의 시간대로 저장되지만,
+ * 주/월 경계, 일별 집계의 날짜, 연속 기록, 시간대 히트맵은 모두 길드의 시간대 기준으로 나눔.
+ * 날짜는 기록이 닫힐 때 한 번만 계산해 집계 테이블에 저장하므로 조회할 때는 변환하지 않음.
+ *
+ * - 설정이 없는 서버는 guild-time-zone.default (비어 있으면 서버 시간대)
+ * - 설정은 시작 시 모두 메모리에 올려 두고, 바꿀 때는 DailyRollupService.changeTimeZone()이
+ *   기존 집계를 새 시간대로 다시 나누는 트랜잭션 안에서 setZone()을 호출 (메모리 값은 커밋 후 반영)
+ */
+@Service
+public class GuildTimeZoneService {
+
+    private static final Logger logger = LoggerFactory.getLogger(GuildTimeZoneService.class);
+
+    private static final String UPSERT_SQL =
+            "INSERT INTO guild_settings (guild_id, time_zone) VALUES (?, ?) " +
+            "ON DUPLICATE KEY UPDATE time_zone = VALUES(time_zone)";
+
+    private final GuildSettingsRepository guildSettingsRepository;
+    private final JdbcTemplate jdbcTemplate;
+    private final ZoneId serverZone = ZoneId.systemDefault();
+    private final ZoneId defaultZone;
+
+    // Key: guildId, Value: 설정된 시간대 (기본 시간대를 쓰는 서버는 없음)
+    private final Map<Long, ZoneId> zones = new ConcurrentHashMap<>();
+
+    public GuildTimeZoneService(GuildSettingsRepository guildSettingsRepository, JdbcTemplate jdbcTemplate,
+                                @Value("${guild-time-zone.default:}") String defaultZone) {
+        this.guildSettingsRepository = guildSettingsRepository;
+        this.jdbcTemplate = jdbcTemplate;
+        this.defaultZone = defaultZone.isBlank() ? serverZone : ZoneId.of(defaultZone);
+    }
+
+    @PostConstruct
+    public void load() {
+        for (GuildSettings settings : guildSettingsRepository.findAll()) {
+            if (settings.getTimeZone() == null) {
+                continue;
+            }
+            try {
+                zones.put(settings.getGuildId(), ZoneId.of(settings.getTimeZone()));
+            } catch (DateTimeException e) {
+                logger.warn("알 수 없는 시간대라 기본 시간대를 사용합니다. 길드: {}, 시간대: {}",
+                        settings.getGuildId(), settings.getTimeZone());
+            }
+        }
+        logger.info("서버 시간대 설정 로딩 완료: {}개 (기본: {}, 봇 서버: {})", zones.size(), defaultZone, serverZone);
+    }
+
+    /**
+     * study_log 시간이 저장된 시간대 (JVM 기본 시간대)
+     */
+    public ZoneId serverZone() {
+        return serverZone;
+    }
+
+    public ZoneId zoneOf(long guildId) {
+        return zones.getOrDefault(guildId, defaultZone);
+    }
+
+    public ZoneId zoneOf(String guildId) {
+        return zoneOf(Long.parseLong(guildId));
+    }
+
+    /**
+     * 길드 시간대 기준 오늘 날짜
+     */
+    public LocalDate today(long guildId) {
+        return LocalDate.now(zoneOf(guildId));
+    }
+
+    public LocalDate today(String guildId) {
+        return today(Long.parseLong(guildId));
+    }
+
+    /**
+     * 길드 시간대 기준 현재 시각
+     */
+    public LocalDateTime now(long guildId) {
+        return LocalDateTime.now(zoneOf(guildId));
+    }
+
+    /**
+     * 서버 시간대로 저장된 시각 → 절대 시각
+     */
+    public Instant toInstant(LocalDateTime serverTime) {
+        return serverTime.atZone(serverZone).toInstant();
+    }
+
+    /**
+     * 길드 시간대의 날짜 시작(0시) → 서버 시간대 시각 (study_log 범위 조회용)
+     */
+    public LocalDateTime toServerTime(long guildId, LocalDate guildDay) {
+        return guildDay.atStartOfDay(zoneOf(guildId)).withZoneSameInstant(serverZone).toLocalDateTime();
+    }
+
+    /**
+     * 기본 시간대와 설정된 모든 시간대 (스케줄러가 시간대별로 기간 경계를 확인할 때 사용)
+     */
+    public Set<ZoneId> zonesInUse() {
+        Set<ZoneId> inUse = new HashSet<>(zones.values());
+        inUse.add(defaultZone);
+        return inUse;
+    }
+
+    /**
+     * 시간대 설정 저장
+     * 호출한 쪽의 트랜잭션 안에서 실행되어야 함. 메모리 값은 커밋된 뒤에 바뀜 (롤백되면 그대로)
+     * afterCommit은 afterCompletion보다 먼저 실행되므로, 트랜잭션이 끝날 때 놓는 잠금 안에서 새 값이 보임
+     */
+    void setZone(long guildId, ZoneId zone) {
+        jdbcTemplate.update(UPSERT_SQL, guildId, zone.getId());
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                zones.put(guildId, zone);
+            }
+        });
+    }
+}
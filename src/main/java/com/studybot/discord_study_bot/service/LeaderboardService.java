@@ -0,0 +1,610 @@
+package com.studybot.discord_study_bot.service;
+
+import com.studybot.discord_study_bot.dto.StandingDto;
+import com.studybot.discord_study_bot.entity.StudyDailyAgg;
+import com.studybot.discord_study_bot.leaderboard.Leaderboard;
+import com.studybot.discord_study_bot.leaderboard.LeaderboardPeriod;
+import com.studybot.discord_study_bot.leaderboard.WindowIndex;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.sql.Date;
+import java.time.DayOfWeek;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.temporal.ChronoUnit;
+import java.time.temporal.TemporalAdjusters;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * 메모리 리더보드 (서버별 주간/월간/이벤트 누적 시간)
+ * /weekly, /monthly, /event와 랭킹 API가 매번 GROUP BY 쿼리를 실행하지 않도록 한다.
+ *
+ * - 시작 시 일별 집계(study_daily_agg)에서 한 번만 읽음 (backfill이 끝난 뒤 DailyRollupService가 호출)
+ * - 이후에는 일별 집계에 더해지는 값을 커밋 직후 그대로 더함 (DB와 같은 값을 유지)
+ * - 기간이 바뀌면(월요일, 매월 1일) 해당 리더보드만 비우고 새로 누적
+ * - 임의 기간 랭킹을 위해 전체 일별 집계를 사용자별 누적합(WindowIndex)으로도 유지
+ *
+ * 로딩과 증분 반영이 겹치지 않도록 읽기/쓰기 잠금 사용:
+ * 집계를 쓰는 트랜잭션은 쓰기 전부터 반영이 끝날 때까지 읽기 잠금을 잡고, 로딩은 쓰기 잠금을 잡은 채 DB를 읽음.
+ * 따라서 어떤 트랜잭션도 로딩 결과와 증분 반영에 두 번 들어가거나 둘 다에서 빠지지 않음.
+ *
+ * 진행 중인 세션 포함:
+ * StudySessionManager가 StudyLog를 열고 닫을 때 서버별 진행 중 목록을 갱신하고, 조회 시 경과 시간을 더한다.
+ * 세션은 진행 중 → 종료 대기(flush 전) → 집계 반영 순서로 옮겨지며,
+ * 마지막 단계는 집계 반영과 같은 서버 잠금 안에서 일어나므로 어느 순간에도 한 번만 계산됨.
+ *
+ * 기간과 "오늘"은 서버마다 자기 시간대(GuildTimeZoneService) 기준.
+ * 일별 집계의 날짜가 이미 그 시간대로 나뉘어 있으므로, 진행 중인 세션도 같은 시간대의 자정에서 잘라 계산함.
+ */
+@Service
+public class LeaderboardService {
+
+    private static final Logger logger = LoggerFactory.getLogger(LeaderboardService.class);
+
+    private static final String LOAD_SQL =
+            "SELECT guild_id, user_id, SUM(seconds) FROM study_daily_agg " +
+            "WHERE day BETWEEN ? AND ? GROUP BY guild_id, user_id";
+
+    // 임의 기간 랭킹용 전체 일별 집계
+    private static final String HISTORY_SQL = "SELECT guild_id, user_id, day, seconds FROM study_daily_agg";
+
+    // 서버 하나만 다시 로딩 (길드 시간대 변경 후)
+    private static final String GUILD_LOAD_SQL =
+            "SELECT user_id, SUM(seconds) FROM study_daily_agg " +
+            "WHERE guild_id = ? AND day BETWEEN ? AND ? GROUP BY user_id";
+    private static final String GUILD_HISTORY_SQL =
+            "SELECT user_id, day, seconds FROM study_daily_agg WHERE guild_id = ?";
+
+    private static final Comparator<Leaderboard.Entry> RANK_ORDER =
+            Comparator.comparingLong(Leaderboard.Entry::seconds).reversed()
+                    .thenComparingLong(Leaderboard.Entry::userId);
+
+    private final JdbcTemplate jdbcTemplate;
+    private final GuildTimeZoneService guildTimeZoneService;
+    private final LocalDate eventStartDay;
+    private final LocalDate eventEndDay;
+    private final Map<Long, GuildState> guilds = new ConcurrentHashMap<>();
+    private final ReentrantReadWriteLock loadLock = new ReentrantReadWriteLock();
+    private volatile boolean loaded;
+
+    public LeaderboardService(JdbcTemplate jdbcTemplate, MeterRegistry meterRegistry,
+                              GuildTimeZoneService guildTimeZoneService,
+                              @Value("${event.start-date}") String eventStartDate,
+                              @Value("${event.end-date}") String eventEndDate) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.guildTimeZoneService = guildTimeZoneService;
+        this.eventStartDay = LocalDate.parse(eventStartDate);
+        this.eventEndDay = LocalDate.parse(eventEndDate);
+
+        Gauge.builder("leaderboard.guilds", guilds, Map::size)
+                .description("리더보드를 가진 서버 수")
+                .register(meterRegistry);
+        Gauge.builder("leaderboard.live_sessions", this, LeaderboardService::liveSessionCount)
+                .description("리더보드에 경과 시간이 더해지는 진행 중/종료 대기 세션 수")
+                .register(meterRegistry);
+    }
+
+    /**
+     * 로딩이 끝나 메모리 리더보드를 사용할 수 있는지 (그 전에는 DB 조회)
+     */
+    public boolean isLoaded() {
+        return loaded;
+    }
+
+    /**
+     * 일별 집계에서 현재 기간의 누적 시간을 읽어 리더보드를 만듦
+     * 새 리더보드는 옆에서 다 만든 뒤 서버마다 잠금 안에서 한 번에 바꾸므로, 조회하는 쪽은 이전 값이나 새 값 중 하나만 봄.
+     * 실패하면 이전 값이 DB와 맞는지 알 수 없으므로 로딩 전처럼 DB 조회로 돌아감.
+     * 진행 중인 세션 목록은 그대로 유지
+     */
+    public void load() {
+        long started = System.nanoTime();
+        loadLock.writeLock().lock();
+        try {
+            Map<Long, Committed> fresh = new HashMap<>();
+            // 서버마다 시간대가 달라 현재 기간이 다를 수 있으므로 사용 중인 시간대의 기간을 모두 읽고,
+            // 각 행은 그 서버의 현재 기간과 같은 경우에만 더함 (같은 시각 기준)
+            Instant loadedAt = Instant.now();
+            int rows = 0;
+            for (LeaderboardPeriod period : LeaderboardPeriod.values()) {
+                Map<LocalDate, LocalDate[]> windows = new TreeMap<>();
+                for (ZoneId zone : guildTimeZoneService.zonesInUse()) {
+                    LocalDate[] window = windowOf(period, LocalDate.ofInstant(loadedAt, zone));
+                    windows.putIfAbsent(window[0], window);
+                }
+                for (LocalDate[] window : windows.values()) {
+                    int[] added = {0};
+                    jdbcTemplate.query(LOAD_SQL, rs -> {
+                        long guildId = rs.getLong(1);
+                        LocalDate guildToday = LocalDate.ofInstant(loadedAt, guildTimeZoneService.zoneOf(guildId));
+                        if (!windowOf(period, guildToday)[0].equals(window[0])) {
+                            return;
+                        }
+                        board(fresh.computeIfAbsent(guildId, id -> new Committed()).boards, period, window)
+                                .add(rs.getLong(2), window[0], rs.getLong(3));
+                        added[0]++;
+                    }, Date.valueOf(window[0]), Date.valueOf(window[1]));
+                    rows += added[0];
+                }
+            }
+            int[] historyRows = {0};
+            jdbcTemplate.query(HISTORY_SQL, rs -> {
+                fresh.computeIfAbsent(rs.getLong(1), id -> new Committed()).history
+                        .add(rs.getLong(2), rs.getDate(3).toLocalDate(), rs.getLong(4));
+                historyRows[0]++;
+            });
+            rows += historyRows[0];
+
+            for (Map.Entry<Long, GuildState> entry : guilds.entrySet()) {
+                Committed committed = fresh.remove(entry.getKey());
+                replace(entry.getValue(), committed != null ? committed : new Committed());
+            }
+            fresh.forEach((guildId, committed) -> replace(state(guildId), committed));
+            loaded = true;
+            logger.info("리더보드 로딩 완료: 서버 {}개, {}행 ({}ms)",
+                    guilds.size(), rows, (System.nanoTime() - started) / 1_000_000);
+        } catch (Exception e) {
+            loaded = false;
+            logger.error("리더보드 로딩 실패. DB 조회로 랭킹을 계속 제공합니다.", e);
+        } finally {
+            loadLock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * 한 서버의 리더보드만 다시 로딩 (길드 시간대 변경 후)
+     * 전체 로딩처럼 쓰기 잠금을 잡고 옆에서 만든 뒤 한 번에 바꿈. 아직 로딩 전이면 전체 로딩 때 함께 읽히므로 건너뜀
+     */
+    public void loadGuild(long guildId) {
+        if (!loaded) {
+            return;
+        }
+        long started = System.nanoTime();
+        loadLock.writeLock().lock();
+        try {
+            Committed committed = new Committed();
+            LocalDate today = guildTimeZoneService.today(guildId);
+            for (LeaderboardPeriod period : LeaderboardPeriod.values()) {
+                LocalDate[] window = windowOf(period, today);
+                Leaderboard board = board(committed.boards, period, window);
+                jdbcTemplate.query(GUILD_LOAD_SQL, rs -> {
+                    board.add(rs.getLong(1), window[0], rs.getLong(2));
+                }, guildId, Date.valueOf(window[0]), Date.valueOf(window[1]));
+            }
+            jdbcTemplate.query(GUILD_HISTORY_SQL, rs -> {
+                committed.history.add(rs.getLong(1), rs.getDate(2).toLocalDate(), rs.getLong(3));
+            }, guildId);
+            replace(state(guildId), committed);
+            logger.info("리더보드 다시 로딩 완료: 길드 {} ({}ms)", guildId, (System.nanoTime() - started) / 1_000_000);
+        } catch (Exception e) {
+            loaded = false;
+            logger.error("리더보드 로딩 실패. 길드: {}. DB 조회로 랭킹을 계속 제공합니다.", guildId, e);
+        } finally {
+            loadLock.writeLock().unlock();
+        }
+    }
+
+    private static void replace(GuildState state, Committed committed) {
+        synchronized (state) {
+            state.boards = committed.boards;
+            state.history = committed.history;
+        }
+    }
+
+    /**
+     * 기간 [startDay, endDay]의 서버별 사용자 공부 시간 (랭킹 스냅샷용, 서버 → (userId → 초))
+     * 일별 집계 + 아직 집계에 반영되지 않은 진행 중/종료 대기 세션의 기간 내 시간.
+     * load()처럼 쓰기 잠금을 잡고 읽으므로 그 사이에 커밋된 기록이 빠지거나 두 번 더해지지 않음
+     */
+    public Map<Long, Map<Long, Long>> periodTotals(LocalDate startDay, LocalDate endDay) {
+        Map<Long, Map<Long, Long>> totals = new HashMap<>();
+        loadLock.writeLock().lock();
+        try {
+            jdbcTemplate.query(LOAD_SQL, rs -> {
+                totals.computeIfAbsent(rs.getLong(1), id -> new HashMap<>())
+                        .merge(rs.getLong(2), rs.getLong(3), Long::sum);
+            }, Date.valueOf(startDay), Date.valueOf(endDay));
+
+            LocalDate[] window = {startDay, endDay};
+            for (Map.Entry<Long, GuildState> entry : guilds.entrySet()) {
+                Map<Long, Long> live;
+                synchronized (entry.getValue()) {
+                    live = liveSeconds(entry.getKey(), entry.getValue(), window);
+                }
+                if (!live.isEmpty()) {
+                    Map<Long, Long> guildTotals = totals.computeIfAbsent(entry.getKey(), id -> new HashMap<>());
+                    live.forEach((userId, seconds) -> guildTotals.merge(userId, seconds, Long::sum));
+                }
+            }
+        } finally {
+            loadLock.writeLock().unlock();
+        }
+        return totals;
+    }
+
+    // ===== 진행 중인 세션 =====
+
+    /**
+     * StudyLog 열림 (또는 재시작 후 복원)
+     */
+    public void sessionOpened(long guildId, long userId, LocalDateTime startTime) {
+        GuildState state = state(guildId);
+        synchronized (state) {
+            state.live.put(userId, new Span(userId, guildTimeZoneService.toInstant(startTime), null));
+        }
+    }
+
+    /**
+     * 종료 유예 시작(pausedAt) 또는 유예 중 재시작(null)
+     * 유예 중에는 종료 요청 시각까지만 계산
+     */
+    public void sessionPaused(long guildId, long userId, LocalDateTime pausedAt) {
+        GuildState state = state(guildId);
+        synchronized (state) {
+            Span span = state.live.get(userId);
+            if (span != null) {
+                state.live.put(userId, new Span(userId, span.start(),
+                        pausedAt != null ? guildTimeZoneService.toInstant(pausedAt) : null));
+            }
+        }
+    }
+
+    /**
+     * StudyLog 종료가 write-behind 큐에 들어감: flush로 집계에 반영될 때까지 종료 대기로 계산
+     */
+    public void sessionClosed(long guildId, long userId, LocalDateTime startTime, LocalDateTime endTime) {
+        GuildState state = state(guildId);
+        synchronized (state) {
+            state.live.remove(userId);
+            state.pending.put(new SpanKey(userId, startTime), new Span(userId,
+                    guildTimeZoneService.toInstant(startTime), guildTimeZoneService.toInstant(endTime)));
+        }
+    }
+
+    /**
+     * flush가 끝난 종료 기록을 종료 대기에서 제거
+     * 집계에 반영된 기록은 반영 시 이미 제거되므로, 여기서는 반영되지 않은 기록(이미 닫혀 있었거나 실패)만 정리됨
+     */
+    public void settle(List<DailyRollupService.ClosedLog> logs) {
+        for (DailyRollupService.ClosedLog log : logs) {
+            GuildState state = guilds.get(log.guildId());
+            if (state != null) {
+                synchronized (state) {
+                    state.pending.remove(new SpanKey(log.userId(), log.startTime()));
+                }
+            }
+        }
+    }
+
+    // ===== 집계 반영 =====
+
+    /**
+     * 일별 집계에 더해지는 값을 리더보드에도 반영
+     * 트랜잭션 안이면 커밋 후에 반영하고 롤백되면 버림. 집계를 쓰기 전에 호출해야 함.
+     *
+     * @param logs   반영되는 원본 기록 (종료 대기에서 제거)
+     * @param totals 기록을 (서버, 유저, 날짜)별로 나눈 [초, 기록 수]
+     */
+    void applyAfterCommit(List<DailyRollupService.ClosedLog> logs, Map<StudyDailyAgg.Key, long[]> totals) {
+        loadLock.readLock().lock();
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            try {
+                apply(logs, totals);
+            } finally {
+                loadLock.readLock().unlock();
+            }
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                apply(logs, totals);
+            }
+
+            @Override
+            public void afterCompletion(int status) {
+                loadLock.readLock().unlock();
+            }
+        });
+    }
+
+    private void apply(List<DailyRollupService.ClosedLog> logs, Map<StudyDailyAgg.Key, long[]> totals) {
+        Map<Long, List<Map.Entry<StudyDailyAgg.Key, long[]>>> byGuild = new HashMap<>();
+        for (Map.Entry<StudyDailyAgg.Key, long[]> entry : totals.entrySet()) {
+            byGuild.computeIfAbsent(entry.getKey().getGuildId(), id -> new ArrayList<>()).add(entry);
+        }
+        for (DailyRollupService.ClosedLog log : logs) {
+            byGuild.computeIfAbsent(log.guildId(), id -> new ArrayList<>());
+        }
+
+        byGuild.forEach((guildId, entries) -> {
+            GuildState state = state(guildId);
+            LocalDate today = guildTimeZoneService.today(guildId);
+            synchronized (state) {
+                // 로딩 전 값은 로딩 시 DB에서 함께 읽힘
+                if (loaded) {
+                    for (Map.Entry<StudyDailyAgg.Key, long[]> entry : entries) {
+                        StudyDailyAgg.Key key = entry.getKey();
+                        for (LeaderboardPeriod period : LeaderboardPeriod.values()) {
+                            LocalDate[] window = windowOf(period, today);
+                            if (!key.getDay().isBefore(window[0]) && !key.getDay().isAfter(window[1])) {
+                                board(state.boards, period, window)
+                                        .add(key.getUserId(), key.getDay(), entry.getValue()[0]);
+                            }
+                        }
+                        state.history.add(key.getUserId(), key.getDay(), entry.getValue()[0]);
+                    }
+                }
+                for (DailyRollupService.ClosedLog log : logs) {
+                    if (log.guildId() == guildId) {
+                        state.pending.remove(new SpanKey(log.userId(), log.startTime()));
+                    }
+                }
+            }
+        });
+    }
+
+    // ===== 조회 =====
+
+    /**
+     * 임의 기간 [from, to]의 상위 limit명 (excludeUserId 제외, 진행 중인 세션의 경과 시간 포함)
+     * 사용자별 누적합으로 기간 합계를 구하고 힙으로 상위 limit명만 고름
+     */
+    public List<Leaderboard.Entry> windowTop(long guildId, LocalDate from, LocalDate to, int limit,
+                                             long excludeUserId) {
+        GuildState state = guilds.get(guildId);
+        if (state == null) {
+            return List.of();
+        }
+        synchronized (state) {
+            Map<Long, Long> live = liveSeconds(guildId, state, new LocalDate[]{from, to});
+            return state.history.top(from, to, limit, excludeUserId, live);
+        }
+    }
+
+    /**
+     * 상위 limit명 (excludeUserId 제외, 진행 중인 세션의 경과 시간 포함)
+     */
+    public List<Leaderboard.Entry> top(long guildId, LeaderboardPeriod period, int limit, long excludeUserId) {
+        GuildState state = guilds.get(guildId);
+        if (state == null) {
+            return List.of();
+        }
+        synchronized (state) {
+            LocalDate[] window = windowOf(period, guildTimeZoneService.today(guildId));
+            Leaderboard board = current(state, guildId, period, window);
+            Map<Long, Long> live = liveSeconds(guildId, state, window);
+
+            // 진행 중인 사용자는 누적 시간이 늘어나기만 하므로,
+            // 나머지 사용자 중 상위 limit명 + 진행 중인 사용자 중에서 다시 고르면 정확함
+            List<Leaderboard.Entry> candidates = board != null
+                    ? new ArrayList<>(board.top(limit, excludeUserId, live.keySet()))
+                    : new ArrayList<>();
+            live.forEach((userId, seconds) -> {
+                if (userId != excludeUserId) {
+                    long committed = board != null ? board.totalOf(userId) : 0L;
+                    candidates.add(new Leaderboard.Entry(userId, committed + seconds));
+                }
+            });
+            candidates.sort(RANK_ORDER);
+            return candidates.size() > limit ? new ArrayList<>(candidates.subList(0, limit)) : candidates;
+        }
+    }
+
+    /**
+     * 기간 내 사용자의 누적 시간(초, 진행 중인 세션 포함)
+     */
+    public long totalOf(long guildId, LeaderboardPeriod period, long userId) {
+        GuildState state = guilds.get(guildId);
+        if (state == null) {
+            return 0L;
+        }
+        synchronized (state) {
+            LocalDate[] window = windowOf(period, guildTimeZoneService.today(guildId));
+            Leaderboard board = current(state, guildId, period, window);
+            long committed = board != null ? board.totalOf(userId) : 0L;
+            return committed + liveSeconds(guildId, state, window).getOrDefault(userId, 0L);
+        }
+    }
+
+    /**
+     * 사용자의 주간/월간/이벤트 순위를 한 번에 계산 (진행 중인 세션 포함)
+     * 순위 통계 트리에서 앞선 사용자 수를 구한 뒤, 진행 중인 사용자와 제외 사용자만 보정함
+     */
+    public Map<LeaderboardPeriod, StandingDto> standings(long guildId, long userId, long excludeUserId) {
+        Map<LeaderboardPeriod, StandingDto> result = new EnumMap<>(LeaderboardPeriod.class);
+        GuildState state = guilds.get(guildId);
+        if (state == null) {
+            for (LeaderboardPeriod period : LeaderboardPeriod.values()) {
+                result.put(period, new StandingDto(0L, 0, 0));
+            }
+            return result;
+        }
+        synchronized (state) {
+            LocalDate today = guildTimeZoneService.today(guildId);
+            for (LeaderboardPeriod period : LeaderboardPeriod.values()) {
+                LocalDate[] window = windowOf(period, today);
+                result.put(period, standing(current(state, guildId, period, window), liveSeconds(guildId, state, window),
+                        userId, excludeUserId));
+            }
+        }
+        return result;
+    }
+
+    private static StandingDto standing(Leaderboard board, Map<Long, Long> live, long userId, long excludeUserId) {
+        // 진행 중인 세션만 있고 아직 집계에 없는 사용자도 참여자로 셈
+        int participants = board != null ? board.size() : 0;
+        for (Long liveUserId : live.keySet()) {
+            if (board == null || !board.contains(liveUserId)) {
+                participants++;
+            }
+        }
+        long excludedTotal = totalOf(board, live, excludeUserId);
+        if (excludedTotal > 0) {
+            participants--;
+        }
+
+        long mine = totalOf(board, live, userId);
+        if (mine == 0 || userId == excludeUserId) {
+            return new StandingDto(mine, 0, participants);
+        }
+
+        int ahead = board != null ? board.countAhead(userId, mine) : 0;
+        for (Map.Entry<Long, Long> entry : live.entrySet()) {
+            long liveUserId = entry.getKey();
+            if (liveUserId == userId) {
+                continue;
+            }
+            // 트리에는 집계된 값으로 들어가 있으므로 진행 중인 시간을 더한 값으로 다시 비교
+            long committed = board != null ? board.totalOf(liveUserId) : 0L;
+            if (committed > 0 && precedes(committed, liveUserId, mine, userId)) {
+                ahead--;
+            }
+            if (precedes(committed + entry.getValue(), liveUserId, mine, userId)) {
+                ahead++;
+            }
+        }
+        if (excludedTotal > 0 && precedes(excludedTotal, excludeUserId, mine, userId)) {
+            ahead--;
+        }
+        return new StandingDto(mine, ahead + 1, participants);
+    }
+
+    private static long totalOf(Leaderboard board, Map<Long, Long> live, long userId) {
+        return (board != null ? board.totalOf(userId) : 0L) + live.getOrDefault(userId, 0L);
+    }
+
+    /**
+     * 리더보드 순서(시간 내림차순, userId 오름차순)에서 a가 b보다 앞인지
+     */
+    private static boolean precedes(long aSeconds, long aUserId, long bSeconds, long bUserId) {
+        return aSeconds > bSeconds || (aSeconds == bSeconds && aUserId < bUserId);
+    }
+
+    /**
+     * 진행 중/종료 대기 세션의 기간 내 경과 시간 (userId → 초)
+     * 집계와 같은 기준(초 단위, 서버 시간대의 기간 경계에서 자름)으로 계산해 반영 전후 값이 같도록 함
+     */
+    private Map<Long, Long> liveSeconds(long guildId, GuildState state, LocalDate[] window) {
+        Map<Long, Long> seconds = new HashMap<>();
+        if (state.live.isEmpty() && state.pending.isEmpty()) {
+            return seconds;
+        }
+        ZoneId zone = guildTimeZoneService.zoneOf(guildId);
+        Instant windowStart = window[0].atStartOfDay(zone).toInstant();
+        Instant windowEnd = window[1].plusDays(1).atStartOfDay(zone).toInstant();
+        Instant now = Instant.now().truncatedTo(ChronoUnit.SECONDS);
+        for (Span span : state.live.values()) {
+            addOverlap(seconds, span, now, windowStart, windowEnd);
+        }
+        for (Span span : state.pending.values()) {
+            addOverlap(seconds, span, now, windowStart, windowEnd);
+        }
+        return seconds;
+    }
+
+    private static void addOverlap(Map<Long, Long> seconds, Span span, Instant now,
+                                   Instant windowStart, Instant windowEnd) {
+        Instant end = span.end() != null ? span.end() : now;
+        Instant from = span.start().isBefore(windowStart) ? windowStart : span.start();
+        Instant to = end.isAfter(windowEnd) ? windowEnd : end;
+        if (from.isBefore(to)) {
+            seconds.merge(span.userId(), Duration.between(from, to).getSeconds(), Long::sum);
+        }
+    }
+
+    /**
+     * 현재 기간의 리더보드 (기간이 지났으면 비우고 넘어감, 로딩 전이면 null)
+     */
+    private Leaderboard current(GuildState state, long guildId, LeaderboardPeriod period, LocalDate[] window) {
+        Leaderboard board = state.boards.get(period);
+        if (board != null && board.rollTo(window[0], window[1])) {
+            logger.info("리더보드 기간 변경: 길드 {}, {} {} ~ {}", guildId, period, window[0], window[1]);
+        }
+        return board;
+    }
+
+    private static Leaderboard board(Map<LeaderboardPeriod, Leaderboard> boards, LeaderboardPeriod period,
+                                     LocalDate[] window) {
+        Leaderboard board = boards.computeIfAbsent(period, p -> new Leaderboard(window[0], window[1]));
+        board.rollTo(window[0], window[1]);
+        return board;
+    }
+
+    private GuildState state(long guildId) {
+        return guilds.computeIfAbsent(guildId, id -> new GuildState());
+    }
+
+    private int liveSessionCount() {
+        int count = 0;
+        for (GuildState state : guilds.values()) {
+            synchronized (state) {
+                count += state.live.size() + state.pending.size();
+            }
+        }
+        return count;
+    }
+
+    /**
+     * 기준일이 속한 기간 [시작일, 종료일]
+     */
+    public LocalDate[] windowOf(LeaderboardPeriod period, LocalDate today) {
+        return switch (period) {
+            case WEEKLY -> new LocalDate[]{
+                    today.with(TemporalAdjusters.previousOrSame(DayOfWeek.MONDAY)),
+                    today.with(TemporalAdjusters.nextOrSame(DayOfWeek.SUNDAY))};
+            case MONTHLY -> new LocalDate[]{
+                    today.with(TemporalAdjusters.firstDayOfMonth()),
+                    today.with(TemporalAdjusters.lastDayOfMonth())};
+            case EVENT -> new LocalDate[]{eventStartDay, eventEndDay};
+        };
+    }
+
+    /**
+     * 서버별 상태 (이 객체를 잠그고 접근)
+     */
+    private static final class GuildState {
+        // 로딩하면 통째로 바뀜 (Committed)
+        private Map<LeaderboardPeriod, Leaderboard> boards = new EnumMap<>(LeaderboardPeriod.class);
+        // 전체 기간의 사용자별 일별 누적합 (임의 기간 랭킹)
+        private WindowIndex history = new WindowIndex();
+        // 열려 있는 StudyLog (userId → 구간, end가 null이면 지금까지)
+        private final Map<Long, Span> live = new HashMap<>();
+        // 종료되었지만 아직 집계에 반영되지 않은 StudyLog
+        private final Map<SpanKey, Span> pending = new HashMap<>();
+    }
+
+    /**
+     * 로딩 중 옆에서 만드는 서버 하나의 집계 값 (다 만든 뒤 GuildState에 한 번에 넣음)
+     */
+    private static final class Committed {
+        private final Map<LeaderboardPeriod, Leaderboard> boards = new EnumMap<>(LeaderboardPeriod.class);
+        private final WindowIndex history = new WindowIndex();
+    }
+
+    // 시간대가 바뀌어도 다시 계산하지 않도록 절대 시각으로 저장
+    private record Span(long userId, Instant start, Instant end) {
+    }
+
+    private record SpanKey(long userId, LocalDateTime start) {
+    }
+}
@@ -0,0 +1,394 @@
+package com.studybot.discord_study_bot.service;
+
+import com.studybot.discord_study_bot.repository.StudyLogRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import net.dv8tion.jda.api.entities.Guild;
+import net.dv8tion.jda.api.entities.Member;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+/**
+ * 멤버 표시 이름 캐시 ((서버, 유저) → 이름)
+ * 랭킹을 그릴 때 사용자마다 retrieveMemberById().complete()로 기다리지 않도록 한다.
+ *
+ * 이름을 찾는 순서
+ * 1. 이 캐시 (TTL이 지난 이름도 일단 사용하고 뒤에서 비동기로 갱신)
+ * 2. JDA 멤버 캐시 (음성 채널에 있는 멤버)
+ * 3. StudyLog에 마지막으로 기록된 user_name (한 번의 쿼리, 전용 스레드에서 실행하고 뒤에서 비동기로 갱신)
+ * 4. 그래도 없는 사용자만 모아 guild.retrieveMembersByIds() 한 번 (게이트웨이 요청, 최대 100명)
+ *
+ * 음성 이벤트에서 받은 이름은 put()으로 바로 채워짐.
+ * 서버에 없는 사용자도 짧은 TTL로 캐시해 같은 사용자를 반복해서 찾지 않음.
+ * 호출한 스레드에서는 메모리(1, 2)만 보므로 JDA 이벤트 스레드에서 호출해도 DB나 게이트웨이를 기다리지 않음.
+ */
+@Service
+public class MemberNameCache {
+
+    private static final Logger logger = LoggerFactory.getLogger(MemberNameCache.class);
+
+    // retrieveMembersByIds 한 번에 요청할 수 있는 최대 ID 수 (Discord 제한)
+    private static final int MAX_IDS_PER_REQUEST = 100;
+    // StudyLog 이름 조회 대기 큐 크기
+    private static final int RECORDED_LOOKUP_QUEUE = 100;
+
+    private final StudyLogRepository studyLogRepository;
+    private final int maxSize;
+    private final long ttlMillis;
+    private final long negativeTtlMillis;
+    private final Duration lookupTimeout;
+
+    // 접근 순서 LinkedHashMap (가장 오래 안 쓴 항목부터 제거)
+    private final LinkedHashMap<Key, Entry> entries;
+    // 비동기 갱신 중인 항목 (같은 사용자를 동시에 여러 번 요청하지 않도록)
+    private final Set<Key> refreshing = ConcurrentHashMap.newKeySet();
+    // StudyLog 이름 조회용 전용 스레드 (큐가 가득 차면 조회를 건너뛰고 게이트웨이로 찾음)
+    private final ThreadPoolExecutor recordedNameLookup;
+
+    // 메트릭
+    private final Counter hitCounter;
+    private final Counter staleCounter;
+    private final Counter missCounter;
+    private final Counter memberCacheLookups;
+    private final Counter studyLogLookups;
+    private final Counter gatewayLookups;
+    private final Timer gatewayTimer;
+
+    public MemberNameCache(StudyLogRepository studyLogRepository, MeterRegistry meterRegistry,
+                           @Value("${member-name-cache.max-size:50000}") int maxSize,
+                           @Value("${member-name-cache.ttl-minutes:360}") long ttlMinutes,
+                           @Value("${member-name-cache.negative-ttl-minutes:10}") long negativeTtlMinutes,
+                           @Value("${member-name-cache.lookup-timeout-ms:5000}") long lookupTimeoutMs) {
+        this.studyLogRepository = studyLogRepository;
+        this.maxSize = Math.max(1, maxSize);
+        this.ttlMillis = TimeUnit.MINUTES.toMillis(ttlMinutes);
+        this.negativeTtlMillis = TimeUnit.MINUTES.toMillis(negativeTtlMinutes);
+        this.lookupTimeout = Duration.ofMillis(lookupTimeoutMs);
+        this.recordedNameLookup = new ThreadPoolExecutor(1, 1, 60, TimeUnit.SECONDS,
+                new ArrayBlockingQueue<>(RECORDED_LOOKUP_QUEUE), runnable -> {
+            Thread thread = new Thread(runnable, "member-name-lookup");
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.recordedNameLookup.allowCoreThreadTimeOut(true);
+        this.entries = new LinkedHashMap<>(1024, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Key, Entry> eldest) {
+                return size() > MemberNameCache.this.maxSize;
+            }
+        };
+
+        this.hitCounter = requestCounter(meterRegistry, "hit");
+        this.staleCounter = requestCounter(meterRegistry, "stale");
+        this.missCounter = requestCounter(meterRegistry, "miss");
+        this.memberCacheLookups = lookupCounter(meterRegistry, "member_cache");
+        this.studyLogLookups = lookupCounter(meterRegistry, "study_log");
+        this.gatewayLookups = lookupCounter(meterRegistry, "gateway");
+        this.gatewayTimer = Timer.builder("member_name_cache.gateway.latency")
+                .description("retrieveMembersByIds 요청 소요 시간")
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+        Gauge.builder("member_name_cache.size", this, MemberNameCache::size)
+                .description("캐시된 이름 수")
+                .register(meterRegistry);
+    }
+
+    private static Counter requestCounter(MeterRegistry meterRegistry, String result) {
+        return Counter.builder("member_name_cache.requests")
+                .description("이름 조회 요청 수")
+                .tag("result", result)
+                .register(meterRegistry);
+    }
+
+    private static Counter lookupCounter(MeterRegistry meterRegistry, String source) {
+        return Counter.builder("member_name_cache.lookups")
+                .description("캐시에 없어서 다른 곳에서 찾은 이름 수")
+                .tag("source", source)
+                .register(meterRegistry);
+    }
+
+    /**
+     * 이름 저장 (음성 이벤트 등에서 이미 알고 있는 이름)
+     */
+    public void put(long guildId, long userId, String name) {
+        if (name == null) {
+            return;
+        }
+        store(new Key(guildId, userId), name, ttlMillis);
+    }
+
+    /**
+     * 여러 사용자의 이름을 한 번에 조회
+     * 캐시/멤버 캐시에서 모두 찾으면 바로 완료되고, 못 찾은 사용자가 있으면 StudyLog 조회(전용 스레드),
+     * 그래도 없는 사용자가 있을 때만 게이트웨이 요청 한 번의 응답을 기다렸다가 완료됨.
+     * 이 메서드 자체는 기다리지 않으므로 JDA 이벤트 스레드에서 호출해도 됨 (결과에 join() 하지 말 것).
+     *
+     * @return 찾은 사용자만 담긴 (userId → 이름) 맵. 서버에 없는 사용자는 빠짐. 실패하지 않음.
+     */
+    public CompletableFuture<Map<Long, String>> resolveNames(Guild guild, Collection<Long> userIds) {
+        Map<Long, String> names = new HashMap<>();
+        List<Long> misses = new ArrayList<>();
+        List<Long> refresh = new ArrayList<>();
+        resolveCached(guild, userIds, names, misses, refresh);
+
+        if (misses.isEmpty()) {
+            refreshAsync(guild, refresh);
+            return CompletableFuture.completedFuture(names);
+        }
+
+        return lookupRecorded(guild.getIdLong(), misses).thenCompose(recorded -> {
+            List<Long> unresolved = new ArrayList<>();
+            applyRecorded(guild.getIdLong(), misses, recorded, names, unresolved, refresh);
+            if (unresolved.isEmpty()) {
+                refreshAsync(guild, refresh);
+                return CompletableFuture.completedFuture(names);
+            }
+
+            // 못 찾은 사용자와 갱신할 사용자를 한 번의 요청으로 처리
+            List<Long> request = new ArrayList<>(unresolved);
+            for (Long userId : refresh) {
+                if (request.size() >= MAX_IDS_PER_REQUEST) {
+                    break;
+                }
+                if (refreshing.add(new Key(guild.getIdLong(), userId))) {
+                    request.add(userId);
+                }
+            }
+
+            CompletableFuture<Map<Long, String>> result = new CompletableFuture<>();
+            fetch(guild, request, fetched -> {
+                for (Long userId : unresolved) {
+                    String name = fetched.get(userId);
+                    if (name != null) {
+                        names.put(userId, name);
+                    }
+                }
+                result.complete(names);
+            });
+            return result;
+        });
+    }
+
+    /**
+     * 메모리(캐시, JDA 멤버 캐시)에서 바로 알 수 있는 이름만 조회 (공유 뽀모도로처럼 기다릴 수 없는 곳에서 사용)
+     * 못 찾은 사용자는 결과에서 빠지고 비동기로 찾아 둠 (StudyLog → 게이트웨이).
+     */
+    public Map<Long, String> resolveCachedNames(Guild guild, Collection<Long> userIds) {
+        Map<Long, String> names = new HashMap<>();
+        List<Long> misses = new ArrayList<>();
+        List<Long> refresh = new ArrayList<>();
+        resolveCached(guild, userIds, names, misses, refresh);
+        refreshAsync(guild, refresh);
+        if (!misses.isEmpty()) {
+            lookupRecorded(guild.getIdLong(), misses).thenAccept(recorded -> {
+                List<Long> later = new ArrayList<>();
+                applyRecorded(guild.getIdLong(), misses, recorded, new HashMap<>(), later, later);
+                refreshAsync(guild, later);
+            });
+        }
+        return names;
+    }
+
+    public int size() {
+        synchronized (entries) {
+            return entries.size();
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        recordedNameLookup.shutdownNow();
+    }
+
+    /**
+     * 캐시 → JDA 멤버 캐시 순으로 이름을 찾음 (호출한 스레드에서 메모리만 봄)
+     *
+     * @param names   찾은 이름
+     * @param misses  메모리에서 못 찾은 사용자
+     * @param refresh 이름은 찾았지만 오래되어 갱신이 필요한 사용자
+     */
+    private void resolveCached(Guild guild, Collection<Long> userIds, Map<Long, String> names,
+                               List<Long> misses, List<Long> refresh) {
+        long guildId = guild.getIdLong();
+        long now = System.currentTimeMillis();
+
+        for (Long userId : userIds) {
+            if (names.containsKey(userId) || misses.contains(userId)) {
+                continue;
+            }
+            Entry entry;
+            synchronized (entries) {
+                entry = entries.get(new Key(guildId, userId));
+            }
+            if (entry != null) {
+                if (entry.expiresAt > now) {
+                    hitCounter.increment();
+                } else {
+                    staleCounter.increment();
+                    refresh.add(userId);
+                }
+                // name이 null이면 서버에 없는 사용자 (결과에서 제외)
+                if (entry.name != null) {
+                    names.put(userId, entry.name);
+                }
+                continue;
+            }
+
+            missCounter.increment();
+            Member member = guild.getMemberById(userId);
+            if (member != null) {
+                memberCacheLookups.increment();
+                put(guildId, userId, member.getEffectiveName());
+                names.put(userId, member.getEffectiveName());
+            } else {
+                misses.add(userId);
+            }
+        }
+    }
+
+    /**
+     * StudyLog에 마지막으로 기록된 이름을 전용 스레드에서 한 번의 쿼리로 조회
+     * 실패하거나 대기 큐가 가득 차면 빈 맵으로 완료됨 (게이트웨이로 찾음)
+     */
+    private CompletableFuture<Map<Long, String>> lookupRecorded(long guildId, List<Long> userIds) {
+        try {
+            return CompletableFuture.supplyAsync(() -> {
+                Map<Long, String> recorded = new HashMap<>();
+                try {
+                    for (Object[] row : studyLogRepository.findLatestUserNames(guildId, userIds)) {
+                        recorded.put(((Number) row[0]).longValue(), (String) row[1]);
+                    }
+                } catch (Exception e) {
+                    logger.warn("StudyLog에서 사용자 이름 조회 실패. 길드: {}", guildId, e);
+                }
+                return recorded;
+            }, recordedNameLookup);
+        } catch (RejectedExecutionException e) {
+            logger.warn("StudyLog 이름 조회 대기 큐가 가득 차 게이트웨이로 조회합니다. 길드: {}", guildId);
+            return CompletableFuture.completedFuture(Map.of());
+        }
+    }
+
+    /**
+     * StudyLog에서 찾은 이름을 임시로 사용하고 (바로 만료시켜 두어) 실제 이름은 비동기로 갱신
+     *
+     * @param unresolved StudyLog에도 없는 사용자
+     */
+    private void applyRecorded(long guildId, List<Long> misses, Map<Long, String> recorded,
+                               Map<Long, String> names, List<Long> unresolved, List<Long> refresh) {
+        for (Long userId : misses) {
+            String name = recorded.get(userId);
+            if (name != null) {
+                studyLogLookups.increment();
+                store(new Key(guildId, userId), name, 0);
+                names.put(userId, name);
+                refresh.add(userId);
+            } else {
+                unresolved.add(userId);
+            }
+        }
+    }
+
+    /**
+     * 백그라운드 갱신 (응답은 기다리지 않음)
+     */
+    private void refreshAsync(Guild guild, List<Long> userIds) {
+        List<Long> request = new ArrayList<>();
+        for (Long userId : userIds) {
+            if (refreshing.add(new Key(guild.getIdLong(), userId))) {
+                request.add(userId);
+            }
+        }
+        if (!request.isEmpty()) {
+            fetch(guild, request, fetched -> {
+            });
+        }
+    }
+
+    /**
+     * retrieveMembersByIds로 이름을 받아 캐시에 저장한 뒤 callback 호출
+     * 응답에 없는 사용자는 서버에 없는 사용자로 짧게 캐시. 실패해도 callback은 항상 호출됨.
+     */
+    private void fetch(Guild guild, List<Long> userIds, Consumer<Map<Long, String>> callback) {
+        long guildId = guild.getIdLong();
+        List<List<Long>> chunks = new ArrayList<>();
+        for (int i = 0; i < userIds.size(); i += MAX_IDS_PER_REQUEST) {
+            chunks.add(userIds.subList(i, Math.min(i + MAX_IDS_PER_REQUEST, userIds.size())));
+        }
+
+        Map<Long, String> fetched = new ConcurrentHashMap<>();
+        CompletableFuture<?>[] pending = new CompletableFuture<?>[chunks.size()];
+        for (int c = 0; c < chunks.size(); c++) {
+            List<Long> chunk = chunks.get(c);
+            CompletableFuture<Void> done = new CompletableFuture<>();
+            pending[c] = done;
+            long started = System.nanoTime();
+            gatewayLookups.increment(chunk.size());
+            try {
+                guild.retrieveMembersByIds(chunk)
+                        .setTimeout(lookupTimeout)
+                        .onSuccess(members -> {
+                            gatewayTimer.record(System.nanoTime() - started, TimeUnit.NANOSECONDS);
+                            for (Member member : members) {
+                                fetched.put(member.getIdLong(), member.getEffectiveName());
+                            }
+                            for (Long userId : chunk) {
+                                String name = fetched.get(userId);
+                                store(new Key(guildId, userId), name, name != null ? ttlMillis : negativeTtlMillis);
+                                refreshing.remove(new Key(guildId, userId));
+                            }
+                            done.complete(null);
+                        })
+                        .onError(error -> {
+                            gatewayTimer.record(System.nanoTime() - started, TimeUnit.NANOSECONDS);
+                            logger.warn("[{}] 멤버 이름 조회 실패 ({}명)", guild.getName(), chunk.size(), error);
+                            for (Long userId : chunk) {
+                                refreshing.remove(new Key(guildId, userId));
+                            }
+                            done.complete(null);
+                        });
+            } catch (Exception e) {
+                logger.warn("[{}] 멤버 이름 조회 요청 실패 ({}명)", guild.getName(), chunk.size(), e);
+                for (Long userId : chunk) {
+                    refreshing.remove(new Key(guildId, userId));
+                }
+                done.complete(null);
+            }
+        }
+        CompletableFuture.allOf(pending).whenComplete((ignored, error) -> callback.accept(fetched));
+    }
+
+    private void store(Key key, String name, long ttl) {
+        Entry entry = new Entry(name, System.currentTimeMillis() + ttl);
+        synchronized (entries) {
+            entries.put(key, entry);
+        }
+    }
+
+    private record Key(long guildId, long userId) {
+    }
+
+    private record Entry(String name, long expiresAt) {
+    }
+}
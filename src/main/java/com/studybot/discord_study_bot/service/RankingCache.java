@@ -0,0 +1,197 @@
+package com.studybot.discord_study_bot.service;
+
+import com.studybot.discord_study_bot.dto.RankingDto;
+import com.studybot.discord_study_bot.entity.StudyDailyAgg;
+import com.studybot.discord_study_bot.leaderboard.LeaderboardPeriod;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * 랭킹 결과 캐시 ((서버, 기간, 기간 시작일) → 상위 10명)
+ * 같은 순간에 /weekly가 몰려도 랭킹 계산(DB 조회 또는 리더보드 순회)은 한 번만 실행되도록 한다.
+ *
+ * - 그 서버/기간에 속한 StudyLog가 닫혀 커밋되면 해당 항목만 무효화 (invalidateAfterCommit)
+ * - 진행 중인 세션의 시간은 계속 늘어나므로 max-staleness-seconds가 지나면 다시 계산
+ * - 같은 키를 동시에 요청하면 먼저 온 요청의 계산 결과를 함께 기다림
+ */
+@Service
+public class RankingCache {
+
+    private final long maxStalenessNanos;
+    private final Map<Key, Holder> entries = new ConcurrentHashMap<>();
+
+    // 메트릭
+    private final Counter hitCounter;
+    private final Counter missCounter;
+    private final Counter waitCounter;
+    private final Counter invalidationCounter;
+    private final Timer computeTimer;
+
+    public RankingCache(MeterRegistry meterRegistry,
+                        @Value("${ranking-cache.max-staleness-seconds:30}") long maxStalenessSeconds) {
+        this.maxStalenessNanos = TimeUnit.SECONDS.toNanos(maxStalenessSeconds);
+
+        this.hitCounter = requestCounter(meterRegistry, "hit");
+        this.missCounter = requestCounter(meterRegistry, "miss");
+        this.waitCounter = requestCounter(meterRegistry, "wait");
+        this.invalidationCounter = Counter.builder("ranking_cache.invalidations")
+                .description("기록이 닫혀 무효화된 랭킹 수")
+                .register(meterRegistry);
+        this.computeTimer = Timer.builder("ranking_cache.compute.latency")
+                .description("캐시에 없어서 랭킹을 다시 계산한 시간")
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+        Gauge.builder("ranking_cache.size", entries, Map::size)
+                .description("캐시된 랭킹 수")
+                .register(meterRegistry);
+    }
+
+    private static Counter requestCounter(MeterRegistry meterRegistry, String result) {
+        return Counter.builder("ranking_cache.requests")
+                .description("랭킹 조회 요청 수 (hit / miss / 다른 요청의 계산을 기다림)")
+                .tag("result", result)
+                .register(meterRegistry);
+    }
+
+    /**
+     * 캐시된 랭킹을 반환하고, 없거나 오래되었으면 loader로 계산
+     * 결과 리스트는 여러 요청이 함께 쓰므로 수정할 수 없음.
+     *
+     * @param startDay 기간 시작일 (키의 일부)
+     * @param endDay   기간 종료일 (닫힌 기록이 이 기간에 속하는지 판단할 때 사용)
+     */
+    public List<RankingDto> get(long guildId, LeaderboardPeriod period, LocalDate startDay, LocalDate endDay,
+                                Supplier<List<RankingDto>> loader) {
+        Key key = new Key(guildId, period, startDay);
+        long now = System.nanoTime();
+        Holder created;
+        while (true) {
+            Holder holder = entries.get(key);
+            if (holder != null && !holder.isStale(now)) {
+                if (holder.future.isDone()) {
+                    hitCounter.increment();
+                } else {
+                    // 다른 요청이 계산 중이면 그 결과를 기다림
+                    waitCounter.increment();
+                }
+                return join(holder.future);
+            }
+            created = new Holder(endDay, now + maxStalenessNanos);
+            boolean owner = holder == null
+                    ? entries.putIfAbsent(key, created) == null
+                    : entries.replace(key, holder, created);
+            if (owner) {
+                break;
+            }
+        }
+
+        missCounter.increment();
+        evictStale(now);
+        long started = System.nanoTime();
+        try {
+            List<RankingDto> ranking = List.copyOf(loader.get());
+            created.future.complete(ranking);
+            return ranking;
+        } catch (RuntimeException e) {
+            // 실패한 결과는 캐시하지 않음 (기다리던 요청도 같은 예외를 받음)
+            entries.remove(key, created);
+            created.future.completeExceptionally(e);
+            throw e;
+        } finally {
+            computeTimer.record(System.nanoTime() - started, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    /**
+     * 닫힌 기록이 속한 (서버, 날짜)를 포함하는 랭킹을 무효화
+     * 트랜잭션 안이면 커밋된 뒤에 무효화 (커밋 전에 다시 계산해서 이전 값이 캐시되지 않도록)
+     */
+    void invalidateAfterCommit(Set<StudyDailyAgg.Key> keys) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            invalidate(keys);
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                invalidate(keys);
+            }
+        });
+    }
+
+    /**
+     * 모든 랭킹 무효화 (집계 테이블을 통째로 다시 만든 뒤 등)
+     */
+    public void invalidateAll() {
+        invalidationCounter.increment(entries.size());
+        entries.clear();
+    }
+
+    private void invalidate(Set<StudyDailyAgg.Key> keys) {
+        entries.entrySet().removeIf(entry -> {
+            for (StudyDailyAgg.Key agg : keys) {
+                if (entry.getKey().guildId == agg.getGuildId() && entry.getValue().covers(entry.getKey(), agg.getDay())) {
+                    invalidationCounter.increment();
+                    return true;
+                }
+            }
+            return false;
+        });
+    }
+
+    /**
+     * 지난 기간처럼 더 이상 요청되지 않는 항목 정리 (계산할 때만 실행, 항목 수는 서버 수 x 기간 수 정도)
+     */
+    private void evictStale(long now) {
+        entries.values().removeIf(holder -> holder.future.isDone() && holder.isStale(now));
+    }
+
+    private static List<RankingDto> join(CompletableFuture<List<RankingDto>> future) {
+        try {
+            return future.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw e;
+        }
+    }
+
+    private record Key(long guildId, LeaderboardPeriod period, LocalDate startDay) {
+    }
+
+    private static final class Holder {
+        private final CompletableFuture<List<RankingDto>> future = new CompletableFuture<>();
+        private final LocalDate endDay;
+        private final long expiresAt;
+
+        private Holder(LocalDate endDay, long expiresAt) {
+            this.endDay = endDay;
+            this.expiresAt = expiresAt;
+        }
+
+        private boolean isStale(long now) {
+            return now - expiresAt >= 0;
+        }
+
+        private boolean covers(Key key, LocalDate day) {
+            return !day.isBefore(key.startDay) && !day.isAfter(endDay);
+        }
+    }
+}
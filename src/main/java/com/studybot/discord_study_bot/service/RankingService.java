@@ -1,26 +1,42 @@
 package com.studybot.discord_study_bot.service;
 
 import com.studybot.discord_study_bot.dto.RankingDto;
-import com.studybot.discord_study_bot.repository.StudyLogRepository;
+import com.studybot.discord_study_bot.dto.StandingDto;
+import com.studybot.discord_study_bot.leaderboard.LeaderboardPeriod;
+import com.studybot.discord_study_bot.repository.StudyDailyAggRepository;
 import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Service;
 import org.springframework.beans.factory.annotation.Value;
 
-import java.math.BigDecimal;
 import java.time.DayOfWeek;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
 import java.time.temporal.TemporalAdjusters;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.EnumMap;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.function.Supplier;
 import java.util.stream.Collectors;
 
 @Service
 @RequiredArgsConstructor
 public class RankingService {
 
-        private final StudyLogRepository studyLogRepository;
+        // 기간 합계는 study_log 원본 대신 일별 집계 테이블에서 읽음
+        private final StudyDailyAggRepository studyDailyAggRepository;
+        // 현재 주/월/이벤트 기간은 메모리 리더보드에서 읽음 (로딩 전에는 일별 집계 조회)
+        private final LeaderboardService leaderboardService;
+        // 같은 랭킹을 반복해서 계산하지 않도록 (서버, 기간, 기간 시작일)별로 캐시
+        private final RankingCache rankingCache;
+        // 끝난 기간의 확정 랭킹
+        private final RankingSnapshotService rankingSnapshotService;
+        // 주/월 경계와 "오늘"은 서버(길드) 시간대 기준
+        private final GuildTimeZoneService guildTimeZoneService;
 
         @Value("${discord.exclude-user-id}")
         private String excludeUserId;
@@ -33,21 +49,29 @@ public class RankingService {
 
         // 이번주의 요청받은 시점까지의 랭킹을 표시함. !주간랭킹
         public List<RankingDto> getWeeklyRanking(String guildId) {
-                LocalDateTime startOfWeek = LocalDate.now().with(TemporalAdjusters.previousOrSame(DayOfWeek.MONDAY))
+                return cached(guildId, LeaderboardPeriod.WEEKLY, () -> loadWeeklyRanking(guildId));
+        }
+
+        private List<RankingDto> loadWeeklyRanking(String guildId) {
+                if (leaderboardService.isLoaded()) {
+                        return topFromLeaderboard(guildId, LeaderboardPeriod.WEEKLY);
+                }
+
+                LocalDate today = guildTimeZoneService.today(guildId);
+                LocalDateTime startOfWeek = today.with(TemporalAdjusters.previousOrSame(DayOfWeek.MONDAY))
                                 .atStartOfDay();
-                LocalDateTime endOfWeek = LocalDate.now().with(TemporalAdjusters.nextOrSame(DayOfWeek.SUNDAY)).atTime(
+                LocalDateTime endOfWeek = today.with(TemporalAdjusters.nextOrSame(DayOfWeek.SUNDAY)).atTime(
                                 23, 59,
                                 59);
 
                 // DB로부터 순수 데이터(Object 배열의 리스트)를 받아옴
-                List<Object[]> rawRankingData = studyLogRepository.findRankingsByPeriodAndGuild(guildId, startOfWeek,
-                                endOfWeek, excludeUserId);
+                List<Object[]> rawRankingData = findRankings(guildId, startOfWeek, endOfWeek);
 
                 // 순수 데이터를 RankingDto 리스트로 변환
                 return rawRankingData.stream()
                                 .map(data -> new RankingDto(
-                                                (String) data[0], // 첫 번째 값(user_id)
-                                                ((BigDecimal) data[1]).longValue() // 두 번째 값(SUM 결과)은 BigDecimal ->
+                                                String.valueOf(((Number) data[0]).longValue()), // 첫 번째 값(user_id)
+                                                ((Number) data[1]).longValue() // 두 번째 값(SUM 결과)은 BigDecimal ->
                                                                                    // Long으로 변환
                                 ))
                                 .collect(Collectors.toList());
@@ -55,8 +79,8 @@ public class RankingService {
 
         // 지난주 랭킹을 계산함
         public List<RankingDto> getPreviousWeeklyRanking(String guildId) {
-                // 지난주 일요일 날짜를 구함
-                LocalDate lastSunday = LocalDate.now().with(TemporalAdjusters.previous(DayOfWeek.SUNDAY));
+                // 지난주 일요일 날짜를 구함 (서버 시간대 기준)
+                LocalDate lastSunday = guildTimeZoneService.today(guildId).with(TemporalAdjusters.previous(DayOfWeek.SUNDAY));
                 // 지난 주 일요일이 속한 주의 월요일 날짜를 구함
                 LocalDate lastMonday = lastSunday.with(TemporalAdjusters.previousOrSame(DayOfWeek.MONDAY));
 
@@ -64,91 +88,168 @@ public class RankingService {
                 LocalDateTime startOfLastWeek = lastMonday.atStartOfDay();
                 LocalDateTime endOfLastWeek = lastSunday.atTime(23, 59, 59);
 
-                // getWeeklyRanking 사용
-                List<Object[]> rawRankingData = studyLogRepository.findRankingsByPeriodAndGuild(guildId,
-                                startOfLastWeek, endOfLastWeek,
-                                excludeUserId);
-                return rawRankingData.stream()
-                                .map(data -> new RankingDto(
-                                                (String) data[0],
-                                                ((BigDecimal) data[1]).longValue()))
-                                .collect(Collectors.toList());
+                // 확정된 스냅샷이 있으면 그대로 사용 (기본 키 범위 읽기)
+                Optional<List<RankingDto>> snapshot = rankingSnapshotService.find(Long.parseLong(guildId),
+                                LeaderboardPeriod.WEEKLY, lastMonday, 10);
+                if (snapshot.isPresent()) {
+                        return snapshot.get();
+                }
+
+                // 아직 확정 전이면 집계에서 계산 (주간 랭킹과 같은 키, 기간 시작일만 다름)
+                return rankingCache.get(Long.parseLong(guildId), LeaderboardPeriod.WEEKLY, lastMonday, lastSunday, () -> {
+                        List<Object[]> rawRankingData = findRankings(guildId, startOfLastWeek, endOfLastWeek);
+                        return rawRankingData.stream()
+                                        .map(data -> new RankingDto(
+                                                        String.valueOf(((Number) data[0]).longValue()),
+                                                        ((Number) data[1]).longValue()))
+                                        .collect(Collectors.toList());
+                });
+        }
+
+        /**
+         * 여러 서버의 지난주 랭킹을 한 번의 쿼리로 조회 (주간 랭킹 자동 포스트용)
+         * 서버 시간대에 따라 "지난주"가 다를 수 있으므로 지난주가 같은 서버끼리 묶어서 조회.
+         * 확정된 스냅샷이 있는 서버는 스냅샷에서, 없는 서버는 일별 집계에서 조회
+         *
+         * @return 요청한 모든 서버의 (guildId → 상위 10명), 기록이 없는 서버는 빈 리스트
+         */
+        public Map<String, List<RankingDto>> getPreviousWeeklyRankings(Collection<String> guildIds) {
+                Map<LocalDate, List<String>> guildsByLastSunday = new HashMap<>();
+                for (String guildId : guildIds) {
+                        LocalDate lastSunday = guildTimeZoneService.today(guildId)
+                                        .with(TemporalAdjusters.previous(DayOfWeek.SUNDAY));
+                        guildsByLastSunday.computeIfAbsent(lastSunday, day -> new ArrayList<>()).add(guildId);
+                }
+
+                Map<String, List<RankingDto>> rankings = new HashMap<>();
+                guildsByLastSunday.forEach((lastSunday, guilds) -> {
+                        LocalDate lastMonday = lastSunday.with(TemporalAdjusters.previousOrSame(DayOfWeek.MONDAY));
+                        Map<String, List<RankingDto>> frozen = rankingSnapshotService.findForGuilds(guilds,
+                                        LeaderboardPeriod.WEEKLY, lastMonday, 10);
+                        rankings.putAll(frozen);
+                        List<String> remaining = guilds.stream().filter(guildId -> !frozen.containsKey(guildId))
+                                        .collect(Collectors.toList());
+                        rankings.putAll(findRankingsForGuilds(remaining, lastMonday, lastSunday));
+                });
+                return rankings;
         }
 
         // 개인 유저의 주간 공부시간을 가져오는 메서드
         public Optional<Long> getWeeklyTotalStudyTimeForUser(String guildId, String userId) {
-                LocalDateTime startOfWeek = LocalDate.now().with(TemporalAdjusters.previousOrSame(DayOfWeek.MONDAY))
+                if (leaderboardService.isLoaded()) {
+                        return Optional.of(leaderboardService.totalOf(Long.parseLong(guildId),
+                                        LeaderboardPeriod.WEEKLY, Long.parseLong(userId)));
+                }
+
+                LocalDate today = guildTimeZoneService.today(guildId);
+                LocalDateTime startOfWeek = today.with(TemporalAdjusters.previousOrSame(DayOfWeek.MONDAY))
                                 .atStartOfDay();
-                LocalDateTime endOfWeek = LocalDate.now().with(TemporalAdjusters.nextOrSame(DayOfWeek.SUNDAY)).atTime(
+                LocalDateTime endOfWeek = today.with(TemporalAdjusters.nextOrSame(DayOfWeek.SUNDAY)).atTime(
                                 23, 59,
                                 59);
 
-                return studyLogRepository.findTotalDurationByUserIdPeriodAndGuild(guildId, userId, startOfWeek,
-                                endOfWeek);
+                return studyDailyAggRepository.findTotalDurationByUserIdPeriodAndGuild(Long.parseLong(guildId),
+                                Long.parseLong(userId), startOfWeek.toLocalDate(), endOfWeek.toLocalDate());
         }
 
         // 이벤트 기간의 누계 랭킹을 가져오는 메서드
         public List<RankingDto> getEventRanking(String guildId) {
+                return cached(guildId, LeaderboardPeriod.EVENT, () -> loadEventRanking(guildId));
+        }
+
+        private List<RankingDto> loadEventRanking(String guildId) {
+                if (leaderboardService.isLoaded()) {
+                        return topFromLeaderboard(guildId, LeaderboardPeriod.EVENT);
+                }
+
                 DateTimeFormatter formatter = DateTimeFormatter.ofPattern("yyyy-MM-dd");
                 LocalDateTime startOfEvent = LocalDate.parse(eventStartDate, formatter).atStartOfDay();
                 LocalDateTime endOfEvent = LocalDate.parse(eventEndDate, formatter).atTime(23, 59, 59);
 
                 // DB로부터 순수 데이터(Object 배열의 리스트)를 받아옴
-                List<Object[]> rawRankingData = studyLogRepository.findRankingsByPeriodAndGuild(guildId, startOfEvent,
-                                endOfEvent,
-                                excludeUserId);
+                List<Object[]> rawRankingData = findRankings(guildId, startOfEvent, endOfEvent);
 
                 // 순수 데이터를 RankingDto 리스트로 변환
                 return rawRankingData.stream()
                                 .map(data -> new RankingDto(
-                                                (String) data[0], // 첫 번째 값(user_id)
-                                                ((BigDecimal) data[1]).longValue() // 두 번째 값(SUM 결과)은 BigDecimal ->
+                                                String.valueOf(((Number) data[0]).longValue()), // 첫 번째 값(user_id)
+                                                ((Number) data[1]).longValue() // 두 번째 값(SUM 결과)은 BigDecimal ->
                                                                                    // Long으로 변환
                                 ))
                                 .collect(Collectors.toList());
         }
 
+        /**
+         * 여러 서버의 이벤트 랭킹을 한 번에 조회 (이벤트 랭킹 자동 포스트용)
+         * 리더보드가 로딩되어 있으면 서버별로 메모리에서, 아니면 한 번의 쿼리로 조회
+         *
+         * @return 요청한 모든 서버의 (guildId → 상위 10명), 기록이 없는 서버는 빈 리스트
+         */
+        public Map<String, List<RankingDto>> getEventRankings(Collection<String> guildIds) {
+                if (leaderboardService.isLoaded()) {
+                        Map<String, List<RankingDto>> rankings = new HashMap<>();
+                        for (String guildId : guildIds) {
+                                rankings.put(guildId, getEventRanking(guildId));
+                        }
+                        return rankings;
+                }
+                LocalDate[] window = leaderboardService.windowOf(LeaderboardPeriod.EVENT, LocalDate.now());
+                return findRankingsForGuilds(guildIds, window[0], window[1]);
+        }
+
         // 개인 유저의 이벤트 기간 공부시간을 가져오는 메서드
         public Optional<Long> getEventTotalStudyTimeForUser(String guildId, String userId) {
+                if (leaderboardService.isLoaded()) {
+                        return Optional.of(leaderboardService.totalOf(Long.parseLong(guildId),
+                                        LeaderboardPeriod.EVENT, Long.parseLong(userId)));
+                }
+
                 DateTimeFormatter formatter = DateTimeFormatter.ofPattern("yyyy-MM-dd");
                 LocalDateTime startOfEvent = LocalDate.parse(eventStartDate, formatter).atStartOfDay();
                 LocalDateTime endOfEvent = LocalDate.parse(eventEndDate, formatter).atTime(23, 59, 59);
 
-                return studyLogRepository.findTotalDurationByUserIdPeriodAndGuild(guildId, userId, startOfEvent,
-                                endOfEvent);
+                return studyDailyAggRepository.findTotalDurationByUserIdPeriodAndGuild(Long.parseLong(guildId),
+                                Long.parseLong(userId), startOfEvent.toLocalDate(), endOfEvent.toLocalDate());
         }
 
-        // 현재가 이벤트 기간인지 확인하는 메서드
-        public boolean isEventPeriod() {
+        // 현재가 이벤트 기간인지 확인하는 메서드 (서버 시간대 기준)
+        public boolean isEventPeriod(String guildId) {
                 DateTimeFormatter formatter = DateTimeFormatter.ofPattern("yyyy-MM-dd");
                 LocalDate startOfEvent = LocalDate.parse(eventStartDate, formatter);
                 LocalDate endOfEvent = LocalDate.parse(eventEndDate, formatter);
-                LocalDate today = LocalDate.now();
+                LocalDate today = guildTimeZoneService.today(guildId);
 
                 return !today.isBefore(startOfEvent) && !today.isAfter(endOfEvent);
         }
 
         // 이번 달의 랭킹을 가져오는 메서드
         public List<RankingDto> getMonthlyRanking(String guildId) {
+                return cached(guildId, LeaderboardPeriod.MONTHLY, () -> loadMonthlyRanking(guildId));
+        }
+
+        private List<RankingDto> loadMonthlyRanking(String guildId) {
+                if (leaderboardService.isLoaded()) {
+                        return topFromLeaderboard(guildId, LeaderboardPeriod.MONTHLY);
+                }
+
                 // 이번 달 1일 00:00:00
-                LocalDateTime startOfMonth = LocalDate.now()
+                LocalDateTime startOfMonth = guildTimeZoneService.today(guildId)
                                 .with(TemporalAdjusters.firstDayOfMonth())
                                 .atStartOfDay();
 
                 // 이번 달 마지막 날 23:59:59
-                LocalDateTime endOfMonth = LocalDate.now()
+                LocalDateTime endOfMonth = guildTimeZoneService.today(guildId)
                                 .with(TemporalAdjusters.lastDayOfMonth())
                                 .atTime(23, 59, 59);
 
                 // DB로부터 순수 데이터(Object 배열의 리스트)를 받아옴
-                List<Object[]> rawRankingData = studyLogRepository.findRankingsByPeriodAndGuild(guildId,
-                                startOfMonth, endOfMonth, excludeUserId);
+                List<Object[]> rawRankingData = findRankings(guildId, startOfMonth, endOfMonth);
 
                 // 순수 데이터를 RankingDto 리스트로 변환
                 return rawRankingData.stream()
                                 .map(data -> new RankingDto(
-                                                (String) data[0], // 첫 번째 값(user_id)
-                                                ((BigDecimal) data[1]).longValue() // 두 번째 값(SUM 결과)은 BigDecimal ->
+                                                String.valueOf(((Number) data[0]).longValue()), // 첫 번째 값(user_id)
+                                                ((Number) data[1]).longValue() // 두 번째 값(SUM 결과)은 BigDecimal ->
                                                                                    // Long으로 변환
                                 ))
                                 .collect(Collectors.toList());
@@ -156,17 +257,125 @@ public class RankingService {
 
         // 개인 유저의 월간 공부시간을 가져오는 메서드
         public Optional<Long> getMonthlyTotalStudyTimeForUser(String guildId, String userId) {
+                if (leaderboardService.isLoaded()) {
+                        return Optional.of(leaderboardService.totalOf(Long.parseLong(guildId),
+                                        LeaderboardPeriod.MONTHLY, Long.parseLong(userId)));
+                }
+
                 // 이번 달 1일 00:00:00
-                LocalDateTime startOfMonth = LocalDate.now()
+                LocalDateTime startOfMonth = guildTimeZoneService.today(guildId)
                                 .with(TemporalAdjusters.firstDayOfMonth())
                                 .atStartOfDay();
 
                 // 이번 달 마지막 날 23:59:59
-                LocalDateTime endOfMonth = LocalDate.now()
+                LocalDateTime endOfMonth = guildTimeZoneService.today(guildId)
                                 .with(TemporalAdjusters.lastDayOfMonth())
                                 .atTime(23, 59, 59);
 
-                return studyLogRepository.findTotalDurationByUserIdPeriodAndGuild(guildId, userId, startOfMonth,
-                                endOfMonth);
+                return studyDailyAggRepository.findTotalDurationByUserIdPeriodAndGuild(Long.parseLong(guildId),
+                                Long.parseLong(userId), startOfMonth.toLocalDate(), endOfMonth.toLocalDate());
+        }
+
+        /**
+         * 임의 기간 [from, to]의 랭킹 (최근 14일, 학기 시작부터, 여러 이벤트 등)
+         * 메모리의 사용자별 누적합으로 계산하고, 로딩 전에는 일별 집계에서 조회
+         */
+        public List<RankingDto> getWindowRanking(String guildId, LocalDate from, LocalDate to, int limit) {
+                long guild = Long.parseLong(guildId);
+                long exclude = Long.parseLong(excludeUserId);
+                if (leaderboardService.isLoaded()) {
+                        return leaderboardService.windowTop(guild, from, to, limit, exclude)
+                                        .stream()
+                                        .map(entry -> new RankingDto(String.valueOf(entry.userId()), entry.seconds()))
+                                        .collect(Collectors.toList());
+                }
+
+                return studyDailyAggRepository.findRankingsByWindow(guild, from, to, exclude, limit)
+                                .stream()
+                                .map(data -> new RankingDto(
+                                                String.valueOf(((Number) data[0]).longValue()),
+                                                ((Number) data[1]).longValue()))
+                                .collect(Collectors.toList());
+        }
+
+        /**
+         * 사용자의 주간/월간/이벤트 순위와 백분위를 한 번에 조회 (/myrank)
+         * 메모리 리더보드에서 O(log n)으로 계산하고, 로딩 전에는 일별 집계에 윈도 함수 쿼리
+         */
+        public Map<LeaderboardPeriod, StandingDto> getStandings(String guildId, String userId) {
+                long guild = Long.parseLong(guildId);
+                long user = Long.parseLong(userId);
+                long exclude = Long.parseLong(excludeUserId);
+                if (leaderboardService.isLoaded()) {
+                        return leaderboardService.standings(guild, user, exclude);
+                }
+
+                Map<LeaderboardPeriod, StandingDto> standings = new EnumMap<>(LeaderboardPeriod.class);
+                LocalDate today = guildTimeZoneService.today(guild);
+                for (LeaderboardPeriod period : LeaderboardPeriod.values()) {
+                        LocalDate[] window = leaderboardService.windowOf(period, today);
+                        List<Object[]> rows = user == exclude ? List.of()
+                                        : studyDailyAggRepository.findUserStanding(guild, user, window[0], window[1], exclude);
+                        if (rows.isEmpty()) {
+                                standings.put(period, new StandingDto(0L, 0, 0));
+                        } else {
+                                Object[] row = rows.get(0);
+                                standings.put(period, new StandingDto(((Number) row[0]).longValue(),
+                                                ((Number) row[1]).intValue(), ((Number) row[2]).intValue()));
+                        }
+                }
+                return standings;
+        }
+
+        /**
+         * 현재 기간 랭킹을 캐시에서 조회 (없거나 오래되었으면 loader로 계산)
+         */
+        private List<RankingDto> cached(String guildId, LeaderboardPeriod period, Supplier<List<RankingDto>> loader) {
+                LocalDate[] window = leaderboardService.windowOf(period, guildTimeZoneService.today(guildId));
+                return rankingCache.get(Long.parseLong(guildId), period, window[0], window[1], loader);
+        }
+
+        /**
+         * 일별 집계 테이블에서 기간 랭킹 조회
+         * 날짜 단위로 집계되어 있으므로 기간의 시작/종료 시각은 날짜로 잘라서 사용
+         *
+         * @return [user_id, 공부 시간(초)의 합계] 배열의 리스트
+         */
+        private List<Object[]> findRankings(String guildId, LocalDateTime start, LocalDateTime end) {
+                return studyDailyAggRepository.findRankingsByPeriodAndGuild(Long.parseLong(guildId),
+                                start.toLocalDate(), end.toLocalDate(), Long.parseLong(excludeUserId));
+        }
+
+        /**
+         * 일별 집계 테이블에서 여러 서버의 기간 랭킹을 한 번에 조회
+         */
+        private Map<String, List<RankingDto>> findRankingsForGuilds(Collection<String> guildIds, LocalDate startDay,
+                        LocalDate endDay) {
+                Map<String, List<RankingDto>> rankings = new HashMap<>();
+                for (String guildId : guildIds) {
+                        rankings.put(guildId, new ArrayList<>());
+                }
+                if (guildIds.isEmpty()) {
+                        return rankings;
+                }
+                List<Long> ids = guildIds.stream().map(Long::parseLong).collect(Collectors.toList());
+                for (Object[] data : studyDailyAggRepository.findRankingsByPeriodForGuilds(ids, startDay, endDay,
+                                Long.parseLong(excludeUserId))) {
+                        String guildId = String.valueOf(((Number) data[0]).longValue());
+                        rankings.computeIfAbsent(guildId, id -> new ArrayList<>()).add(new RankingDto(
+                                        String.valueOf(((Number) data[1]).longValue()),
+                                        ((Number) data[2]).longValue()));
+                }
+                return rankings;
+        }
+
+        /**
+         * 메모리 리더보드에서 상위 10명 조회 (DB 조회와 같은 형식)
+         */
+        private List<RankingDto> topFromLeaderboard(String guildId, LeaderboardPeriod period) {
+                return leaderboardService.top(Long.parseLong(guildId), period, 10, Long.parseLong(excludeUserId))
+                                .stream()
+                                .map(entry -> new RankingDto(String.valueOf(entry.userId()), entry.seconds()))
+                                .collect(Collectors.toList());
         }
 }
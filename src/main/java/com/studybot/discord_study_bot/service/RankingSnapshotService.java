@@ -0,0 +1,182 @@
+package com.studybot.discord_study_bot.service;
+
+import com.studybot.discord_study_bot.dto.RankingDto;
+import com.studybot.discord_study_bot.dto.RankingHistoryDto;
+import com.studybot.discord_study_bot.leaderboard.LeaderboardPeriod;
+import com.studybot.discord_study_bot.repository.RankingSnapshotRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Date;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.time.ZoneId;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Collectors;
+
+/**
+ * 끝난 기간(주간/월간)의 랭킹 스냅샷 관리
+ *
+ * - 기간이 바뀐 직후 RankingScheduler가 freeze()를 호출해 그 기간의 전체 순위를 한 번 저장
+ *   (집계 + 아직 닫히지 않은 세션의 기간 내 시간, LeaderboardService.periodTotals)
+ * - 기간은 서버마다 길드 시간대 기준으로 끝나므로, 그 시간대에서 기간이 끝난 서버만 저장하고
+ *   나머지 서버는 다음 호출(1시간마다)에 저장
+ * - 이미 저장된 서버/기간은 다시 저장하지 않음 (늦게 닫힌 세션이 지난 랭킹을 바꾸지 않도록)
+ * - 지난 기간 랭킹은 기본 키 범위 읽기로 조회
+ */
+@Service
+public class RankingSnapshotService {
+
+    private static final Logger logger = LoggerFactory.getLogger(RankingSnapshotService.class);
+
+    private static final String INSERT_SQL =
+            "INSERT IGNORE INTO ranking_snapshot (guild_id, period, period_start, rank_no, user_id, seconds) " +
+            "VALUES (?, ?, ?, ?, ?, ?)";
+
+    private final RankingSnapshotRepository rankingSnapshotRepository;
+    private final LeaderboardService leaderboardService;
+    private final GuildTimeZoneService guildTimeZoneService;
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final long excludeUserId;
+
+    // 모든 시간대에서 끝나 모든 서버가 저장된 기간 ("기간:시작일", 매시간 다시 계산하지 않도록)
+    private final Set<String> completed = ConcurrentHashMap.newKeySet();
+
+    public RankingSnapshotService(RankingSnapshotRepository rankingSnapshotRepository,
+                                  LeaderboardService leaderboardService, GuildTimeZoneService guildTimeZoneService,
+                                  JdbcTemplate jdbcTemplate, TransactionTemplate transactionTemplate,
+                                  @Value("${discord.exclude-user-id}") String excludeUserId) {
+        this.rankingSnapshotRepository = rankingSnapshotRepository;
+        this.leaderboardService = leaderboardService;
+        this.guildTimeZoneService = guildTimeZoneService;
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = transactionTemplate;
+        this.excludeUserId = Long.parseLong(excludeUserId);
+    }
+
+    /**
+     * day가 속한 기간의 랭킹을 그 기간이 끝난 서버에 대해 저장 (이미 저장된 서버는 건너뜀)
+     * 집계 backfill이 끝나기 전(리더보드 로딩 전)에는 집계가 비어 있을 수 있으므로 저장하지 않음
+     *
+     * @return 저장한 행 수 (건너뛰었으면 0)
+     */
+    public int freeze(LeaderboardPeriod period, LocalDate day) {
+        LocalDate[] window = leaderboardService.windowOf(period, day);
+        String key = period.name() + ":" + window[0];
+        if (completed.contains(key)) {
+            return 0;
+        }
+        if (!leaderboardService.isLoaded()) {
+            logger.info("일별 집계 준비 전이라 {} 랭킹 스냅샷을 나중에 저장합니다: {} ~ {}", period, window[0], window[1]);
+            return 0;
+        }
+
+        long started = System.nanoTime();
+        // 사용 중인 모든 시간대에서 기간이 끝났으면 이번에 모든 서버가 저장됨
+        boolean endedEverywhere = true;
+        for (ZoneId zone : guildTimeZoneService.zonesInUse()) {
+            endedEverywhere &= LocalDate.now(zone).isAfter(window[1]);
+        }
+        Set<Long> frozen = new HashSet<>();
+        for (Number guildId : rankingSnapshotRepository.findFrozenGuildIds(period.name(), window[0])) {
+            frozen.add(guildId.longValue());
+        }
+
+        Map<Long, Map<Long, Long>> totals = leaderboardService.periodTotals(window[0], window[1]);
+        List<Object[]> args = new ArrayList<>();
+        int[] guilds = {0};
+        totals.forEach((guildId, users) -> {
+            // 이미 저장했거나, 그 서버 시간대에서 아직 기간이 끝나지 않았으면 건너뜀
+            if (frozen.contains(guildId) || !guildTimeZoneService.today(guildId).isAfter(window[1])) {
+                return;
+            }
+            guilds[0]++;
+            List<Map.Entry<Long, Long>> ranked = users.entrySet().stream()
+                    .filter(entry -> entry.getKey() != excludeUserId && entry.getValue() > 0)
+                    .sorted(Map.Entry.<Long, Long>comparingByValue().reversed()
+                            .thenComparing(Map.Entry.comparingByKey()))
+                    .collect(Collectors.toList());
+            for (int i = 0; i < ranked.size(); i++) {
+                Map.Entry<Long, Long> entry = ranked.get(i);
+                args.add(new Object[]{guildId, period.name(), Date.valueOf(window[0]), i + 1,
+                        entry.getKey(), entry.getValue()});
+            }
+        });
+
+        if (!args.isEmpty()) {
+            transactionTemplate.executeWithoutResult(status -> jdbcTemplate.batchUpdate(INSERT_SQL, args));
+        }
+        if (endedEverywhere) {
+            completed.add(key);
+        }
+        logger.info("{} 랭킹 스냅샷 저장 완료: {} ~ {}, 서버 {}개, {}행 ({}ms)", period, window[0], window[1],
+                guilds[0], args.size(), (System.nanoTime() - started) / 1_000_000);
+        return args.size();
+    }
+
+    /**
+     * 한 서버의 저장된 기간 랭킹 (상위 limit명)
+     *
+     * @return 그 서버의 기간이 아직 저장되지 않았으면 empty (기록이 없던 서버도 empty, 집계에서 계산해도 같은 결과)
+     */
+    public Optional<List<RankingDto>> find(long guildId, LeaderboardPeriod period, LocalDate periodStart, int limit) {
+        List<Object[]> rows = rankingSnapshotRepository.findTop(guildId, period.name(), periodStart, limit);
+        if (rows.isEmpty()) {
+            return Optional.empty();
+        }
+        return Optional.of(toRanking(rows));
+    }
+
+    /**
+     * 여러 서버의 저장된 기간 랭킹 (상위 limit명)
+     *
+     * @return 스냅샷이 있는 서버의 랭킹만 (guildId → 랭킹). 없는 서버는 호출한 쪽에서 집계로 계산
+     */
+    public Map<String, List<RankingDto>> findForGuilds(Collection<String> guildIds, LeaderboardPeriod period,
+                                                       LocalDate periodStart, int limit) {
+        Map<String, List<RankingDto>> rankings = new HashMap<>();
+        if (guildIds.isEmpty()) {
+            return rankings;
+        }
+        List<Long> ids = guildIds.stream().map(Long::parseLong).collect(Collectors.toList());
+        for (Object[] row : rankingSnapshotRepository.findTopForGuilds(ids, period.name(), periodStart, limit)) {
+            rankings.computeIfAbsent(String.valueOf(((Number) row[0]).longValue()), id -> new ArrayList<>())
+                    .add(new RankingDto(String.valueOf(((Number) row[1]).longValue()), ((Number) row[2]).longValue()));
+        }
+        return rankings;
+    }
+
+    /**
+     * 한 서버의 최근 count개 기간의 확정 랭킹 (최신순)
+     */
+    public List<RankingHistoryDto> getHistory(long guildId, LeaderboardPeriod period, int count, int limit) {
+        List<RankingHistoryDto> history = new ArrayList<>();
+        for (Object value : rankingSnapshotRepository.findRecentPeriodStarts(guildId, period.name(), count)) {
+            LocalDate periodStart = LocalDate.parse(value.toString());
+            LocalDate[] window = leaderboardService.windowOf(period, periodStart);
+            List<RankingDto> ranking = toRanking(rankingSnapshotRepository.findTop(guildId, period.name(),
+                    periodStart, limit));
+            history.add(new RankingHistoryDto(period.name().toLowerCase(), window[0], window[1], ranking));
+        }
+        return history;
+    }
+
+    private static List<RankingDto> toRanking(List<Object[]> rows) {
+        return rows.stream()
+                .map(row -> new RankingDto(String.valueOf(((Number) row[0]).longValue()),
+                        ((Number) row[1]).longValue()))
+                .collect(Collectors.toList());
+    }
+}
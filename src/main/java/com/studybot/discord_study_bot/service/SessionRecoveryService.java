@@ -0,0 +1,233 @@
+package com.studybot.discord_study_bot.service;
+
+import com.studybot.discord_study_bot.entity.StudyLog;
+import com.studybot.discord_study_bot.repository.StudyLogRepository;
+import com.studybot.discord_study_bot.session.SessionJournal;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import net.dv8tion.jda.api.JDA;
+import net.dv8tion.jda.api.entities.Guild;
+import net.dv8tion.jda.api.entities.GuildVoiceState;
+import net.dv8tion.jda.api.entities.Member;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 봇 시작 시 세션 상태를 복구하는 서비스
+ * JdaConfig에서 jda.awaitReady() 직후 호출됨. 끝날 때까지 음성 이벤트는 레인에 쌓여 있다가 그 뒤에 처리됨.
+ *
+ * 1. 세션 저널을 재생하여 이전 프로세스에서 열려 있던 세션과 마지막 생존 시각을 구함
+ * 2. DB의 열린 StudyLog(end_time IS NULL)를 한 번에 조회
+ * 3. 모든 길드의 음성 상태 캐시를 병렬로 훑어 현재 화면공유 중인 사용자를 찾고, 지금부터 새 StudyLog를 엶
+ *    (꺼져 있던 동안은 공부 시간으로 인정하지 않음)
+ * 4. 열린 기록은 모두 마지막 생존 시각으로 한 번의 배치 UPDATE로 종료
+ * 5. 저널에만 남은 세션(flush 전에 죽은 경우)은 종료된 기록으로 배치 INSERT
+ *    (이미 저장되었는지는 길드마다 한 번의 조회로 확인, 서버/사용자 이름은 JDA 캐시에 있으면 채움)
+ *    (4, 5에서 닫힌 기록은 같은 트랜잭션에서 일별 집계에도 반영)
+ */
+@Service
+public class SessionRecoveryService {
+
+    private static final Logger logger = LoggerFactory.getLogger(SessionRecoveryService.class);
+
+    private static final String CLOSE_BY_ID_SQL =
+            "UPDATE study_log SET end_time = ? WHERE id = ? AND end_time IS NULL";
+
+    // 저널에만 열려 있는 세션 중 이미 저장된 기록 (idx_study_log_guild_user_start)
+    private static final String FIND_PERSISTED_SQL =
+            "SELECT user_id, start_time FROM study_log WHERE guild_id = ? AND (user_id, start_time) IN (%s)";
+
+    private final SessionJournal sessionJournal;
+    private final StudySessionManager sessionManager;
+    private final StudyLogRepository studyLogRepository;
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final DailyRollupService dailyRollupService;
+    private final Timer guildTimer;
+
+    public SessionRecoveryService(SessionJournal sessionJournal, StudySessionManager sessionManager,
+                                  StudyLogRepository studyLogRepository, JdbcTemplate jdbcTemplate,
+                                  TransactionTemplate transactionTemplate, DailyRollupService dailyRollupService,
+                                  MeterRegistry meterRegistry) {
+        this.sessionJournal = sessionJournal;
+        this.sessionManager = sessionManager;
+        this.studyLogRepository = studyLogRepository;
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = transactionTemplate;
+        this.dailyRollupService = dailyRollupService;
+        this.guildTimer = Timer.builder("session.reconcile.guild")
+                .description("길드별 시작 시 세션 복구 소요 시간")
+                .register(meterRegistry);
+    }
+
+    /**
+     * 시작 시 세션 복구 실행
+     */
+    public void reconcile(JDA jda) {
+        long started = System.nanoTime();
+        LocalDateTime now = LocalDateTime.now().truncatedTo(ChronoUnit.SECONDS);
+
+        // 1. 저널 재생
+        SessionJournal.Replay replay = sessionJournal.replay();
+        LocalDateTime lastAlive = replay.lastAlive() != null && replay.lastAlive().isBefore(now)
+                ? replay.lastAlive() : null;
+        Map<String, LocalDateTime> journalOpen = new HashMap<>();
+        for (SessionJournal.OpenSession open : replay.openSessions()) {
+            journalOpen.put(open.guildId() + ":" + open.userId(), open.startTime());
+        }
+
+        // 2. DB의 열린 기록
+        List<StudyLog> unfinished = studyLogRepository.findByEndTimeIsNull();
+
+        // 3. 길드별 음성 상태를 병렬로 확인: 화면공유 중이면 지금부터 새로 기록
+        List<Object[]> inserts = Collections.synchronizedList(new ArrayList<>());
+        List<LiveSession> liveSessions = Collections.synchronizedList(new ArrayList<>());
+        jda.getGuilds().parallelStream().forEach(guild -> {
+            long guildStarted = System.nanoTime();
+            int streaming = 0;
+            for (GuildVoiceState voiceState : guild.getVoiceStates()) {
+                Member member = voiceState.getMember();
+                if (member.getUser().isBot() || !voiceState.inAudioChannel() || !voiceState.isStream()) {
+                    continue;
+                }
+                streaming++;
+                Long channelId = voiceState.getChannel().getIdLong();
+                inserts.add(new Object[]{guild.getIdLong(), guild.getName(), channelId, member.getIdLong(),
+                        member.getEffectiveName(), Timestamp.valueOf(now), null, Timestamp.valueOf(now)});
+                liveSessions.add(new LiveSession(guild, member, channelId, now));
+            }
+            long elapsed = System.nanoTime() - guildStarted;
+            guildTimer.record(elapsed, TimeUnit.NANOSECONDS);
+            logger.info("[{}] 음성 상태 {}개 중 화면공유 {}명 확인 ({}ms)",
+                    guild.getName(), guild.getVoiceStates().size(), streaming, elapsed / 1_000_000.0);
+        });
+
+        // 4. 열린 기록은 모두 종료: 이전 프로세스가 살아 있던 시각까지만 인정하고, 알 수 없으면 0초로 닫음
+        List<Object[]> closes = new ArrayList<>();
+        List<DailyRollupService.ClosedLog> closedLogs = new ArrayList<>();
+        for (StudyLog log : unfinished) {
+            String key = log.getGuildId() + ":" + log.getUserId();
+            LocalDateTime endTime = closeTime(log.getStartTime(), lastAlive);
+            closes.add(new Object[]{Timestamp.valueOf(endTime), log.getId()});
+            if (log.getGuildId() == null) {
+                // guild_id가 없는 레거시 기록은 닫기만 하고 집계/저널 대상에서 제외
+                closedLogs.add(null);
+                continue;
+            }
+            closedLogs.add(new DailyRollupService.ClosedLog(log.getGuildId(), log.getUserId(),
+                    log.getStartTime(), endTime, log.getChannelId()));
+            if (journalOpen.remove(key) != null) {
+                sessionJournal.recordClose(log.getGuildId(), log.getUserId(), endTime);
+            }
+        }
+
+        // 5. 저널에는 열려 있는데 DB에 열린 기록이 없는 세션: write-behind flush 전에 죽은 경우이므로 종료된 기록으로 새로 넣음
+        List<DailyRollupService.ClosedLog> insertedClosedLogs = new ArrayList<>();
+        Map<Long, Map<Long, LocalDateTime>> journalOnly = new HashMap<>();
+        journalOpen.forEach((key, startTime) -> {
+            String[] ids = key.split(":");
+            journalOnly.computeIfAbsent(Long.parseLong(ids[0]), id -> new HashMap<>())
+                    .put(Long.parseLong(ids[1]), startTime);
+        });
+        journalOnly.forEach((guildId, sessions) -> {
+            Set<Long> persisted = findPersisted(guildId, sessions);
+            Guild guild = jda.getGuildById(guildId);
+            String guildName = guild != null ? guild.getName() : null;
+            sessions.forEach((userId, startTime) -> {
+                LocalDateTime endTime = closeTime(startTime, lastAlive);
+                if (!persisted.contains(userId)) {
+                    Member member = guild != null ? guild.getMemberById(userId) : null;
+                    String userName = member != null ? member.getEffectiveName() : null;
+                    inserts.add(new Object[]{guildId, guildName, null, userId, userName, Timestamp.valueOf(startTime),
+                            Timestamp.valueOf(endTime), Timestamp.valueOf(now)});
+                    insertedClosedLogs.add(new DailyRollupService.ClosedLog(guildId, userId, startTime, endTime, null));
+                }
+                sessionJournal.recordClose(guildId, userId, endTime);
+            });
+        });
+
+        long dbStarted = System.nanoTime();
+        transactionTemplate.executeWithoutResult(status -> {
+            List<DailyRollupService.ClosedLog> rollup = new ArrayList<>(insertedClosedLogs);
+            if (!closes.isEmpty()) {
+                int[] updated = jdbcTemplate.batchUpdate(CLOSE_BY_ID_SQL, closes);
+                for (int i = 0; i < updated.length; i++) {
+                    if (updated[i] != 0 && closedLogs.get(i) != null) {
+                        rollup.add(closedLogs.get(i));
+                    }
+                }
+            }
+            if (!inserts.isEmpty()) {
+                jdbcTemplate.batchUpdate(StudyLogWriteBehindService.INSERT_SQL, inserts);
+            }
+            dailyRollupService.addClosedLogs(rollup);
+        });
+        long dbElapsed = System.nanoTime() - dbStarted;
+
+        // DB 반영 후 메모리 세션 복원 (이전 기록은 위에서 닫았으므로 저널에는 새로 연 기록만 남음)
+        for (LiveSession live : liveSessions) {
+            long guildId = live.guild().getIdLong();
+            long userId = live.member().getIdLong();
+            sessionJournal.recordOpen(guildId, userId, live.startTime());
+            sessionManager.resumeScreenShare(guildId, live.guild().getName(), live.channelId(), userId,
+                    live.member().getEffectiveName(), live.startTime(), true);
+        }
+
+        try {
+            sessionJournal.compact();
+        } catch (Exception e) {
+            logger.warn("세션 저널 compaction 실패", e);
+        }
+
+        logger.info("세션 복구 완료: 길드 {}개, 새로 시작 {}명, 열린 기록 종료 {}개, 저널에서 복구 {}개 " +
+                        "(마지막 생존 시각 {}, DB {}ms, 전체 {}ms)",
+                jda.getGuilds().size(), liveSessions.size(), closes.size(), insertedClosedLogs.size(), lastAlive,
+                dbElapsed / 1_000_000, (System.nanoTime() - started) / 1_000_000);
+    }
+
+    /**
+     * 이전 프로세스가 남긴 기록의 종료 시각: 마지막 생존 시각 (알 수 없거나 시작 전이면 시작 시각 = 0초)
+     */
+    private static LocalDateTime closeTime(LocalDateTime startTime, LocalDateTime lastAlive) {
+        return lastAlive != null && lastAlive.isAfter(startTime) ? lastAlive : startTime;
+    }
+
+    /**
+     * 저널에만 열려 있는 세션 중 같은 시작 시각의 기록이 이미 저장된 사용자 (길드마다 한 번 조회)
+     */
+    private Set<Long> findPersisted(long guildId, Map<Long, LocalDateTime> sessions) {
+        List<Object> args = new ArrayList<>(sessions.size() * 2 + 1);
+        args.add(guildId);
+        sessions.forEach((userId, startTime) -> {
+            args.add(userId);
+            args.add(Timestamp.valueOf(startTime));
+        });
+        String placeholders = String.join(", ", Collections.nCopies(sessions.size(), "(?, ?)"));
+        Set<Long> persisted = new HashSet<>();
+        jdbcTemplate.query(String.format(FIND_PERSISTED_SQL, placeholders), rs -> {
+            long userId = rs.getLong(1);
+            if (sessions.get(userId).equals(rs.getTimestamp(2).toLocalDateTime())) {
+                persisted.add(userId);
+            }
+        }, args.toArray());
+        return persisted;
+    }
+
+    private record LiveSession(Guild guild, Member member, Long channelId, LocalDateTime startTime) {
+    }
+}
@@ -1,12 +1,12 @@
 package com.studybot.discord_study_bot.service;
 
 import com.studybot.discord_study_bot.i18n.MessageProvider;
+import com.studybot.discord_study_bot.live.LiveEventHub;
 import com.studybot.discord_study_bot.pomodoro.PomodoroState;
 import com.studybot.discord_study_bot.pomodoro.SharedPomodoroSession;
 import net.dv8tion.jda.api.EmbedBuilder;
 import net.dv8tion.jda.api.JDA;
 import net.dv8tion.jda.api.entities.Guild;
-import net.dv8tion.jda.api.entities.Member;
 import net.dv8tion.jda.api.entities.channel.concrete.TextChannel;
 import net.dv8tion.jda.api.entities.channel.concrete.VoiceChannel;
 import net.dv8tion.jda.api.interactions.components.buttons.Button;
@@ -16,6 +16,7 @@ import org.springframework.context.annotation.Lazy;
 import org.springframework.stereotype.Service;
 
 import java.awt.*;
+import java.util.List;
 import java.util.Map;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.Executors;
@@ -31,6 +32,8 @@ public class SharedPomodoroService {
     private static final Logger logger = LoggerFactory.getLogger(SharedPomodoroService.class);
     private final JDA jda;
     private final StudySessionManager sessionManager;
+    private final MemberNameCache memberNameCache;
+    private final LiveEventHub liveEventHub;
     private final ScheduledExecutorService scheduler = Executors.newScheduledThreadPool(3);
 
     // Key: channelId (음성 채널 ID), Value: SharedPomodoroSession
@@ -39,9 +42,12 @@ public class SharedPomodoroService {
     /**
      * 생성자 - JDA는 지연 로딩하여 순환 의존성 방지
      */
-    public SharedPomodoroService(@Lazy JDA jda, StudySessionManager sessionManager) {
+    public SharedPomodoroService(@Lazy JDA jda, StudySessionManager sessionManager, MemberNameCache memberNameCache,
+                                 LiveEventHub liveEventHub) {
         this.jda = jda;
         this.sessionManager = sessionManager;
+        this.memberNameCache = memberNameCache;
+        this.liveEventHub = liveEventHub;
     }
 
     /**
@@ -71,6 +77,7 @@ public class SharedPomodoroService {
 
         // 타이머 시작
         startTimerTick(session);
+        publishPhase(session, session.getState().name());
     }
 
     /**
@@ -86,13 +93,14 @@ public class SharedPomodoroService {
 
             // 모든 참여자의 뽀모도로 세션 종료
             for (String userId : session.getParticipants()) {
-                sessionManager.pausePomodoro(session.getGuildId(), userId, userId);
+                sessionManager.pausePomodoro(Long.parseLong(session.getGuildId()), Long.parseLong(userId), userId);
             }
 
             // 메시지를 "중지됨" 상태로 업데이트
             updateStoppedTimerMessage(session, "ko");
 
             activeTimers.remove(voiceChannelId);
+            publishPhase(session, "STOPPED");
             logger.info("[채널 ID: {}] 공유 뽀모도로 중지", voiceChannelId);
         }
     }
@@ -134,7 +142,8 @@ public class SharedPomodoroService {
 
             // 공부 시간일 때만 StudyLog 시작
             if (session.getState() == PomodoroState.STUDY) {
-                sessionManager.startPomodoroStudy(session.getGuildId(), guildName, userId, userName);
+                sessionManager.startPomodoroStudy(Long.parseLong(session.getGuildId()), guildName,
+                        Long.parseLong(session.getChannelId()), Long.parseLong(userId), userName);
             }
 
             logger.info("{}님이 공유 뽀모도로에 참여했습니다.", userName);
@@ -153,7 +162,7 @@ public class SharedPomodoroService {
             session.removeParticipant(userId);
 
             // StudyLog 종료
-            sessionManager.pausePomodoro(session.getGuildId(), userId, userName);
+            sessionManager.pausePomodoro(Long.parseLong(session.getGuildId()), Long.parseLong(userId), userName);
 
             logger.info("{}님이 공유 뽀모도로에서 나갔습니다.", userName);
             
@@ -186,6 +195,7 @@ public class SharedPomodoroService {
         SharedPomodoroSession session = activeTimers.get(voiceChannelId);
         if (session != null && session.getState() != PomodoroState.PAUSED) {
             session.setState(PomodoroState.PAUSED);
+            publishPhase(session, PomodoroState.PAUSED.name());
             
             // 타이머 중지 (스케줄러는 유지)
             logger.info("[채널 ID: {}] 공유 뽀모도로 일시정지", voiceChannelId);
@@ -203,15 +213,17 @@ public class SharedPomodoroService {
         if (session != null && session.getState() == PomodoroState.PAUSED) {
             session.setState(previousState);
             session.setPhaseStartTime(java.time.LocalDateTime.now());
+            publishPhase(session, previousState.name());
             
             // 공부 시간으로 재개되면 모든 참여자의 StudyLog 시작
             if (previousState == PomodoroState.STUDY) {
                 Guild guild = jda.getGuildById(session.getGuildId());
                 if (guild != null) {
+                    Map<Long, String> names = memberNameCache.resolveCachedNames(guild, participantIds(session));
                     for (String userId : session.getParticipants()) {
-                        Member member = guild.retrieveMemberById(userId).complete();
-                        sessionManager.startPomodoroStudy(session.getGuildId(), 
-                            session.getGuildId(), userId, member.getEffectiveName());
+                        String userName = names.getOrDefault(Long.parseLong(userId), userId);
+                        sessionManager.startPomodoroStudy(Long.parseLong(session.getGuildId()), 
+                            session.getGuildId(), Long.parseLong(session.getChannelId()), Long.parseLong(userId), userName);
                     }
                 }
                 logger.info("[채널 ID: {}] 공부 시간 재개, 모든 참여자 StudyLog 시작", voiceChannelId);
@@ -272,7 +284,7 @@ public class SharedPomodoroService {
             // 공부 완료 → 휴식
             for (String userId : session.getParticipants()) {
                 session.completeSet(userId);
-                sessionManager.pausePomodoro(session.getGuildId(), userId, userId);
+                sessionManager.pausePomodoro(Long.parseLong(session.getGuildId()), Long.parseLong(userId), userId);
             }
 
             session.nextPhase();
@@ -289,10 +301,11 @@ public class SharedPomodoroService {
                 // 자동 시작
                 Guild guild = jda.getGuildById(session.getGuildId());
                 if (guild != null) {
+                    Map<Long, String> names = memberNameCache.resolveCachedNames(guild, participantIds(session));
                     for (String userId : session.getParticipants()) {
-                        Member member = guild.retrieveMemberById(userId).complete();
-                        sessionManager.startPomodoroStudy(session.getGuildId(), 
-                            session.getGuildId(), userId, member.getEffectiveName());
+                        String userName = names.getOrDefault(Long.parseLong(userId), userId);
+                        sessionManager.startPomodoroStudy(Long.parseLong(session.getGuildId()), 
+                            session.getGuildId(), Long.parseLong(session.getChannelId()), Long.parseLong(userId), userName);
                     }
                 }
                 logger.info("자동 시작: 공부 시간 시작");
@@ -302,9 +315,18 @@ public class SharedPomodoroService {
             }
         }
 
+        publishPhase(session, session.getState().name());
         updateSharedTimerMessage(session, lang);
     }
 
+    /**
+     * 실시간 구독자에게 단계 변경 알림
+     */
+    private void publishPhase(SharedPomodoroSession session, String state) {
+        liveEventHub.publishPomodoro(Long.parseLong(session.getGuildId()), session.getChannelId(), state,
+                session.getCurrentSet(), session.getRemainingSeconds());
+    }
+
     /**
      * 단계 완료 알림 전송
      */
@@ -444,17 +466,19 @@ public class SharedPomodoroService {
 
             Guild guild = jda.getGuildById(session.getGuildId());
             if (guild != null) {
+                // 타이머 스레드/버튼 이벤트 스레드에서 호출되므로 게이트웨이 응답을 기다리지 않고 캐시된 이름만 사용
+                Map<Long, String> names = memberNameCache.resolveCachedNames(guild, participantIds(session));
                 for (String userId : session.getParticipants()) {
-                    try {
-                        Member member = guild.retrieveMemberById(userId).complete();
-                        String screenShareIcon = session.getScreenShareStatus().getOrDefault(userId, false) ? " 🎥" : "";
-                        int completedSets = session.getCompletedSets().getOrDefault(userId, 0);
-                        
-                        participants.append(String.format("• %s%s (%d세트 완료)\n", 
-                            member.getEffectiveName(), screenShareIcon, completedSets));
-                    } catch (Exception e) {
+                    String userName = names.get(Long.parseLong(userId));
+                    if (userName == null) {
                         logger.warn("멤버 정보 조회 실패: {}", userId);
+                        continue;
                     }
+                    String screenShareIcon = session.getScreenShareStatus().getOrDefault(userId, false) ? " 🎥" : "";
+                    int completedSets = session.getCompletedSets().getOrDefault(userId, 0);
+
+                    participants.append(String.format("• %s%s (%d세트 완료)\n", 
+                        userName, screenShareIcon, completedSets));
                 }
             }
 
@@ -467,4 +491,7 @@ public class SharedPomodoroService {
         return eb;
     }
 
+    private List<Long> participantIds(SharedPomodoroSession session) {
+        return session.getParticipants().stream().map(Long::parseLong).toList();
+    }
 }
@@ -0,0 +1,129 @@
+package com.studybot.discord_study_bot.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Service;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+/**
+ * 통계 API의 DB 조회 실행기
+ * 컨트롤러는 CompletableFuture를 반환해 Tomcat 스레드를 바로 돌려주고,
+ * 한 응답에 필요한 서로 독립적인 조회는 여기서 동시에 실행한다.
+ *
+ * - 전용 스레드 풀(threads)과 대기 큐(queue-capacity)는 고정 크기. 큐가 가득 차면 503
+ * - 동시에 DB를 쓰는 조회는 max-db-concurrency개까지 (Hikari 풀 크기보다 작게 두어
+ *   통계 요청이 몰려도 음성 이벤트 기록/리더보드가 쓸 커넥션이 남도록)
+ * - 허가를 acquire-timeout-ms 안에 얻지 못하면 503
+ */
+@Service
+public class StatisticsQueryExecutor {
+
+    private final ThreadPoolExecutor executor;
+    private final Semaphore dbPermits;
+    private final long acquireTimeoutMs;
+
+    // 메트릭
+    private final Timer permitWaitTimer;
+    private final Timer queryTimer;
+    private final Counter rejectedCounter;
+
+    public StatisticsQueryExecutor(MeterRegistry meterRegistry,
+                                   @Value("${statistics-query.threads:16}") int threads,
+                                   @Value("${statistics-query.queue-capacity:1000}") int queueCapacity,
+                                   @Value("${statistics-query.max-db-concurrency:8}") int maxDbConcurrency,
+                                   @Value("${statistics-query.acquire-timeout-ms:5000}") long acquireTimeoutMs) {
+        AtomicInteger index = new AtomicInteger();
+        int poolSize = Math.max(1, threads);
+        this.executor = new ThreadPoolExecutor(poolSize, poolSize, 60, TimeUnit.SECONDS,
+                new ArrayBlockingQueue<>(Math.max(1, queueCapacity)), runnable -> {
+            Thread thread = new Thread(runnable, "statistics-query-" + index.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.executor.allowCoreThreadTimeOut(true);
+        this.dbPermits = new Semaphore(Math.max(1, maxDbConcurrency), true);
+        this.acquireTimeoutMs = acquireTimeoutMs;
+
+        this.permitWaitTimer = Timer.builder("statistics_query.permit.wait")
+                .description("DB 조회 허가를 기다린 시간")
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+        this.queryTimer = Timer.builder("statistics_query.latency")
+                .description("통계 DB 조회 한 건의 실행 시간")
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+        this.rejectedCounter = Counter.builder("statistics_query.rejected")
+                .description("큐가 가득 찼거나 허가를 얻지 못해 거절된 조회 수")
+                .register(meterRegistry);
+        Gauge.builder("statistics_query.queue.size", executor, e -> e.getQueue().size())
+                .description("실행을 기다리는 통계 조회 수")
+                .register(meterRegistry);
+        Gauge.builder("statistics_query.db.in_use", dbPermits,
+                        permits -> Math.max(1, maxDbConcurrency) - permits.availablePermits())
+                .description("지금 DB를 쓰고 있는 통계 조회 수")
+                .register(meterRegistry);
+    }
+
+    /**
+     * 조회를 전용 스레드에서 DB 허가를 얻은 뒤 실행
+     * 실패하면 future가 예외로 완료됨 (큐/허가 초과는 503 ResponseStatusException)
+     */
+    public <T> CompletableFuture<T> submit(Supplier<T> query) {
+        try {
+            return CompletableFuture.supplyAsync(() -> callWithPermit(query), executor);
+        } catch (RejectedExecutionException e) {
+            rejectedCounter.increment();
+            return CompletableFuture.failedFuture(busy());
+        }
+    }
+
+    /**
+     * 호출한 스레드에서 DB 허가를 얻은 뒤 조회 실행 (이미 별도 스레드에서 도는 스트리밍 응답 등)
+     * 허가를 얻지 못하면 503 ResponseStatusException
+     */
+    public <T> T callWithPermit(Supplier<T> query) {
+        long waitStarted = System.nanoTime();
+        try {
+            if (!dbPermits.tryAcquire(acquireTimeoutMs, TimeUnit.MILLISECONDS)) {
+                rejectedCounter.increment();
+                throw busy();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw busy();
+        } finally {
+            permitWaitTimer.record(System.nanoTime() - waitStarted, TimeUnit.NANOSECONDS);
+        }
+
+        long started = System.nanoTime();
+        try {
+            return query.get();
+        } finally {
+            dbPermits.release();
+            queryTimer.record(System.nanoTime() - started, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    private static ResponseStatusException busy() {
+        return new ResponseStatusException(HttpStatus.SERVICE_UNAVAILABLE, "통계 요청이 많아 잠시 후 다시 시도해 주세요.");
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdown();
+    }
+}
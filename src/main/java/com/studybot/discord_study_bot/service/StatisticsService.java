@@ -1,231 +1,199 @@
 package com.studybot.discord_study_bot.service;
 
+import com.studybot.discord_study_bot.contribution.ContributionYear;
 import com.studybot.discord_study_bot.dto.ContributionHeatmapDto;
+import com.studybot.discord_study_bot.dto.GuildHeatmapDto;
 import com.studybot.discord_study_bot.dto.HeatmapDto;
 import com.studybot.discord_study_bot.dto.PersonalStatsDto;
 import com.studybot.discord_study_bot.dto.StreakDto;
+import com.studybot.discord_study_bot.entity.StudyLog;
+import com.studybot.discord_study_bot.entity.StudyStreak;
+import com.studybot.discord_study_bot.repository.StudyDailyAggRepository;
+import com.studybot.discord_study_bot.repository.StudyHourAggRepository;
 import com.studybot.discord_study_bot.repository.StudyLogRepository;
 import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Service;
 
-import java.math.BigDecimal;
-import java.sql.Date;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.util.ArrayList;
-import java.util.HashMap;
 import java.util.List;
-import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
 import java.util.stream.Collectors;
 
+/**
+ * 웹 통계 조회
+ * 모든 조회는 StatisticsQueryExecutor에서 실행되고, 한 응답에 필요한 독립적인 조회는 동시에 실행됨
+ */
 @Service
 @RequiredArgsConstructor
 public class StatisticsService {
 
     private final StudyLogRepository studyLogRepository;
+    private final StudyDailyAggRepository studyDailyAggRepository;
+    private final StudyHourAggRepository studyHourAggRepository;
+    private final StudyStreakService studyStreakService;
+    private final ContributionCache contributionCache;
+    private final StatisticsQueryExecutor queryExecutor;
+    private final GuildTimeZoneService guildTimeZoneService;
 
     /**
      * 개인 통계 조회
+     * 일별 공부 시간과 최근 기록(이름, 서버 이름)을 동시에 조회
      */
-    public PersonalStatsDto getPersonalStats(String guildId, String userId, LocalDateTime start, LocalDateTime end) {
-        // 일별 공부 시간 조회
-        List<Object[]> dailyData = studyLogRepository.findDailyStudyTime(guildId, userId, start, end);
-
-        List<PersonalStatsDto.DailyStudyDto> dailyStats = dailyData.stream()
-                .map(data -> {
-                    String date = data[0].toString();
-                    Long studyTime = data[1] != null ? ((BigDecimal) data[1]).longValue() : 0L;
-                    return new PersonalStatsDto.DailyStudyDto(date, studyTime);
-                })
-                .collect(Collectors.toList());
-
-        // 총 공부 시간 계산
-        Long totalStudyTime = dailyStats.stream()
-                .mapToLong(PersonalStatsDto.DailyStudyDto::getStudyTime)
-                .sum();
-
+    public CompletableFuture<PersonalStatsDto> getPersonalStats(String guildId, String userId, LocalDateTime start,
+                                                                LocalDateTime end) {
+        long guild = Long.parseLong(guildId);
+        long user = Long.parseLong(userId);
+
+        // 일별 공부 시간 조회 (일별 집계 테이블)
+        CompletableFuture<List<Object[]>> dailyData = queryExecutor.submit(() ->
+                studyDailyAggRepository.findDailyStudyTime(guild, user, start.toLocalDate(), end.toLocalDate()));
         // 사용자 이름 및 길드 이름 조회 (최근 레코드에서)
-        String userName = studyLogRepository.findTopByGuildIdAndUserIdOrderByIdDesc(guildId, userId)
-                .map(log -> log.getUserName())
-                .orElse(null);
-
-        String guildName = studyLogRepository.findTopByGuildIdAndUserIdOrderByIdDesc(guildId, userId)
-                .map(log -> log.getGuildName())
-                .orElse(null);
-
-        return new PersonalStatsDto(userId, userName, guildId, guildName, totalStudyTime, dailyStats);
+        CompletableFuture<Optional<StudyLog>> latestLog = findLatestLog(guild, user);
+
+        return dailyData.thenCombine(latestLog, (data, log) -> {
+            List<PersonalStatsDto.DailyStudyDto> dailyStats = data.stream()
+                    .map(row -> {
+                        String date = row[0].toString();
+                        Long studyTime = row[1] != null ? ((Number) row[1]).longValue() : 0L;
+                        return new PersonalStatsDto.DailyStudyDto(date, studyTime);
+                    })
+                    .collect(Collectors.toList());
+
+            // 총 공부 시간 계산
+            Long totalStudyTime = dailyStats.stream()
+                    .mapToLong(PersonalStatsDto.DailyStudyDto::getStudyTime)
+                    .sum();
+
+            String userName = log.map(StudyLog::getUserName).orElse(null);
+            String guildName = log.map(StudyLog::getGuildName).orElse(null);
+            return new PersonalStatsDto(userId, userName, guildId, guildName, totalStudyTime, dailyStats);
+        });
     }
 
     /**
      * 히트맵 데이터 조회
      */
-    public HeatmapDto getHeatmap(String guildId, String userId) {
-        List<Object[]> heatmapData = studyLogRepository.findStudyPatternHeatmap(guildId, userId);
-
-        List<HeatmapDto.HeatmapCell> cells = heatmapData.stream()
-                .map(data -> {
-                    int hour = ((Number) data[0]).intValue();
-                    int dayOfWeek = ((Number) data[1]).intValue();
-                    long count = ((Number) data[2]).longValue();
-                    return new HeatmapDto.HeatmapCell(hour, dayOfWeek, count);
-                })
-                .collect(Collectors.toList());
-
-        // 사용자 이름 조회
-        String userName = studyLogRepository.findTopByGuildIdAndUserIdOrderByIdDesc(guildId, userId)
-                .map(log -> log.getUserName())
-                .orElse(null);
-
-        return new HeatmapDto(userId, userName, cells);
+    public CompletableFuture<HeatmapDto> getHeatmap(String guildId, String userId) {
+        long guild = Long.parseLong(guildId);
+        long user = Long.parseLong(userId);
+
+        CompletableFuture<List<Object[]>> heatmapData = queryExecutor.submit(() ->
+                studyLogRepository.findStudyPatternHeatmap(guild, user));
+
+        return heatmapData.thenCombine(findUserName(guild, user), (data, userName) -> {
+            List<HeatmapDto.HeatmapCell> cells = data.stream()
+                    .map(row -> {
+                        int hour = ((Number) row[0]).intValue();
+                        int dayOfWeek = ((Number) row[1]).intValue();
+                        long count = ((Number) row[2]).longValue();
+                        return new HeatmapDto.HeatmapCell(hour, dayOfWeek, count);
+                    })
+                    .collect(Collectors.toList());
+            return new HeatmapDto(userId, userName, cells);
+        });
     }
 
     /**
-     * 연속 기록(Streak) 조회
+     * 서버 시간대 히트맵 조회 (시간대 히트맵 집계 테이블)
+     * 채널을 지정하지 않으면 모든 채널을 합산하고 채널별 합계도 함께 조회
+     *
+     * @param channelId 음성 채널 ID (null이면 서버 전체)
      */
-    public StreakDto getStreak(String guildId, String userId) {
-        // 최근 1년 데이터 조회
-        LocalDateTime oneYearAgo = LocalDateTime.now().minusYears(1);
-        List<String> studyDates = studyLogRepository.findStudyDates(guildId, userId, oneYearAgo);
-
-        // 사용자 이름 조회
-        String userName = studyLogRepository.findTopByGuildIdAndUserIdOrderByIdDesc(guildId, userId)
-                .map(log -> log.getUserName())
-                .orElse(null);
-
-        if (studyDates.isEmpty()) {
-            return new StreakDto(userId, userName, 0, 0, studyDates);
-        }
-
-        // 현재 연속 기록 계산
-        int currentStreak = calculateCurrentStreak(studyDates);
+    public CompletableFuture<GuildHeatmapDto> getGuildHeatmap(String guildId, String channelId) {
+        long guild = Long.parseLong(guildId);
 
-        // 최장 연속 기록 계산
-        int longestStreak = calculateLongestStreak(studyDates);
+        if (channelId != null) {
+            long channel = Long.parseLong(channelId);
+            return queryExecutor.submit(() -> studyHourAggRepository.findChannelHeatmap(guild, channel))
+                    .thenApply(data -> new GuildHeatmapDto(guildId, channelId, toGuildHeatmapCells(data), null));
+        }
 
-        return new StreakDto(userId, userName, currentStreak, longestStreak, studyDates);
+        CompletableFuture<List<Object[]>> heatmapData = queryExecutor.submit(() ->
+                studyHourAggRepository.findGuildHeatmap(guild));
+        CompletableFuture<List<Object[]>> channelData = queryExecutor.submit(() ->
+                studyHourAggRepository.findChannelTotals(guild));
+
+        return heatmapData.thenCombine(channelData, (data, totals) -> {
+            List<GuildHeatmapDto.ChannelTotal> channels = totals.stream()
+                    .map(row -> new GuildHeatmapDto.ChannelTotal(row[0].toString(), ((Number) row[1]).longValue()))
+                    .collect(Collectors.toList());
+            return new GuildHeatmapDto(guildId, null, toGuildHeatmapCells(data), channels);
+        });
     }
 
     /**
-     * 현재 연속 기록 계산 (오늘 또는 어제부터 역순으로)
+     * [요일, 시간, 초] 행을 168칸으로 펼침 (없는 칸은 0)
      */
-    private int calculateCurrentStreak(List<String> studyDates) {
-        if (studyDates.isEmpty()) {
-            return 0;
+    private static List<GuildHeatmapDto.HeatmapCell> toGuildHeatmapCells(List<Object[]> data) {
+        long[] seconds = new long[7 * 24];
+        for (Object[] row : data) {
+            int dayOfWeek = ((Number) row[0]).intValue();
+            int hour = ((Number) row[1]).intValue();
+            seconds[(dayOfWeek - 1) * 24 + hour] += ((Number) row[2]).longValue();
         }
-
-        LocalDate today = LocalDate.now();
-        LocalDate lastDate = LocalDate.parse(studyDates.get(studyDates.size() - 1));
-
-        // 마지막 공부 날짜가 오늘이나 어제가 아니면 연속 기록 끊김
-        if (lastDate.isBefore(today.minusDays(1))) {
-            return 0;
+        List<GuildHeatmapDto.HeatmapCell> cells = new ArrayList<>(seconds.length);
+        for (int i = 0; i < seconds.length; i++) {
+            cells.add(new GuildHeatmapDto.HeatmapCell(i % 24, i / 24 + 1, seconds[i]));
         }
-
-        int streak = 0;
-        LocalDate checkDate = lastDate;
-
-        for (int i = studyDates.size() - 1; i >= 0; i--) {
-            LocalDate studyDate = LocalDate.parse(studyDates.get(i));
-
-            if (studyDate.equals(checkDate)) {
-                streak++;
-                checkDate = checkDate.minusDays(1);
-            } else if (studyDate.isBefore(checkDate)) {
-                // 날짜가 연속되지 않으면 중단
-                break;
-            }
-        }
-
-        return streak;
+        return cells;
     }
 
     /**
-     * 최장 연속 기록 계산
+     * 연속 기록(Streak) 조회
+     * 현재/최장 연속 기록은 닫힐 때마다 갱신되는 study_streak에서 한 행만 읽음
      */
-    private int calculateLongestStreak(List<String> studyDates) {
-        if (studyDates.isEmpty()) {
-            return 0;
-        }
-
-        int maxStreak = 1;
-        int currentStreak = 1;
-
-        for (int i = 1; i < studyDates.size(); i++) {
-            LocalDate prevDate = LocalDate.parse(studyDates.get(i - 1));
-            LocalDate currDate = LocalDate.parse(studyDates.get(i));
-
-            if (currDate.equals(prevDate.plusDays(1))) {
-                currentStreak++;
-                maxStreak = Math.max(maxStreak, currentStreak);
-            } else {
-                currentStreak = 1;
+    public CompletableFuture<StreakDto> getStreak(String guildId, String userId) {
+        long guild = Long.parseLong(guildId);
+        long user = Long.parseLong(userId);
+        LocalDate today = guildTimeZoneService.today(guild);
+
+        // 최근 1년 공부한 날짜 (일별 집계)
+        CompletableFuture<List<String>> studyDates = queryExecutor.submit(() ->
+                studyDailyAggRepository.findStudyDays(guild, user, today.minusYears(1), today)
+                        .stream()
+                        .map(Object::toString)
+                        .collect(Collectors.toList()));
+        CompletableFuture<Optional<StudyStreak>> streak = queryExecutor.submit(() ->
+                studyStreakService.find(guild, user));
+        CompletableFuture<String> userName = findUserName(guild, user);
+
+        // 세 조회가 모두 끝난 뒤에 실행되므로 join()은 기다리지 않음
+        return CompletableFuture.allOf(studyDates, streak, userName).thenApply(ignored -> {
+            Optional<StudyStreak> stored = streak.join();
+            if (stored.isEmpty()) {
+                return new StreakDto(userId, userName.join(), 0, 0, studyDates.join());
             }
-        }
 
-        return maxStreak;
+            return new StreakDto(userId, userName.join(), StudyStreakService.currentStreak(stored.get(), today),
+                    stored.get().getLongestStreak(), studyDates.join());
+        });
     }
 
     /**
      * GitHub 스타일 Contribution 히트맵 조회
+     * 최근 1년 일별 공부 시간은 ContributionCache에 배열 형태로 캐시됨
      */
-    public ContributionHeatmapDto getContributionHeatmap(String guildId, String userId) {
-        // 최근 1년 데이터 조회
-        LocalDateTime oneYearAgo = LocalDateTime.now().minusYears(1);
-        LocalDateTime now = LocalDateTime.now();
-
-        List<Object[]> dailyData = studyLogRepository.findDailyStudyTime(guildId, userId, oneYearAgo, now);
-
-        // 날짜별 공부 시간을 Map으로 변환
-        Map<String, Long> studyTimeMap = new HashMap<>();
-        for (Object[] data : dailyData) {
-            String date = data[0].toString();
-            Long studyTime = data[1] != null ? ((BigDecimal) data[1]).longValue() : 0L;
-            studyTimeMap.put(date, studyTime);
-        }
-
-        // 최근 1년 전체 날짜를 생성하고 contribution 데이터 생성
-        List<ContributionHeatmapDto.DailyContribution> contributions = new ArrayList<>();
-        LocalDate startDate = oneYearAgo.toLocalDate();
-        LocalDate endDate = now.toLocalDate();
+    public CompletableFuture<ContributionHeatmapDto> getContributionHeatmap(String guildId, String userId) {
+        long guild = Long.parseLong(guildId);
+        long user = Long.parseLong(userId);
 
-        for (LocalDate date = startDate; !date.isAfter(endDate); date = date.plusDays(1)) {
-            String dateStr = date.toString();
-            Long studyTime = studyTimeMap.getOrDefault(dateStr, 0L);
-            int level = calculateLevel(studyTime);
-
-            contributions.add(new ContributionHeatmapDto.DailyContribution(dateStr, studyTime, level));
-        }
-
-        // 사용자 이름 조회
-        String userName = studyLogRepository.findTopByGuildIdAndUserIdOrderByIdDesc(guildId, userId)
-                .map(log -> log.getUserName())
-                .orElse(null);
-
-        return new ContributionHeatmapDto(userId, userName, contributions);
+        CompletableFuture<ContributionYear> year = queryExecutor.submit(() -> contributionCache.get(guild, user));
+        return year.thenCombine(findUserName(guild, user),
+                (contributions, userName) -> new ContributionHeatmapDto(userId, userName, contributions));
     }
 
     /**
-     * 공부 시간(초)에 따라 레벨 계산 (GitHub 스타일)
-     * 
-     * @param studyTimeInSeconds 공부 시간 (초)
-     * @return 0 (없음) ~ 4 (매우 많음)
+     * 사용자의 이름이 남아 있는 가장 최근 StudyLog (이름, 서버 이름 표시용)
      */
-    private int calculateLevel(Long studyTimeInSeconds) {
-        if (studyTimeInSeconds == 0) {
-            return 0;
-        }
+    private CompletableFuture<Optional<StudyLog>> findLatestLog(long guildId, long userId) {
+        return queryExecutor.submit(() ->
+                studyLogRepository.findTopByGuildIdAndUserIdAndUserNameIsNotNullOrderByIdDesc(guildId, userId));
+    }
 
-        // 시간 단위로 변환
-        double hours = studyTimeInSeconds / 3600.0;
-
-        if (hours < 1.0) {
-            return 1; // 1시간 미만
-        } else if (hours < 2.0) {
-            return 2; // 1~2시간
-        } else if (hours < 4.0) {
-            return 3; // 2~4시간
-        } else {
-            return 4; // 4시간 이상
-        }
+    private CompletableFuture<String> findUserName(long guildId, long userId) {
+        return findLatestLog(guildId, userId).thenApply(log -> log.map(StudyLog::getUserName).orElse(null));
     }
 }
@@ -0,0 +1,148 @@
+package com.studybot.discord_study_bot.service;
+
+import com.studybot.discord_study_bot.entity.StudyDailyAgg;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 통계 API 조건부 요청(ETag / Last-Modified)용 버전 관리
+ * (서버, 유저)마다 기록이 닫혀 커밋될 때 올라가는 버전을 메모리에 두어
+ * If-None-Match가 맞으면 DB를 읽지 않고 304로 응답할 수 있게 한다.
+ *
+ * - 버전이 없는 사용자는 0 (시작 후 닫힌 기록이 없음)
+ * - ETag에 시작 시각을 넣어 재시작 전에 받은 ETag는 맞지 않도록 함
+ * - 집계를 통째로 다시 만들면 모든 버전을 올림 (advanceAll)
+ */
+@Service
+public class StatisticsVersionTracker {
+
+    private final long bootMillis = System.currentTimeMillis();
+    private final Map<Key, Stamp> stamps = new ConcurrentHashMap<>();
+    // advanceAll 이후에는 모든 사용자가 이 값 이상의 버전을 가짐 (버전 변경은 이 객체로 동기화)
+    private volatile Stamp floor = new Stamp(0L, bootMillis);
+
+    // 메트릭
+    private final Counter notModifiedCounter;
+    private final Counter fullCounter;
+
+    public StatisticsVersionTracker(MeterRegistry meterRegistry) {
+        this.notModifiedCounter = requestCounter(meterRegistry, "not_modified");
+        this.fullCounter = requestCounter(meterRegistry, "full");
+        Gauge.builder("statistics.conditional.not_modified_ratio", this, StatisticsVersionTracker::notModifiedRatio)
+                .description("통계 API 요청 중 304로 응답한 비율")
+                .register(meterRegistry);
+        Gauge.builder("statistics.versions.size", stamps, Map::size)
+                .description("버전을 기록 중인 (서버, 유저) 수")
+                .register(meterRegistry);
+    }
+
+    private static Counter requestCounter(MeterRegistry meterRegistry, String result) {
+        return Counter.builder("statistics.conditional.requests")
+                .description("통계 API 요청 수 (304 / 전체 응답)")
+                .tag("result", result)
+                .register(meterRegistry);
+    }
+
+    /**
+     * 현재 버전
+     *
+     * @param version      기록이 닫힐 때마다 증가
+     * @param lastModified 마지막으로 증가한 시각 (epoch millis)
+     */
+    public record Stamp(long version, long lastModified) {
+    }
+
+    public Stamp current(long guildId, long userId) {
+        Stamp stamp = stamps.get(new Key(guildId, userId));
+        Stamp min = floor;
+        return stamp != null && stamp.version() > min.version() ? stamp : min;
+    }
+
+    /**
+     * 응답에 쓸 ETag
+     *
+     * @param variant 같은 URL의 다른 표현(JSON / 바이너리 등)이나 날짜처럼 버전 외에 응답을 바꾸는 값
+     */
+    public String etag(Stamp stamp, String variant) {
+        return "\"" + Long.toHexString(bootMillis) + "-" + stamp.version() + "-" + variant + "\"";
+    }
+
+    /**
+     * 응답에 쓸 Last-Modified
+     * 오늘 날짜에 따라 결과가 바뀌는 API는 오늘 0시(서버 시간대 기준)보다 이전일 수 없음
+     */
+    public long lastModified(Stamp stamp, boolean dependsOnToday, ZoneId zone) {
+        if (!dependsOnToday) {
+            return stamp.lastModified();
+        }
+        long startOfToday = LocalDate.now(zone).atStartOfDay(zone).toInstant().toEpochMilli();
+        return Math.max(stamp.lastModified(), startOfToday);
+    }
+
+    /**
+     * 조건부 요청 결과 기록
+     */
+    public void record(boolean notModified) {
+        if (notModified) {
+            notModifiedCounter.increment();
+        } else {
+            fullCounter.increment();
+        }
+    }
+
+    /**
+     * 닫힌 기록의 (서버, 유저) 버전을 올림
+     * 트랜잭션 안이면 커밋된 뒤에 올림 (커밋 전 값으로 새 ETag가 만들어지지 않도록)
+     */
+    void advanceAfterCommit(Set<StudyDailyAgg.Key> keys) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            advance(keys);
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                advance(keys);
+            }
+        });
+    }
+
+    /**
+     * 모든 사용자의 버전을 올림 (집계 테이블을 다시 만들었거나 연속 기록을 고친 뒤 등)
+     */
+    public synchronized void advanceAll() {
+        long version = floor.version();
+        for (Stamp stamp : stamps.values()) {
+            version = Math.max(version, stamp.version());
+        }
+        floor = new Stamp(version + 1, System.currentTimeMillis());
+        stamps.clear();
+    }
+
+    private synchronized void advance(Set<StudyDailyAgg.Key> keys) {
+        long now = System.currentTimeMillis();
+        for (StudyDailyAgg.Key agg : keys) {
+            stamps.compute(new Key(agg.getGuildId(), agg.getUserId()), (key, stamp) ->
+                    new Stamp(Math.max(stamp != null ? stamp.version() : 0L, floor.version()) + 1, now));
+        }
+    }
+
+    private double notModifiedRatio() {
+        double notModified = notModifiedCounter.count();
+        double total = notModified + fullCounter.count();
+        return total > 0 ? notModified / total : 0.0;
+    }
+
+    private record Key(long guildId, long userId) {
+    }
+}
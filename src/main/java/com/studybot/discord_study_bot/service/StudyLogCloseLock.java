@@ -0,0 +1,77 @@
+package com.studybot.discord_study_bot.service;
+
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * StudyLog 닫기와 집계를 통째로 다시 쓰는 작업 사이의 잠금
+ *
+ * - 닫기는 모두 DailyRollupService.addClosedLogs()를 거치며, 집계를 쓰기 전에 읽기 잠금을 잡고 트랜잭션이 끝날 때 놓음
+ * - 다시 쓰는 작업(일별 집계 backfill, 길드 시간대 변경, 시간대 히트맵 backfill)은 마무리 단계에서 쓰기 잠금을 잡음.
+ *   진행 중인 닫기가 모두 끝나기를 기다리고, 잡고 있는 동안에는 새 닫기가 커밋되지 않음
+ * - 쓰기 잠금을 잡은 동안 study_log는 잠그지 않는 일관 읽기로만 읽어야 함.
+ *   닫기 트랜잭션은 study_log 행을 잠근 채 이 잠금을 기다리므로, 그 행의 DB 잠금을 기다리면 교착됨
+ */
+@Service
+public class StudyLogCloseLock {
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+
+    /**
+     * 닫기: 읽기 잠금을 잡고 현재 트랜잭션이 끝날 때 놓음
+     * 트랜잭션 밖이면 afterCommit을 바로 실행하고 놓음
+     *
+     * @param afterCommit 커밋 후 잠금을 놓기 전에 실행할 작업
+     */
+    void holdForClose(Runnable afterCommit) {
+        lock.readLock().lock();
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            try {
+                afterCommit.run();
+            } finally {
+                lock.readLock().unlock();
+            }
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                afterCommit.run();
+            }
+
+            @Override
+            public void afterCompletion(int status) {
+                lock.readLock().unlock();
+            }
+        });
+    }
+
+    /**
+     * 다시 쓰기: 진행 중인 닫기가 끝날 때까지 기다렸다가 쓰기 잠금을 잡고 현재 트랜잭션이 끝날 때 놓음
+     * 호출한 쪽의 트랜잭션 안에서 실행되어야 함. afterCommit 작업(시간대 반영 등)은 잠금 안에서 실행됨
+     */
+    void holdForRewrite() {
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                lock.writeLock().unlock();
+            }
+        });
+        lock.writeLock().lock();
+    }
+
+    /**
+     * 진행 중인 닫기가 없는 동안 action 실행 (backfill이 스냅샷을 시작할 때 사용)
+     */
+    void runExclusive(Runnable action) {
+        lock.writeLock().lock();
+        try {
+            action.run();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+}
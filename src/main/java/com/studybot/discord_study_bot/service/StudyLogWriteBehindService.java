@@ -0,0 +1,629 @@
+package com.studybot.discord_study_bot.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * StudyLog write-behind 파이프라인
+ * 음성 이벤트 스레드는 열기/닫기 요청을 큐에 넣기만 하고,
+ * flusher 스레드가 요청을 모아 JDBC 배치로 한 번에 반영한다.
+ *
+ * - 배치 크기(batch-size)가 차거나 flush-interval-ms가 지나면 flush
+ * - 같은 배치 안의 열기+닫기는 종료 시각이 채워진 INSERT 한 건으로 합침
+ * - 닫힌 기록은 같은 트랜잭션에서 일별 집계(study_daily_agg)에도 누적
+ * - 큐가 가득 차면 호출 스레드를 대기시켜 유입 속도를 늦춤
+ * - 재시도해도 실패한 요청은 버리지 않고 spill 파일(spill-path)에 순서대로 남김.
+ *   spill 파일이 비워질 때까지 이후 요청도 뒤에 이어 쌓고(열기보다 닫기가 먼저 반영되지 않도록),
+ *   flusher가 간격을 늘려 가며 다시 반영함. 재시작 시에도 남은 파일부터 반영
+ * - 종료 시 큐에 남은 요청을 모두 flush
+ */
+@Service
+public class StudyLogWriteBehindService {
+
+    private static final Logger logger = LoggerFactory.getLogger(StudyLogWriteBehindService.class);
+
+    static final String INSERT_SQL =
+            "INSERT INTO study_log (guild_id, guild_name, channel_id, user_id, user_name, start_time, end_time, " +
+            "created_at) VALUES (?, ?, ?, ?, ?, ?, ?, ?)";
+
+    // StudyLog ID 대신 (guild_id, user_id, start_time)으로 열린 기록을 찾아 닫음
+    private static final String CLOSE_SQL =
+            "UPDATE study_log SET end_time = ? " +
+            "WHERE guild_id = ? AND user_id = ? AND start_time = ? AND end_time IS NULL";
+
+    private static final int MAX_FLUSH_ATTEMPTS = 3;
+
+    // spill 파일 형식: magic, version 뒤에 요청 레코드가 이어짐 (끝까지 온전히 쓰인 레코드만 읽음)
+    private static final int SPILL_MAGIC = 0x53545350; // "STSP"
+    private static final int SPILL_VERSION = 1;
+    private static final long SPILL_RETRY_MIN_MS = 1000;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final DailyRollupService dailyRollupService;
+    private final LeaderboardService leaderboardService;
+    private final BlockingQueue<StudyLogCommand> queue;
+    private final int batchSize;
+    private final long flushIntervalNanos;
+    private final long offerTimeoutMs;
+    private final Path spillPath;
+    private final long spillRetryMaxMs;
+    private final Thread flusher;
+    private volatile boolean running = true;
+
+    // spill 파일에 남은 요청 (파일 내용과 같은 순서, spilled 잠금으로 보호)
+    private final List<StudyLogCommand> spilled = new ArrayList<>();
+    private long spillRetryMs = SPILL_RETRY_MIN_MS;
+    private long nextSpillReplayNanos;
+
+    // 메트릭
+    private final Timer flushTimer;
+    private final Counter openCounter;
+    private final Counter closeCounter;
+    private final Counter coalescedCounter;
+    private final Counter backpressureCounter;
+    private final Counter flushFailureCounter;
+    private final Counter unmatchedCloseCounter;
+
+    public StudyLogWriteBehindService(JdbcTemplate jdbcTemplate,
+                                      TransactionTemplate transactionTemplate,
+                                      DailyRollupService dailyRollupService,
+                                      LeaderboardService leaderboardService,
+                                      MeterRegistry meterRegistry,
+                                      @Value("${study-log.write-behind.queue-capacity:10000}") int queueCapacity,
+                                      @Value("${study-log.write-behind.batch-size:500}") int batchSize,
+                                      @Value("${study-log.write-behind.flush-interval-ms:1000}") long flushIntervalMs,
+                                      @Value("${study-log.write-behind.offer-timeout-ms:2000}") long offerTimeoutMs,
+                                      @Value("${study-log.write-behind.spill-path:data/study-log.spill}") String spillPath,
+                                      @Value("${study-log.write-behind.spill-retry-max-ms:30000}") long spillRetryMaxMs) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = transactionTemplate;
+        this.dailyRollupService = dailyRollupService;
+        this.leaderboardService = leaderboardService;
+        this.queue = new ArrayBlockingQueue<>(queueCapacity);
+        this.batchSize = batchSize;
+        this.flushIntervalNanos = TimeUnit.MILLISECONDS.toNanos(flushIntervalMs);
+        this.offerTimeoutMs = offerTimeoutMs;
+        this.spillPath = Paths.get(spillPath);
+        this.spillRetryMaxMs = Math.max(SPILL_RETRY_MIN_MS, spillRetryMaxMs);
+
+        Gauge.builder("study_log.write_behind.queue.depth", queue, BlockingQueue::size)
+                .description("flush 대기 중인 StudyLog 요청 수")
+                .register(meterRegistry);
+        this.flushTimer = Timer.builder("study_log.write_behind.flush")
+                .description("배치 flush 소요 시간")
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+        this.openCounter = Counter.builder("study_log.write_behind.commands")
+                .tag("type", "open").register(meterRegistry);
+        this.closeCounter = Counter.builder("study_log.write_behind.commands")
+                .tag("type", "close").register(meterRegistry);
+        this.coalescedCounter = Counter.builder("study_log.write_behind.coalesced")
+                .description("열기+닫기가 INSERT 한 건으로 합쳐진 횟수")
+                .register(meterRegistry);
+        this.backpressureCounter = Counter.builder("study_log.write_behind.backpressure")
+                .description("큐가 가득 차 호출 스레드가 대기한 횟수")
+                .register(meterRegistry);
+        this.flushFailureCounter = Counter.builder("study_log.write_behind.flush_failures")
+                .description("StudyLog flush 트랜잭션 실패 수 (재시도 포함)")
+                .register(meterRegistry);
+        this.unmatchedCloseCounter = Counter.builder("study_log.write_behind.unmatched_closes")
+                .description("닫을 열린 기록을 찾지 못한 닫기 요청 수")
+                .register(meterRegistry);
+        Gauge.builder("study_log.write_behind.spilled", this, StudyLogWriteBehindService::spilledCount)
+                .description("spill 파일에 남아 다시 반영을 기다리는 요청 수")
+                .register(meterRegistry);
+
+        // 이전 실행에서 남은 요청을 먼저 읽어 둠 (flusher가 새 요청보다 먼저 반영)
+        this.nextSpillReplayNanos = System.nanoTime();
+        loadSpill();
+
+        this.flusher = new Thread(this::flushLoop, "study-log-flusher");
+        this.flusher.setDaemon(true);
+        this.flusher.start();
+    }
+
+    /**
+     * StudyLog 열기 요청
+     */
+    public void enqueueOpen(long guildId, String guildName, Long channelId, long userId, String userName,
+                            LocalDateTime startTime) {
+        openCounter.increment();
+        submit(StudyLogCommand.open(guildId, guildName, channelId, userId, userName, startTime));
+    }
+
+    /**
+     * StudyLog 닫기 요청
+     * channelId는 DB에 쓰지 않고 시간대 히트맵 집계에만 사용 (열 때 기록한 채널)
+     */
+    public void enqueueClose(long guildId, Long channelId, long userId, LocalDateTime startTime,
+                             LocalDateTime endTime) {
+        closeCounter.increment();
+        submit(StudyLogCommand.close(guildId, channelId, userId, startTime, endTime));
+    }
+
+    /**
+     * 큐에 요청을 넣음
+     * 가득 차면 offer-timeout-ms 동안 기다린 뒤 자리가 날 때까지 호출 스레드를 막아 속도를 맞춤(backpressure).
+     * 열기/닫기 순서가 뒤바뀌지 않도록 우회 기록은 하지 않음.
+     */
+    private void submit(StudyLogCommand command) {
+        try {
+            if (!running) {
+                // 종료 이후 들어온 요청은 flusher가 없으므로 직접 기록
+                flush(List.of(command));
+                return;
+            }
+            if (queue.offer(command, offerTimeoutMs, TimeUnit.MILLISECONDS)) {
+                return;
+            }
+            backpressureCounter.increment();
+            logger.warn("StudyLog 큐가 가득 찼습니다. 자리가 날 때까지 대기합니다. (대기: {}건)", queue.size());
+            queue.put(command);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            logger.error("StudyLog 요청 대기 중 인터럽트 발생. 직접 기록합니다: {}", command);
+            flush(List.of(command));
+        }
+    }
+
+    /**
+     * flusher 스레드 본체
+     * 첫 요청이 들어온 뒤 batch-size 또는 flush-interval 중 먼저 도달하는 시점에 flush
+     */
+    private void flushLoop() {
+        while (running || !queue.isEmpty()) {
+            try {
+                if (running) {
+                    replaySpillIfDue();
+                }
+                StudyLogCommand first = queue.poll(flushIntervalNanos, TimeUnit.NANOSECONDS);
+                if (first == null) {
+                    continue;
+                }
+
+                List<StudyLogCommand> batch = new ArrayList<>(batchSize);
+                batch.add(first);
+                long deadline = System.nanoTime() + flushIntervalNanos;
+
+                while (batch.size() < batchSize && running) {
+                    queue.drainTo(batch, batchSize - batch.size());
+                    long remaining = deadline - System.nanoTime();
+                    if (batch.size() >= batchSize || remaining <= 0) {
+                        break;
+                    }
+                    StudyLogCommand next = queue.poll(remaining, TimeUnit.NANOSECONDS);
+                    if (next == null) {
+                        break;
+                    }
+                    batch.add(next);
+                }
+
+                // 종료 중이면 남은 요청까지 한 번에 가져감
+                if (!running) {
+                    queue.drainTo(batch, batchSize - batch.size());
+                }
+
+                flush(batch);
+            } catch (InterruptedException e) {
+                // 종료 신호: 루프 조건에서 남은 요청을 마저 처리
+                running = false;
+            } catch (Exception e) {
+                logger.error("StudyLog flush 루프 처리 중 오류 발생", e);
+            }
+        }
+        // DB가 돌아왔으면 종료 전에 한 번 더 반영 (실패하면 다음 시작 때 반영)
+        if (spilledCount() > 0) {
+            replaySpill();
+        }
+        logger.info("StudyLog flusher 종료");
+    }
+
+    /**
+     * 요청 묶음을 반영. 재시도해도 실패하면 spill 파일에 남김
+     * 앞선 요청이 spill 파일에 남아 있으면 순서를 지키기 위해 바로 뒤에 이어 씀
+     */
+    private void flush(List<StudyLogCommand> batch) {
+        if (batch.isEmpty()) {
+            return;
+        }
+        if (spilledCount() > 0) {
+            spill(batch);
+            return;
+        }
+
+        for (int attempt = 1; attempt <= MAX_FLUSH_ATTEMPTS; attempt++) {
+            try {
+                write(batch);
+                return;
+            } catch (Exception e) {
+                logger.warn("StudyLog flush 실패 ({}/{}): {}", attempt, MAX_FLUSH_ATTEMPTS, e.getMessage());
+                if (attempt < MAX_FLUSH_ATTEMPTS) {
+                    sleepQuietly(200L * attempt);
+                }
+            }
+        }
+
+        // 재시도 실패: 버리지 않고 spill 파일에 남겨 나중에 다시 반영
+        // (리더보드의 종료 대기 목록도 반영될 때까지 그대로 둠)
+        logger.error("StudyLog flush를 {}번 실패해 {}건을 spill 파일에 남깁니다: {}", MAX_FLUSH_ATTEMPTS, batch.size(),
+                spillPath);
+        spill(batch);
+    }
+
+    /**
+     * 요청 묶음을 병합한 뒤 한 트랜잭션에서 배치 INSERT/UPDATE (실패하면 예외)
+     */
+    private void write(List<StudyLogCommand> batch) {
+        // 같은 배치 안에서 열리고 닫힌 기록은 INSERT 한 건으로 합침
+        Map<String, StudyLogCommand> inserts = new LinkedHashMap<>();
+        List<StudyLogCommand> closes = new ArrayList<>();
+        for (StudyLogCommand command : batch) {
+            if (command.open) {
+                inserts.put(command.key(), command);
+            } else {
+                StudyLogCommand pendingOpen = inserts.get(command.key());
+                if (pendingOpen != null) {
+                    pendingOpen.endTime = command.endTime;
+                    coalescedCounter.increment();
+                } else {
+                    closes.add(command);
+                }
+            }
+        }
+
+        List<Object[]> insertArgs = new ArrayList<>(inserts.size());
+        Timestamp createdAt = Timestamp.valueOf(LocalDateTime.now());
+        for (StudyLogCommand c : inserts.values()) {
+            insertArgs.add(new Object[]{c.guildId, c.guildName, c.channelId, c.userId, c.userName,
+                    Timestamp.valueOf(c.startTime), toTimestamp(c.endTime), createdAt});
+        }
+        List<Object[]> closeArgs = new ArrayList<>(closes.size());
+        for (StudyLogCommand c : closes) {
+            closeArgs.add(new Object[]{Timestamp.valueOf(c.endTime), c.guildId, c.userId,
+                    Timestamp.valueOf(c.startTime)});
+        }
+
+        long startNanos = System.nanoTime();
+        try {
+            transactionTemplate.executeWithoutResult(status -> {
+                List<DailyRollupService.ClosedLog> closedLogs = new ArrayList<>();
+                // 열기를 먼저 반영해야 이전 배치에서 넘어온 닫기가 대상을 찾을 수 있음
+                if (!insertArgs.isEmpty()) {
+                    jdbcTemplate.batchUpdate(INSERT_SQL, insertArgs);
+                    for (StudyLogCommand c : inserts.values()) {
+                        if (c.endTime != null) {
+                            closedLogs.add(c.toClosedLog());
+                        }
+                    }
+                }
+                if (!closeArgs.isEmpty()) {
+                    int[] updated = jdbcTemplate.batchUpdate(CLOSE_SQL, closeArgs);
+                    // 이미 닫혀 있던 기록(정리 작업 등)은 집계에 다시 더하지 않음
+                    for (int i = 0; i < updated.length; i++) {
+                        if (updated[i] != 0) {
+                            closedLogs.add(closes.get(i).toClosedLog());
+                        } else {
+                            unmatchedCloseCounter.increment();
+                            logger.debug("닫을 열린 StudyLog를 찾지 못했습니다 (이미 닫힘): {}", closes.get(i));
+                        }
+                    }
+                }
+                dailyRollupService.addClosedLogs(closedLogs);
+            });
+        } catch (RuntimeException e) {
+            flushFailureCounter.increment();
+            throw e;
+        }
+        flushTimer.record(System.nanoTime() - startNanos, TimeUnit.NANOSECONDS);
+        logger.debug("StudyLog flush 완료. INSERT: {}건, UPDATE: {}건", insertArgs.size(), closeArgs.size());
+
+        // 이번 flush에서 닫은 기록을 리더보드의 종료 대기 목록에서 정리
+        List<DailyRollupService.ClosedLog> settled = new ArrayList<>();
+        for (StudyLogCommand c : inserts.values()) {
+            if (c.endTime != null) {
+                settled.add(c.toClosedLog());
+            }
+        }
+        for (StudyLogCommand c : closes) {
+            settled.add(c.toClosedLog());
+        }
+        leaderboardService.settle(settled);
+    }
+
+    // ===== spill 파일 =====
+
+    private int spilledCount() {
+        synchronized (spilled) {
+            return spilled.size();
+        }
+    }
+
+    /**
+     * 반영하지 못한 요청을 spill 파일 끝에 이어 쓰고 fsync
+     * 파일에 쓰지 못해도 메모리에는 남겨 두므로 프로세스가 살아 있는 동안은 다시 반영을 시도함
+     */
+    private void spill(List<StudyLogCommand> batch) {
+        synchronized (spilled) {
+            spilled.addAll(batch);
+            try {
+                boolean fresh = !Files.exists(spillPath) || Files.size(spillPath) == 0;
+                if (spillPath.getParent() != null) {
+                    Files.createDirectories(spillPath.getParent());
+                }
+                try (FileOutputStream file = new FileOutputStream(spillPath.toFile(), true);
+                     DataOutputStream out = new DataOutputStream(new BufferedOutputStream(file))) {
+                    if (fresh) {
+                        out.writeInt(SPILL_MAGIC);
+                        out.writeInt(SPILL_VERSION);
+                    }
+                    for (StudyLogCommand command : batch) {
+                        command.writeTo(out);
+                    }
+                    out.flush();
+                    file.getFD().sync();
+                }
+            } catch (IOException e) {
+                logger.error("StudyLog spill 파일 기록 실패. 메모리에만 남깁니다 ({}건): {}", batch.size(), spillPath, e);
+            }
+        }
+    }
+
+    /**
+     * 시작 시 이전 실행에서 남은 spill 파일을 읽음
+     * 기록 도중 죽어서 잘린 마지막 레코드는 버림
+     */
+    private void loadSpill() {
+        if (!Files.exists(spillPath)) {
+            return;
+        }
+        List<StudyLogCommand> loaded = new ArrayList<>();
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(spillPath)))) {
+            if (in.readInt() != SPILL_MAGIC || in.readInt() != SPILL_VERSION) {
+                logger.error("알 수 없는 StudyLog spill 파일 형식입니다. 읽지 않습니다: {}", spillPath);
+                return;
+            }
+            while (true) {
+                loaded.add(StudyLogCommand.readFrom(in));
+            }
+        } catch (EOFException e) {
+            // 파일 끝 (잘린 꼬리 레코드 포함)
+        } catch (IOException e) {
+            logger.error("StudyLog spill 파일을 끝까지 읽지 못했습니다. 읽은 {}건만 반영합니다: {}", loaded.size(), spillPath, e);
+        }
+        synchronized (spilled) {
+            spilled.addAll(loaded);
+            // 잘린 꼬리를 지우고 온전한 레코드만 다시 씀
+            rewriteSpill();
+        }
+        if (!loaded.isEmpty()) {
+            logger.warn("이전 실행에서 반영하지 못한 StudyLog 요청 {}건을 다시 반영합니다: {}", loaded.size(), spillPath);
+        }
+    }
+
+    /**
+     * 재시도 간격이 지났으면 spill 파일의 요청을 다시 반영 (flusher 스레드에서 호출)
+     */
+    private void replaySpillIfDue() {
+        if (spilledCount() == 0 || System.nanoTime() - nextSpillReplayNanos < 0) {
+            return;
+        }
+        if (replaySpill()) {
+            spillRetryMs = SPILL_RETRY_MIN_MS;
+        } else {
+            spillRetryMs = Math.min(spillRetryMs * 2, spillRetryMaxMs);
+        }
+        nextSpillReplayNanos = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(spillRetryMs);
+    }
+
+    /**
+     * spill 파일의 요청을 앞에서부터 batch-size씩 반영하고, 반영한 만큼 파일에서 지움
+     *
+     * @return 모두 반영했으면 true
+     */
+    private boolean replaySpill() {
+        List<StudyLogCommand> pending;
+        synchronized (spilled) {
+            pending = new ArrayList<>(spilled);
+        }
+        int written = 0;
+        try {
+            while (written < pending.size()) {
+                int end = Math.min(written + batchSize, pending.size());
+                write(pending.subList(written, end));
+                written = end;
+            }
+        } catch (Exception e) {
+            logger.warn("spill된 StudyLog 요청 반영 실패 (남은 요청: {}건, 다음 시도: {}ms 후): {}",
+                    pending.size() - written, Math.min(spillRetryMs * 2, spillRetryMaxMs), e.getMessage());
+        }
+        if (written > 0) {
+            synchronized (spilled) {
+                // 반영하는 동안 뒤에 더 쌓였을 수 있으므로 반영한 앞부분만 지움
+                spilled.subList(0, written).clear();
+                rewriteSpill();
+            }
+            logger.info("spill된 StudyLog 요청 {}건을 반영했습니다. (남은 요청: {}건)", written, spilledCount());
+        }
+        return written == pending.size();
+    }
+
+    /**
+     * 메모리의 spill 목록으로 파일을 다시 씀 (임시 파일에 쓰고 원자적으로 교체). spilled 잠금 안에서 호출
+     */
+    private void rewriteSpill() {
+        try {
+            if (spilled.isEmpty()) {
+                Files.deleteIfExists(spillPath);
+                return;
+            }
+            Path temp = spillPath.resolveSibling(spillPath.getFileName() + ".tmp");
+            try (FileOutputStream file = new FileOutputStream(temp.toFile());
+                 DataOutputStream out = new DataOutputStream(new BufferedOutputStream(file))) {
+                out.writeInt(SPILL_MAGIC);
+                out.writeInt(SPILL_VERSION);
+                for (StudyLogCommand command : spilled) {
+                    command.writeTo(out);
+                }
+                out.flush();
+                file.getFD().sync();
+            }
+            Files.move(temp, spillPath, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            // 파일에는 이미 반영한 요청이 남아 있을 수 있음: 다음 시작 때 다시 INSERT되지 않도록 크게 남김
+            logger.error("StudyLog spill 파일 갱신 실패. 파일의 앞부분 {}건은 이미 반영되었을 수 있습니다: {}",
+                    spilled.size(), spillPath, e);
+        }
+    }
+
+    /**
+     * 종료 시 남은 요청을 모두 flush
+     */
+    @PreDestroy
+    public void shutdown() {
+        logger.info("StudyLog write-behind 종료 중... (대기: {}건)", queue.size());
+        running = false;
+        try {
+            flusher.join(TimeUnit.SECONDS.toMillis(30));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        if (flusher.isAlive()) {
+            logger.error("StudyLog flusher가 제시간에 종료되지 않았습니다. (대기: {}건)", queue.size());
+        }
+    }
+
+    private static Timestamp toTimestamp(LocalDateTime time) {
+        return time != null ? Timestamp.valueOf(time) : null;
+    }
+
+    private static void sleepQuietly(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * 큐에 쌓이는 열기/닫기 요청
+     */
+    private static final class StudyLogCommand {
+        private final boolean open;
+        private final long guildId;
+        private final String guildName;
+        private final Long channelId;
+        private final long userId;
+        private final String userName;
+        private final LocalDateTime startTime;
+        private LocalDateTime endTime;
+
+        private StudyLogCommand(boolean open, long guildId, String guildName, Long channelId, long userId,
+                                String userName, LocalDateTime startTime, LocalDateTime endTime) {
+            this.open = open;
+            this.guildId = guildId;
+            this.guildName = guildName;
+            this.channelId = channelId;
+            this.userId = userId;
+            this.userName = userName;
+            this.startTime = startTime;
+            this.endTime = endTime;
+        }
+
+        // 닫기는 (guild_id, user_id, start_time)으로 기록을 찾으므로 DATETIME 정밀도(초)에 맞춰 자름
+        // (소수 초가 남으면 INSERT 때 반올림되어 닫기 조건과 어긋남)
+        static StudyLogCommand open(long guildId, String guildName, Long channelId, long userId, String userName,
+                                    LocalDateTime startTime) {
+            return new StudyLogCommand(true, guildId, guildName, channelId, userId, userName,
+                    startTime.truncatedTo(ChronoUnit.SECONDS), null);
+        }
+
+        static StudyLogCommand close(long guildId, Long channelId, long userId, LocalDateTime startTime,
+                                     LocalDateTime endTime) {
+            return new StudyLogCommand(false, guildId, null, channelId, userId, null,
+                    startTime.truncatedTo(ChronoUnit.SECONDS), endTime);
+        }
+
+        void writeTo(DataOutputStream out) throws IOException {
+            out.writeBoolean(open);
+            out.writeLong(guildId);
+            writeNullable(out, guildName);
+            out.writeBoolean(channelId != null);
+            out.writeLong(channelId != null ? channelId : 0L);
+            out.writeLong(userId);
+            writeNullable(out, userName);
+            out.writeUTF(startTime.toString());
+            writeNullable(out, endTime != null ? endTime.toString() : null);
+        }
+
+        static StudyLogCommand readFrom(DataInputStream in) throws IOException {
+            boolean open = in.readBoolean();
+            long guildId = in.readLong();
+            String guildName = readNullable(in);
+            boolean hasChannel = in.readBoolean();
+            long channelId = in.readLong();
+            long userId = in.readLong();
+            String userName = readNullable(in);
+            LocalDateTime startTime = LocalDateTime.parse(in.readUTF());
+            String endTime = readNullable(in);
+            return new StudyLogCommand(open, guildId, guildName, hasChannel ? channelId : null, userId, userName,
+                    startTime, endTime != null ? LocalDateTime.parse(endTime) : null);
+        }
+
+        private static void writeNullable(DataOutputStream out, String value) throws IOException {
+            out.writeBoolean(value != null);
+            if (value != null) {
+                out.writeUTF(value);
+            }
+        }
+
+        private static String readNullable(DataInputStream in) throws IOException {
+            return in.readBoolean() ? in.readUTF() : null;
+        }
+
+        String key() {
+            return guildId + ":" + userId + ":" + startTime;
+        }
+
+        DailyRollupService.ClosedLog toClosedLog() {
+            return new DailyRollupService.ClosedLog(guildId, userId, startTime, endTime, channelId);
+        }
+
+        @Override
+        public String toString() {
+            return (open ? "OPEN" : "CLOSE") + "[guild=" + guildId + ", channel=" + channelId + ", user=" + userId +
+                    ", start=" + startTime + ", end=" + endTime + "]";
+        }
+    }
+}
@@ -1,54 +1,137 @@
 package com.studybot.discord_study_bot.service;
 
-import com.studybot.discord_study_bot.entity.StudyLog;
-import com.studybot.discord_study_bot.repository.StudyLogRepository;
+import com.studybot.discord_study_bot.live.LiveEventHub;
+import com.studybot.discord_study_bot.session.SessionIndex;
+import com.studybot.discord_study_bot.session.SessionJournal;
 import com.studybot.discord_study_bot.session.StudySession;
-import lombok.RequiredArgsConstructor;
+import com.studybot.discord_study_bot.session.TimerWheel;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
 import java.time.LocalDateTime;
-import java.util.Map;
-import java.util.concurrent.ConcurrentHashMap;
+import java.time.ZoneId;
+import java.time.temporal.ChronoUnit;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
 
 /**
  * 화면공유와 뽀모도로를 통합 관리하는 세션 매니저
  * 둘 중 하나라도 활성이면 StudyLog를 유지
+ *
+ * 음성 이벤트 레인과 뽀모도로 타이머 스레드가 같은 세션을 동시에 건드릴 수 있으므로
+ * 세션 상태 변경과 StudyLog 열기/닫기는 세션 객체 단위로 잠가서 처리
+ *
+ * 연결이 불안정해 화면공유가 짧게 끊겼다 붙는 경우 StudyLog가 잘게 쪼개지지 않도록
+ * 종료 요청은 유예 시간(close-grace-seconds) 동안 보류한다.
+ * - 유예 중 다시 시작하면 같은 StudyLog를 이어서 사용 (병합)
+ * - 유예가 끝나면 처음 종료 요청한 시각으로 StudyLog를 닫음
+ * - 유예 만료는 사용자별 예약 작업 대신 타이머 휠 하나로 처리
+ *
+ * 시작/종료는 실시간 구독자(LiveEventHub)에게도 알림. 유예 중인 종료는 요청 시각에 종료로 알리고,
+ * 유예 중 다시 시작하면 시작으로 알림
  */
 @Service
-@RequiredArgsConstructor
 public class StudySessionManager {
 
     private static final Logger logger = LoggerFactory.getLogger(StudySessionManager.class);
-    private final StudyLogRepository studyLogRepository;
+    private final StudyLogWriteBehindService studyLogWriter;
+    private final SessionJournal sessionJournal;
+    // 랭킹에 진행 중인 세션의 경과 시간을 더하기 위해 열기/종료를 알림
+    private final LeaderboardService leaderboardService;
+    private final LiveEventHub liveEventHub;
 
-    // Key: "guildId:userId", Value: StudySession
-    private final Map<String, StudySession> activeSessions = new ConcurrentHashMap<>();
+    // Key: (guildId, userId) snowflake 쌍, Value: StudySession
+    private final SessionIndex activeSessions = new SessionIndex();
+
+    // 종료 유예
+    private final long closeGraceSeconds;
+    private final TimerWheel<StudySession> closeWheel;
+    private volatile boolean graceEnabled;
+
+    // 메트릭
+    private final Counter mergedCounter;
+    private final Counter persistedCounter;
+
+    public StudySessionManager(StudyLogWriteBehindService studyLogWriter,
+                               SessionJournal sessionJournal,
+                               LeaderboardService leaderboardService,
+                               LiveEventHub liveEventHub,
+                               MeterRegistry meterRegistry,
+                               @Value("${study-session.close-grace-seconds:30}") long closeGraceSeconds) {
+        this.studyLogWriter = studyLogWriter;
+        this.sessionJournal = sessionJournal;
+        this.leaderboardService = leaderboardService;
+        this.liveEventHub = liveEventHub;
+        this.closeGraceSeconds = closeGraceSeconds;
+        this.graceEnabled = closeGraceSeconds > 0;
+        // 1초 tick, 64칸: 유예 시간이 64초를 넘어도 바퀴 수(rounds)로 처리됨
+        this.closeWheel = graceEnabled
+                ? new TimerWheel<>("study-session-close-wheel", 1, TimeUnit.SECONDS, 64, this::expirePendingClose)
+                : null;
+
+        this.mergedCounter = Counter.builder("study_session.transitions")
+                .description("유예 시간 안에 다시 시작되어 기존 StudyLog에 병합된 종료 요청 수")
+                .tag("result", "merged")
+                .register(meterRegistry);
+        this.persistedCounter = Counter.builder("study_session.transitions")
+                .description("실제로 StudyLog 종료가 기록된 종료 요청 수")
+                .tag("result", "persisted")
+                .register(meterRegistry);
+    }
 
     /**
      * 세션 조회 또는 생성
      */
-    public StudySession getOrCreateSession(String guildId, String userId) {
-        String sessionKey = guildId + ":" + userId;
-        return activeSessions.computeIfAbsent(sessionKey, k -> new StudySession(guildId, userId));
+    public StudySession getOrCreateSession(long guildId, long userId) {
+        return activeSessions.getOrCreate(guildId, userId);
     }
 
     /**
      * 세션 조회
      */
-    public StudySession getSession(String guildId, String userId) {
-        String sessionKey = guildId + ":" + userId;
-        return activeSessions.get(sessionKey);
+    public StudySession getSession(long guildId, long userId) {
+        return activeSessions.get(guildId, userId);
+    }
+
+    /**
+     * 세션을 잠근 채로 작업 실행
+     * 조회와 잠금 사이에 유예 만료(타이머 휠)나 정리 작업이 세션을 닫고 인덱스에서 뺐을 수 있으므로,
+     * 잠근 뒤에도 등록된 세션인지 확인하고 아니면 다시 조회함 (빠진 세션에 기록하면 그 세션은 고아가 됨)
+     *
+     * @param create 세션이 없으면 새로 만들지 여부
+     * @return 작업을 실행했으면 true (create가 false이고 세션이 없으면 false)
+     */
+    private boolean withRegisteredSession(long guildId, long userId, boolean create, Consumer<StudySession> action) {
+        while (true) {
+            StudySession session = create ? getOrCreateSession(guildId, userId) : getSession(guildId, userId);
+            if (session == null) {
+                return false;
+            }
+            synchronized (session) {
+                if (activeSessions.get(guildId, userId) == session) {
+                    action.accept(session);
+                    return true;
+                }
+            }
+        }
     }
 
     /**
      * 화면공유 시작
+     *
+     * @param channelId 화면공유 중인 음성 채널 ID (모르면 null)
      */
-    public void startScreenShare(String guildId, String guildName, String userId, String userName) {
-        StudySession session = getOrCreateSession(guildId, userId);
-        session.setScreenSharing(true);
-        ensureStudyLogActive(session, guildId, guildName, userId, userName);
+    public void startScreenShare(long guildId, String guildName, Long channelId, long userId, String userName) {
+        withRegisteredSession(guildId, userId, true, session -> {
+            session.setScreenSharing(true);
+            ensureStudyLogActive(session, guildId, guildName, channelId, userId, userName);
+        });
         
         logger.info("[{}] {}님이 화면공유를 시작했습니다. StudyLog 활성화.", guildName, userName);
     }
@@ -56,21 +139,23 @@ public class StudySessionManager {
     /**
      * 화면공유 종료
      */
-    public void stopScreenShare(String guildId, String userId, String userName) {
-        StudySession session = getSession(guildId, userId);
-        if (session != null) {
+    public void stopScreenShare(long guildId, long userId, String userName) {
+        withRegisteredSession(guildId, userId, false, session -> {
             session.setScreenSharing(false);
             checkAndCloseStudyLog(session, userName);
-        }
+        });
     }
 
     /**
      * 뽀모도로 시작 (공부 단계)
+     *
+     * @param channelId 공유 뽀모도로가 진행 중인 음성 채널 ID
      */
-    public void startPomodoroStudy(String guildId, String guildName, String userId, String userName) {
-        StudySession session = getOrCreateSession(guildId, userId);
-        session.setPomodoroActive(true);
-        ensureStudyLogActive(session, guildId, guildName, userId, userName);
+    public void startPomodoroStudy(long guildId, String guildName, Long channelId, long userId, String userName) {
+        withRegisteredSession(guildId, userId, true, session -> {
+            session.setPomodoroActive(true);
+            ensureStudyLogActive(session, guildId, guildName, channelId, userId, userName);
+        });
         
         logger.info("[{}] {}님이 뽀모도로 공부를 시작했습니다. StudyLog 활성화.", guildName, userName);
     }
@@ -78,54 +163,90 @@ public class StudySessionManager {
     /**
      * 뽀모도로 일시정지 (휴식 단계)
      */
-    public void pausePomodoro(String guildId, String userId, String userName) {
-        StudySession session = getSession(guildId, userId);
-        if (session != null) {
+    public void pausePomodoro(long guildId, long userId, String userName) {
+        withRegisteredSession(guildId, userId, false, session -> {
             session.setPomodoroActive(false);
             checkAndCloseStudyLog(session, userName);
-        }
+        });
     }
 
     /**
      * 강제 세션 종료 (음성 채널 퇴장 시)
      */
-    public void forceCloseSession(String guildId, String userId, String userName) {
-        StudySession session = getSession(guildId, userId);
-        if (session != null) {
+    public void forceCloseSession(long guildId, long userId, String userName) {
+        boolean closed = withRegisteredSession(guildId, userId, false, session -> {
             // 모든 활동 종료
             session.setScreenSharing(false);
             session.setPomodoroActive(false);
-            
+
             // StudyLog 종료
             closeStudyLog(session, userName);
-            
-            // 세션 제거
-            activeSessions.remove(session.getSessionKey());
-            
+
+            // 세션 제거 (종료 유예 중이면 유예가 끝날 때 제거)
+            if (!session.isClosePending()) {
+                activeSessions.remove(session);
+            }
+        });
+        if (closed) {
             logger.info("{}님의 세션이 강제 종료되었습니다. (음성 채널 퇴장)", userName);
         }
     }
 
+    /**
+     * 재시작 전부터 화면공유 중이던 세션 복원
+     *
+     * @param channelId    열린 StudyLog의 음성 채널 ID (DB 기록에 없으면 지금 있는 채널)
+     * @param startTime   이어서 사용할 StudyLog 시작 시각
+     * @param logPersisted DB에 열린 StudyLog가 이미 있는지 여부 (없으면 새로 기록)
+     */
+    public void resumeScreenShare(long guildId, String guildName, Long channelId, long userId, String userName,
+                                  LocalDateTime startTime, boolean logPersisted) {
+        withRegisteredSession(guildId, userId, true, session -> {
+            session.setScreenSharing(true);
+            session.setStartTime(startTime);
+            session.setChannelId(channelId);
+            session.setPendingEndTime(null);
+            if (!logPersisted) {
+                studyLogWriter.enqueueOpen(guildId, guildName, channelId, userId, userName, startTime);
+            }
+            leaderboardService.sessionOpened(guildId, userId, startTime);
+            publishSession(guildId, userId, true, startTime);
+        });
+
+        logger.info("[{}] {}님의 세션을 복원했습니다. 시작: {}", guildName, userName, startTime);
+    }
+
     /**
      * StudyLog 활성 상태 보장
      * 화면공유 또는 뽀모도로가 활성이면 StudyLog 생성/유지
+     * DB 기록은 write-behind 큐를 통해 비동기로 반영됨
      */
-    private void ensureStudyLogActive(StudySession session, String guildId, String guildName, 
-                                      String userId, String userName) {
-        if (session.getStudyLogId() == null) {
-            // StudyLog 생성
-            StudyLog log = new StudyLog();
-            log.setGuildId(guildId);
-            log.setGuildName(guildName);
-            log.setUserId(userId);
-            log.setUserName(userName);
-            log.setStartTime(LocalDateTime.now());
-            
-            StudyLog saved = studyLogRepository.save(log);
-            session.setStudyLogId(saved.getId());
-            session.setStartTime(LocalDateTime.now());
+    private void ensureStudyLogActive(StudySession session, long guildId, String guildName, Long channelId,
+                                      long userId, String userName) {
+        if (session.isClosePending()) {
+            // 유예 중 다시 시작: 보류된 종료를 취소하고 같은 StudyLog를 이어서 사용
+            LocalDateTime pendingEndTime = session.getPendingEndTime();
+            session.setPendingEndTime(null);
+            leaderboardService.sessionPaused(guildId, userId, null);
+            publishSession(guildId, userId, true, LocalDateTime.now());
+            mergedCounter.increment();
+
+            logger.info("{}님의 종료 요청을 취소하고 기존 StudyLog를 이어서 사용합니다. 시작: {}, 보류된 종료: {}",
+                    userName, session.getStartTime(), pendingEndTime);
+            return;
+        }
+        if (session.getStartTime() == null) {
+            // 닫을 때 (guildId, userId, startTime)으로 기록을 찾으므로 DB 정밀도에 맞춰 초 단위로 자름
+            LocalDateTime now = LocalDateTime.now().truncatedTo(ChronoUnit.SECONDS);
+            session.setStartTime(now);
+            // 기록 중 채널을 옮겨도 StudyLog는 시작한 채널로 집계
+            session.setChannelId(channelId);
+            sessionJournal.recordOpen(guildId, userId, now);
+            studyLogWriter.enqueueOpen(guildId, guildName, channelId, userId, userName, now);
+            leaderboardService.sessionOpened(guildId, userId, now);
+            publishSession(guildId, userId, true, now);
             
-            logger.info("StudyLog 생성 완료. ID: {}", saved.getId());
+            logger.info("StudyLog 생성 요청 완료. 시작: {}", now);
         }
     }
 
@@ -144,25 +265,157 @@ public class StudySessionManager {
 
     /**
      * StudyLog 종료
+     * 유예 시간이 설정되어 있으면 종료 시각만 기록해 두고 타이머 휠에 만료를 예약
      */
     private void closeStudyLog(StudySession session, String userName) {
-        if (session.getStudyLogId() != null) {
-            StudyLog log = studyLogRepository.findById(session.getStudyLogId()).orElse(null);
-            if (log != null && log.getEndTime() == null) {
-                log.setEndTime(LocalDateTime.now());
-                studyLogRepository.save(log);
-                
-                logger.info("{}님의 StudyLog 종료 완료. ID: {}, 시작: {}, 종료: {}", 
-                    userName, log.getId(), log.getStartTime(), log.getEndTime());
+        if (session.getStartTime() == null || session.isClosePending()) {
+            return;
+        }
+        LocalDateTime endTime = LocalDateTime.now().truncatedTo(ChronoUnit.SECONDS);
+        publishSession(session.getGuildId(), session.getUserId(), false, endTime);
+        if (!graceEnabled) {
+            persistClose(session, endTime);
+            logger.info("{}님의 StudyLog 종료 요청 완료. 종료: {}", userName, endTime);
+            return;
+        }
+
+        session.setPendingEndTime(endTime);
+        session.setPendingCloseDeadlineNanos(System.nanoTime() + TimeUnit.SECONDS.toNanos(closeGraceSeconds));
+        leaderboardService.sessionPaused(session.getGuildId(), session.getUserId(), endTime);
+        closeWheel.schedule(session, closeGraceSeconds, TimeUnit.SECONDS);
+        logger.info("{}님의 StudyLog 종료를 {}초간 보류합니다. 종료: {}", userName, closeGraceSeconds, endTime);
+    }
+
+    /**
+     * 타이머 휠 만료 처리
+     * 유예 중 다시 시작했으면 무시. 유예가 아직 남았으면(더 늦은 종료 요청, tick이 먼저 돈 경우) 남은 시간만큼 다시 예약
+     * 유예 시간은 단조 시계로 재므로 시스템 시계가 뒤로 가도 밀리지 않음
+     */
+    private void expirePendingClose(StudySession session) {
+        synchronized (session) {
+            LocalDateTime pendingEndTime = session.getPendingEndTime();
+            if (pendingEndTime == null) {
+                return;
+            }
+            long remainingNanos = session.getPendingCloseDeadlineNanos() - System.nanoTime();
+            if (remainingNanos > 0) {
+                closeWheel.schedule(session, remainingNanos, TimeUnit.NANOSECONDS);
+                return;
+            }
+            persistClose(session, pendingEndTime);
+
+            // 유예 중 활동이 없었으면 세션 정리
+            if (!session.isActive()) {
+                activeSessions.remove(session);
+            }
+            logger.info("유예 시간이 지나 StudyLog를 종료했습니다. 유저: {}, 종료: {}", session.getUserId(), pendingEndTime);
+        }
+    }
+
+    /**
+     * 실시간 구독자에게 세션 시작/종료 알림 (큐에 넣기만 하므로 세션 잠금 안에서 호출해도 됨)
+     */
+    private void publishSession(long guildId, long userId, boolean active, LocalDateTime at) {
+        liveEventHub.publishSession(guildId, userId, active, at.atZone(ZoneId.systemDefault()).toEpochSecond());
+    }
+
+    /**
+     * 저널과 write-behind 큐에 StudyLog 종료 기록
+     */
+    private void persistClose(StudySession session, LocalDateTime endTime) {
+        sessionJournal.recordClose(session.getGuildId(), session.getUserId(), endTime);
+        // flush가 먼저 끝나도 종료 대기 목록에서 정리되도록 큐에 넣기 전에 알림
+        leaderboardService.sessionClosed(session.getGuildId(), session.getUserId(), session.getStartTime(), endTime);
+        studyLogWriter.enqueueClose(session.getGuildId(), session.getChannelId(), session.getUserId(),
+                session.getStartTime(), endTime);
+        session.setStartTime(null);
+        session.setChannelId(null);
+        session.setPendingEndTime(null);
+        persistedCounter.increment();
+    }
+
+    /**
+     * 종료 시 유예 중인 종료를 모두 바로 기록
+     * write-behind 서비스보다 먼저 종료되므로 여기서 넣은 요청도 flush됨
+     */
+    @PreDestroy
+    public void shutdown() {
+        if (closeWheel == null) {
+            return;
+        }
+        graceEnabled = false;
+        List<StudySession> pending = closeWheel.stop();
+        int closed = 0;
+        for (StudySession session : pending) {
+            synchronized (session) {
+                if (session.isClosePending()) {
+                    persistClose(session, session.getPendingEndTime());
+                    closed++;
+                }
+            }
+        }
+        logger.info("종료 유예 중이던 StudyLog {}개를 종료했습니다.", closed);
+    }
+
+    /**
+     * 놓친 종료 이벤트 등으로 남은 세션을 강제로 정리 (SessionReaperScheduler에서 호출)
+     * 조회 이후 다른 스레드가 세션을 다시 시작했을 수 있으므로, 잠근 뒤 시작 시각이 그대로일 때만 닫음
+     * 그 사이 유예 만료로 이미 인덱스에서 빠진 세션이면 건드리지 않음.
+     * 여기서 빼낸 세션을 잡고 기다리던 시작 요청은 withRegisteredSession에서 다시 조회해 새 세션을 만듦
+     *
+     * @param observedStartTime 세션을 검사할 때 본 StudyLog 시작 시각
+     * @param endTime           기록할 종료 시각 (시작 시각보다 이르면 시작 시각으로 맞춤)
+     * @return 실제로 정리했으면 true
+     */
+    public boolean reapSession(StudySession session, LocalDateTime observedStartTime, LocalDateTime endTime) {
+        synchronized (session) {
+            if (activeSessions.get(session.getGuildId(), session.getUserId()) != session) {
+                return false;
+            }
+            LocalDateTime startTime = session.getStartTime();
+            if (startTime != null && !startTime.equals(observedStartTime)) {
+                return false;
+            }
+            session.setScreenSharing(false);
+            session.setPomodoroActive(false);
+            if (startTime != null) {
+                // 종료 유예 중이었다면 처음 종료 요청한 시각이 더 정확함 (종료는 이미 알림)
+                if (!session.isClosePending()) {
+                    publishSession(session.getGuildId(), session.getUserId(), false, endTime);
+                }
+                LocalDateTime closeAt = session.isClosePending() ? session.getPendingEndTime() : endTime;
+                persistClose(session, closeAt.isBefore(startTime) ? startTime : closeAt);
             }
-            session.setStudyLogId(null);
+            activeSessions.remove(session);
+            return true;
         }
     }
 
     /**
-     * 활성 세션 맵 조회 (VoiceChannelListener 호환용)
+     * 세션 인덱스의 세그먼트 수 (조금씩 나눠 훑을 때 사용)
+     */
+    public int getSegmentCount() {
+        return activeSessions.segmentCount();
+    }
+
+    /**
+     * 한 세그먼트에 속한 세션 스냅샷
+     */
+    public List<StudySession> snapshotSegment(int segmentIndex) {
+        return activeSessions.snapshotSegment(segmentIndex);
+    }
+
+    /**
+     * 활성 세션 순회
+     */
+    public void forEachSession(Consumer<StudySession> action) {
+        activeSessions.forEach(action);
+    }
+
+    /**
+     * 활성 세션 수
      */
-    public Map<String, StudySession> getActiveSessions() {
-        return activeSessions;
+    public int getActiveSessionCount() {
+        return activeSessions.size();
     }
 }
@@ -0,0 +1,276 @@
+package com.studybot.discord_study_bot.service;
+
+import com.studybot.discord_study_bot.entity.StudyDailyAgg;
+import com.studybot.discord_study_bot.entity.StudyStreak;
+import com.studybot.discord_study_bot.repository.StudyStreakRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Date;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.TreeMap;
+import java.util.TreeSet;
+
+/**
+ * 연속 공부 기록(study_streak) 관리
+ *
+ * - StudyLog가 닫힐 때 DailyRollupService가 같은 트랜잭션에서 addDays()로 날짜별 갱신
+ *   (자정을 넘긴 기록은 일별 집계처럼 날짜별로 나뉘어 들어옴)
+ * - 갱신은 날짜 순서대로 들어온다고 보고 한 번의 배치 UPSERT로 처리.
+ *   마지막 날짜보다 이전 날짜가 들어오면 needs_rebuild를 켜고 다음 조회 때 일별 집계에서 다시 계산
+ * - 테이블이 비어 있으면 시작 시 일별 집계에서 전체 계산
+ * - 검증 작업(verifyGuild)은 study_log 원본에서 다시 계산해 저장된 값과 비교하고 다른 행을 고침
+ * - 날짜는 일별 집계와 같은 길드 시간대 기준 ("오늘/어제" 판단도 호출한 쪽이 길드 시간대의 오늘을 넘김)
+ */
+@Service
+public class StudyStreakService {
+
+    private static final Logger logger = LoggerFactory.getLogger(StudyStreakService.class);
+
+    // ON DUPLICATE KEY UPDATE는 왼쪽부터 차례로 적용되므로 last_day는 마지막에 갱신
+    private static final String ADD_DAY_SQL =
+            "INSERT INTO study_streak (guild_id, user_id, last_day, current_streak, longest_streak, needs_rebuild) " +
+            "VALUES (?, ?, ?, 1, 1, FALSE) ON DUPLICATE KEY UPDATE " +
+            "needs_rebuild = needs_rebuild OR VALUES(last_day) < last_day, " +
+            "current_streak = CASE " +
+            "WHEN VALUES(last_day) = last_day + INTERVAL 1 DAY THEN current_streak + 1 " +
+            "WHEN VALUES(last_day) > last_day THEN 1 " +
+            "ELSE current_streak END, " +
+            "longest_streak = GREATEST(longest_streak, current_streak), " +
+            "last_day = GREATEST(last_day, VALUES(last_day))";
+
+    private static final String REPLACE_SQL =
+            "REPLACE INTO study_streak (guild_id, user_id, last_day, current_streak, longest_streak, needs_rebuild) " +
+            "VALUES (?, ?, ?, ?, ?, FALSE)";
+
+    // 다시 계산하는 동안 그 사용자의 집계가 바뀌지 않도록 공유 잠금
+    private static final String USER_DAYS_SQL =
+            "SELECT day FROM study_daily_agg WHERE guild_id = ? AND user_id = ? AND seconds > 0 " +
+            "ORDER BY day FOR SHARE";
+
+    private static final String GUILD_DAYS_SQL =
+            "SELECT user_id, day FROM study_daily_agg WHERE guild_id = ? AND seconds > 0 " +
+            "ORDER BY user_id, day FOR SHARE";
+
+    private final StudyStreakRepository studyStreakRepository;
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final GuildTimeZoneService guildTimeZoneService;
+
+    public StudyStreakService(StudyStreakRepository studyStreakRepository, JdbcTemplate jdbcTemplate,
+                              TransactionTemplate transactionTemplate, GuildTimeZoneService guildTimeZoneService) {
+        this.studyStreakRepository = studyStreakRepository;
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = transactionTemplate;
+        this.guildTimeZoneService = guildTimeZoneService;
+    }
+
+    /**
+     * 날짜순으로 정렬된 공부한 날짜로 계산한 연속 기록
+     */
+    public record Streak(LocalDate lastDay, int current, int longest) {
+
+        static Streak of(Iterable<LocalDate> sortedDays) {
+            LocalDate last = null;
+            int current = 0;
+            int longest = 0;
+            for (LocalDate day : sortedDays) {
+                current = last != null && day.equals(last.plusDays(1)) ? current + 1 : 1;
+                longest = Math.max(longest, current);
+                last = day;
+            }
+            return new Streak(last, current, longest);
+        }
+    }
+
+    /**
+     * 닫힌 기록의 날짜별 집계를 연속 기록에 반영
+     * 호출한 쪽의 트랜잭션 안에서 실행되어야 일별 집계와 함께 커밋/롤백됨
+     *
+     * @param totals (서버, 유저, 날짜)별 [초, 기록 수]
+     */
+    void addDays(Map<StudyDailyAgg.Key, long[]> totals) {
+        List<StudyDailyAgg.Key> days = new ArrayList<>(totals.size());
+        totals.forEach((key, total) -> {
+            if (total[0] > 0) {
+                days.add(key);
+            }
+        });
+        if (days.isEmpty()) {
+            return;
+        }
+        // 같은 사용자의 날짜는 오래된 날짜부터 적용
+        days.sort(Comparator.comparingLong(StudyDailyAgg.Key::getGuildId)
+                .thenComparingLong(StudyDailyAgg.Key::getUserId)
+                .thenComparing(StudyDailyAgg.Key::getDay));
+
+        List<Object[]> args = new ArrayList<>(days.size());
+        for (StudyDailyAgg.Key key : days) {
+            args.add(new Object[]{key.getGuildId(), key.getUserId(), Date.valueOf(key.getDay())});
+        }
+        jdbcTemplate.batchUpdate(ADD_DAY_SQL, args);
+    }
+
+    /**
+     * 화면에 보여줄 현재 연속 기록
+     * 마지막 공부 날짜가 오늘이나 어제가 아니면 연속 기록이 끊긴 것으로 보고 0
+     */
+    public static int currentStreak(StudyStreak streak, LocalDate today) {
+        return streak.getLastDay().isBefore(today.minusDays(1)) ? 0 : streak.getCurrentStreak();
+    }
+
+    /**
+     * 저장된 연속 기록 (다시 계산이 필요하면 일별 집계에서 계산한 뒤 반환)
+     */
+    public Optional<StudyStreak> find(long guildId, long userId) {
+        Optional<StudyStreak> streak = studyStreakRepository.findById(new StudyStreak.Key(guildId, userId));
+        if (streak.isPresent() && streak.get().isNeedsRebuild()) {
+            rebuildUser(guildId, userId);
+            return studyStreakRepository.findById(new StudyStreak.Key(guildId, userId));
+        }
+        return streak;
+    }
+
+    /**
+     * 한 사용자의 연속 기록을 일별 집계에서 다시 계산
+     */
+    public void rebuildUser(long guildId, long userId) {
+        transactionTemplate.executeWithoutResult(status -> {
+            List<LocalDate> days = jdbcTemplate.query(USER_DAYS_SQL,
+                    (rs, rowNum) -> rs.getDate(1).toLocalDate(), guildId, userId);
+            Streak streak = Streak.of(days);
+            if (streak.lastDay() == null) {
+                jdbcTemplate.update("DELETE FROM study_streak WHERE guild_id = ? AND user_id = ?", guildId, userId);
+                return;
+            }
+            jdbcTemplate.update(REPLACE_SQL, guildId, userId, Date.valueOf(streak.lastDay()),
+                    streak.current(), streak.longest());
+        });
+    }
+
+    /**
+     * 연속 기록 테이블이 비어 있으면 일별 집계에서 전체 계산 (별도 스레드)
+     * DailyRollupService가 일별 집계 backfill이 끝난 뒤 호출
+     */
+    public void rebuildIfEmpty() {
+        try {
+            Integer existing = jdbcTemplate.queryForObject(
+                    "SELECT COUNT(*) FROM (SELECT 1 FROM study_streak LIMIT 1) t", Integer.class);
+            if (existing != null && existing > 0) {
+                return;
+            }
+        } catch (Exception e) {
+            logger.error("연속 기록 테이블 확인 중 오류 발생", e);
+            return;
+        }
+
+        Thread worker = new Thread(this::rebuildAll, "study-streak-rebuild");
+        worker.setDaemon(true);
+        worker.start();
+    }
+
+    /**
+     * 모든 서버의 연속 기록을 일별 집계에서 다시 계산 (서버마다 한 트랜잭션)
+     */
+    public void rebuildAll() {
+        long started = System.nanoTime();
+        List<Long> guildIds = jdbcTemplate.queryForList("SELECT DISTINCT guild_id FROM study_daily_agg", Long.class);
+        int rows = 0;
+        for (Long guildId : guildIds) {
+            try {
+                Integer written = transactionTemplate.execute(status -> rebuildGuild(guildId));
+                rows += written != null ? written : 0;
+            } catch (Exception e) {
+                logger.error("연속 기록 계산 실패. 길드: {}", guildId, e);
+            }
+        }
+        logger.info("연속 기록 계산 완료: 서버 {}개, {}명 ({}ms)", guildIds.size(), rows,
+                (System.nanoTime() - started) / 1_000_000);
+    }
+
+    /**
+     * 한 서버의 연속 기록을 지우고 일별 집계에서 다시 계산 (길드 시간대 변경으로 날짜가 다시 나뉜 뒤)
+     * 호출한 쪽의 트랜잭션 안에서 실행되어야 함
+     */
+    void replaceGuild(long guildId) {
+        jdbcTemplate.update("DELETE FROM study_streak WHERE guild_id = ?", guildId);
+        rebuildGuild(guildId);
+    }
+
+    private int rebuildGuild(long guildId) {
+        Map<Long, List<LocalDate>> daysByUser = new HashMap<>();
+        jdbcTemplate.query(GUILD_DAYS_SQL, rs -> {
+            daysByUser.computeIfAbsent(rs.getLong(1), id -> new ArrayList<>()).add(rs.getDate(2).toLocalDate());
+        }, guildId);
+
+        List<Object[]> args = new ArrayList<>(daysByUser.size());
+        daysByUser.forEach((userId, days) -> {
+            Streak streak = Streak.of(days);
+            args.add(new Object[]{guildId, userId, Date.valueOf(streak.lastDay()), streak.current(), streak.longest()});
+        });
+        if (!args.isEmpty()) {
+            jdbcTemplate.batchUpdate(REPLACE_SQL, args);
+        }
+        return args.size();
+    }
+
+    /**
+     * 한 서버의 연속 기록을 study_log 원본에서 다시 계산해 저장된 값과 비교
+     * 다른 사용자는 경고를 남기고 일별 집계에서 다시 계산해 고침
+     *
+     * @return 값이 달랐던 사용자 수
+     */
+    public int verifyGuild(long guildId) {
+        // 원본 기록을 날짜별로 나눠 공부한 날짜를 구함 (일별 집계와 같은 기준, 길드 시간대)
+        Map<StudyDailyAgg.Key, long[]> totals = new HashMap<>();
+        ZoneId zone = guildTimeZoneService.zoneOf(guildId);
+        jdbcTemplate.query("SELECT user_id, start_time, end_time FROM study_log " +
+                "WHERE guild_id = ? AND end_time IS NOT NULL", rs -> {
+            Timestamp start = rs.getTimestamp(2);
+            Timestamp end = rs.getTimestamp(3);
+            DailyRollupService.splitByDay(guildId, rs.getLong(1),
+                    guildTimeZoneService.toInstant(start.toLocalDateTime()),
+                    guildTimeZoneService.toInstant(end.toLocalDateTime()), zone, totals);
+        }, guildId);
+
+        Map<Long, TreeSet<LocalDate>> daysByUser = new TreeMap<>();
+        totals.forEach((key, total) -> {
+            if (total[0] > 0) {
+                daysByUser.computeIfAbsent(key.getUserId(), id -> new TreeSet<>()).add(key.getDay());
+            }
+        });
+
+        Map<Long, Streak> stored = new HashMap<>();
+        jdbcTemplate.query("SELECT user_id, last_day, current_streak, longest_streak FROM study_streak " +
+                "WHERE guild_id = ?", rs -> {
+            stored.put(rs.getLong(1), new Streak(rs.getDate(2).toLocalDate(), rs.getInt(3), rs.getInt(4)));
+        }, guildId);
+
+        int mismatches = 0;
+        TreeSet<Long> userIds = new TreeSet<>(daysByUser.keySet());
+        userIds.addAll(stored.keySet());
+        for (Long userId : userIds) {
+            TreeSet<LocalDate> days = daysByUser.get(userId);
+            Streak expected = days != null ? Streak.of(days) : null;
+            Streak actual = stored.get(userId);
+            if (expected == null ? actual == null : expected.equals(actual)) {
+                continue;
+            }
+            mismatches++;
+            logger.warn("연속 기록 불일치. 길드: {}, 유저: {}, 원본: {}, 저장: {}", guildId, userId, expected, actual);
+            rebuildUser(guildId, userId);
+        }
+        return mismatches;
+    }
+}
@@ -0,0 +1,245 @@
+package com.studybot.discord_study_bot.session;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * (guildId, userId) 스노우플레이크 쌍을 키로 하는 세션 인덱스
+ * 음성 이벤트마다 "guildId:userId" 문자열을 만들지 않도록 long 두 개를 그대로 키로 사용한다.
+ *
+ * - open addressing (linear probing) + 삭제 시 backward shift로 tombstone 없음
+ * - 세그먼트별 락으로 동시 접근 (세그먼트는 해시 상위 비트로 선택)
+ * - 조회/삽입/삭제 중 객체 할당 없음 (테이블 확장 시 제외)
+ */
+public class SessionIndex {
+
+    private static final int SEGMENT_BITS = 4;
+    private static final int SEGMENT_COUNT = 1 << SEGMENT_BITS;
+    private static final int INITIAL_SEGMENT_CAPACITY = 64;
+
+    private final Segment[] segments = new Segment[SEGMENT_COUNT];
+
+    public SessionIndex() {
+        for (int i = 0; i < SEGMENT_COUNT; i++) {
+            segments[i] = new Segment(INITIAL_SEGMENT_CAPACITY);
+        }
+    }
+
+    /**
+     * 세션 조회 (없으면 null)
+     */
+    public StudySession get(long guildId, long userId) {
+        long hash = hash(guildId, userId);
+        Segment segment = segmentFor(hash);
+        synchronized (segment) {
+            return segment.get(guildId, userId, hash);
+        }
+    }
+
+    /**
+     * 세션 조회 또는 생성
+     */
+    public StudySession getOrCreate(long guildId, long userId) {
+        long hash = hash(guildId, userId);
+        Segment segment = segmentFor(hash);
+        synchronized (segment) {
+            StudySession session = segment.get(guildId, userId, hash);
+            if (session == null) {
+                session = new StudySession(guildId, userId);
+                segment.put(guildId, userId, hash, session);
+            }
+            return session;
+        }
+    }
+
+    /**
+     * 세션 제거
+     */
+    public StudySession remove(long guildId, long userId) {
+        long hash = hash(guildId, userId);
+        Segment segment = segmentFor(hash);
+        synchronized (segment) {
+            return segment.remove(guildId, userId, hash);
+        }
+    }
+
+    /**
+     * 주어진 세션 객체가 아직 등록되어 있을 때만 제거
+     */
+    public boolean remove(StudySession session) {
+        long hash = hash(session.getGuildId(), session.getUserId());
+        Segment segment = segmentFor(hash);
+        synchronized (segment) {
+            if (segment.get(session.getGuildId(), session.getUserId(), hash) != session) {
+                return false;
+            }
+            segment.remove(session.getGuildId(), session.getUserId(), hash);
+            return true;
+        }
+    }
+
+    public int size() {
+        int size = 0;
+        for (Segment segment : segments) {
+            synchronized (segment) {
+                size += segment.size;
+            }
+        }
+        return size;
+    }
+
+    public int segmentCount() {
+        return SEGMENT_COUNT;
+    }
+
+    /**
+     * 한 세그먼트의 세션 스냅샷
+     * 전체를 한 번에 잠그지 않고 세그먼트 단위로 나눠 훑을 때 사용
+     */
+    public List<StudySession> snapshotSegment(int segmentIndex) {
+        Segment segment = segments[segmentIndex];
+        synchronized (segment) {
+            List<StudySession> snapshot = new ArrayList<>(segment.size);
+            for (StudySession session : segment.values) {
+                if (session != null) {
+                    snapshot.add(session);
+                }
+            }
+            return snapshot;
+        }
+    }
+
+    /**
+     * 모든 세션 순회 (세그먼트별 스냅샷 기준)
+     */
+    public void forEach(Consumer<StudySession> action) {
+        for (int i = 0; i < SEGMENT_COUNT; i++) {
+            snapshotSegment(i).forEach(action);
+        }
+    }
+
+    private Segment segmentFor(long hash) {
+        return segments[(int) (hash >>> (64 - SEGMENT_BITS))];
+    }
+
+    /**
+     * 두 스노우플레이크를 섞은 64비트 해시 (murmur3 fmix64)
+     * VoiceEventDispatcher의 레인 선택에도 같은 해시를 사용
+     */
+    public static long hash(long guildId, long userId) {
+        long h = guildId * 0x9E3779B97F4A7C15L ^ userId;
+        h ^= h >>> 33;
+        h *= 0xFF51AFD7ED558CCDL;
+        h ^= h >>> 33;
+        h *= 0xC4CEB9FE1A85EC53L;
+        h ^= h >>> 33;
+        return h;
+    }
+
+    /**
+     * 세그먼트: 병렬 배열로 된 open addressing 테이블
+     */
+    private static final class Segment {
+        private long[] guildIds;
+        private long[] userIds;
+        private StudySession[] values;
+        private int mask;
+        private int size;
+
+        Segment(int capacity) {
+            allocate(capacity);
+        }
+
+        private void allocate(int capacity) {
+            guildIds = new long[capacity];
+            userIds = new long[capacity];
+            values = new StudySession[capacity];
+            mask = capacity - 1;
+        }
+
+        StudySession get(long guildId, long userId, long hash) {
+            int slot = (int) hash & mask;
+            while (values[slot] != null) {
+                if (guildIds[slot] == guildId && userIds[slot] == userId) {
+                    return values[slot];
+                }
+                slot = (slot + 1) & mask;
+            }
+            return null;
+        }
+
+        void put(long guildId, long userId, long hash, StudySession session) {
+            // 사용률 3/4를 넘으면 두 배로 확장
+            if ((size + 1) * 4 > values.length * 3) {
+                resize();
+            }
+            int slot = (int) hash & mask;
+            while (values[slot] != null) {
+                if (guildIds[slot] == guildId && userIds[slot] == userId) {
+                    values[slot] = session;
+                    return;
+                }
+                slot = (slot + 1) & mask;
+            }
+            guildIds[slot] = guildId;
+            userIds[slot] = userId;
+            values[slot] = session;
+            size++;
+        }
+
+        StudySession remove(long guildId, long userId, long hash) {
+            int slot = (int) hash & mask;
+            while (values[slot] != null) {
+                if (guildIds[slot] == guildId && userIds[slot] == userId) {
+                    StudySession removed = values[slot];
+                    shiftBack(slot);
+                    size--;
+                    return removed;
+                }
+                slot = (slot + 1) & mask;
+            }
+            return null;
+        }
+
+        /**
+         * 빈 칸 뒤에 이어진 항목들을 원래 위치 쪽으로 당겨 probing 체인을 유지
+         */
+        private void shiftBack(int hole) {
+            int slot = hole;
+            while (true) {
+                slot = (slot + 1) & mask;
+                if (values[slot] == null) {
+                    break;
+                }
+                int home = (int) hash(guildIds[slot], userIds[slot]) & mask;
+                // home이 (hole, slot] 구간 밖이면 hole로 옮길 수 있음
+                boolean movable = hole <= slot
+                        ? (home <= hole || home > slot)
+                        : (home <= hole && home > slot);
+                if (movable) {
+                    guildIds[hole] = guildIds[slot];
+                    userIds[hole] = userIds[slot];
+                    values[hole] = values[slot];
+                    hole = slot;
+                }
+            }
+            values[hole] = null;
+            guildIds[hole] = 0L;
+            userIds[hole] = 0L;
+        }
+
+        private void resize() {
+            long[] oldGuildIds = guildIds;
+            long[] oldUserIds = userIds;
+            StudySession[] oldValues = values;
+            allocate(oldValues.length * 2);
+            size = 0;
+            for (int i = 0; i < oldValues.length; i++) {
+                if (oldValues[i] != null) {
+                    put(oldGuildIds[i], oldUserIds[i], hash(oldGuildIds[i], oldUserIds[i]), oldValues[i]);
+                }
+            }
+        }
+    }
+}
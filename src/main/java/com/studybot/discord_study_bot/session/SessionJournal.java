@@ -0,0 +1,358 @@
+package com.studybot.discord_study_bot.session;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 세션 열기/닫기 기록용 append-only 저널 (memory-mapped 파일)
+ * JVM이 강제 종료되어도 어떤 세션이 열려 있었는지 재시작 시 복원할 수 있게 함.
+ *
+ * 파일 구조
+ * - 헤더(64바이트): magic, version, 마지막 생존 시각(heartbeat)
+ * - 레코드(32바이트 고정): type(1) + padding(3) + guildId(8) + userId(8) + epochSecond(8) + checksum(4)
+ *
+ * 파일이 가득 차면 현재 열린 세션만 새 파일에 옮겨 쓰고 교체함(compaction).
+ *
+ * 생존 시각 갱신/fsync는 전용 스레드에서 실행함.
+ * Spring 공용 스케줄러에서 돌리면 랭킹 포스트나 연속 기록 검증 같은 긴 작업 동안 밀려서
+ * 강제 종료 시 복구 기준이 되는 마지막 생존 시각이 수 분씩 늦어질 수 있음.
+ */
+@Component
+public class SessionJournal {
+
+    private static final Logger logger = LoggerFactory.getLogger(SessionJournal.class);
+
+    private static final int MAGIC = 0x53544A4E; // "STJN"
+    private static final int VERSION = 1;
+    private static final int HEADER_SIZE = 64;
+    private static final int HEARTBEAT_OFFSET = 8;
+    private static final int RECORD_SIZE = 32;
+
+    private static final byte TYPE_OPEN = 1;
+    private static final byte TYPE_CLOSE = 2;
+
+    /**
+     * fsync 정책
+     * ALWAYS: 기록마다 디스크 반영 / INTERVAL: 주기적으로 반영 / NONE: OS에 맡김
+     */
+    public enum FsyncPolicy {
+        ALWAYS, INTERVAL, NONE
+    }
+
+    private final Path path;
+    private final long capacityBytes;
+    private final FsyncPolicy fsyncPolicy;
+    private final long fsyncIntervalMs;
+    private final ZoneId zone = ZoneId.systemDefault();
+
+    private FileChannel channel;
+    private FileLock lock;
+    private MappedByteBuffer buffer;
+    private int position;
+    private long previousHeartbeat; // 이전 프로세스가 남긴 마지막 생존 시각
+    private boolean enabled;
+    private boolean dirty;
+    private ScheduledExecutorService heartbeatExecutor;
+
+    public SessionJournal(@Value("${session-journal.path:data/session.journal}") String path,
+                          @Value("${session-journal.capacity-mb:64}") long capacityMb,
+                          @Value("${session-journal.fsync:interval}") String fsync,
+                          @Value("${session-journal.fsync-interval-ms:1000}") long fsyncIntervalMs) {
+        this.path = Paths.get(path);
+        this.capacityBytes = capacityMb * 1024 * 1024;
+        this.fsyncPolicy = FsyncPolicy.valueOf(fsync.trim().toUpperCase());
+        this.fsyncIntervalMs = Math.max(1, fsyncIntervalMs);
+    }
+
+    /**
+     * 저널 파일 열기
+     * 다른 프로세스가 사용 중이면 저널 없이 동작함
+     */
+    @PostConstruct
+    public synchronized void open() {
+        try {
+            if (path.getParent() != null) {
+                Files.createDirectories(path.getParent());
+            }
+            channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.READ,
+                    StandardOpenOption.WRITE);
+            lock = channel.tryLock();
+            if (lock == null) {
+                logger.error("세션 저널 파일이 다른 프로세스에서 사용 중입니다. 저널 없이 실행합니다: {}", path);
+                channel.close();
+                return;
+            }
+
+            boolean fresh = channel.size() < HEADER_SIZE;
+            buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, Math.max(capacityBytes, channel.size()));
+            if (fresh || buffer.getInt(0) != MAGIC) {
+                writeHeader(buffer);
+                position = HEADER_SIZE;
+            } else {
+                position = findEnd(buffer);
+                previousHeartbeat = buffer.getLong(HEARTBEAT_OFFSET);
+            }
+            enabled = true;
+            startHeartbeat();
+            logger.info("세션 저널 열기 완료: {} (fsync: {}, 사용: {}바이트)", path, fsyncPolicy, position);
+        } catch (IOException e) {
+            logger.error("세션 저널을 열 수 없습니다. 저널 없이 실행합니다: {}", path, e);
+        }
+    }
+
+    /**
+     * 세션 열기 기록
+     */
+    public void recordOpen(long guildId, long userId, LocalDateTime startTime) {
+        append(TYPE_OPEN, guildId, userId, startTime);
+    }
+
+    /**
+     * 세션 닫기 기록
+     */
+    public void recordClose(long guildId, long userId, LocalDateTime endTime) {
+        append(TYPE_CLOSE, guildId, userId, endTime);
+    }
+
+    private synchronized void append(byte type, long guildId, long userId, LocalDateTime time) {
+        if (!enabled) {
+            return;
+        }
+        try {
+            if (position + RECORD_SIZE > buffer.capacity()) {
+                compact();
+            }
+            writeRecord(buffer, position, type, guildId, userId, time.atZone(zone).toEpochSecond());
+            position += RECORD_SIZE;
+
+            if (fsyncPolicy == FsyncPolicy.ALWAYS) {
+                buffer.force();
+            } else {
+                dirty = true;
+            }
+        } catch (Exception e) {
+            logger.error("세션 저널 기록 실패: {} {}:{}", type, guildId, userId, e);
+        }
+    }
+
+    /**
+     * 저널을 처음부터 읽어 아직 닫히지 않은 세션 목록을 반환
+     * 레코드가 고정 길이라 mmap 버퍼를 순차로 훑기만 하면 됨
+     */
+    public synchronized Replay replay() {
+        if (!enabled) {
+            return new Replay(List.of(), null);
+        }
+
+        long started = System.nanoTime();
+        Map<SessionId, OpenSession> open = replayOpenSessions(buffer, position);
+        LocalDateTime lastAlive = previousHeartbeat > 0 ? toLocalDateTime(previousHeartbeat) : null;
+
+        logger.info("세션 저널 재생 완료: {}개 레코드, 열린 세션 {}개, 마지막 생존 시각 {} ({}ms)",
+                (position - HEADER_SIZE) / RECORD_SIZE, open.size(), lastAlive,
+                (System.nanoTime() - started) / 1_000_000);
+        return new Replay(new ArrayList<>(open.values()), lastAlive);
+    }
+
+    private void startHeartbeat() {
+        heartbeatExecutor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "session-journal-heartbeat");
+            thread.setDaemon(true);
+            return thread;
+        });
+        heartbeatExecutor.scheduleWithFixedDelay(() -> {
+            try {
+                heartbeat();
+            } catch (Exception e) {
+                logger.error("세션 저널 생존 시각 갱신 실패", e);
+            }
+        }, fsyncIntervalMs, fsyncIntervalMs, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * 생존 시각 갱신 + 주기적 fsync (전용 스레드에서 session-journal.fsync-interval-ms마다 실행)
+     * 강제 종료 후 열린 세션은 마지막 생존 시각으로 닫힘
+     */
+    public synchronized void heartbeat() {
+        if (!enabled) {
+            return;
+        }
+        buffer.putLong(HEARTBEAT_OFFSET, Instant.now().getEpochSecond());
+        if (fsyncPolicy != FsyncPolicy.NONE && (dirty || fsyncPolicy == FsyncPolicy.ALWAYS)) {
+            buffer.force();
+        }
+        dirty = false;
+    }
+
+    /**
+     * 열린 세션만 남기고 저널을 다시 씀
+     * 임시 파일에 먼저 쓰고 fsync한 뒤 원자적으로 교체하므로 도중에 죽어도 기존 저널은 유지됨
+     */
+    public synchronized void compact() throws IOException {
+        if (!enabled) {
+            return;
+        }
+        Collection<OpenSession> open = replayOpenSessions(buffer, position).values();
+        if (HEADER_SIZE + (long) open.size() * RECORD_SIZE >= capacityBytes) {
+            throw new IOException("열린 세션 수가 저널 용량을 초과합니다: " + open.size());
+        }
+
+        Path temp = path.resolveSibling(path.getFileName() + ".tmp");
+        try (FileChannel tempChannel = FileChannel.open(temp, StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            MappedByteBuffer tempBuffer = tempChannel.map(FileChannel.MapMode.READ_WRITE, 0, capacityBytes);
+            writeHeader(tempBuffer);
+            tempBuffer.putLong(HEARTBEAT_OFFSET, buffer.getLong(HEARTBEAT_OFFSET));
+            int tempPosition = HEADER_SIZE;
+            for (OpenSession session : open) {
+                writeRecord(tempBuffer, tempPosition, TYPE_OPEN, session.guildId(), session.userId(),
+                        session.startTime().atZone(zone).toEpochSecond());
+                tempPosition += RECORD_SIZE;
+            }
+            tempBuffer.force();
+
+            lock.release();
+            channel.close();
+            Files.move(temp, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+
+            channel = FileChannel.open(path, StandardOpenOption.READ, StandardOpenOption.WRITE);
+            lock = channel.lock();
+            buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, capacityBytes);
+            position = tempPosition;
+        }
+        logger.info("세션 저널 compaction 완료. 열린 세션 {}개 유지", open.size());
+    }
+
+    @PreDestroy
+    public synchronized void close() {
+        if (heartbeatExecutor != null) {
+            heartbeatExecutor.shutdownNow();
+        }
+        if (!enabled) {
+            return;
+        }
+        heartbeat();
+        buffer.force();
+        enabled = false;
+        try {
+            lock.release();
+            channel.close();
+        } catch (IOException e) {
+            logger.warn("세션 저널 닫기 실패", e);
+        }
+    }
+
+    private Map<SessionId, OpenSession> replayOpenSessions(MappedByteBuffer source, int end) {
+        Map<SessionId, OpenSession> open = new HashMap<>();
+        for (int offset = HEADER_SIZE; offset < end; offset += RECORD_SIZE) {
+            byte type = source.get(offset);
+            long guildId = source.getLong(offset + 4);
+            long userId = source.getLong(offset + 12);
+            long epochSecond = source.getLong(offset + 20);
+            SessionId id = new SessionId(guildId, userId);
+            if (type == TYPE_OPEN) {
+                open.put(id, new OpenSession(guildId, userId, toLocalDateTime(epochSecond)));
+            } else {
+                open.remove(id);
+            }
+        }
+        return open;
+    }
+
+    /**
+     * 마지막으로 온전히 기록된 레코드 다음 위치를 찾음
+     * 기록 도중 죽어서 checksum이 맞지 않는 꼬리 레코드는 버림
+     */
+    private int findEnd(MappedByteBuffer source) {
+        int offset = HEADER_SIZE;
+        while (offset + RECORD_SIZE <= source.capacity()) {
+            byte type = source.get(offset);
+            if (type != TYPE_OPEN && type != TYPE_CLOSE) {
+                break;
+            }
+            int expected = checksum(type, source.getLong(offset + 4), source.getLong(offset + 12),
+                    source.getLong(offset + 20));
+            if (source.getInt(offset + 28) != expected) {
+                logger.warn("세션 저널 끝부분의 손상된 레코드를 무시합니다. (offset: {})", offset);
+                break;
+            }
+            offset += RECORD_SIZE;
+        }
+        // 손상된 꼬리 이후는 지워서 다음 기록과 섞이지 않게 함
+        for (int i = offset; i < Math.min(offset + RECORD_SIZE, source.capacity()); i++) {
+            source.put(i, (byte) 0);
+        }
+        return offset;
+    }
+
+    private static void writeHeader(MappedByteBuffer target) {
+        target.putInt(0, MAGIC);
+        target.putInt(4, VERSION);
+        target.putLong(HEARTBEAT_OFFSET, 0L);
+    }
+
+    private static void writeRecord(MappedByteBuffer target, int offset, byte type,
+                                    long guildId, long userId, long epochSecond) {
+        // type은 마지막에 써서, 기록 도중 죽으면 빈 레코드(type 0)로 보이게 함
+        target.putLong(offset + 4, guildId);
+        target.putLong(offset + 12, userId);
+        target.putLong(offset + 20, epochSecond);
+        target.putInt(offset + 28, checksum(type, guildId, userId, epochSecond));
+        target.put(offset, type);
+    }
+
+    private static int checksum(byte type, long guildId, long userId, long epochSecond) {
+        long h = type;
+        h = h * 31 + guildId;
+        h = h * 31 + userId;
+        h = h * 31 + epochSecond;
+        return (int) (h ^ (h >>> 32));
+    }
+
+    private LocalDateTime toLocalDateTime(long epochSecond) {
+        return LocalDateTime.ofInstant(Instant.ofEpochSecond(epochSecond), zone);
+    }
+
+    private record SessionId(long guildId, long userId) {
+    }
+
+    /**
+     * 저널 재생 결과
+     *
+     * @param openSessions 마지막까지 닫히지 않은 세션
+     * @param lastAlive    마지막 생존 시각 (기록이 없으면 null)
+     */
+    public record Replay(List<OpenSession> openSessions, LocalDateTime lastAlive) {
+    }
+
+    /**
+     * 저널상 열린 세션
+     */
+    public record OpenSession(long guildId, long userId, LocalDateTime startTime) {
+    }
+}
@@ -9,22 +9,22 @@ import java.time.LocalDateTime;
  */
 @Data
 public class StudySession {
-    private String sessionKey;           // "guildId:userId"
-    private String guildId;
-    private String userId;
-    private Long studyLogId;             // 현재 활성 StudyLog ID
+    private final long guildId;          // Discord 서버 ID (snowflake)
+    private final long userId;           // Discord 유저 ID (snowflake)
     private boolean isScreenSharing;     // 화면공유 여부
     private boolean isPomodoroActive;    // 뽀모도로 활성 여부
-    private LocalDateTime startTime;     // 세션 시작 시간
-    
-    public StudySession(String guildId, String userId) {
+    private LocalDateTime startTime;     // 현재 열린 StudyLog 시작 시간 (null이면 닫힘)
+    private Long channelId;              // 현재 열린 StudyLog를 시작한 음성 채널 ID (모르면 null)
+    private LocalDateTime pendingEndTime; // 유예 중인 종료 시각 (null이면 종료 대기 없음)
+    private long pendingCloseDeadlineNanos; // 유예가 끝나는 시점 (System.nanoTime 기준, 시계가 바뀌어도 그대로)
+
+    public StudySession(long guildId, long userId) {
         this.guildId = guildId;
         this.userId = userId;
-        this.sessionKey = guildId + ":" + userId;
         this.isScreenSharing = false;
         this.isPomodoroActive = false;
     }
-    
+
     /**
      * 세션이 활성 상태인지 확인
      * 화면공유 또는 뽀모도로 중 하나라도 활성이면 true
@@ -32,4 +32,12 @@ public class StudySession {
     public boolean isActive() {
         return isScreenSharing || isPomodoroActive;
     }
+
+    /**
+     * 종료 요청 후 유예 시간 안에 있는지 확인
+     * 유예 중에 다시 시작하면 같은 StudyLog를 이어서 사용
+     */
+    public boolean isClosePending() {
+        return pendingEndTime != null;
+    }
 }
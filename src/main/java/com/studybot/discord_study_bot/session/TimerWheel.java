@@ -0,0 +1,154 @@
+package com.studybot.discord_study_bot.session;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+/**
+ * 해시 타이머 휠
+ * 사용자마다 예약 작업을 만들지 않고, 스레드 하나가 tick마다 슬롯 하나만 훑어 만료된 항목을 처리한다.
+ *
+ * - 예약: 만료 tick을 계산해 해당 슬롯에 추가 (O(1))
+ * - 취소: 따로 하지 않음. 만료 콜백에서 항목이 아직 유효한지 확인해 무시 (lazy cancel)
+ * - 정밀도: tick 단위 (만료는 최대 1 tick 늦게 처리될 수 있음)
+ */
+public class TimerWheel<T> {
+
+    private static final Logger logger = LoggerFactory.getLogger(TimerWheel.class);
+
+    private final List<ArrayDeque<Entry<T>>> slots;
+    private final int mask;
+    private final long tickNanos;
+    private final Consumer<T> onExpire;
+    private final Thread worker;
+    private final long startNanos;
+    private long currentTick;
+    private int pending;
+    private volatile boolean running = true;
+
+    /**
+     * @param name      작업 스레드 이름
+     * @param tick      tick 간격
+     * @param wheelSize 슬롯 수 (2의 거듭제곱으로 올림)
+     * @param onExpire  만료 시 호출 (작업 스레드에서 실행)
+     */
+    public TimerWheel(String name, long tick, TimeUnit unit, int wheelSize, Consumer<T> onExpire) {
+        int size = Integer.highestOneBit(Math.max(2, wheelSize - 1) << 1);
+        this.slots = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            slots.add(new ArrayDeque<>());
+        }
+        this.mask = size - 1;
+        this.tickNanos = unit.toNanos(tick);
+        this.onExpire = onExpire;
+        this.startNanos = System.nanoTime();
+        this.worker = new Thread(this::run, name);
+        this.worker.setDaemon(true);
+        this.worker.start();
+    }
+
+    /**
+     * delay 후 만료되도록 항목 예약
+     */
+    public void schedule(T item, long delay, TimeUnit unit) {
+        long deadline = System.nanoTime() - startNanos + unit.toNanos(delay);
+        // 올림: 만료가 delay보다 일찍 처리되지 않도록 함
+        long deadlineTick = (deadline + tickNanos - 1) / tickNanos;
+        synchronized (this) {
+            long tick = Math.max(deadlineTick, currentTick + 1);
+            long rounds = (tick - currentTick - 1) / slots.size();
+            slots.get((int) (tick & mask)).add(new Entry<>(item, rounds));
+            pending++;
+        }
+    }
+
+    /**
+     * 대기 중인 항목 수 (이미 무효화된 항목 포함)
+     */
+    public synchronized int pendingCount() {
+        return pending;
+    }
+
+    /**
+     * 작업 스레드를 멈추고 아직 만료되지 않은 항목을 반환
+     * 종료 시 호출자가 남은 항목을 직접 정리할 때 사용
+     */
+    public List<T> stop() {
+        running = false;
+        worker.interrupt();
+        try {
+            worker.join(TimeUnit.SECONDS.toMillis(5));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        List<T> remaining = new ArrayList<>();
+        synchronized (this) {
+            for (ArrayDeque<Entry<T>> slot : slots) {
+                for (Entry<T> entry : slot) {
+                    remaining.add(entry.item);
+                }
+                slot.clear();
+            }
+            pending = 0;
+        }
+        return remaining;
+    }
+
+    private void run() {
+        while (running) {
+            long nextTick;
+            synchronized (this) {
+                nextTick = currentTick + 1;
+            }
+            long sleepNanos = startNanos + nextTick * tickNanos - System.nanoTime();
+            if (sleepNanos > 0) {
+                try {
+                    TimeUnit.NANOSECONDS.sleep(sleepNanos);
+                } catch (InterruptedException e) {
+                    // stop()에 의한 종료
+                    return;
+                }
+            }
+
+            List<T> expired = new ArrayList<>();
+            synchronized (this) {
+                currentTick = nextTick;
+                ArrayDeque<Entry<T>> slot = slots.get((int) (currentTick & mask));
+                for (int i = slot.size(); i > 0; i--) {
+                    Entry<T> entry = slot.poll();
+                    if (entry.rounds > 0) {
+                        entry.rounds--;
+                        slot.add(entry);
+                    } else {
+                        expired.add(entry.item);
+                        pending--;
+                    }
+                }
+            }
+
+            // 콜백은 락 밖에서 실행 (콜백 안에서 다시 schedule 할 수 있도록)
+            for (T item : expired) {
+                try {
+                    onExpire.accept(item);
+                } catch (Exception e) {
+                    logger.error("타이머 휠 만료 처리 중 오류 발생", e);
+                }
+            }
+        }
+    }
+
+    private static final class Entry<T> {
+        private final T item;
+        private long rounds;
+
+        private Entry(T item, long rounds) {
+            this.item = item;
+            this.rounds = rounds;
+        }
+    }
+}
@@ -0,0 +1,135 @@
+package com.studybot.discord_study_bot.contribution;
+
+import org.junit.jupiter.api.Test;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ContributionYearTest {
+
+	private static final LocalDate START = LocalDate.of(2025, 1, 1);
+
+	private static ContributionYear yearOf(int... seconds) {
+		List<Object[]> rows = new ArrayList<>();
+		for (int i = 0; i < seconds.length; i++) {
+			rows.add(new Object[]{START.plusDays(i).toString(), (long) seconds[i]});
+		}
+		return ContributionYear.of(START, START.plusDays(seconds.length - 1L), rows);
+	}
+
+	/**
+	 * 테스트용 디코더: 헤더를 확인하고 일별 초를 읽음
+	 */
+	private static int[] decodeSeconds(byte[] encoded, String expectedName) {
+		ByteBuffer in = ByteBuffer.wrap(encoded);
+		assertThat(in.get()).isEqualTo((byte) 'C');
+		assertThat(in.get()).isEqualTo((byte) 'Y');
+		assertThat(in.get()).isEqualTo(ContributionYear.FORMAT_VERSION);
+		byte encoding = in.get();
+		assertThat(in.getInt()).isEqualTo((int) START.toEpochDay());
+		int days = Short.toUnsignedInt(in.getShort());
+		byte[] name = new byte[Short.toUnsignedInt(in.getShort())];
+		in.get(name);
+		assertThat(new String(name, StandardCharsets.UTF_8)).isEqualTo(expectedName);
+		in.position(in.position() + (days + 1) / 2);
+
+		int[] seconds = new int[days];
+		int previous = 0;
+		for (int i = 0; i < days; i++) {
+			if (encoding == ContributionYear.ENCODING_DELTA) {
+				int zigzag = readVarint(in);
+				previous += (zigzag >>> 1) ^ -(zigzag & 1);
+				seconds[i] = previous;
+			} else {
+				seconds[i] = in.getInt();
+			}
+		}
+		assertThat(in.remaining()).isEqualTo(0);
+		return seconds;
+	}
+
+	private static int readVarint(ByteBuffer in) {
+		int value = 0;
+		for (int shift = 0; ; shift += 7) {
+			byte b = in.get();
+			value |= (b & 0x7F) << shift;
+			if ((b & 0x80) == 0) {
+				return value;
+			}
+		}
+	}
+
+	/**
+	 * 델타 인코딩에서 일별 초 부분의 길이 (헤더와 레벨 비트맵 제외)
+	 */
+	private static int deltaPayloadLength(int... seconds) {
+		byte[] encoded = yearOf(seconds).encode("", ContributionYear.ENCODING_DELTA);
+		return encoded.length - 12 - (seconds.length + 1) / 2;
+	}
+
+	@Test
+	void fixedAndDeltaEncodingsRoundTrip() {
+		int[] seconds = {0, 0, 3_600, 86_400, 86_399, 0, 1, 7_200, 7_200, 0, 14_400};
+		ContributionYear year = yearOf(seconds);
+
+		assertThat(decodeSeconds(year.encode("공부왕", ContributionYear.ENCODING_FIXED), "공부왕"))
+				.containsExactly(seconds);
+		assertThat(decodeSeconds(year.encode("공부왕", ContributionYear.ENCODING_DELTA), "공부왕"))
+				.containsExactly(seconds);
+	}
+
+	@Test
+	void zigzagVarintUsesOneByteUpTo63InEitherDirection() {
+		// zigzag: +63 → 126, -64 → 127 (한 바이트), +64 → 128, -65 → 129 (두 바이트)
+		assertThat(deltaPayloadLength(63)).isEqualTo(1);
+		assertThat(deltaPayloadLength(64)).isEqualTo(2);
+		assertThat(deltaPayloadLength(64, 0)).isEqualTo(3);
+		assertThat(deltaPayloadLength(65, 0)).isEqualTo(4);
+		// 공부하지 않은 날이 이어지면 하루 1바이트
+		assertThat(deltaPayloadLength(0, 0, 0, 0)).isEqualTo(4);
+	}
+
+	@Test
+	void varintBoundariesRoundTrip() {
+		// zigzag 값이 7, 14, 21, 28비트 경계를 넘는 지점과 int 범위 끝
+		int[] seconds = {8_191, 8_192, 0, 1_048_575, 1_048_576, 0, 134_217_727, 134_217_728, 0,
+				Integer.MAX_VALUE, 0, Integer.MAX_VALUE};
+		ContributionYear year = yearOf(seconds);
+
+		assertThat(decodeSeconds(year.encode(null, ContributionYear.ENCODING_DELTA), ""))
+				.containsExactly(seconds);
+		// 0 → Integer.MAX_VALUE의 zigzag 값은 부호 없는 32비트라 다섯 바이트
+		assertThat(deltaPayloadLength(Integer.MAX_VALUE)).isEqualTo(5);
+	}
+
+	@Test
+	void levelsArePackedTwoPerByte() {
+		ContributionYear year = yearOf(0, 1, 3_600, 7_200, 14_400);
+
+		assertThat(year.days()).isEqualTo(5);
+		for (int i = 0; i < year.days(); i++) {
+			assertThat(year.levelAt(i)).isEqualTo(i);
+		}
+		assertThat(year.getEndDay()).isEqualTo(START.plusDays(4));
+	}
+
+	@Test
+	void rowsOutsideTheYearAreIgnored() {
+		List<Object[]> rows = List.of(
+				new Object[]{START.minusDays(1).toString(), 100L},
+				new Object[]{START.toString(), 200L},
+				new Object[]{START.plusDays(1).toString(), null},
+				new Object[]{START.plusDays(2).toString(), 300L});
+
+		ContributionYear year = ContributionYear.of(START, START.plusDays(1), rows);
+
+		assertThat(year.days()).isEqualTo(2);
+		assertThat(year.secondsAt(0)).isEqualTo(200);
+		assertThat(year.secondsAt(1)).isEqualTo(0);
+	}
+}
@@ -0,0 +1,124 @@
+package com.studybot.discord_study_bot.leaderboard;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.SplittableRandom;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class RankTreeTest {
+
+	private static final Comparator<long[]> RANK_ORDER =
+			Comparator.<long[]>comparingLong(entry -> -entry[1]).thenComparingLong(entry -> entry[0]);
+
+	private static List<Long> usersInOrder(RankTree tree) {
+		List<Long> users = new ArrayList<>();
+		tree.forEachInOrder((userId, seconds) -> users.add(userId));
+		return users;
+	}
+
+	@Test
+	void tiesAreOrderedByUserId() {
+		RankTree tree = new RankTree();
+		tree.insert(30L, 100L);
+		tree.insert(10L, 100L);
+		tree.insert(20L, 100L);
+		tree.insert(40L, 500L);
+		tree.insert(5L, 50L);
+
+		assertThat(usersInOrder(tree)).containsExactly(40L, 10L, 20L, 30L, 5L);
+		assertThat(tree.rankOf(40L, 500L)).isEqualTo(0);
+		assertThat(tree.rankOf(10L, 100L)).isEqualTo(1);
+		assertThat(tree.rankOf(20L, 100L)).isEqualTo(2);
+		assertThat(tree.rankOf(30L, 100L)).isEqualTo(3);
+		assertThat(tree.rankOf(5L, 50L)).isEqualTo(4);
+	}
+
+	@Test
+	void rankOfMissingEntryIsNumberOfEntriesAhead() {
+		RankTree tree = new RankTree();
+		tree.insert(1L, 300L);
+		tree.insert(2L, 200L);
+		tree.insert(4L, 200L);
+
+		// 같은 시간이면 userId가 작은 쪽이 앞
+		assertThat(tree.rankOf(3L, 200L)).isEqualTo(2);
+		assertThat(tree.rankOf(0L, 200L)).isEqualTo(1);
+		assertThat(tree.rankOf(9L, 1_000L)).isEqualTo(0);
+		assertThat(tree.rankOf(9L, 0L)).isEqualTo(3);
+		assertThat(new RankTree().rankOf(1L, 1L)).isEqualTo(0);
+	}
+
+	@Test
+	void updateByRemoveAndInsertMovesUser() {
+		RankTree tree = new RankTree();
+		tree.insert(1L, 100L);
+		tree.insert(2L, 200L);
+		tree.insert(3L, 300L);
+
+		tree.remove(1L, 100L);
+		tree.insert(1L, 300L);
+
+		assertThat(usersInOrder(tree)).containsExactly(1L, 3L, 2L);
+		assertThat(tree.size()).isEqualTo(3);
+		// 없는 값을 지워도 그대로
+		tree.remove(2L, 999L);
+		assertThat(tree.size()).isEqualTo(3);
+	}
+
+	@Test
+	void forEachInOrderStopsWhenVisitorReturnsFalse() {
+		RankTree tree = new RankTree();
+		for (long userId = 1; userId <= 10; userId++) {
+			tree.insert(userId, userId * 10);
+		}
+		List<Long> visited = new ArrayList<>();
+		tree.forEachInOrder((userId, seconds) -> {
+			visited.add(userId);
+			return visited.size() < 3;
+		});
+
+		assertThat(visited).containsExactly(10L, 9L, 8L);
+	}
+
+	@Test
+	void matchesSortedListUnderRandomUpdates() {
+		RankTree tree = new RankTree();
+		Map<Long, Long> seconds = new HashMap<>();
+		SplittableRandom random = new SplittableRandom(42L);
+
+		for (int i = 0; i < 20_000; i++) {
+			long userId = random.nextInt(500);
+			// 값의 범위를 좁혀 동점이 자주 생기게 함
+			long value = random.nextInt(50);
+			Long previous = seconds.get(userId);
+			if (previous != null) {
+				tree.remove(userId, previous);
+			}
+			if (random.nextInt(5) == 0) {
+				seconds.remove(userId);
+			} else {
+				tree.insert(userId, value);
+				seconds.put(userId, value);
+			}
+		}
+
+		List<long[]> expected = new ArrayList<>();
+		seconds.forEach((userId, value) -> expected.add(new long[]{userId, value}));
+		expected.sort(RANK_ORDER);
+
+		assertThat(tree.size()).isEqualTo(expected.size());
+		List<Long> expectedUsers = new ArrayList<>();
+		for (int rank = 0; rank < expected.size(); rank++) {
+			long[] entry = expected.get(rank);
+			expectedUsers.add(entry[0]);
+			assertThat(tree.rankOf(entry[0], entry[1])).isEqualTo(rank);
+		}
+		assertThat(usersInOrder(tree)).isEqualTo(expectedUsers);
+	}
+}
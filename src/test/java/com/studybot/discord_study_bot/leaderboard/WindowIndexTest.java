@@ -0,0 +1,107 @@
+package com.studybot.discord_study_bot.leaderboard;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Map;
+import java.util.SplittableRandom;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class WindowIndexTest {
+
+	private static final LocalDate DAY = LocalDate.of(2025, 10, 1);
+
+	@Test
+	void dailySeriesSumsWithOutOfOrderInserts() {
+		DailySeries series = new DailySeries();
+		int base = (int) DAY.toEpochDay();
+		// 오늘 → 지난 날짜 → 그 사이 날짜 → 이미 있는 날짜 순으로 더함
+		series.add(base + 10, 100);
+		series.add(base, 10);
+		series.add(base + 5, 1_000);
+		series.add(base + 5, 1_000);
+		series.add(base - 3, 1);
+
+		assertThat(series.sum(base - 3, base + 10)).isEqualTo(2_111L);
+		assertThat(series.sum(base, base)).isEqualTo(10L);
+		assertThat(series.sum(base + 1, base + 9)).isEqualTo(2_000L);
+		// 기록이 없는 날만 있는 구간
+		assertThat(series.sum(base + 6, base + 9)).isEqualTo(0L);
+		// 전체 범위 밖
+		assertThat(series.sum(base - 100, base - 4)).isEqualTo(0L);
+		assertThat(series.sum(base + 11, base + 100)).isEqualTo(0L);
+	}
+
+	@Test
+	void dailySeriesMatchesNaiveSumsAfterGrowingPastInitialCapacity() {
+		DailySeries series = new DailySeries();
+		long[] naive = new long[100];
+		SplittableRandom random = new SplittableRandom(7L);
+		for (int i = 0; i < 500; i++) {
+			int day = random.nextInt(naive.length);
+			long seconds = random.nextInt(3_600);
+			series.add(day, seconds);
+			naive[day] += seconds;
+		}
+
+		for (int from = 0; from < naive.length; from += 7) {
+			for (int to = from; to < naive.length; to += 11) {
+				long expected = 0;
+				for (int day = from; day <= to; day++) {
+					expected += naive[day];
+				}
+				assertThat(series.sum(from, to)).isEqualTo(expected);
+			}
+		}
+	}
+
+	@Test
+	void windowSumUsesInclusiveBounds() {
+		WindowIndex index = new WindowIndex();
+		index.add(1L, DAY, 100);
+		index.add(1L, DAY.plusDays(13), 200);
+		index.add(1L, DAY.plusDays(14), 400);
+		index.add(1L, DAY.minusDays(1), 800);
+
+		assertThat(index.sum(1L, DAY, DAY.plusDays(13))).isEqualTo(300L);
+		assertThat(index.sum(1L, DAY.plusDays(14), DAY.plusDays(14))).isEqualTo(400L);
+		assertThat(index.sum(2L, DAY, DAY.plusDays(13))).isEqualTo(0L);
+		// 0초는 사용자를 만들지 않음
+		index.add(3L, DAY, 0);
+		assertThat(index.size()).isEqualTo(1);
+	}
+
+	@Test
+	void topOrdersByWindowSumThenUserIdAndAddsExtra() {
+		WindowIndex index = new WindowIndex();
+		index.add(1L, DAY, 500);
+		index.add(2L, DAY, 300);
+		index.add(2L, DAY.plusDays(1), 200);
+		index.add(3L, DAY.plusDays(1), 400);
+		// 기간 밖의 기록은 순위에 들어가지 않음
+		index.add(4L, DAY.minusDays(1), 10_000);
+
+		List<Leaderboard.Entry> top = index.top(DAY, DAY.plusDays(1), 3, -1L, Map.of(3L, 100L, 9L, 50L));
+
+		// 1번과 2번은 500초 동점 → userId 순, 3번은 진행 중인 세션을 더해 500초
+		assertThat(top).containsExactly(
+				new Leaderboard.Entry(1L, 500L), new Leaderboard.Entry(2L, 500L), new Leaderboard.Entry(3L, 500L));
+	}
+
+	@Test
+	void topRespectsLimitExclusionAndUsersOnlyInExtra() {
+		WindowIndex index = new WindowIndex();
+		index.add(1L, DAY, 100);
+		index.add(2L, DAY, 200);
+		index.add(3L, DAY, 300);
+
+		List<Leaderboard.Entry> top = index.top(DAY, DAY, 2, 3L, Map.of(7L, 150L));
+
+		assertThat(top).containsExactly(new Leaderboard.Entry(2L, 200L), new Leaderboard.Entry(7L, 150L));
+		assertThat(index.top(DAY, DAY, 0, -1L, Map.of())).isEmpty();
+		// 기간에 기록이 없으면 빈 목록
+		assertThat(index.top(DAY.plusDays(1), DAY.plusDays(2), 10, -1L, Map.of())).isEmpty();
+	}
+}
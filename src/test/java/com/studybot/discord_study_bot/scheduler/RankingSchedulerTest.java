@@ -0,0 +1,72 @@
+package com.studybot.discord_study_bot.scheduler;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Instant;
+import java.time.LocalTime;
+import java.time.ZoneId;
+import java.time.ZonedDateTime;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class RankingSchedulerTest {
+
+	private static final LocalTime WEEKLY = LocalTime.of(10, 0);
+	private static final LocalTime EVENT = LocalTime.of(10, 30);
+
+	// 2025-10-06은 월요일
+	private static ZonedDateTime at(String instant, String zone) {
+		return Instant.parse(instant).atZone(ZoneId.of(zone));
+	}
+
+	@Test
+	void halfHourOffsetZoneIsDueAtLocalTen() {
+		// 서버(UTC) 04:30 = 콜카타 10:00
+		assertThat(RankingScheduler.isDue(at("2025-10-06T04:30:00Z", "Asia/Kolkata"), WEEKLY)).isTrue();
+		// 서버 정각 실행(04:00 UTC = 콜카타 9:30)에서는 아직 아님
+		assertThat(RankingScheduler.isDue(at("2025-10-06T04:00:00Z", "Asia/Kolkata"), WEEKLY)).isFalse();
+		// 서버 05:00 = 콜카타 10:30 (이벤트 랭킹 시각)
+		assertThat(RankingScheduler.isDue(at("2025-10-06T05:00:00Z", "Asia/Kolkata"), EVENT)).isTrue();
+		assertThat(RankingScheduler.isDue(at("2025-10-06T05:00:00Z", "Asia/Kolkata"), WEEKLY)).isFalse();
+	}
+
+	@Test
+	void quarterHourOffsetZoneIsDueAtLocalTen() {
+		// 네팔(UTC+5:45): 04:15 UTC = 10:00
+		assertThat(RankingScheduler.isDue(at("2025-10-06T04:15:00Z", "Asia/Kathmandu"), WEEKLY)).isTrue();
+		assertThat(RankingScheduler.isDue(at("2025-10-06T04:10:00Z", "Asia/Kathmandu"), WEEKLY)).isFalse();
+	}
+
+	@Test
+	void onlyOneTickFallsInsideTheWindow() {
+		ZonedDateTime tenOClock = at("2025-10-06T01:00:00Z", "Asia/Seoul");
+		assertThat(RankingScheduler.isDue(tenOClock, WEEKLY)).isTrue();
+		assertThat(RankingScheduler.isDue(tenOClock.plusSeconds(3), WEEKLY)).isTrue();
+		assertThat(RankingScheduler.isDue(tenOClock.plus(RankingScheduler.TICK), WEEKLY)).isFalse();
+		assertThat(RankingScheduler.isDue(tenOClock.minus(RankingScheduler.TICK), WEEKLY)).isFalse();
+	}
+
+	@Test
+	void postStaysDueForTheRestOfMondayAfterAMissedTick() {
+		// 서울 월요일 10:00 실행을 놓치고 재시작 뒤 13:20에 실행
+		assertThat(RankingScheduler.isDueOrOverdue(at("2025-10-06T04:20:00Z", "Asia/Seoul"), WEEKLY)).isTrue();
+		assertThat(RankingScheduler.isDueOrOverdue(at("2025-10-06T01:00:00Z", "Asia/Seoul"), WEEKLY)).isTrue();
+		// 서울 월요일 23:55까지
+		assertThat(RankingScheduler.isDueOrOverdue(at("2025-10-06T14:55:00Z", "Asia/Seoul"), WEEKLY)).isTrue();
+		// 아직 9:55
+		assertThat(RankingScheduler.isDueOrOverdue(at("2025-10-06T00:55:00Z", "Asia/Seoul"), WEEKLY)).isFalse();
+		// 서울 화요일 00:00부터는 다음 주 월요일까지 기다림
+		assertThat(RankingScheduler.isDueOrOverdue(at("2025-10-06T15:00:00Z", "Asia/Seoul"), WEEKLY)).isFalse();
+		// 콜카타 10:15은 주간 랭킹은 지났지만 이벤트 랭킹(10:30)은 아직
+		assertThat(RankingScheduler.isDueOrOverdue(at("2025-10-06T04:45:00Z", "Asia/Kolkata"), WEEKLY)).isTrue();
+		assertThat(RankingScheduler.isDueOrOverdue(at("2025-10-06T04:45:00Z", "Asia/Kolkata"), EVENT)).isFalse();
+	}
+
+	@Test
+	void notDueOnOtherDays() {
+		// 서울 화요일 10:00
+		assertThat(RankingScheduler.isDue(at("2025-10-07T01:00:00Z", "Asia/Seoul"), WEEKLY)).isFalse();
+		// UTC로는 월요일이지만 오클랜드는 화요일
+		assertThat(RankingScheduler.isDue(at("2025-10-06T21:00:00Z", "Pacific/Auckland"), WEEKLY)).isFalse();
+	}
+}
@@ -0,0 +1,141 @@
+package com.studybot.discord_study_bot.scheduler;
+
+import com.studybot.discord_study_bot.service.DailyRollupService;
+import com.studybot.discord_study_bot.service.StudySessionManager;
+import com.studybot.discord_study_bot.session.StudySession;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import net.dv8tion.jda.api.JDA;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class SessionReaperSchedulerTest {
+
+	private static final long GUILD = 100L;
+	private static final LocalDateTime START = LocalDateTime.now().minusDays(2).truncatedTo(ChronoUnit.SECONDS);
+	private static final LocalDateTime CAPPED_END = START.plusHours(12);
+
+	private final StudySessionManager sessionManager = mock(StudySessionManager.class);
+	private final DailyRollupService dailyRollupService = mock(DailyRollupService.class);
+	private final FakeJdbcTemplate jdbcTemplate = new FakeJdbcTemplate();
+	private SessionReaperScheduler reaper;
+
+	@BeforeEach
+	void setUp() {
+		// 세그먼트가 하나라 매 sweep마다 인덱스를 한 바퀴 돌고 DB 정리까지 실행됨
+		when(sessionManager.getSegmentCount()).thenReturn(1);
+		reaper = new SessionReaperScheduler(mock(JDA.class), sessionManager, jdbcTemplate,
+				new TransactionTemplate(mock(PlatformTransactionManager.class)), dailyRollupService,
+				new SimpleMeterRegistry(), 1, 12);
+	}
+
+	private static ResultSet row(long id, Long guildId, long userId) throws SQLException {
+		ResultSet rs = mock(ResultSet.class);
+		when(rs.getLong("id")).thenReturn(id);
+		when(rs.getObject("guild_id", Long.class)).thenReturn(guildId);
+		when(rs.getLong("user_id")).thenReturn(userId);
+		when(rs.getObject("channel_id", Long.class)).thenReturn(7L);
+		when(rs.getTimestamp("start_time")).thenReturn(Timestamp.valueOf(START));
+		return rs;
+	}
+
+	@Test
+	void staleRowsAreCappedAtMaxLengthAndRowsWithRegisteredSessionAreSkipped() throws SQLException {
+		jdbcTemplate.staleRows.add(row(1L, GUILD, 10L));
+		jdbcTemplate.staleRows.add(row(2L, GUILD, 11L));
+		// guild_id가 없는 레거시 기록
+		jdbcTemplate.staleRows.add(row(3L, null, 12L));
+		// 10번 사용자는 종료 유예 중인 세션이 아직 인덱스에 있음
+		when(sessionManager.getSession(GUILD, 10L)).thenReturn(new StudySession(GUILD, 10L));
+
+		reaper.sweep();
+
+		assertThat(jdbcTemplate.closedIds()).containsExactly(2L, 3L);
+		assertThat(jdbcTemplate.closes).allSatisfy(args -> assertThat(args[0]).isEqualTo(Timestamp.valueOf(CAPPED_END)));
+		// 레거시 기록은 닫기만 하고 집계에서 제외
+		verify(dailyRollupService).addClosedLogs(
+				List.of(new DailyRollupService.ClosedLog(GUILD, 11L, START, CAPPED_END, 7L)));
+	}
+
+	@Test
+	void rowsClosedConcurrentlyAreNotRolledUpTwice() throws SQLException {
+		jdbcTemplate.staleRows.add(row(1L, GUILD, 10L));
+		jdbcTemplate.staleRows.add(row(2L, GUILD, 11L));
+		// 조회와 UPDATE 사이에 flush가 먼저 닫은 기록
+		jdbcTemplate.alreadyClosed.add(1L);
+
+		reaper.sweep();
+
+		assertThat(jdbcTemplate.closedIds()).containsExactly(1L, 2L);
+		verify(dailyRollupService).addClosedLogs(
+				List.of(new DailyRollupService.ClosedLog(GUILD, 11L, START, CAPPED_END, 7L)));
+	}
+
+	@Test
+	void nothingIsWrittenWhenEveryStaleRowBelongsToARegisteredSession() throws SQLException {
+		jdbcTemplate.staleRows.add(row(1L, GUILD, 10L));
+		when(sessionManager.getSession(GUILD, 10L)).thenReturn(new StudySession(GUILD, 10L));
+
+		reaper.sweep();
+
+		assertThat(jdbcTemplate.closes).isEmpty();
+		verify(dailyRollupService, never()).addClosedLogs(any());
+	}
+
+	/**
+	 * 오래된 열린 기록 조회와 id별 종료 UPDATE만 흉내 내는 JdbcTemplate
+	 */
+	private static class FakeJdbcTemplate extends JdbcTemplate {
+
+		private final List<ResultSet> staleRows = new ArrayList<>();
+		private final Set<Long> alreadyClosed = new HashSet<>();
+		private final List<Object[]> closes = new ArrayList<>();
+
+		@Override
+		public <T> List<T> query(String sql, RowMapper<T> rowMapper, Object... args) {
+			List<T> mapped = new ArrayList<>();
+			try {
+				for (int i = 0; i < staleRows.size(); i++) {
+					mapped.add(rowMapper.mapRow(staleRows.get(i), i));
+				}
+			} catch (SQLException e) {
+				throw new IllegalStateException(e);
+			}
+			return mapped;
+		}
+
+		@Override
+		public int[] batchUpdate(String sql, List<Object[]> batchArgs) {
+			closes.addAll(batchArgs);
+			int[] updated = new int[batchArgs.size()];
+			for (int i = 0; i < updated.length; i++) {
+				updated[i] = alreadyClosed.contains((Long) batchArgs.get(i)[1]) ? 0 : 1;
+			}
+			return updated;
+		}
+
+		private List<Long> closedIds() {
+			return closes.stream().map(args -> (Long) args[1]).toList();
+		}
+	}
+}
@@ -0,0 +1,119 @@
+package com.studybot.discord_study_bot.service;
+
+import com.studybot.discord_study_bot.entity.StudyDailyAgg;
+import org.junit.jupiter.api.Test;
+
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class DailyRollupServiceTest {
+
+	private static final long GUILD = 1L;
+	private static final long USER = 2L;
+
+	private static Map<StudyDailyAgg.Key, long[]> split(String zoneId, LocalDateTime start, LocalDateTime end) {
+		ZoneId zone = ZoneId.of(zoneId);
+		return split(zone, start.atZone(zone).toInstant(), end.atZone(zone).toInstant());
+	}
+
+	private static Map<StudyDailyAgg.Key, long[]> split(ZoneId zone, Instant start, Instant end) {
+		Map<StudyDailyAgg.Key, long[]> totals = new HashMap<>();
+		DailyRollupService.splitByDay(GUILD, USER, start, end, zone, totals);
+		return totals;
+	}
+
+	private static long[] day(Map<StudyDailyAgg.Key, long[]> totals, LocalDate day) {
+		return totals.get(new StudyDailyAgg.Key(GUILD, USER, day));
+	}
+
+	@Test
+	void sessionWithinOneDayIsOnePiece() {
+		Map<StudyDailyAgg.Key, long[]> totals = split("Asia/Seoul",
+				LocalDateTime.of(2025, 10, 6, 9, 0), LocalDateTime.of(2025, 10, 6, 11, 30));
+
+		assertThat(totals).hasSize(1);
+		assertThat(day(totals, LocalDate.of(2025, 10, 6))).containsExactly(9_000L, 1L);
+	}
+
+	@Test
+	void sessionAcrossMidnightsIsSplitPerLocalDay() {
+		Map<StudyDailyAgg.Key, long[]> totals = split("Asia/Seoul",
+				LocalDateTime.of(2025, 10, 6, 23, 0), LocalDateTime.of(2025, 10, 8, 0, 30));
+
+		assertThat(totals).hasSize(3);
+		assertThat(day(totals, LocalDate.of(2025, 10, 6))).containsExactly(3_600L, 1L);
+		assertThat(day(totals, LocalDate.of(2025, 10, 7))).containsExactly(86_400L, 1L);
+		assertThat(day(totals, LocalDate.of(2025, 10, 8))).containsExactly(1_800L, 1L);
+	}
+
+	@Test
+	void sessionEndingExactlyAtMidnightDoesNotTouchNextDay() {
+		Map<StudyDailyAgg.Key, long[]> totals = split("Asia/Seoul",
+				LocalDateTime.of(2025, 10, 6, 22, 0), LocalDateTime.of(2025, 10, 7, 0, 0));
+
+		assertThat(totals).hasSize(1);
+		assertThat(day(totals, LocalDate.of(2025, 10, 6))).containsExactly(7_200L, 1L);
+	}
+
+	@Test
+	void emptyOrReversedSessionAddsNothing() {
+		Instant at = Instant.parse("2025-10-06T00:00:00Z");
+
+		assertThat(split(ZoneId.of("UTC"), at, at)).isEmpty();
+		assertThat(split(ZoneId.of("UTC"), at, at.minusSeconds(60))).isEmpty();
+	}
+
+	@Test
+	void piecesAreAddedToExistingTotals() {
+		ZoneId zone = ZoneId.of("UTC");
+		Map<StudyDailyAgg.Key, long[]> totals = new HashMap<>();
+		DailyRollupService.splitByDay(GUILD, USER, Instant.parse("2025-10-06T01:00:00Z"),
+				Instant.parse("2025-10-06T02:00:00Z"), zone, totals);
+		DailyRollupService.splitByDay(GUILD, USER, Instant.parse("2025-10-06T23:00:00Z"),
+				Instant.parse("2025-10-07T01:00:00Z"), zone, totals);
+
+		assertThat(day(totals, LocalDate.of(2025, 10, 6))).containsExactly(7_200L, 2L);
+		assertThat(day(totals, LocalDate.of(2025, 10, 7))).containsExactly(3_600L, 1L);
+	}
+
+	@Test
+	void springForwardDayHas23Hours() {
+		// 2025-03-30 02:00 → 03:00 (CET → CEST)
+		Map<StudyDailyAgg.Key, long[]> totals = split("Europe/Berlin",
+				LocalDateTime.of(2025, 3, 30, 0, 0), LocalDateTime.of(2025, 3, 31, 0, 0));
+
+		assertThat(day(totals, LocalDate.of(2025, 3, 30))).containsExactly(23 * 3_600L, 1L);
+	}
+
+	@Test
+	void fallBackDayHas25Hours() {
+		// 2025-10-26 03:00 → 02:00 (CEST → CET)
+		Map<StudyDailyAgg.Key, long[]> totals = split("Europe/Berlin",
+				LocalDateTime.of(2025, 10, 25, 23, 0), LocalDateTime.of(2025, 10, 27, 1, 0));
+
+		assertThat(day(totals, LocalDate.of(2025, 10, 25))).containsExactly(3_600L, 1L);
+		assertThat(day(totals, LocalDate.of(2025, 10, 26))).containsExactly(25 * 3_600L, 1L);
+		assertThat(day(totals, LocalDate.of(2025, 10, 27))).containsExactly(3_600L, 1L);
+	}
+
+	@Test
+	void dayStartingInsideDstGapBeginsAtFirstValidInstant() {
+		// 칠레는 2023-09-03 00:00에 01:00으로 넘어가므로 그날은 01:00에 시작
+		ZoneId santiago = ZoneId.of("America/Santiago");
+		Instant start = LocalDateTime.of(2023, 9, 2, 22, 0).atZone(santiago).toInstant();
+		Instant end = LocalDateTime.of(2023, 9, 3, 3, 0).atZone(santiago).toInstant();
+
+		Map<StudyDailyAgg.Key, long[]> totals = split(santiago, start, end);
+
+		// 실제 경과 시간은 4시간: 9/2 22:00~24:00 (2시간), 9/3 01:00~03:00 (2시간)
+		assertThat(totals).hasSize(2);
+		assertThat(day(totals, LocalDate.of(2023, 9, 2))).containsExactly(7_200L, 1L);
+		assertThat(day(totals, LocalDate.of(2023, 9, 3))).containsExactly(7_200L, 1L);
+	}
+}
@@ -0,0 +1,113 @@
+package com.studybot.discord_study_bot.service;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+
+class StudyLogWriteBehindServiceTest {
+
+	private static final long GUILD = 100L;
+	private static final long USER = 10L;
+	private static final Long CHANNEL = 7L;
+	private static final LocalDateTime START = LocalDateTime.of(2025, 10, 6, 9, 0);
+	private static final LocalDateTime END = START.plusHours(2);
+
+	@TempDir
+	Path dir;
+
+	private StudyLogWriteBehindService service(FakeJdbcTemplate jdbcTemplate, DailyRollupService dailyRollupService) {
+		return new StudyLogWriteBehindService(jdbcTemplate,
+				new TransactionTemplate(mock(PlatformTransactionManager.class)), dailyRollupService,
+				mock(LeaderboardService.class), new SimpleMeterRegistry(),
+				100, 500, 500, 2000, dir.resolve("study-log.spill").toString(), 30_000);
+	}
+
+	@Test
+	void openAndCloseInOneBatchBecomeOneClosedInsert() {
+		FakeJdbcTemplate jdbcTemplate = new FakeJdbcTemplate();
+		DailyRollupService dailyRollupService = mock(DailyRollupService.class);
+		StudyLogWriteBehindService service = service(jdbcTemplate, dailyRollupService);
+
+		service.enqueueOpen(GUILD, "스터디", CHANNEL, USER, "공부왕", START);
+		service.enqueueClose(GUILD, CHANNEL, USER, START, END);
+		service.shutdown();
+
+		// UPDATE 없이 종료 시각이 채워진 INSERT 한 건
+		assertThat(jdbcTemplate.statements).containsExactly(StudyLogWriteBehindService.INSERT_SQL);
+		assertThat(jdbcTemplate.rows).hasSize(1);
+		// created_at을 뺀 열
+		assertThat(Arrays.copyOf(jdbcTemplate.rows.get(0), 7)).containsExactly(
+				GUILD, "스터디", CHANNEL, USER, "공부왕", Timestamp.valueOf(START), Timestamp.valueOf(END));
+		verify(dailyRollupService).addClosedLogs(
+				List.of(new DailyRollupService.ClosedLog(GUILD, USER, START, END, CHANNEL)));
+	}
+
+	@Test
+	void failedFlushIsSpilledAndReplayedAfterRestart() {
+		Path spillPath = dir.resolve("study-log.spill");
+
+		// DB가 계속 실패: 재시도 후 spill 파일에 남고 종료 때도 반영하지 못함
+		FakeJdbcTemplate down = new FakeJdbcTemplate();
+		down.failing = true;
+		DailyRollupService rollupWhileDown = mock(DailyRollupService.class);
+		StudyLogWriteBehindService first = service(down, rollupWhileDown);
+		first.enqueueOpen(GUILD, "스터디", CHANNEL, USER, "공부왕", START);
+		first.enqueueClose(GUILD, CHANNEL, USER, START, END);
+		first.shutdown();
+
+		assertThat(spillPath).exists();
+		assertThat(down.rows).isEmpty();
+		verify(rollupWhileDown, never()).addClosedLogs(any());
+
+		// 재시작: 남은 요청을 먼저 반영하고 spill 파일을 지움
+		FakeJdbcTemplate up = new FakeJdbcTemplate();
+		DailyRollupService rollup = mock(DailyRollupService.class);
+		StudyLogWriteBehindService second = service(up, rollup);
+		second.shutdown();
+
+		assertThat(up.statements).containsExactly(StudyLogWriteBehindService.INSERT_SQL);
+		assertThat(up.rows.get(0)[6]).isEqualTo(Timestamp.valueOf(END));
+		verify(rollup).addClosedLogs(List.of(new DailyRollupService.ClosedLog(GUILD, USER, START, END, CHANNEL)));
+		assertThat(Files.exists(spillPath)).isFalse();
+	}
+
+	/**
+	 * 배치 INSERT/UPDATE만 기록하는 JdbcTemplate (failing이면 DB 장애처럼 실패)
+	 */
+	private static class FakeJdbcTemplate extends JdbcTemplate {
+
+		private final List<String> statements = new ArrayList<>();
+		private final List<Object[]> rows = new ArrayList<>();
+		private volatile boolean failing;
+
+		@Override
+		public synchronized int[] batchUpdate(String sql, List<Object[]> batchArgs) {
+			if (failing) {
+				throw new DataAccessResourceFailureException("DB 연결 끊김");
+			}
+			statements.add(sql);
+			rows.addAll(batchArgs);
+			int[] updated = new int[batchArgs.size()];
+			Arrays.fill(updated, 1);
+			return updated;
+		}
+	}
+}
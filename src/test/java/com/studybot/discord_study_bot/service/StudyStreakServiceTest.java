@@ -0,0 +1,56 @@
+package com.studybot.discord_study_bot.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class StudyStreakServiceTest {
+
+	private static final LocalDate DAY = LocalDate.of(2025, 10, 1);
+
+	private static StudyStreakService.Streak streakOf(int... offsets) {
+		return StudyStreakService.Streak.of(Arrays.stream(offsets).mapToObj(DAY::plusDays).toList());
+	}
+
+	@Test
+	void noDaysIsEmptyStreak() {
+		assertThat(StudyStreakService.Streak.of(List.of())).isEqualTo(new StudyStreakService.Streak(null, 0, 0));
+	}
+
+	@Test
+	void singleDayStartsStreakOfOne() {
+		assertThat(streakOf(0)).isEqualTo(new StudyStreakService.Streak(DAY, 1, 1));
+	}
+
+	@Test
+	void gapResetsCurrentButKeepsLongest() {
+		// 3일 연속 → 하루 쉬고 → 2일 연속
+		assertThat(streakOf(0, 1, 2, 4, 5)).isEqualTo(new StudyStreakService.Streak(DAY.plusDays(5), 2, 3));
+	}
+
+	@Test
+	void latestRunCanBeLongest() {
+		assertThat(streakOf(0, 2, 3, 4, 5)).isEqualTo(new StudyStreakService.Streak(DAY.plusDays(5), 4, 4));
+	}
+
+	@Test
+	void streakContinuesAcrossMonthAndYearBoundaries() {
+		List<LocalDate> days = List.of(LocalDate.of(2024, 12, 30), LocalDate.of(2024, 12, 31),
+				LocalDate.of(2025, 1, 1), LocalDate.of(2025, 2, 28), LocalDate.of(2025, 3, 1));
+
+		assertThat(StudyStreakService.Streak.of(days))
+				.isEqualTo(new StudyStreakService.Streak(LocalDate.of(2025, 3, 1), 2, 3));
+	}
+
+	@Test
+	void leapDayIsPartOfTheStreak() {
+		List<LocalDate> days = List.of(LocalDate.of(2024, 2, 28), LocalDate.of(2024, 2, 29), LocalDate.of(2024, 3, 1));
+
+		assertThat(StudyStreakService.Streak.of(days))
+				.isEqualTo(new StudyStreakService.Streak(LocalDate.of(2024, 3, 1), 3, 3));
+	}
+}
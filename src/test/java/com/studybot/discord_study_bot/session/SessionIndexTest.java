@@ -0,0 +1,139 @@
+package com.studybot.discord_study_bot.session;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.SplittableRandom;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class SessionIndexTest {
+
+	private static final long GUILD = 1_234_567_890_123_456_789L;
+	// 처음 세그먼트 크기 (SessionIndex.INITIAL_SEGMENT_CAPACITY)
+	private static final int INITIAL_MASK = 63;
+
+	/**
+	 * 세그먼트 0에서 home 슬롯이 home인 userId를 count개 찾음
+	 */
+	private static List<Long> usersWithHome(int home, int count) {
+		List<Long> users = new ArrayList<>();
+		for (long userId = 1; users.size() < count; userId++) {
+			long hash = SessionIndex.hash(GUILD, userId);
+			if (hash >>> 60 == 0 && ((int) hash & INITIAL_MASK) == home) {
+				users.add(userId);
+			}
+		}
+		return users;
+	}
+
+	@Test
+	void getOrCreateReturnsSameSessionForSameKey() {
+		SessionIndex index = new SessionIndex();
+		StudySession session = index.getOrCreate(GUILD, 42L);
+
+		assertThat(index.getOrCreate(GUILD, 42L)).isSameAs(session);
+		assertThat(index.get(GUILD, 42L)).isSameAs(session);
+		assertThat(index.get(GUILD, 43L)).isNull();
+		assertThat(index.get(GUILD + 1, 42L)).isNull();
+		assertThat(index.size()).isEqualTo(1);
+	}
+
+	@Test
+	void removeKeepsCollidingChainReachableAcrossWraparound() {
+		// 마지막 슬롯(63)에 모이는 키 셋: 63, 0, 1번 칸에 들어감
+		List<Long> lastSlot = usersWithHome(INITIAL_MASK, 3);
+		// 원래 0번 칸인 키: 앞의 체인에 밀려 2번 칸에 들어감
+		long firstSlot = usersWithHome(0, 1).get(0);
+
+		SessionIndex index = new SessionIndex();
+		Map<Long, StudySession> sessions = new HashMap<>();
+		for (long userId : lastSlot) {
+			sessions.put(userId, index.getOrCreate(GUILD, userId));
+		}
+		sessions.put(firstSlot, index.getOrCreate(GUILD, firstSlot));
+
+		// 체인 맨 앞을 지우면 뒤의 항목들이 테이블 끝을 넘어 당겨져야 함
+		assertThat(index.remove(GUILD, lastSlot.get(0))).isSameAs(sessions.remove(lastSlot.get(0)));
+		sessions.forEach((userId, session) -> assertThat(index.get(GUILD, userId)).isSameAs(session));
+
+		// 테이블 끝(63)으로 당겨진 항목을 지워도 남은 체인을 찾을 수 있어야 함
+		assertThat(index.remove(GUILD, lastSlot.get(1))).isSameAs(sessions.remove(lastSlot.get(1)));
+		sessions.forEach((userId, session) -> assertThat(index.get(GUILD, userId)).isSameAs(session));
+
+		assertThat(index.remove(GUILD, firstSlot)).isSameAs(sessions.remove(firstSlot));
+		assertThat(index.get(GUILD, lastSlot.get(2))).isSameAs(sessions.get(lastSlot.get(2)));
+		assertThat(index.size()).isEqualTo(1);
+	}
+
+	@Test
+	void removeDoesNotMoveEntryBeforeItsHomeSlot() {
+		List<Long> lastSlot = usersWithHome(INITIAL_MASK, 2);
+		long firstSlot = usersWithHome(0, 1).get(0);
+		SessionIndex index = new SessionIndex();
+		index.getOrCreate(GUILD, lastSlot.get(0)); // 63번 칸
+		index.getOrCreate(GUILD, lastSlot.get(1)); // 0번 칸
+		StudySession home = index.getOrCreate(GUILD, firstSlot); // 1번 칸
+
+		index.remove(GUILD, lastSlot.get(0));
+		// wrapped는 63번 칸, home은 0번 칸으로 당겨짐. wrapped를 지우면 home은 0번 칸(home)에 남아야 함
+		index.remove(GUILD, lastSlot.get(1));
+
+		assertThat(index.get(GUILD, firstSlot)).isSameAs(home);
+		assertThat(index.get(GUILD, lastSlot.get(0))).isNull();
+		assertThat(index.get(GUILD, lastSlot.get(1))).isNull();
+		assertThat(index.size()).isEqualTo(1);
+	}
+
+	@Test
+	void removeOfMissingKeyStopsAtEmptySlot() {
+		List<Long> users = usersWithHome(INITIAL_MASK, 3);
+		SessionIndex index = new SessionIndex();
+		index.getOrCreate(GUILD, users.get(0));
+		index.getOrCreate(GUILD, users.get(1));
+
+		assertThat(index.remove(GUILD, users.get(2))).isNull();
+		assertThat(index.size()).isEqualTo(2);
+	}
+
+	@Test
+	void removeSessionOnlyRemovesRegisteredInstance() {
+		SessionIndex index = new SessionIndex();
+		StudySession registered = index.getOrCreate(GUILD, 7L);
+
+		assertThat(index.remove(new StudySession(GUILD, 7L))).isFalse();
+		assertThat(index.get(GUILD, 7L)).isSameAs(registered);
+		assertThat(index.remove(registered)).isTrue();
+		assertThat(index.get(GUILD, 7L)).isNull();
+		assertThat(index.remove(registered)).isFalse();
+	}
+
+	@Test
+	void matchesHashMapUnderRandomInsertsAndRemovesWithResize() {
+		SessionIndex index = new SessionIndex();
+		Map<List<Long>, StudySession> expected = new HashMap<>();
+		SplittableRandom random = new SplittableRandom(20251006L);
+
+		// 세그먼트당 48개를 넘으면 확장되므로 수천 개의 키를 사용
+		for (int i = 0; i < 50_000; i++) {
+			long guildId = GUILD + random.nextInt(3);
+			long userId = random.nextInt(4_000);
+			List<Long> key = List.of(guildId, userId);
+			if (random.nextInt(3) == 0) {
+				assertThat(index.remove(guildId, userId)).isSameAs(expected.remove(key));
+			} else {
+				StudySession session = index.getOrCreate(guildId, userId);
+				assertThat(expected.computeIfAbsent(key, k -> session)).isSameAs(session);
+			}
+		}
+
+		assertThat(index.size()).isEqualTo(expected.size());
+		expected.forEach((key, session) -> assertThat(index.get(key.get(0), key.get(1))).isSameAs(session));
+		List<StudySession> visited = new ArrayList<>();
+		index.forEach(visited::add);
+		assertThat(visited).hasSize(expected.size());
+	}
+}
@@ -0,0 +1,106 @@
+package com.studybot.discord_study_bot.session;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.within;
+
+class SessionJournalTest {
+
+	private static final LocalDateTime T = LocalDateTime.of(2025, 10, 6, 9, 0);
+	// 헤더 64바이트 뒤에 32바이트 레코드가 이어짐
+	private static final int HEADER_SIZE = 64;
+	private static final int RECORD_SIZE = 32;
+
+	@TempDir
+	Path dir;
+
+	private SessionJournal open() {
+		SessionJournal journal = new SessionJournal(dir.resolve("session.journal").toString(), 1, "always", 1000);
+		journal.open();
+		return journal;
+	}
+
+	/**
+	 * 다시 시작한 것처럼 저널을 새로 열어 재생
+	 */
+	private SessionJournal.Replay replayAfterRestart() {
+		SessionJournal journal = open();
+		try {
+			return journal.replay();
+		} finally {
+			journal.close();
+		}
+	}
+
+	@Test
+	void replayReturnsSessionsLeftOpenByThePreviousProcess() {
+		SessionJournal previous = open();
+		previous.recordOpen(1L, 10L, T);
+		previous.recordOpen(1L, 11L, T.plusMinutes(5));
+		previous.recordClose(1L, 10L, T.plusHours(1));
+		previous.recordOpen(2L, 10L, T.plusMinutes(10));
+		// 같은 사용자가 다시 열면 마지막 시작 시각만 남음
+		previous.recordClose(1L, 11L, T.plusMinutes(20));
+		previous.recordOpen(1L, 11L, T.plusMinutes(30));
+		previous.close();
+
+		SessionJournal.Replay replay = replayAfterRestart();
+
+		assertThat(replay.openSessions()).containsExactlyInAnyOrder(
+				new SessionJournal.OpenSession(1L, 11L, T.plusMinutes(30)),
+				new SessionJournal.OpenSession(2L, 10L, T.plusMinutes(10)));
+		// 종료할 때 남긴 생존 시각
+		assertThat(replay.lastAlive()).isCloseTo(LocalDateTime.now(), within(1, ChronoUnit.MINUTES));
+	}
+
+	@Test
+	void tornTailRecordIsIgnored() throws IOException {
+		SessionJournal previous = open();
+		previous.recordOpen(1L, 10L, T);
+		previous.recordOpen(1L, 11L, T);
+		previous.recordClose(1L, 10L, T.plusHours(1));
+		previous.close();
+
+		// 마지막 레코드(닫기)의 checksum을 망가뜨림: 기록 도중 죽은 것과 같음
+		try (RandomAccessFile file = new RandomAccessFile(dir.resolve("session.journal").toFile(), "rw")) {
+			file.seek(HEADER_SIZE + 2L * RECORD_SIZE + 28);
+			file.writeInt(0);
+		}
+
+		SessionJournal journal = open();
+		assertThat(journal.replay().openSessions()).containsExactlyInAnyOrder(
+				new SessionJournal.OpenSession(1L, 10L, T),
+				new SessionJournal.OpenSession(1L, 11L, T));
+
+		// 버린 자리에 이어 쓴 기록은 다음 재생에 그대로 보임
+		journal.recordClose(1L, 10L, T.plusHours(2));
+		journal.close();
+		assertThat(replayAfterRestart().openSessions()).containsExactly(new SessionJournal.OpenSession(1L, 11L, T));
+	}
+
+	@Test
+	void compactionKeepsOnlyOpenSessions() throws IOException {
+		SessionJournal journal = open();
+		for (long user = 1; user <= 100; user++) {
+			journal.recordOpen(1L, user, T);
+			if (user != 42) {
+				journal.recordClose(1L, user, T.plusHours(1));
+			}
+		}
+		journal.compact();
+		journal.recordOpen(2L, 7L, T.plusHours(2));
+		journal.close();
+
+		assertThat(replayAfterRestart().openSessions()).containsExactlyInAnyOrder(
+				new SessionJournal.OpenSession(1L, 42L, T),
+				new SessionJournal.OpenSession(2L, 7L, T.plusHours(2)));
+	}
+}
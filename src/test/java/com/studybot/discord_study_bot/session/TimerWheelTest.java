@@ -0,0 +1,94 @@
+package com.studybot.discord_study_bot.session;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class TimerWheelTest {
+
+	@Test
+	void wheelSizeIsRoundedUpToPowerOfTwoAndMultiRoundTimersWaitTheirFullDelay() throws InterruptedException {
+		// 슬롯 3개 → 4개. 5ms tick이면 20ms마다 한 바퀴이므로 긴 지연은 여러 바퀴를 돎
+		long[] delaysMillis = {5, 25, 45, 70, 130, 250};
+		Map<Long, Long> scheduledAt = new ConcurrentHashMap<>();
+		Map<Long, Long> firedAt = new ConcurrentHashMap<>();
+		List<Long> order = new CopyOnWriteArrayList<>();
+		CountDownLatch fired = new CountDownLatch(delaysMillis.length);
+		TimerWheel<Long> wheel = new TimerWheel<>("test-wheel", 5, TimeUnit.MILLISECONDS, 3, delay -> {
+			firedAt.put(delay, System.nanoTime());
+			order.add(delay);
+			fired.countDown();
+		});
+		try {
+			for (int i = delaysMillis.length - 1; i >= 0; i--) {
+				scheduledAt.put(delaysMillis[i], System.nanoTime());
+				wheel.schedule(delaysMillis[i], delaysMillis[i], TimeUnit.MILLISECONDS);
+			}
+
+			assertThat(fired.await(5, TimeUnit.SECONDS)).isTrue();
+			// 지연보다 일찍 만료되지 않음 (다음 바퀴에 같은 슬롯을 지나도 rounds가 남아 있으면 건너뜀)
+			for (long delay : delaysMillis) {
+				assertThat(firedAt.get(delay) - scheduledAt.get(delay))
+						.isGreaterThanOrEqualTo(TimeUnit.MILLISECONDS.toNanos(delay));
+			}
+			assertThat(order).containsExactly(5L, 25L, 45L, 70L, 130L, 250L);
+			assertThat(wheel.pendingCount()).isEqualTo(0);
+		} finally {
+			wheel.stop();
+		}
+	}
+
+	@Test
+	void zeroDelayExpiresOnNextTick() throws InterruptedException {
+		CountDownLatch fired = new CountDownLatch(1);
+		TimerWheel<String> wheel = new TimerWheel<>("test-wheel", 1, TimeUnit.MILLISECONDS, 8, item -> fired.countDown());
+		try {
+			wheel.schedule("now", 0, TimeUnit.MILLISECONDS);
+			assertThat(fired.await(5, TimeUnit.SECONDS)).isTrue();
+		} finally {
+			wheel.stop();
+		}
+	}
+
+	@Test
+	void callbackCanRescheduleAndFailuresDoNotStopTheWheel() throws InterruptedException {
+		CountDownLatch fired = new CountDownLatch(2);
+		AtomicReference<TimerWheel<String>> holder = new AtomicReference<>();
+		holder.set(new TimerWheel<>("test-wheel", 1, TimeUnit.MILLISECONDS, 4, item -> {
+			if (item.equals("first")) {
+				holder.get().schedule("second", 10, TimeUnit.MILLISECONDS);
+				fired.countDown();
+				throw new IllegalStateException("콜백 실패");
+			}
+			fired.countDown();
+		}));
+		try {
+			holder.get().schedule("first", 2, TimeUnit.MILLISECONDS);
+			assertThat(fired.await(5, TimeUnit.SECONDS)).isTrue();
+		} finally {
+			holder.get().stop();
+		}
+	}
+
+	@Test
+	void stopReturnsItemsThatHaveNotExpired() {
+		TimerWheel<String> wheel = new TimerWheel<>("test-wheel", 10, TimeUnit.MILLISECONDS, 4, item -> {
+		});
+		wheel.schedule("later", 1, TimeUnit.HOURS);
+		wheel.schedule("much-later", 2, TimeUnit.HOURS);
+		assertThat(wheel.pendingCount()).isEqualTo(2);
+
+		List<String> remaining = wheel.stop();
+
+		assertThat(remaining).hasSize(2);
+		assertThat(wheel.pendingCount()).isEqualTo(0);
+	}
+}